@@ -0,0 +1,518 @@
+package com.jhaiian.attendify.admin;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.gson.Gson;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resumable APK downloader.
+ *
+ * The file is split into byte ranges ("chunks") that are fetched with HTTP
+ * Range requests, one connection per chunk, optionally in parallel. Data is
+ * written with positional FileChannel writes through a 64 KB buffer. Chunk
+ * progress is saved next to the file, so a failed or killed download resumes
+ * where it stopped instead of starting over. Progress callbacks run on the
+ * main thread at a fixed rate rather than per buffer.
+ *
+ * When an expected SHA-256 is set, the file is fetched as one range and the
+ * digest is updated from the same buffer that is written to disk, so the
+ * hash is ready as soon as the last byte arrives. Only a resumed prefix is
+ * re-read from disk once.
+ */
+public class ApkDownloader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long PROGRESS_INTERVAL_MS = 250;
+    private static final long STATE_SAVE_INTERVAL_BYTES = 1024 * 1024;
+    private static final long MIN_CHUNK_SIZE = 4L * 1024 * 1024;
+    private static final int MAX_PARALLEL_CHUNKS = 3;
+    private static final int MAX_RETRIES = 4;
+    private static final int CONNECT_TIMEOUT = 15000;
+    private static final int READ_TIMEOUT = 25000;
+
+    private static final Gson gson = new Gson();
+
+    private final String url;
+    private final File file;
+    private final File stateFile;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicLong downloaded = new AtomicLong();
+
+    private boolean parallel = true;
+    private String expectedSha256;
+    private MessageDigest digest;
+    private volatile boolean cancelled = false;
+    private volatile boolean running = false;
+    private DownloadState state;
+    private HttpURLConnection probeConnection;
+    private Listener listener;
+    private ExecutorService executor;
+
+    public interface Listener {
+        void onProgress(long downloadedBytes, long totalBytes);
+        void onComplete(File file);
+        void onError(String message);
+    }
+
+    public ApkDownloader(String url, File file) {
+        this.url = url;
+        this.file = file;
+        this.stateFile = stateFileFor(file);
+    }
+
+    /**
+     * Forgets any partial download of a file, so the next start fetches it
+     * from scratch. Call it before putting other bytes at that path.
+     */
+    public static void discardPartial(File file) {
+        stateFileFor(file).delete();
+    }
+
+    private static File stateFileFor(File file) {
+        return new File(file.getPath() + ".state");
+    }
+
+    /**
+     * Enables or disables fetching chunks over several connections. Defaults to true.
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Sets the hex SHA-256 (colons allowed) the finished file must match.
+     * A null hash disables verification.
+     */
+    public void setExpectedSha256(String expectedSha256) {
+        this.expectedSha256 = expectedSha256 != null
+                ? expectedSha256.replace(":", "").trim().toLowerCase()
+                : null;
+    }
+
+    public void start(Listener listener) {
+        if (running) return;
+        this.listener = listener;
+        this.cancelled = false;
+        this.running = true;
+
+        executor = Executors.newFixedThreadPool(MAX_PARALLEL_CHUNKS + 1);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                download();
+            }
+        });
+        mainHandler.postDelayed(progressRunnable, PROGRESS_INTERVAL_MS);
+    }
+
+    /**
+     * Stops the download; the partial file and its state are kept for resuming.
+     */
+    public void cancel() {
+        cancelled = true;
+        running = false;
+        mainHandler.removeCallbacks(progressRunnable);
+        if (executor != null) executor.shutdownNow();
+    }
+
+    private final Runnable progressRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (!running) return;
+            DownloadState current = state;
+            if (current != null) {
+                listener.onProgress(downloaded.get(), current.totalLength);
+            }
+            mainHandler.postDelayed(this, PROGRESS_INTERVAL_MS);
+        }
+    };
+
+    private void download() {
+        try {
+            state = loadState();
+            if (state == null || !url.equals(state.url) || !file.exists()) {
+                state = probe();
+            }
+
+            long done = 0;
+            for (Chunk chunk : state.chunks) done += chunk.downloaded;
+            downloaded.set(done);
+
+            if (expectedSha256 != null) {
+                digest = newDigest();
+                if (state.chunks.size() == 1) {
+                    hashFile(digest, state.chunks.get(0).downloaded);
+                }
+            }
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (final Chunk chunk : state.chunks) {
+                if (chunk.isComplete()) continue;
+                final HttpURLConnection connection = probeConnection;
+                probeConnection = null;
+                futures.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (connection != null) {
+                            readProbe(connection, chunk);
+                        }
+                        fetchChunkWithRetry(chunk);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            if (cancelled) return;
+            if (expectedSha256 != null) {
+                // A multi-chunk state left by an unverified run has no inline digest
+                if (state.chunks.size() > 1) hashFile(digest, file.length());
+                String actual = toHex(digest.digest());
+                if (!actual.equals(expectedSha256)) {
+                    stateFile.delete();
+                    file.delete();
+                    finish("Downloaded update is corrupted (SHA-256 mismatch)");
+                    return;
+                }
+            }
+            stateFile.delete();
+            finish(null);
+        } catch (Exception e) {
+            if (cancelled) return;
+            Throwable cause = e;
+            while (cause.getCause() != null) cause = cause.getCause();
+
+            if (cause instanceof RemoteChangedException) {
+                // Partial data is useless now; the next attempt starts fresh
+                stateFile.delete();
+                file.delete();
+            } else {
+                saveState();
+            }
+            finish(cause.toString());
+        }
+    }
+
+    /**
+     * Opens the first connection with an open-ended range. A 206 response
+     * gives the total length and confirms range support; a 200 means the
+     * server ignores ranges and the file is fetched as a single chunk.
+     * The connection stays open and is consumed by the first chunk.
+     */
+    private DownloadState probe() throws IOException {
+        HttpURLConnection connection = openConnection(0, -1, null);
+        boolean keepOpen = false;
+        try {
+            int code = connection.getResponseCode();
+            if (code != HttpURLConnection.HTTP_OK && code != HttpURLConnection.HTTP_PARTIAL) {
+                throw new IOException("HTTP " + code);
+            }
+
+            DownloadState newState = new DownloadState();
+            newState.url = url;
+            newState.etag = connection.getHeaderField("ETag");
+            newState.totalLength = parseTotalLength(connection);
+            newState.acceptsRanges = code == HttpURLConnection.HTTP_PARTIAL;
+
+            int chunkCount = 1;
+            if (parallel && expectedSha256 == null && newState.acceptsRanges && newState.totalLength > 0) {
+                chunkCount = (int) Math.max(1, Math.min(MAX_PARALLEL_CHUNKS, newState.totalLength / MIN_CHUNK_SIZE));
+            }
+
+            long chunkSize = newState.totalLength > 0 ? (newState.totalLength + chunkCount - 1) / chunkCount : -1;
+            for (int i = 0; i < chunkCount; i++) {
+                Chunk chunk = new Chunk();
+                chunk.start = i * Math.max(chunkSize, 0);
+                chunk.end = newState.totalLength > 0 ? Math.min(newState.totalLength, chunk.start + chunkSize) - 1 : -1;
+                newState.chunks.add(chunk);
+            }
+
+            file.getParentFile().mkdirs();
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(Math.max(newState.totalLength, 0));
+            }
+            state = newState;
+            saveState();
+
+            probeConnection = connection;
+            keepOpen = true;
+            return newState;
+        } finally {
+            if (!keepOpen) connection.disconnect();
+        }
+    }
+
+    /**
+     * Streams the first chunk from the probe connection. Failures are left to
+     * the normal retry path, which resumes from whatever was written.
+     */
+    private void readProbe(HttpURLConnection connection, Chunk chunk) {
+        try (InputStream input = connection.getInputStream()) {
+            writeChunk(chunk, input);
+        } catch (IOException e) {
+            saveState();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private void fetchChunkWithRetry(Chunk chunk) {
+        IOException lastError = null;
+        for (int attempt = 0; attempt <= MAX_RETRIES && !cancelled; attempt++) {
+            try {
+                fetchChunk(chunk);
+                return;
+            } catch (RemoteChangedException e) {
+                throw new RuntimeException(e);
+            } catch (IOException e) {
+                lastError = e;
+                saveState();
+                sleep(1000L << attempt);
+            }
+        }
+        if (!cancelled) throw new RuntimeException(lastError);
+    }
+
+    private void fetchChunk(Chunk chunk) throws IOException {
+        if (chunk.isComplete()) return;
+
+        // Servers without range support can only restart from zero
+        if (!state.acceptsRanges && chunk.downloaded > 0) {
+            downloaded.addAndGet(-chunk.downloaded);
+            chunk.downloaded = 0;
+            if (digest != null) digest.reset();
+        }
+
+        HttpURLConnection connection = openConnection(chunk.start + chunk.downloaded, chunk.end, state.etag);
+        try {
+            int code = connection.getResponseCode();
+            if (code == HttpURLConnection.HTTP_OK && chunk.start + chunk.downloaded > 0) {
+                // If-Range failed: the remote file changed since the partial download
+                throw new RemoteChangedException();
+            }
+            if (code != HttpURLConnection.HTTP_OK && code != HttpURLConnection.HTTP_PARTIAL) {
+                throw new IOException("HTTP " + code);
+            }
+            try (InputStream input = connection.getInputStream()) {
+                writeChunk(chunk, input);
+            }
+        } finally {
+            connection.disconnect();
+        }
+
+        if (!chunk.isComplete() && chunk.end >= 0) {
+            throw new IOException("Connection closed early");
+        }
+    }
+
+    private void writeChunk(Chunk chunk, InputStream input) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+        long sinceSave = 0;
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            FileChannel channel = raf.getChannel();
+            int count;
+            while (!cancelled && (count = readLimited(chunk, input, buffer)) > 0) {
+                byteBuffer.clear();
+                byteBuffer.limit(count);
+                long position = chunk.start + chunk.downloaded;
+                while (byteBuffer.hasRemaining()) {
+                    position += channel.write(byteBuffer, position);
+                }
+                if (digest != null && state.chunks.size() == 1) {
+                    digest.update(buffer, 0, count);
+                }
+
+                chunk.downloaded += count;
+                downloaded.addAndGet(count);
+                sinceSave += count;
+                if (sinceSave >= STATE_SAVE_INTERVAL_BYTES) {
+                    saveState();
+                    sinceSave = 0;
+                }
+            }
+
+            if (chunk.end < 0 && !cancelled) {
+                // Unknown length: the stream end is the file end
+                chunk.end = chunk.start + chunk.downloaded - 1;
+                state.totalLength = chunk.end + 1;
+            }
+        }
+    }
+
+    /**
+     * Reads at most the bytes still missing from the chunk.
+     */
+    private static int readLimited(Chunk chunk, InputStream input, byte[] buffer) throws IOException {
+        int max = buffer.length;
+        if (chunk.end >= 0) {
+            long remaining = chunk.end - chunk.start + 1 - chunk.downloaded;
+            if (remaining <= 0) return -1;
+            max = (int) Math.min(max, remaining);
+        }
+        return input.read(buffer, 0, max);
+    }
+
+    /**
+     * Feeds the first {@code length} bytes already on disk into the digest.
+     */
+    private void hashFile(MessageDigest md, long length) throws IOException {
+        if (length <= 0) return;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            FileChannel channel = raf.getChannel();
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long position = 0;
+            while (position < length) {
+                buffer.clear();
+                buffer.limit((int) Math.min(BUFFER_SIZE, length - position));
+                int read = channel.read(buffer, position);
+                if (read <= 0) break;
+                buffer.flip();
+                md.update(buffer);
+                position += read;
+            }
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    private HttpURLConnection openConnection(long from, long to, String etag) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT);
+        connection.setReadTimeout(READ_TIMEOUT);
+        connection.setRequestProperty("Accept-Encoding", "identity");
+        connection.setRequestProperty("Range", "bytes=" + from + "-" + (to >= 0 ? String.valueOf(to) : ""));
+        if (etag != null) {
+            connection.setRequestProperty("If-Range", etag);
+        }
+        return connection;
+    }
+
+    private static long parseTotalLength(HttpURLConnection connection) {
+        // Content-Range: bytes 0-1234/1235
+        String range = connection.getHeaderField("Content-Range");
+        if (range != null) {
+            int slash = range.lastIndexOf('/');
+            if (slash >= 0) {
+                try {
+                    return Long.parseLong(range.substring(slash + 1).trim());
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+        String length = connection.getHeaderField("Content-Length");
+        if (length != null) {
+            try {
+                return Long.parseLong(length.trim());
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return -1;
+    }
+
+    private DownloadState loadState() {
+        if (!stateFile.exists()) return null;
+        try (Reader json = FileIo.openText(stateFile)) {
+            DownloadState loaded = gson.fromJson(json, DownloadState.class);
+            return loaded != null && loaded.chunks != null && !loaded.chunks.isEmpty() ? loaded : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private synchronized void saveState() {
+        if (state != null) {
+            FileUtil.writeFile(stateFile.getAbsolutePath(), gson.toJson(state));
+        }
+    }
+
+    private void finish(final String error) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                running = false;
+                mainHandler.removeCallbacks(progressRunnable);
+                if (executor != null) executor.shutdown();
+                if (cancelled) return;
+                if (error != null) {
+                    listener.onError(error);
+                } else {
+                    listener.onProgress(state.totalLength, state.totalLength);
+                    listener.onComplete(file);
+                }
+            }
+        });
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class RemoteChangedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        RemoteChangedException() {
+            super("Update file changed on the server, please retry");
+        }
+    }
+
+    /**
+     * Persisted download progress, saved as JSON next to the target file.
+     */
+    static class DownloadState {
+        String url;
+        String etag;
+        long totalLength = -1;
+        boolean acceptsRanges;
+        List<Chunk> chunks = new ArrayList<>();
+    }
+
+    static class Chunk {
+        long start;
+        long end; // inclusive, -1 when the total length is unknown
+        volatile long downloaded;
+
+        boolean isComplete() {
+            return end >= 0 && downloaded >= end - start + 1;
+        }
+    }
+}
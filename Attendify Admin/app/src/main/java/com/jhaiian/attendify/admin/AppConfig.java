@@ -0,0 +1,189 @@
+package com.jhaiian.attendify.admin;
+
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+
+import java.io.Reader;
+
+/**
+ * Immutable snapshot of the bootstrap configuration published in Firebase
+ * (Status, SHA256 and Update nodes), parsed once into typed fields.
+ */
+public class AppConfig {
+
+    private static final Gson gson = new Gson();
+
+    // Cleaned Status value ("true", "false", "maintenance"), null if unknown
+    public final String status;
+
+    // Authorized signing certificate hash, null if none is published
+    public final String authorizedHash;
+
+    public final int mandatoryUpdate;
+    public final int optionalUpdate;
+    public final String downloadLink;
+    public final String changelog;
+
+    // SHA-256 of the full APK at downloadLink, null if not published
+    public final String downloadSha256;
+
+    // Optional delta patch against the installed APK of patchBaseVersion
+    public final String patchLink;
+    public final int patchBaseVersion;
+    public final String patchSha256;
+
+    // Wall-clock time the values were fetched from the server
+    public final long fetchedAt;
+
+    public AppConfig(String status, String authorizedHash, int mandatoryUpdate, int optionalUpdate,
+                     String downloadLink, String changelog, String downloadSha256,
+                     String patchLink, int patchBaseVersion, String patchSha256, long fetchedAt) {
+        this.status = status;
+        this.authorizedHash = authorizedHash;
+        this.mandatoryUpdate = mandatoryUpdate;
+        this.optionalUpdate = optionalUpdate;
+        this.downloadLink = downloadLink;
+        this.changelog = changelog;
+        this.downloadSha256 = downloadSha256;
+        this.patchLink = patchLink;
+        this.patchBaseVersion = patchBaseVersion;
+        this.patchSha256 = patchSha256;
+        this.fetchedAt = fetchedAt;
+    }
+
+    /**
+     * Builds a config from the raw REST responses. Any response may be null
+     * when that node could not be fetched.
+     */
+    public static AppConfig parse(String statusResponse, String sha256Response, String updateResponse, long fetchedAt) {
+        UpdateNode update = parseUpdate(updateResponse);
+        return new AppConfig(
+                parseStatus(statusResponse),
+                parseString(sha256Response),
+                update != null ? (int) update.mandatoryUpdate : 0,
+                update != null ? (int) update.optionalUpdate : 0,
+                update != null && update.downloadLink != null ? update.downloadLink : "",
+                update != null && update.changelog != null ? update.changelog : "",
+                update != null ? parseString(update.downloadSha256) : null,
+                update != null ? parseString(update.patchLink) : null,
+                update != null ? (int) update.patchBaseVersion : 0,
+                update != null ? parseString(update.patchSha256) : null,
+                fetchedAt);
+    }
+
+    /**
+     * Copies the update fields of another config into this one.
+     */
+    public AppConfig withUpdateFrom(AppConfig other) {
+        return new AppConfig(status, authorizedHash, other.mandatoryUpdate, other.optionalUpdate,
+                other.downloadLink, other.changelog, other.downloadSha256,
+                other.patchLink, other.patchBaseVersion, other.patchSha256, fetchedAt);
+    }
+
+    public AppConfig withStatus(String newStatus) {
+        return new AppConfig(newStatus, authorizedHash, mandatoryUpdate, optionalUpdate,
+                downloadLink, changelog, downloadSha256,
+                patchLink, patchBaseVersion, patchSha256, fetchedAt);
+    }
+
+    public AppConfig withAuthorizedHash(String hash) {
+        return new AppConfig(status, hash, mandatoryUpdate, optionalUpdate,
+                downloadLink, changelog, downloadSha256,
+                patchLink, patchBaseVersion, patchSha256, fetchedAt);
+    }
+
+    /**
+     * True when a delta patch is published for the given installed version.
+     * A patch is only usable if the full APK hash is known to verify the result.
+     */
+    public boolean hasPatchFor(int installedVersionCode) {
+        return patchLink != null && patchBaseVersion == installedVersionCode && downloadSha256 != null;
+    }
+
+    public long getAgeMillis(long now) {
+        return Math.max(0, now - fetchedAt);
+    }
+
+    public String toJson() {
+        return gson.toJson(this);
+    }
+
+    public static AppConfig fromJson(String json) {
+        try {
+            return gson.fromJson(json, AppConfig.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses straight from a stream; null when it is empty or not valid.
+     */
+    public static AppConfig fromJson(Reader json) {
+        try {
+            return gson.fromJson(json, AppConfig.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Cleans a Status response. Unlike other nodes, a missing status ("null")
+     * is kept as a value so it is still treated as "not disabled".
+     */
+    static String parseStatus(String response) {
+        if (response == null) return null;
+        return response.trim().replace("\"", "");
+    }
+
+    /**
+     * Strips the quotes Firebase puts around string values; "null" and empty become null.
+     */
+    static String parseString(String response) {
+        if (response == null) return null;
+        String value = response.trim().replace("\"", "");
+        if (value.isEmpty() || value.equals("null")) return null;
+        return value;
+    }
+
+    static UpdateNode parseUpdate(String response) {
+        if (response == null) return null;
+        String body = response.trim();
+        if (body.isEmpty() || body.equals("null")) return null;
+        try {
+            return gson.fromJson(body, UpdateNode.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Shape of the Update node. Versions are doubles because Firebase may
+     * store them as plain or quoted numbers.
+     */
+    static class UpdateNode {
+        @SerializedName("Mandatory_Update")
+        double mandatoryUpdate;
+
+        @SerializedName("Optional_Update")
+        double optionalUpdate;
+
+        @SerializedName("Download_Link")
+        String downloadLink;
+
+        @SerializedName("Changelog")
+        String changelog;
+
+        @SerializedName("Download_SHA256")
+        String downloadSha256;
+
+        @SerializedName("Patch_Link")
+        String patchLink;
+
+        @SerializedName("Patch_Base_Version")
+        double patchBaseVersion;
+
+        @SerializedName("Patch_SHA256")
+        String patchSha256;
+    }
+}
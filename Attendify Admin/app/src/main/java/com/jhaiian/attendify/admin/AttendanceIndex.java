@@ -0,0 +1,342 @@
+package com.jhaiian.attendify.admin;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Per-day attendance bitmaps for set queries across days and cohorts.
+ *
+ * For every day and status (present, late, absent) there is one bitmap
+ * whose bit i is person id i; roster ids are dense, so they serve as
+ * ordinals. "Absent three days in a row in Grade 9 - Rizal" is then two
+ * ANDs of the absent bitmaps and one AND with the class cohort.
+ *
+ * Months are stored as one deflate-compressed file each
+ * (filesDir/attendance-index/month-&lt;yyyyMM&gt;.idx) and loaded on first use;
+ * a few recent months stay in memory. Updates are applied in memory and
+ * written back shortly after, replacing the file atomically.
+ *
+ * All bitmap access happens on the index thread: callers submit a
+ * {@link Query}, which may use the accessors below, and get the result on
+ * the main thread.
+ */
+public class AttendanceIndex {
+
+    public static final int PRESENT = 0;
+    public static final int LATE = 1;
+    public static final int ABSENT = 2;
+    public static final int STATUS_COUNT = 3;
+
+    private static final String TAG = "AttendanceIndex";
+    private static final String DIR_NAME = "attendance-index";
+    private static final int FILE_MAGIC = 0x41544958; // "ATIX"
+    private static final int FILE_VERSION = 1;
+    private static final int CACHED_MONTHS = 4;
+    private static final long FLUSH_DELAY_MS = 2000;
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+
+    private static AttendanceIndex mInstance;
+
+    private final File dir;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile Thread indexThread;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, TAG);
+            indexThread = thread;
+            return thread;
+        }
+    });
+    private ScheduledFuture<?> pendingFlush;
+
+    // Month key (yyyyMM) -> loaded month, least recently used first
+    private final LinkedHashMap<Integer, Month> months = new LinkedHashMap<Integer, Month>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Month> eldest) {
+            if (size() <= CACHED_MONTHS) return false;
+            if (eldest.getValue().dirty) write(eldest.getValue());
+            return true;
+        }
+    };
+
+    /**
+     * Runs on the index thread and may call the bitmap accessors.
+     */
+    public interface Query<T> {
+        T run(AttendanceIndex index);
+    }
+
+    public interface OnQueryListener<T> {
+        /** Called on the main thread. */
+        void onResult(T result);
+    }
+
+    private static class Month {
+        final int key;
+        final int firstDay;
+        final BitSet[][] bits;
+        boolean dirty;
+
+        Month(int key, int firstDay, int dayCount) {
+            this.key = key;
+            this.firstDay = firstDay;
+            this.bits = new BitSet[dayCount][STATUS_COUNT];
+            for (BitSet[] day : bits) {
+                for (int s = 0; s < STATUS_COUNT; s++) day[s] = new BitSet();
+            }
+        }
+    }
+
+    public static synchronized AttendanceIndex getInstance(Context context) {
+        if (mInstance == null) {
+            mInstance = new AttendanceIndex(context.getApplicationContext());
+        }
+        return mInstance;
+    }
+
+    private AttendanceIndex(Context context) {
+        dir = new File(context.getFilesDir(), DIR_NAME);
+        dir.mkdirs();
+    }
+
+    /**
+     * Records a person's status for a day, replacing any other status they had.
+     */
+    public void setAsync(final int day, final int personId, final int status) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                set(day, personId, status);
+            }
+        });
+    }
+
+    /**
+     * Replaces a day's bitmaps, indexed by status; a null entry leaves that
+     * status as it is.
+     */
+    public void setDayAsync(final int day, final BitSet[] statuses) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                setDay(day, statuses);
+            }
+        });
+    }
+
+    /**
+     * Runs a query on the index thread and delivers its result on the main thread.
+     */
+    public <T> void queryAsync(final Query<T> query, final OnQueryListener<T> listener) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final T result = query.run(AttendanceIndex.this);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onResult(result);
+                    }
+                });
+            }
+        });
+    }
+
+    // Accessors; index thread only (inside a Query)
+
+    /**
+     * Records a status, replacing any other status of that person and day.
+     */
+    public void set(int day, int personId, int status) {
+        checkThread();
+        Month month = month(day);
+        BitSet[] bits = month.bits[day - month.firstDay];
+        for (int s = 0; s < STATUS_COUNT; s++) bits[s].set(personId, s == status);
+        month.dirty = true;
+        scheduleFlush();
+    }
+
+    public void setDay(int day, BitSet[] statuses) {
+        checkThread();
+        Month month = month(day);
+        BitSet[] bits = month.bits[day - month.firstDay];
+        for (int s = 0; s < STATUS_COUNT; s++) {
+            if (statuses[s] != null) bits[s] = (BitSet) statuses[s].clone();
+        }
+        month.dirty = true;
+        scheduleFlush();
+    }
+
+    /**
+     * Returns a copy of the bitmap of one day and status.
+     */
+    public BitSet get(int day, int status) {
+        checkThread();
+        Month month = month(day);
+        return (BitSet) month.bits[day - month.firstDay][status].clone();
+    }
+
+    public int count(int day, int status) {
+        checkThread();
+        Month month = month(day);
+        return month.bits[day - month.firstDay][status].cardinality();
+    }
+
+    /**
+     * People with the status on each of the last {@code days} school days
+     * up to and including lastDay. Days with nothing recorded (weekends,
+     * holidays) are skipped, looking back at most lookbackDays calendar
+     * days; if fewer school days turn up, the result is empty.
+     */
+    public BitSet streak(int status, int lastDay, int days, int lookbackDays) {
+        checkThread();
+        BitSet result = null;
+        int found = 0;
+        for (int day = lastDay; day > lastDay - lookbackDays && found < days; day--) {
+            Month month = month(day);
+            BitSet[] bits = month.bits[day - month.firstDay];
+            if (bits[PRESENT].isEmpty() && bits[LATE].isEmpty() && bits[ABSENT].isEmpty()) continue;
+
+            if (result == null) {
+                result = (BitSet) bits[status].clone();
+            } else {
+                result.and(bits[status]);
+            }
+            found++;
+        }
+        return found == days ? result : new BitSet();
+    }
+
+    /**
+     * Ids of people of one role, grade and section; -1 or null matches any.
+     * Grade and section are what the list shows as "Grade 9 - Rizal". Reads
+     * the store, so call it on the main thread and pass the bitmap into the query.
+     */
+    public static BitSet cohort(RosterStore store, int role, String grade, String section) {
+        BitSet cohort = new BitSet();
+        for (int row = 0; row < store.size(); row++) {
+            if (role >= 0 && store.getRole(row) != role) continue;
+            if (grade != null && !grade.equals(store.getGrade(row))) continue;
+            if (section != null && !section.equals(store.getSection(row))) continue;
+            cohort.set(store.getId(row));
+        }
+        return cohort;
+    }
+
+    /**
+     * Expands a bitmap into ascending ids.
+     */
+    public static int[] toIds(BitSet bits) {
+        int[] ids = new int[bits.cardinality()];
+        int n = 0;
+        for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) ids[n++] = id;
+        return ids;
+    }
+
+    private void checkThread() {
+        if (Thread.currentThread() != indexThread) {
+            throw new IllegalStateException("AttendanceIndex accessors must run inside a Query");
+        }
+    }
+
+    private Month month(int day) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.setTimeInMillis(day * DAY_MS);
+        int key = calendar.get(Calendar.YEAR) * 100 + calendar.get(Calendar.MONTH) + 1;
+
+        Month month = months.get(key);
+        if (month == null) {
+            month = new Month(key, day - calendar.get(Calendar.DAY_OF_MONTH) + 1,
+                    calendar.getActualMaximum(Calendar.DAY_OF_MONTH));
+            read(month);
+            months.put(key, month);
+        }
+        return month;
+    }
+
+    private File fileOf(int key) {
+        return new File(dir, "month-" + key + ".idx");
+    }
+
+    private void read(Month month) {
+        File file = fileOf(month.key);
+        if (!file.exists()) return;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new InflaterInputStream(new FileInputStream(file))))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) return;
+            int dayCount = Math.min(in.readInt(), month.bits.length);
+            for (int d = 0; d < dayCount; d++) {
+                for (int s = 0; s < STATUS_COUNT; s++) {
+                    long[] words = new long[in.readInt()];
+                    for (int w = 0; w < words.length; w++) words[w] = in.readLong();
+                    month.bits[d][s] = BitSet.valueOf(words);
+                }
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "unreadable index " + file.getName(), e);
+        }
+    }
+
+    private void write(Month month) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+                out.writeInt(FILE_MAGIC);
+                out.writeInt(FILE_VERSION);
+                out.writeInt(month.bits.length);
+                for (BitSet[] day : month.bits) {
+                    for (BitSet bits : day) {
+                        // Mostly-empty or mostly-equal words deflate to a few bytes
+                        long[] words = bits.toLongArray();
+                        out.writeInt(words.length);
+                        for (long word : words) out.writeLong(word);
+                    }
+                }
+            }
+            FileUtil.writeFileAtomic(fileOf(month.key), bytes.toByteArray());
+            month.dirty = false;
+        } catch (IOException e) {
+            Log.e(TAG, "could not write index month " + month.key, e);
+        }
+    }
+
+    private void scheduleFlush() {
+        if (pendingFlush != null && !pendingFlush.isDone()) return;
+        pendingFlush = executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        }, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush() {
+        for (Month month : months.values()) {
+            if (month.dirty) write(month);
+        }
+    }
+}
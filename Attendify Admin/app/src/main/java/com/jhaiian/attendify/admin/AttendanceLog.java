@@ -0,0 +1,437 @@
+package com.jhaiian.attendify.admin;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.HashSet;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append-only log of check-in/check-out events.
+ *
+ * Each local day has its own segment file made of fixed 12-byte records
+ * (int person id, int epoch minute, int event type), so opening today only
+ * reads today's events. Once a day is over, the compactor folds its segment
+ * into a small per-person summary snapshot and deletes the segment. A late
+ * event for an already compacted day reopens its segment, and the next
+ * compaction merges it into the existing summary.
+ *
+ * Appends are fsynced whenever the queue of pending appends drains, so a
+ * burst of scans costs one sync instead of one per event.
+ *
+ * Files live under filesDir/attendance:
+ * <pre>
+ *   seg-&lt;epochDay&gt;.log   raw events of one day, appended in arrival order
+ *   day-&lt;epochDay&gt;.sum   compacted summary, sorted by person id
+ * </pre>
+ * A partially written trailing record (process killed mid-write) is ignored.
+ */
+public class AttendanceLog {
+
+    private static final String TAG = "AttendanceLog";
+    private static final String DIR_NAME = "attendance";
+    private static final String SEGMENT_PREFIX = "seg-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SUMMARY_PREFIX = "day-";
+    private static final String SUMMARY_SUFFIX = ".sum";
+
+    private static final int RECORD_SIZE = 12;
+    private static final int SUMMARY_MAGIC = 0x41545344; // "ATSD"
+    private static final int SUMMARY_VERSION = 1;
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+
+    private static AttendanceLog mInstance;
+
+    private final File dir;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Writer for the current day's segment, only touched on the executor
+    private DataOutputStream writer;
+    private FileOutputStream writerFile;
+    private int writerDay = -1;
+
+    // Appends queued on the executor and not yet written
+    private final AtomicInteger pendingAppends = new AtomicInteger();
+
+    public interface OnDayLoadedListener {
+        void onDayLoaded(DayEvents events);
+    }
+
+    public interface OnSummaryLoadedListener {
+        /** Called on the main thread; summary is null when nothing was recorded that day. */
+        void onSummaryLoaded(DaySummary summary);
+    }
+
+    public static synchronized AttendanceLog getInstance(Context context) {
+        if (mInstance == null) {
+            mInstance = new AttendanceLog(context.getApplicationContext());
+        }
+        return mInstance;
+    }
+
+    private AttendanceLog(Context context) {
+        dir = new File(context.getFilesDir(), DIR_NAME);
+        dir.mkdirs();
+        compactAsync();
+    }
+
+    /**
+     * Converts wall-clock millis to the local epoch day used to name segments.
+     */
+    public static int epochDay(long millis) {
+        return (int) Math.floor((millis + TimeZone.getDefault().getOffset(millis)) / (double) DAY_MS);
+    }
+
+    public static int epochMinute(long millis) {
+        return (int) (millis / 60000L);
+    }
+
+    /**
+     * Appends one event in the background.
+     */
+    public void append(final int personId, final long timeMillis, final int type) {
+        pendingAppends.incrementAndGet();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                boolean endOfBatch = pendingAppends.decrementAndGet() == 0;
+                int day = epochDay(timeMillis);
+                try {
+                    DataOutputStream out = writerFor(day);
+                    out.writeInt(personId);
+                    out.writeInt(epochMinute(timeMillis));
+                    out.writeInt(type);
+                    if (endOfBatch) {
+                        out.flush();
+                        writerFile.getFD().sync();
+                    }
+                } catch (IOException e) {
+                    Log.e(TAG, "append failed", e);
+                    closeWriter();
+                }
+            }
+        });
+    }
+
+    /**
+     * Loads the raw events of one day and delivers them on the main thread.
+     * Cost is proportional to that day's events only.
+     */
+    public void loadDayAsync(final int day, final OnDayLoadedListener listener) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final DayEvents events = readSegment(day);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onDayLoaded(events);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Loads the per-person totals of one day, compacting a finished day's
+     * segment first if needed.
+     */
+    public void loadSummaryAsync(final int day, final OnSummaryLoadedListener listener) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final DaySummary summary = readSummary(day);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onSummaryLoaded(summary);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Returns the per-person totals of one day: the compacted summary of a
+     * past day, or today's events summarized on the fly. Returns null when
+     * nothing was recorded. Blocks on the log's executor, so it must not be
+     * called on the main thread.
+     */
+    public DaySummary readDaySummary(final int day) throws InterruptedException {
+        try {
+            return executor.submit(new Callable<DaySummary>() {
+                @Override
+                public DaySummary call() {
+                    return readSummary(day);
+                }
+            }).get();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Adds events recorded on other devices to the segment of a day, skipping
+     * those already in it (same person, minute and type), and returns the
+     * ones added. Only today's segment is merged into: a compacted summary
+     * no longer tells which events it holds. Blocks on the log's executor,
+     * so it must not be called on the main thread.
+     */
+    public DayEvents mergeRemoteEvents(final DayEvents remote) throws InterruptedException {
+        try {
+            return executor.submit(new Callable<DayEvents>() {
+                @Override
+                public DayEvents call() {
+                    return mergeEvents(remote);
+                }
+            }).get();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private DayEvents mergeEvents(DayEvents remote) {
+        int day = remote.day;
+        int[] personIds = new int[remote.count];
+        int[] minutes = new int[remote.count];
+        int[] types = new int[remote.count];
+        int added = 0;
+        if (day != epochDay(System.currentTimeMillis())) return new DayEvents(day, personIds, minutes, types, 0);
+
+        if (day == writerDay) flushWriter();
+        DayEvents local = readSegment(day);
+        HashSet<Long> seen = new HashSet<>(local.count * 2);
+        for (int i = 0; i < local.count; i++) {
+            seen.add(eventKey(local.personIds[i], local.minutes[i], local.types[i]));
+        }
+
+        try {
+            for (int i = 0; i < remote.count; i++) {
+                if (!seen.add(eventKey(remote.personIds[i], remote.minutes[i], remote.types[i]))) continue;
+                DataOutputStream out = writerFor(day);
+                out.writeInt(remote.personIds[i]);
+                out.writeInt(remote.minutes[i]);
+                out.writeInt(remote.types[i]);
+                personIds[added] = remote.personIds[i];
+                minutes[added] = remote.minutes[i];
+                types[added] = remote.types[i];
+                added++;
+            }
+            if (added > 0) {
+                writer.flush();
+                writerFile.getFD().sync();
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "merge failed for day " + day, e);
+            closeWriter();
+        }
+        return new DayEvents(day, personIds, minutes, types, added);
+    }
+
+    private static long eventKey(int personId, int minute, int type) {
+        return (long) personId << 32 | (minute << 1 | type) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Returns the summary file of a day merged with whatever its segment still
+     * holds: today's events, or late events for a past day that could not be
+     * compacted yet.
+     */
+    private DaySummary readSummary(int day) {
+        boolean dayOver = day < epochDay(System.currentTimeMillis());
+        if (dayOver && segmentFile(day).exists()) {
+            compactDay(day);
+        }
+
+        DaySummary summary = readSummaryFile(day);
+        if (segmentFile(day).exists()) {
+            if (day == writerDay) flushWriter();
+            DayEvents events = readSegment(day);
+            if (events.count > 0) summary = DaySummary.merge(summary, DaySummary.summarize(events));
+        }
+        return summary;
+    }
+
+    private DaySummary readSummaryFile(int day) {
+        File summaryFile = summaryFile(day);
+        if (!summaryFile.exists()) return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(summaryFile)))) {
+            if (in.readInt() != SUMMARY_MAGIC || in.readInt() != SUMMARY_VERSION) return null;
+            in.readInt(); // day
+            DaySummary summary = new DaySummary(day, in.readInt());
+            for (int i = 0; i < summary.count; i++) {
+                summary.personIds[i] = in.readInt();
+                summary.firstIn[i] = in.readInt();
+                summary.lastOut[i] = in.readInt();
+                summary.checkIns[i] = in.readInt();
+                summary.checkOuts[i] = in.readInt();
+            }
+            return summary;
+        } catch (IOException e) {
+            Log.e(TAG, "unreadable summary for day " + day, e);
+            return null;
+        }
+    }
+
+    /**
+     * Folds every segment older than today into a summary snapshot.
+     */
+    public void compactAsync() {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                int today = epochDay(System.currentTimeMillis());
+                File[] files = dir.listFiles();
+                if (files == null) return;
+                for (File file : files) {
+                    int day = parseDay(file.getName(), SEGMENT_PREFIX, SEGMENT_SUFFIX);
+                    if (day >= 0 && day < today) {
+                        compactDay(day);
+                    }
+                }
+            }
+        });
+    }
+
+    private void compactDay(int day) {
+        if (day == writerDay) closeWriter();
+
+        DayEvents events = readSegment(day);
+        DaySummary summary = DaySummary.merge(readSummaryFile(day), DaySummary.summarize(events));
+
+        File target = summaryFile(day);
+        File tmp = new File(dir, target.getName() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+            out.writeInt(SUMMARY_MAGIC);
+            out.writeInt(SUMMARY_VERSION);
+            out.writeInt(day);
+            out.writeInt(summary.count);
+            for (int i = 0; i < summary.count; i++) {
+                out.writeInt(summary.personIds[i]);
+                out.writeInt(summary.firstIn[i]);
+                out.writeInt(summary.lastOut[i]);
+                out.writeInt(summary.checkIns[i]);
+                out.writeInt(summary.checkOuts[i]);
+            }
+            out.flush();
+            fos.getFD().sync();
+        } catch (IOException e) {
+            Log.e(TAG, "compaction failed for day " + day, e);
+            tmp.delete();
+            return;
+        }
+
+        // The segment is only dropped once its summary is durably in place
+        if (tmp.renameTo(target)) {
+            segmentFile(day).delete();
+        } else {
+            tmp.delete();
+        }
+    }
+
+    private DayEvents readSegment(int day) {
+        File file = segmentFile(day);
+        int count = (int) (file.length() / RECORD_SIZE);
+        int[] personIds = new int[count];
+        int[] minutes = new int[count];
+        int[] types = new int[count];
+        int read = 0;
+
+        if (count > 0) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                while (read < count) {
+                    personIds[read] = in.readInt();
+                    minutes[read] = in.readInt();
+                    types[read] = in.readInt();
+                    read++;
+                }
+            } catch (EOFException e) {
+                // Truncated tail; keep the complete records
+            } catch (IOException e) {
+                Log.e(TAG, "unreadable segment for day " + day, e);
+            }
+        }
+        return new DayEvents(day, personIds, minutes, types, read);
+    }
+
+    private DataOutputStream writerFor(int day) throws IOException {
+        if (writer != null && writerDay == day) return writer;
+
+        closeWriter();
+        File file = segmentFile(day);
+
+        // Drop a torn trailing record so new records stay aligned
+        long aligned = file.length() - file.length() % RECORD_SIZE;
+        if (aligned != file.length()) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(aligned);
+            }
+        }
+
+        writerFile = new FileOutputStream(file, true);
+        writer = new DataOutputStream(new BufferedOutputStream(writerFile));
+        writerDay = day;
+
+        // A new day started; yesterday's segment can be folded
+        compactAsync();
+        return writer;
+    }
+
+    private void flushWriter() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            Log.e(TAG, "flush failed", e);
+            closeWriter();
+        }
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+            }
+        }
+        writer = null;
+        writerFile = null;
+        writerDay = -1;
+    }
+
+    private File segmentFile(int day) {
+        return new File(dir, SEGMENT_PREFIX + day + SEGMENT_SUFFIX);
+    }
+
+    private File summaryFile(int day) {
+        return new File(dir, SUMMARY_PREFIX + day + SUMMARY_SUFFIX);
+    }
+
+    private static int parseDay(String name, String prefix, String suffix) {
+        if (!name.startsWith(prefix) || !name.endsWith(suffix)) return -1;
+        try {
+            return Integer.parseInt(name.substring(prefix.length(), name.length() - suffix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
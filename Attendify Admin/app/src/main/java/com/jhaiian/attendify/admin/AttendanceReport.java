@@ -0,0 +1,458 @@
+package com.jhaiian.attendify.admin;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.graphics.pdf.PdfDocument;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Exports attendance for a day, week or month as CSV or PDF.
+ *
+ * Rows are produced one day at a time: the day's summary comes from
+ * {@link AttendanceLog} and the people are paged from {@link RosterDatabase}
+ * (everyone, one grade or one class), so only one day summary and one page
+ * of people are in memory at once. Each row is written straight to the
+ * destination stream. A person appears on a day when they have events or
+ * are scheduled that day (scheduled with no events is "Absent").
+ *
+ * PdfDocument holds every finished page in memory until the document is
+ * written out, so a PDF export stops after {@link #MAX_PDF_PAGES} pages
+ * (about 12,000 rows) and says so on its last page. Larger reports need a
+ * narrower scope or period, or CSV, which has no limit.
+ */
+public class AttendanceReport {
+
+    public static final int FORMAT_CSV = 0;
+    public static final int FORMAT_PDF = 1;
+
+    public static final int PERIOD_DAY = 0;
+    public static final int PERIOD_WEEK = 1;
+    public static final int PERIOD_MONTH = 2;
+
+    public static final int MAX_PDF_PAGES = 200;
+
+    private static final String TAG = "AttendanceReport";
+    private static final int PAGE_SIZE = RosterDatabase.DEFAULT_PAGE_SIZE;
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+
+    private static final String[] COLUMNS = {
+            "Date", "Name", "Role", "Grade", "Section", "Position", "Time in", "Time out", "Check-ins", "Status"};
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final Context context;
+    private final RosterDatabase rosterDatabase;
+    private final AttendanceLog attendanceLog;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private volatile boolean truncated;
+
+    private String grade;
+    private String section;
+    private int firstDay;
+    private int lastDay;
+
+    /**
+     * All callbacks run on the main thread.
+     */
+    public interface Listener {
+        void onProgress(int daysDone, int dayCount, long rows);
+
+        void onComplete(Result result);
+    }
+
+    /**
+     * Outcome of one export.
+     */
+    public static class Result {
+        public final long rows;
+        public final long elapsedMillis;
+        public final boolean cancelled;
+
+        // The PDF reached MAX_PDF_PAGES; rows holds what fit
+        public final boolean truncated;
+
+        // Set when the report could not be written
+        public final String error;
+
+        Result(long rows, long elapsedMillis, boolean cancelled, boolean truncated, String error) {
+            this.rows = rows;
+            this.elapsedMillis = elapsedMillis;
+            this.cancelled = cancelled;
+            this.truncated = truncated;
+            this.error = error;
+        }
+    }
+
+    public AttendanceReport(Context context, RosterDatabase rosterDatabase, AttendanceLog attendanceLog) {
+        this.context = context.getApplicationContext();
+        this.rosterDatabase = rosterDatabase;
+        this.attendanceLog = attendanceLog;
+        setPeriod(PERIOD_DAY, AttendanceLog.epochDay(System.currentTimeMillis()));
+    }
+
+    /**
+     * Limits the report to one grade, or one class when section is set.
+     * A null grade reports everyone.
+     */
+    public AttendanceReport setScope(String grade, String section) {
+        this.grade = grade;
+        this.section = grade != null ? section : null;
+        return this;
+    }
+
+    /**
+     * Reports the day, the Monday-to-Sunday week or the calendar month
+     * containing the given epoch day. Days after today are left out.
+     */
+    public AttendanceReport setPeriod(int period, int day) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.setTimeInMillis(day * DAY_MS);
+        switch (period) {
+            case PERIOD_WEEK:
+                int fromMonday = (calendar.get(Calendar.DAY_OF_WEEK) + 5) % 7;
+                firstDay = day - fromMonday;
+                lastDay = firstDay + 6;
+                break;
+            case PERIOD_MONTH:
+                firstDay = day - (calendar.get(Calendar.DAY_OF_MONTH) - 1);
+                lastDay = firstDay + calendar.getActualMaximum(Calendar.DAY_OF_MONTH) - 1;
+                break;
+            default:
+                firstDay = day;
+                lastDay = day;
+        }
+        lastDay = Math.min(lastDay, AttendanceLog.epochDay(System.currentTimeMillis()));
+        return this;
+    }
+
+    /**
+     * A file name describing the scope and period, e.g. "attendance_7-A_2026-10-01_2026-10-31.csv".
+     */
+    public String suggestedFileName(int format) {
+        SimpleDateFormat dateFormat = dateFormat();
+        StringBuilder name = new StringBuilder("attendance");
+        if (grade != null) {
+            name.append('_').append(grade);
+            if (section != null) name.append('-').append(section);
+        }
+        name.append('_').append(dateFormat.format(new Date(firstDay * DAY_MS)));
+        if (lastDay != firstDay) name.append('_').append(dateFormat.format(new Date(lastDay * DAY_MS)));
+        name.append(format == FORMAT_PDF ? ".pdf" : ".csv");
+        return name.toString().replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    public static String mimeType(int format) {
+        return format == FORMAT_PDF ? "application/pdf" : "text/csv";
+    }
+
+    /**
+     * Stops after the current page of people; the file keeps the rows written so far.
+     */
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    /**
+     * Writes the report to a document Uri (e.g. from ACTION_CREATE_DOCUMENT) in the background.
+     */
+    public void exportAsync(final Uri destination, final int format, final Listener listener) {
+        cancelled.set(false);
+        truncated = false;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                long start = SystemClock.elapsedRealtime();
+                String error = null;
+                long rows = 0;
+                try (OutputStream out = context.getContentResolver().openOutputStream(destination)) {
+                    if (out == null) throw new IOException("Could not open the destination");
+                    RowSink sink = format == FORMAT_PDF ? new PdfSink(out, title()) : new CsvSink(out);
+                    try {
+                        rows = writeRows(sink, listener);
+                    } finally {
+                        sink.close();
+                    }
+                } catch (Exception e) {
+                    Log.w(TAG, "Export failed", e);
+                    error = e.getMessage() != null ? e.getMessage() : e.toString();
+                }
+
+                final Result result = new Result(rows, SystemClock.elapsedRealtime() - start, cancelled.get(),
+                        truncated, error);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onComplete(result);
+                    }
+                });
+            }
+        });
+    }
+
+    private long writeRows(RowSink sink, final Listener listener) throws IOException, InterruptedException {
+        sink.writeHeader(COLUMNS);
+
+        SimpleDateFormat dateFormat = dateFormat();
+        String[] cells = new String[COLUMNS.length];
+        String[] clock = new String[24 * 60];
+        long rows = 0;
+        final int dayCount = Math.max(0, lastDay - firstDay + 1);
+
+        for (int day = firstDay; day <= lastDay && !truncated && !cancelled.get(); day++) {
+            DaySummary summary = attendanceLog.readDaySummary(day);
+            int dayBit = 1 << ScheduleEngine.weekdayIndex(day);
+            String date = dateFormat.format(new Date(day * DAY_MS));
+            // Epoch minutes are UTC; shift them to local time for this day
+            int offsetMinutes = TimeZone.getDefault().getOffset(day * DAY_MS) / 60000;
+
+            int afterId = 0;
+            RosterDatabase.Page page;
+            do {
+                page = nextPage(afterId);
+                for (int i = 0; i < page.count; i++) {
+                    Person person = page.people[i];
+                    int index = summary != null ? summary.indexOf(page.ids[i]) : -1;
+                    if (index < 0 && (person.dayMask & dayBit) == 0) continue;
+
+                    cells[0] = date;
+                    cells[1] = person.name;
+                    cells[2] = Person.roleName(person.role);
+                    cells[3] = person.grade;
+                    cells[4] = person.section;
+                    cells[5] = person.position;
+                    if (index >= 0) {
+                        cells[6] = clockTime(summary.firstIn[index], offsetMinutes, clock);
+                        cells[7] = clockTime(summary.lastOut[index], offsetMinutes, clock);
+                        cells[8] = String.valueOf(summary.checkIns[index]);
+                        cells[9] = summary.checkIns[index] > 0 ? "Present" : "Absent";
+                    } else {
+                        cells[6] = null;
+                        cells[7] = null;
+                        cells[8] = "0";
+                        cells[9] = "Absent";
+                    }
+                    if (!sink.writeRow(cells)) {
+                        truncated = true;
+                        break;
+                    }
+                    rows++;
+                }
+                if (page.count > 0) afterId = page.ids[page.count - 1];
+            } while (page.count == PAGE_SIZE && !truncated && !cancelled.get());
+
+            final int daysDone = day - firstDay + 1;
+            final long rowsSoFar = rows;
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    listener.onProgress(daysDone, dayCount, rowsSoFar);
+                }
+            });
+        }
+        return rows;
+    }
+
+    private RosterDatabase.Page nextPage(int afterId) {
+        if (grade == null) return rosterDatabase.queryPageAll(afterId, PAGE_SIZE);
+        if (section == null) return rosterDatabase.queryPageByGrade(grade, afterId, PAGE_SIZE);
+        return rosterDatabase.queryPageByClass(grade, section, afterId, PAGE_SIZE);
+    }
+
+    /**
+     * Formats an epoch minute as local "HH:mm", or null for -1. Each of the
+     * 1440 possible strings is built once per export.
+     */
+    private static String clockTime(int epochMinute, int offsetMinutes, String[] cache) {
+        if (epochMinute < 0) return null;
+        int minuteOfDay = ((epochMinute + offsetMinutes) % cache.length + cache.length) % cache.length;
+        String text = cache[minuteOfDay];
+        if (text == null) {
+            text = String.format(Locale.US, "%02d:%02d", minuteOfDay / 60, minuteOfDay % 60);
+            cache[minuteOfDay] = text;
+        }
+        return text;
+    }
+
+    private String title() {
+        SimpleDateFormat dateFormat = dateFormat();
+        String scope = grade == null ? "Everyone" : "Grade " + grade + (section != null ? " - " + section : "");
+        String period = dateFormat.format(new Date(firstDay * DAY_MS));
+        if (lastDay != firstDay) period += " to " + dateFormat.format(new Date(lastDay * DAY_MS));
+        return "Attendance: " + scope + ", " + period;
+    }
+
+    // Epoch days are local days; formatting them in UTC keeps the date unshifted
+    private static SimpleDateFormat dateFormat() {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format;
+    }
+
+    private interface RowSink {
+        void writeHeader(String[] columns) throws IOException;
+
+        /**
+         * Returns false, dropping the row, once the sink is full.
+         */
+        boolean writeRow(String[] cells) throws IOException;
+
+        void close() throws IOException;
+    }
+
+    private static class CsvSink implements RowSink {
+        private final CsvWriter writer;
+
+        CsvSink(OutputStream out) {
+            writer = new CsvWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void writeHeader(String[] columns) throws IOException {
+            writer.writeRow(columns);
+        }
+
+        @Override
+        public boolean writeRow(String[] cells) throws IOException {
+            writer.writeRow(cells);
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Lays rows out as a table on A4 pages, repeating the header on each page.
+     * The document is only written to the stream when the export ends, so
+     * the sink is full after MAX_PDF_PAGES pages. The last page keeps one
+     * line free to say the report was cut short.
+     */
+    private static class PdfSink implements RowSink {
+        private static final int PAGE_WIDTH = 595;
+        private static final int PAGE_HEIGHT = 842;
+        private static final int MARGIN = 36;
+        private static final int LINE_HEIGHT = 12;
+
+        // Relative column widths, in COLUMNS order
+        private static final float[] WEIGHTS = {1.6f, 3f, 1.3f, 1f, 1.2f, 1.8f, 1f, 1f, 0.9f, 1.1f};
+
+        private final OutputStream out;
+        private final String title;
+        private final PdfDocument document = new PdfDocument();
+        private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        private final Paint headerPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        private final float[] columnX = new float[WEIGHTS.length + 1];
+
+        private String[] header;
+        private PdfDocument.Page page;
+        private Canvas canvas;
+        private int pageNumber;
+        private float y;
+        private boolean full;
+
+        PdfSink(OutputStream out, String title) {
+            this.out = out;
+            this.title = title;
+            textPaint.setTextSize(8);
+            headerPaint.setTextSize(8);
+            headerPaint.setTypeface(Typeface.DEFAULT_BOLD);
+
+            float total = 0;
+            for (float weight : WEIGHTS) total += weight;
+            float x = MARGIN;
+            for (int i = 0; i < WEIGHTS.length; i++) {
+                columnX[i] = x;
+                x += WEIGHTS[i] / total * (PAGE_WIDTH - 2 * MARGIN);
+            }
+            columnX[WEIGHTS.length] = x;
+        }
+
+        @Override
+        public void writeHeader(String[] columns) {
+            header = columns;
+        }
+
+        @Override
+        public boolean writeRow(String[] cells) {
+            if (full) return false;
+            boolean lastPage = pageNumber == MAX_PDF_PAGES;
+            if (page == null || y + LINE_HEIGHT > PAGE_HEIGHT - MARGIN - (lastPage ? LINE_HEIGHT : 0)) {
+                if (lastPage) {
+                    full = true;
+                    return false;
+                }
+                startPage();
+            }
+            drawCells(cells, textPaint);
+            return true;
+        }
+
+        private void startPage() {
+            if (page != null) document.finishPage(page);
+            pageNumber++;
+            page = document.startPage(new PdfDocument.PageInfo.Builder(PAGE_WIDTH, PAGE_HEIGHT, pageNumber).create());
+            canvas = page.getCanvas();
+            y = MARGIN;
+
+            headerPaint.setTextSize(11);
+            canvas.drawText(title, MARGIN, y + 11, headerPaint);
+            canvas.drawText("Page " + pageNumber, PAGE_WIDTH - MARGIN - headerPaint.measureText("Page " + pageNumber),
+                    y + 11, headerPaint);
+            headerPaint.setTextSize(8);
+            y += 2 * LINE_HEIGHT;
+
+            drawCells(header, headerPaint);
+            canvas.drawLine(MARGIN, y - 2, PAGE_WIDTH - MARGIN, y - 2, textPaint);
+        }
+
+        private void drawCells(String[] cells, Paint paint) {
+            for (int i = 0; i < cells.length && i < WEIGHTS.length; i++) {
+                String text = cells[i];
+                if (text == null || text.isEmpty()) continue;
+                // Clip to the column instead of wrapping, so every row is one line
+                float width = columnX[i + 1] - columnX[i] - 4;
+                int fits = paint.breakText(text, true, width, null);
+                canvas.drawText(text, 0, fits, columnX[i], y + 8, paint);
+            }
+            y += LINE_HEIGHT;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (page == null) startPage();
+                if (full) {
+                    canvas.drawText("Stopped after " + MAX_PDF_PAGES
+                            + " pages. Export one class, a shorter period or CSV for the rest.",
+                            MARGIN, y + 8, headerPaint);
+                }
+                document.finishPage(page);
+                document.writeTo(out);
+            } finally {
+                document.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,440 @@
+package com.jhaiian.attendify.admin;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.TimeZone;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Derives late, absent and undertime from shift windows and grace periods
+ * for one attendance day.
+ *
+ * A person's status is a function of their schedule, their first check-in
+ * and last check-out that day, and the clock. Each of these changes only
+ * touches the people it concerns: an event or a schedule edit re-evaluates
+ * one person, and advancing the clock re-evaluates only the people whose
+ * absence deadline falls in the minutes passed (they wait in per-minute
+ * buckets). Nothing walks the roster except {@link #startDay} and
+ * {@link #finalizeDay}, and the latter splits the roster across cores.
+ *
+ * Rules, with minutes measured from the shift start:
+ * <ul>
+ * <li>Arriving after the late grace is late; no arrival by the absent grace
+ * is absent (provisionally, until they arrive).</li>
+ * <li>Leaving earlier than the undertime grace before the shift end is
+ * undertime, a flag on top of present or late.</li>
+ * <li>Without a shift window any arrival is on time; such people only
+ * become absent when the day is finalized.</li>
+ * <li>Overnight shifts are judged on arrival only, since their check-out
+ * falls on the next day.</li>
+ * </ul>
+ *
+ * Person ids index plain arrays, as roster ids are dense. All methods are
+ * synchronized, so the scanner thread and the main thread can share one
+ * engine. Attendance comes in as {@link DaySummary} and {@link DayEvents}.
+ */
+public class AttendanceRulesEngine {
+
+    public static final int STATUS_OFF = 0;
+    public static final int STATUS_PENDING = 1;
+    public static final int STATUS_PRESENT = 2;
+    public static final int STATUS_LATE = 3;
+    public static final int STATUS_ABSENT = 4;
+    public static final int STATUS_COUNT = 5;
+
+    public static final int DEFAULT_LATE_GRACE = 10;
+    public static final int DEFAULT_ABSENT_GRACE = 120;
+    public static final int DEFAULT_UNDERTIME_GRACE = 10;
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int NONE = -1;
+    private static final int UNDERTIME = 0x8;
+    private static final int STATUS_MASK = 0x7;
+
+    // Below this size a sequential finalization is faster than forking
+    static final int PARALLEL_THRESHOLD = 20000;
+    private static final int SEQUENTIAL_CUTOFF = 4096;
+
+    // ForkJoinPool.commonPool() needs API 24, so keep a private pool
+    private static ForkJoinPool pool;
+
+    /**
+     * Hears about every status change outside {@link #finalizeDay}, on the
+     * thread that caused it and while the engine is locked. Must not call back
+     * into the engine from another thread.
+     */
+    public interface OnStatusChangeListener {
+        /**
+         * Everyone is off; the people scheduled that day follow as changes.
+         */
+        void onDayStarted(int epochDay);
+
+        void onStatusChanged(int personId, int oldStatus, int newStatus, boolean undertime);
+    }
+
+    /**
+     * Final statuses of one day as bitmaps over person ids.
+     */
+    public static class Result {
+        public final int day;
+        public final BitSet present;
+        public final BitSet late;
+        public final BitSet absent;
+        public final BitSet undertime;
+        public final long elapsedNanos;
+
+        Result(int day, BitSet present, BitSet late, BitSet absent, BitSet undertime, long elapsedNanos) {
+            this.day = day;
+            this.present = present;
+            this.late = late;
+            this.absent = absent;
+            this.undertime = undertime;
+            this.elapsedNanos = elapsedNanos;
+        }
+    }
+
+    private int lateGrace = DEFAULT_LATE_GRACE;
+    private int absentGrace = DEFAULT_ABSENT_GRACE;
+    private int undertimeGrace = DEFAULT_UNDERTIME_GRACE;
+    private boolean parallel = true;
+    private OnStatusChangeListener listener;
+
+    // Schedule, by person id
+    private byte[] dayMasks = new byte[0];
+    private short[] shiftStarts = new short[0];
+    private short[] shiftEnds = new short[0];
+
+    // Day state, by person id; minutes are local minutes of the day
+    private short[] firstIn = new short[0];
+    private short[] lastOut = new short[0];
+    private byte[] states = new byte[0];
+    private int capacity;
+
+    private int day = Integer.MIN_VALUE;
+    private int weekdayBit;
+    private int clock;
+    private boolean finalized;
+    private final int[] counts = new int[STATUS_COUNT];
+    private int undertimeCount;
+
+    // Minute of the day -> people who become absent at it unless they arrive first
+    private final int[][] deadlines = new int[MINUTES_PER_DAY][];
+    private final int[] deadlineSizes = new int[MINUTES_PER_DAY];
+
+    /**
+     * Sets the grace periods, in minutes after the shift start (late,
+     * absent) or before its end (undertime). Applies from the next evaluation.
+     */
+    public synchronized AttendanceRulesEngine setGrace(int late, int absent, int undertime) {
+        this.lateGrace = late;
+        this.absentGrace = Math.max(late, absent);
+        this.undertimeGrace = undertime;
+        return this;
+    }
+
+    public synchronized AttendanceRulesEngine setParallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    public synchronized void setOnStatusChangeListener(OnStatusChangeListener listener) {
+        this.listener = listener;
+    }
+
+    public void put(int id, Person person) {
+        put(id, person.dayMask, person.shiftStart, person.shiftEnd);
+    }
+
+    /**
+     * Adds or replaces the schedule of one person and re-evaluates them.
+     */
+    public synchronized void put(int id, int dayMask, int shiftStart, int shiftEnd) {
+        ensureCapacity(id + 1);
+        dayMasks[id] = (byte) dayMask;
+        boolean hasShift = shiftStart != Person.NO_SHIFT && shiftEnd != Person.NO_SHIFT;
+        shiftStarts[id] = (short) (hasShift ? shiftStart : NONE);
+        shiftEnds[id] = (short) (hasShift ? shiftEnd : NONE);
+        if (day != Integer.MIN_VALUE) evaluate(id);
+    }
+
+    public synchronized void remove(int id) {
+        if (id >= capacity) return;
+        dayMasks[id] = 0;
+        shiftStarts[id] = NONE;
+        shiftEnds[id] = NONE;
+        if (day != Integer.MIN_VALUE) evaluate(id);
+    }
+
+    /**
+     * Begins an epoch day with no events and the clock at midnight.
+     */
+    public synchronized void startDay(int epochDay) {
+        day = epochDay;
+        weekdayBit = 1 << ScheduleEngine.weekdayIndex(epochDay);
+        clock = 0;
+        finalized = false;
+        Arrays.fill(firstIn, 0, capacity, (short) NONE);
+        Arrays.fill(lastOut, 0, capacity, (short) NONE);
+        Arrays.fill(states, 0, capacity, (byte) STATUS_OFF);
+        Arrays.fill(counts, 0);
+        undertimeCount = 0;
+        Arrays.fill(deadlineSizes, 0);
+        counts[STATUS_OFF] = capacity;
+        if (listener != null) listener.onDayStarted(epochDay);
+        for (int id = 0; id < capacity; id++) {
+            if ((dayMasks[id] & weekdayBit) != 0) evaluate(id);
+        }
+    }
+
+    public synchronized int getDay() {
+        return day;
+    }
+
+    /**
+     * Applies one check-in or check-out at a local minute of the day and
+     * returns the person's status afterwards. An event of a later day starts
+     * that day first; one of an earlier day is ignored.
+     */
+    public synchronized int record(int epochDay, int id, int minuteOfDay, int type) {
+        if (epochDay > day) startDay(epochDay);
+        if (epochDay < day) return STATUS_OFF;
+
+        ensureCapacity(id + 1);
+        advanceTo(minuteOfDay);
+        applyEvent(id, minuteOfDay, type);
+        return evaluate(id);
+    }
+
+    /**
+     * Folds a day summary into the current day, re-evaluating the people in it.
+     */
+    public synchronized void load(DaySummary summary) {
+        if (summary.day != day) startDay(summary.day);
+        for (int i = 0; i < summary.count; i++) {
+            int id = summary.personIds[i];
+            ensureCapacity(id + 1);
+            if (summary.checkIns[i] > 0) {
+                applyEvent(id, minuteOfDay(summary.firstIn[i], day), DayEvents.CHECK_IN);
+            }
+            if (summary.checkOuts[i] > 0) {
+                applyEvent(id, minuteOfDay(summary.lastOut[i], day), DayEvents.CHECK_OUT);
+            }
+            evaluate(id);
+        }
+    }
+
+    /**
+     * Moves the clock forward, marking absent whoever's deadline passed.
+     * Only those people are re-evaluated.
+     */
+    public synchronized void advanceTo(int minuteOfDay) {
+        int target = Math.min(minuteOfDay, MINUTES_PER_DAY - 1);
+        while (clock < target) {
+            clock++;
+            int size = deadlineSizes[clock];
+            if (size == 0) continue;
+            int[] bucket = deadlines[clock];
+            deadlineSizes[clock] = 0;
+            // Entries can be stale (the person arrived meanwhile); re-evaluating them is harmless
+            for (int i = 0; i < size; i++) evaluate(bucket[i]);
+        }
+    }
+
+    public synchronized int getStatus(int id) {
+        return id < capacity ? states[id] & STATUS_MASK : STATUS_OFF;
+    }
+
+    public synchronized boolean isUndertime(int id) {
+        return id < capacity && (states[id] & UNDERTIME) != 0;
+    }
+
+    /**
+     * Number of people with a status on the current day, kept up to date
+     * incrementally (people beyond the highest known id count as off).
+     */
+    public synchronized int count(int status) {
+        return counts[status];
+    }
+
+    public synchronized int countUndertime() {
+        return undertimeCount;
+    }
+
+    /**
+     * Settles the current day: everyone scheduled who never arrived is
+     * absent. Evaluation is split across cores for large rosters. Later
+     * events still apply, judged as final. Listeners are not called; read
+     * the result or the counts instead.
+     */
+    public synchronized Result finalizeDay() {
+        long start = System.nanoTime();
+        finalized = true;
+        Arrays.fill(deadlineSizes, 0);
+
+        int words = (capacity + 63) >>> 6;
+        long[][] bits = new long[STATUS_COUNT + 1][words];
+        FinalizeTask task = new FinalizeTask(bits, 0, words);
+        if (parallel && capacity >= PARALLEL_THRESHOLD) {
+            pool().invoke(task);
+        } else {
+            task.compute();
+        }
+
+        for (int s = 0; s < STATUS_COUNT; s++) counts[s] = 0;
+        for (int w = 0; w < words; w++) {
+            for (int s = STATUS_PRESENT; s < STATUS_COUNT; s++) counts[s] += Long.bitCount(bits[s][w]);
+        }
+        undertimeCount = 0;
+        for (int w = 0; w < words; w++) undertimeCount += Long.bitCount(bits[STATUS_COUNT][w]);
+        counts[STATUS_OFF] = capacity - counts[STATUS_PRESENT] - counts[STATUS_LATE] - counts[STATUS_ABSENT];
+
+        return new Result(day, BitSet.valueOf(bits[STATUS_PRESENT]), BitSet.valueOf(bits[STATUS_LATE]),
+                BitSet.valueOf(bits[STATUS_ABSENT]), BitSet.valueOf(bits[STATUS_COUNT]),
+                System.nanoTime() - start);
+    }
+
+    /**
+     * Converts an epoch minute (as stored in the attendance log) to the local
+     * minute of an epoch day, in the device's time zone.
+     */
+    public static int minuteOfDay(int epochMinute, int epochDay) {
+        long millis = epochMinute * 60000L;
+        int local = (int) ((millis + TimeZone.getDefault().getOffset(millis)) / 60000L) - epochDay * MINUTES_PER_DAY;
+        return Math.max(0, Math.min(MINUTES_PER_DAY - 1, local));
+    }
+
+    private void applyEvent(int id, int minute, int type) {
+        if (type == DayEvents.CHECK_OUT) {
+            if (minute > lastOut[id]) lastOut[id] = (short) minute;
+        } else if (firstIn[id] == NONE || minute < firstIn[id]) {
+            firstIn[id] = (short) minute;
+        }
+    }
+
+    /**
+     * Recomputes one person's state, updating the counts and telling the
+     * listener if it changed. Returns the status without the undertime flag.
+     */
+    private int evaluate(int id) {
+        int state = judge(id, finalized);
+        int old = states[id];
+        if (state != old) {
+            states[id] = (byte) state;
+            counts[old & STATUS_MASK]--;
+            counts[state & STATUS_MASK]++;
+            undertimeCount += ((state & UNDERTIME) != 0 ? 1 : 0) - ((old & UNDERTIME) != 0 ? 1 : 0);
+            if (listener != null) {
+                listener.onStatusChanged(id, old & STATUS_MASK, state & STATUS_MASK, (state & UNDERTIME) != 0);
+            }
+        }
+
+        if ((state & STATUS_MASK) == STATUS_PENDING) {
+            int deadline = shiftStarts[id] + absentGrace;
+            // Deadlines past midnight are left to finalization
+            if (shiftStarts[id] != NONE && deadline < MINUTES_PER_DAY) addDeadline(Math.max(deadline, clock + 1), id);
+        }
+        return state & STATUS_MASK;
+    }
+
+    /**
+     * The rules themselves. Reads only the person's own slots, so it is safe
+     * to run for disjoint ids in parallel.
+     */
+    private int judge(int id, boolean isFinal) {
+        boolean scheduled = (dayMasks[id] & weekdayBit) != 0;
+        int start = shiftStarts[id];
+        int arrival = firstIn[id];
+
+        if (arrival == NONE) {
+            if (!scheduled) return STATUS_OFF;
+            if (isFinal) return STATUS_ABSENT;
+            if (start != NONE && clock >= start + absentGrace) return STATUS_ABSENT;
+            return STATUS_PENDING;
+        }
+        if (start == NONE) return STATUS_PRESENT;
+
+        // Signed minutes from the start, so arrivals before an overnight start count as early
+        int offset = (arrival - start + MINUTES_PER_DAY + MINUTES_PER_DAY / 2) % MINUTES_PER_DAY - MINUTES_PER_DAY / 2;
+        int state = offset > lateGrace ? STATUS_LATE : STATUS_PRESENT;
+
+        int end = shiftEnds[id];
+        int leave = lastOut[id];
+        if (scheduled && end > start && leave != NONE && leave >= arrival && leave < end - undertimeGrace) {
+            state |= UNDERTIME;
+        }
+        return state;
+    }
+
+    private void addDeadline(int minute, int id) {
+        if (minute >= MINUTES_PER_DAY) return;
+        int size = deadlineSizes[minute];
+        int[] bucket = deadlines[minute];
+        if (bucket == null) {
+            bucket = deadlines[minute] = new int[8];
+        } else if (size == bucket.length) {
+            bucket = deadlines[minute] = Arrays.copyOf(bucket, size * 2);
+        }
+        bucket[size] = id;
+        deadlineSizes[minute] = size + 1;
+    }
+
+    private void ensureCapacity(int size) {
+        if (size <= capacity) return;
+        if (size > dayMasks.length) {
+            int grown = Math.max(size, Math.max(64, dayMasks.length * 2));
+            dayMasks = Arrays.copyOf(dayMasks, grown);
+            shiftStarts = Arrays.copyOf(shiftStarts, grown);
+            shiftEnds = Arrays.copyOf(shiftEnds, grown);
+            firstIn = Arrays.copyOf(firstIn, grown);
+            lastOut = Arrays.copyOf(lastOut, grown);
+            states = Arrays.copyOf(states, grown);
+        }
+        Arrays.fill(shiftStarts, capacity, size, (short) NONE);
+        Arrays.fill(shiftEnds, capacity, size, (short) NONE);
+        Arrays.fill(firstIn, capacity, size, (short) NONE);
+        Arrays.fill(lastOut, capacity, size, (short) NONE);
+        counts[STATUS_OFF] += size - capacity;
+        capacity = size;
+    }
+
+    private static synchronized ForkJoinPool pool() {
+        if (pool == null) pool = new ForkJoinPool();
+        return pool;
+    }
+
+    /**
+     * Judges a range of 64-id words, writing each status (and undertime,
+     * the last row) into its own bitmap words, so tasks never share a word.
+     */
+    private class FinalizeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[][] bits;
+        private final int fromWord;
+        private final int toWord;
+
+        FinalizeTask(long[][] bits, int fromWord, int toWord) {
+            this.bits = bits;
+            this.fromWord = fromWord;
+            this.toWord = toWord;
+        }
+
+        @Override
+        protected void compute() {
+            if ((toWord - fromWord) * 64 > SEQUENTIAL_CUTOFF) {
+                int mid = (fromWord + toWord) >>> 1;
+                invokeAll(new FinalizeTask(bits, fromWord, mid), new FinalizeTask(bits, mid, toWord));
+                return;
+            }
+            int end = Math.min(capacity, toWord * 64);
+            for (int id = fromWord * 64; id < end; id++) {
+                int state = judge(id, true);
+                states[id] = (byte) state;
+                int status = state & STATUS_MASK;
+                if (status != STATUS_OFF) bits[status][id >>> 6] |= 1L << id;
+                if ((state & UNDERTIME) != 0) bits[STATUS_COUNT][id >>> 6] |= 1L << id;
+            }
+        }
+    }
+}
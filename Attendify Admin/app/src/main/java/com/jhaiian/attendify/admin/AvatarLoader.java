@@ -0,0 +1,235 @@
+package com.jhaiian.attendify.admin;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads roster avatars off the main thread.
+ *
+ * Images are decoded with inSampleSize close to the target view size, kept in
+ * a memory LruCache (1/8 of the heap) and written as small JPEG thumbnails to
+ * a disk cache so later launches skip the full-size decode. Each ImageView
+ * holds its pending request in its tag; binding it to a different source
+ * cancels the previous request.
+ */
+public class AvatarLoader {
+
+    private static final int DEFAULT_SIZE_PX = 160;
+    private static final long DISK_CACHE_BYTES = 20L * 1024 * 1024;
+    private static final int THUMBNAIL_QUALITY = 85;
+
+    private static AvatarLoader mInstance;
+
+    private final Context context;
+    private final LruCache<String, Bitmap> memoryCache;
+    private final File diskDir;
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public static synchronized AvatarLoader getInstance(Context context) {
+        if (mInstance == null) {
+            mInstance = new AvatarLoader(context.getApplicationContext());
+        }
+        return mInstance;
+    }
+
+    private AvatarLoader(Context context) {
+        this.context = context;
+
+        // Size the memory cache in KB to a fraction of the heap
+        int cacheKb = (int) (Runtime.getRuntime().maxMemory() / 1024 / 8);
+        this.memoryCache = new LruCache<String, Bitmap>(cacheKb) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount() / 1024;
+            }
+        };
+
+        this.diskDir = new File(context.getCacheDir(), "avatars");
+        FileUtil.makeDir(diskDir.getAbsolutePath());
+    }
+
+    /**
+     * Binds an avatar to the view. A null source shows the placeholder.
+     */
+    public void load(final ImageView view, final String source, int placeholderRes) {
+        Request previous = (Request) view.getTag();
+        if (previous != null) {
+            if (source != null && source.equals(previous.source) && !previous.cancelled) return;
+            previous.cancel();
+        }
+        view.setTag(null);
+
+        if (source == null) {
+            view.setImageResource(placeholderRes);
+            return;
+        }
+
+        int size = getTargetSize(view);
+        final String key = source + "@" + size;
+
+        Bitmap cached = memoryCache.get(key);
+        if (cached != null) {
+            view.setImageBitmap(cached);
+            return;
+        }
+
+        view.setImageResource(placeholderRes);
+        final Request request = new Request(source, key, size);
+        view.setTag(request);
+
+        request.future = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                if (request.cancelled) return;
+                final Bitmap bitmap = loadBitmap(request);
+                if (bitmap == null || request.cancelled) return;
+
+                memoryCache.put(request.key, bitmap);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!request.cancelled && view.getTag() == request) {
+                            view.setImageBitmap(bitmap);
+                            view.setTag(null);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Cancels any pending load for a view that is being recycled.
+     */
+    public void cancel(ImageView view) {
+        Request request = (Request) view.getTag();
+        if (request != null) {
+            request.cancel();
+            view.setTag(null);
+        }
+    }
+
+    private Bitmap loadBitmap(Request request) {
+        File thumbnail = new File(diskDir, hashKey(request.key) + ".jpg");
+
+        if (thumbnail.exists()) {
+            Bitmap bitmap = BitmapFactory.decodeFile(thumbnail.getAbsolutePath());
+            if (bitmap != null) {
+                thumbnail.setLastModified(System.currentTimeMillis());
+                return bitmap;
+            }
+            thumbnail.delete();
+        }
+
+        Bitmap bitmap;
+        if (request.source.startsWith("content:") || request.source.startsWith("file:")) {
+            bitmap = FileUtil.decodeSampleBitmapFromUri(context, Uri.parse(request.source), request.size, request.size);
+        } else {
+            bitmap = FileUtil.decodeSampleBitmapFromPath(request.source, request.size, request.size);
+        }
+
+        if (bitmap != null && !request.cancelled) {
+            writeThumbnail(bitmap, thumbnail);
+        }
+        return bitmap;
+    }
+
+    private void writeThumbnail(Bitmap bitmap, File target) {
+        File temp = new File(target.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, THUMBNAIL_QUALITY, out);
+        } catch (Exception e) {
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(target)) {
+            temp.delete();
+            return;
+        }
+        trimDiskCache();
+    }
+
+    /**
+     * Evicts the least recently used thumbnails once the disk cache is over budget.
+     */
+    private synchronized void trimDiskCache() {
+        File[] files = diskDir.listFiles();
+        if (files == null) return;
+
+        long total = 0;
+        for (File file : files) total += file.length();
+        if (total <= DISK_CACHE_BYTES) return;
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(a.lastModified(), b.lastModified());
+            }
+        });
+
+        for (File file : files) {
+            if (total <= DISK_CACHE_BYTES) break;
+            long length = file.length();
+            if (file.delete()) total -= length;
+        }
+    }
+
+    private static int getTargetSize(ImageView view) {
+        int size = Math.max(view.getWidth(), view.getHeight());
+        if (size <= 0) {
+            ViewGroup.LayoutParams params = view.getLayoutParams();
+            if (params != null) size = Math.max(params.width, params.height);
+        }
+        return size > 0 ? size : DEFAULT_SIZE_PX;
+    }
+
+    private static String hashKey(String key) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("MD5");
+            byte[] digest = md.digest(key.getBytes("UTF-8"));
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (Exception e) {
+            return Integer.toHexString(key.hashCode());
+        }
+    }
+
+    private static class Request {
+        final String source;
+        final String key;
+        final int size;
+        volatile boolean cancelled = false;
+        Future<?> future;
+
+        Request(String source, String key, int size) {
+            this.source = source;
+            this.key = key;
+            this.size = size;
+        }
+
+        void cancel() {
+            cancelled = true;
+            if (future != null) future.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.jhaiian.attendify.admin;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import com.google.zxing.RGBLuminanceSource;
+import com.google.zxing.ReaderException;
+import com.google.zxing.common.HybridBinarizer;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Decodes QR codes and common ID-card barcodes from camera frames or pixels.
+ *
+ * Built on ZXing core. The reader and its hints are built once and reused
+ * for every frame. Not thread-safe; give each worker its own.
+ */
+public class BarcodeDecoder {
+
+    private final MultiFormatReader reader = new MultiFormatReader();
+
+    public BarcodeDecoder() {
+        Map<DecodeHintType, Object> hints = new EnumMap<>(DecodeHintType.class);
+        // Fewer formats means fewer decoders tried on frames without a code
+        hints.put(DecodeHintType.POSSIBLE_FORMATS, Arrays.asList(
+                BarcodeFormat.QR_CODE, BarcodeFormat.CODE_128, BarcodeFormat.CODE_39, BarcodeFormat.EAN_13));
+        hints.put(DecodeHintType.CHARACTER_SET, "UTF-8");
+        reader.setHints(hints);
+    }
+
+    /**
+     * Decodes a camera frame whose first width * height bytes are luminance
+     * (NV21 and the other YUV 4:2:0 layouts). Returns null when no code is found.
+     */
+    public String decodeLuminance(byte[] frame, int width, int height) {
+        return decode(new PlanarYUVLuminanceSource(frame, width, height, 0, 0, width, height, false));
+    }
+
+    /**
+     * Decodes ARGB pixels, e.g. from a Bitmap or a still image. Returns null
+     * when no code is found.
+     */
+    public String decodeArgb(int[] pixels, int width, int height) {
+        return decode(new RGBLuminanceSource(width, height, pixels));
+    }
+
+    private String decode(LuminanceSource source) {
+        try {
+            return reader.decodeWithState(new BinaryBitmap(new HybridBinarizer(source))).getText();
+        } catch (ReaderException e) {
+            // No code, or a damaged one; the next frame will try again
+            return null;
+        } finally {
+            reader.reset();
+        }
+    }
+}
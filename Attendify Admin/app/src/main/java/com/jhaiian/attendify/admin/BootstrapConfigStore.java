@@ -0,0 +1,58 @@
+package com.jhaiian.attendify.admin;
+
+import android.content.Context;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Persists the last fully fetched {@link AppConfig} so the next launch can
+ * start from it immediately and revalidate in the background
+ * (stale-while-revalidate).
+ */
+public class BootstrapConfigStore {
+
+    // How old a snapshot may be before the kill-switch status must be re-fetched
+    public static final long DEFAULT_MAX_STATUS_STALENESS_MS = 15 * 60 * 1000L;
+
+    private static final String SNAPSHOT_FILE = "bootstrap_config.json";
+
+    private final File snapshotFile;
+    private final long maxStatusStalenessMs;
+
+    public BootstrapConfigStore(Context context) {
+        this(context, DEFAULT_MAX_STATUS_STALENESS_MS);
+    }
+
+    public BootstrapConfigStore(Context context, long maxStatusStalenessMs) {
+        this.snapshotFile = new File(context.getFilesDir(), SNAPSHOT_FILE);
+        this.maxStatusStalenessMs = maxStatusStalenessMs;
+    }
+
+    /**
+     * Returns the saved snapshot, or null if there is none or it is unreadable.
+     */
+    public AppConfig load() {
+        if (!snapshotFile.exists()) return null;
+        try (Reader json = FileIo.openText(snapshotFile)) {
+            return AppConfig.fromJson(json);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public void save(AppConfig config) {
+        FileUtil.writeFile(snapshotFile.getAbsolutePath(), config.toJson());
+    }
+
+    /**
+     * True when the snapshot is recent enough to gate startup on its status
+     * without waiting for the network.
+     */
+    public boolean isUsable(AppConfig config) {
+        return config != null
+                && config.status != null
+                && config.getAgeMillis(System.currentTimeMillis()) <= maxStatusStalenessMs;
+    }
+}
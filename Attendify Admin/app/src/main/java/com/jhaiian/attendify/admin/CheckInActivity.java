@@ -0,0 +1,373 @@
+package com.jhaiian.attendify.admin;
+
+import android.Manifest;
+import android.content.pm.PackageManager;
+import android.graphics.Color;
+import android.hardware.Camera;
+import android.media.AudioManager;
+import android.media.ToneGenerator;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.Gravity;
+import android.view.SurfaceHolder;
+import android.view.SurfaceView;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.WindowManager;
+import android.widget.Button;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.app.ActivityCompat;
+import androidx.core.content.ContextCompat;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.shashank.sony.fancytoastlib.FancyToast;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Gate scanner: shows the camera and records a check-in (or check-out)
+ * for every roster code it reads.
+ *
+ * Preview frames arrive in two reusable buffers. One is with the decoder
+ * while the camera fills the other; a frame that arrives while the decoder
+ * is busy goes straight back to the camera (see {@link CheckInPipeline}).
+ * The layout is built in code.
+ */
+public class CheckInActivity extends AppCompatActivity {
+
+    private static final String TAG = "CheckInActivity";
+    private static final int REQ_CODE_CAMERA = 200;
+    private static final int PREVIEW_WIDTH = 1280;
+    private static final int PREVIEW_HEIGHT = 720;
+    private static final long STATS_INTERVAL_MS = 1000;
+
+    private final ScanResolver resolver = new ScanResolver();
+    private final HashMap<Integer, String> names = new HashMap<>();
+    private final AttendanceRulesEngine rules = new AttendanceRulesEngine();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private CheckInPipeline pipeline;
+    private ToneGenerator toneGenerator;
+    private SurfaceView surfaceView;
+    private TextView textStatus;
+    private TextView textStats;
+    private TextView textCounts;
+    private DashboardCounters counters;
+    private Button buttonMode;
+
+    private Camera camera;
+    private int previewWidth;
+    private int previewHeight;
+    private boolean surfaceReady;
+    private boolean checkingOut;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        getWindow().addFlags(WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON);
+        setContentView(buildLayout());
+        setTitle("Gate check-in");
+
+        toneGenerator = new ToneGenerator(AudioManager.STREAM_NOTIFICATION, 80);
+
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        pipeline = new CheckInPipeline(resolver, AttendanceLog.getInstance(this),
+                AttendanceIndex.getInstance(this), rules, SyncEngine.getInstance(this),
+                user != null ? user.getUid() : null, new CheckInPipeline.Listener() {
+            @Override
+            public void onCheckIn(int personId, String personKey, int type, int status, boolean undertime) {
+                String name = names.get(personId);
+                String time = new SimpleDateFormat("HH:mm", Locale.getDefault()).format(new Date());
+                String note = "";
+                if (type == DayEvents.CHECK_OUT && undertime) {
+                    note = " (undertime)";
+                } else if (type == DayEvents.CHECK_IN && status == AttendanceRulesEngine.STATUS_LATE) {
+                    note = " (late)";
+                }
+                textStatus.setTextColor(note.isEmpty() ? Color.GREEN : Color.YELLOW);
+                textStatus.setText((name != null ? name : personKey) + "\n"
+                        + (type == DayEvents.CHECK_OUT ? "Checked out " : "Checked in ") + time + note);
+                toneGenerator.startTone(ToneGenerator.TONE_PROP_ACK, 150);
+            }
+
+            @Override
+            public void onUnknownCode(String code) {
+                textStatus.setTextColor(Color.RED);
+                textStatus.setText("Not on the roster\n" + code);
+                toneGenerator.startTone(ToneGenerator.TONE_PROP_NACK, 300);
+            }
+        });
+
+        textStatus.setText("Loading roster...");
+        RosterDatabase.getInstance(this).loadPersonKeysAsync(new RosterDatabase.OnPersonKeysLoadedListener() {
+            @Override
+            public void onPersonKeysLoaded(String[] keys, int[] ids, String[] personNames) {
+                for (int i = 0; i < keys.length; i++) {
+                    if (keys[i] == null) continue;
+                    resolver.put(keys[i], ids[i]);
+                    names.put(ids[i], personNames[i]);
+                }
+                textStatus.setTextColor(Color.WHITE);
+                textStatus.setText("Ready: " + resolver.size() + " people");
+            }
+        });
+        loadRules();
+    }
+
+    /**
+     * Feeds the rules engine everyone's schedule and the check-ins already
+     * recorded today, so late and undertime are judged the same after a
+     * restart. Today's counts follow the engine through the dashboard counters.
+     */
+    private void loadRules() {
+        final int today = AttendanceLog.epochDay(System.currentTimeMillis());
+        counters = new DashboardCounters(new ChoreographerScheduler(), new DashboardCounters.Listener() {
+            @Override
+            public void onCountersChanged(DashboardCounters.Snapshot snapshot) {
+                int[] total = snapshot.total;
+                textCounts.setText(DashboardCounters.Snapshot.arrived(total) + " in   "
+                        + total[AttendanceRulesEngine.STATUS_LATE] + " late   "
+                        + total[AttendanceRulesEngine.STATUS_PENDING] + " not yet   "
+                        + total[AttendanceRulesEngine.STATUS_ABSENT] + " absent");
+            }
+        });
+        rules.setOnStatusChangeListener(counters);
+        rules.startDay(today);
+        RosterDatabase.getInstance(this).loadAllAsync(RosterDatabase.DEFAULT_PAGE_SIZE,
+                new RosterDatabase.OnPageLoadedListener() {
+            @Override
+            public void onPageLoaded(RosterDatabase.Page page) {
+                for (int i = 0; i < page.count; i++) {
+                    counters.put(page.ids[i], page.people[i]);
+                    rules.put(page.ids[i], page.people[i]);
+                }
+            }
+
+            @Override
+            public void onLoadFinished(int total) {
+                // Each person was judged as their schedule arrived
+            }
+        });
+        AttendanceLog.getInstance(this).loadDayAsync(today, new AttendanceLog.OnDayLoadedListener() {
+            @Override
+            public void onDayLoaded(DayEvents events) {
+                for (int i = 0; i < events.count; i++) {
+                    rules.record(today, events.personIds[i],
+                            AttendanceRulesEngine.minuteOfDay(events.minutes[i], today), events.types[i]);
+                }
+            }
+        });
+    }
+
+    private FrameLayout buildLayout() {
+        FrameLayout root = new FrameLayout(this);
+        root.setBackgroundColor(Color.BLACK);
+
+        surfaceView = new SurfaceView(this);
+        root.addView(surfaceView, new FrameLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        surfaceView.getHolder().addCallback(new SurfaceHolder.Callback() {
+            @Override
+            public void surfaceCreated(@NonNull SurfaceHolder holder) {
+                surfaceReady = true;
+                startCamera();
+            }
+
+            @Override
+            public void surfaceChanged(@NonNull SurfaceHolder holder, int format, int width, int height) {
+            }
+
+            @Override
+            public void surfaceDestroyed(@NonNull SurfaceHolder holder) {
+                surfaceReady = false;
+                stopCamera();
+            }
+        });
+
+        int padding = (int) (16 * getResources().getDisplayMetrics().density);
+        LinearLayout panel = new LinearLayout(this);
+        panel.setOrientation(LinearLayout.VERTICAL);
+        panel.setPadding(padding, padding, padding, padding);
+        panel.setBackgroundColor(0xB0000000);
+
+        textStatus = new TextView(this);
+        textStatus.setTextColor(Color.WHITE);
+        textStatus.setTextSize(22);
+        textStatus.setGravity(Gravity.CENTER);
+        panel.addView(textStatus);
+
+        textCounts = new TextView(this);
+        textCounts.setTextColor(Color.WHITE);
+        textCounts.setTextSize(16);
+        textCounts.setGravity(Gravity.CENTER);
+        panel.addView(textCounts);
+
+        textStats = new TextView(this);
+        textStats.setTextColor(Color.LTGRAY);
+        textStats.setTextSize(12);
+        textStats.setGravity(Gravity.CENTER);
+        panel.addView(textStats);
+
+        buttonMode = new Button(this);
+        buttonMode.setText("Mode: Check-in");
+        buttonMode.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                toggleMode();
+            }
+        });
+        panel.addView(buttonMode);
+
+        root.addView(panel, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.WRAP_CONTENT, Gravity.BOTTOM));
+        return root;
+    }
+
+    private void toggleMode() {
+        checkingOut = !checkingOut;
+        pipeline.setEventType(checkingOut ? DayEvents.CHECK_OUT : DayEvents.CHECK_IN);
+        buttonMode.setText(checkingOut ? "Mode: Check-out" : "Mode: Check-in");
+        setTitle(checkingOut ? "Gate check-out" : "Gate check-in");
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        if (ContextCompat.checkSelfPermission(this, Manifest.permission.CAMERA) != PackageManager.PERMISSION_GRANTED) {
+            ActivityCompat.requestPermissions(this, new String[]{Manifest.permission.CAMERA}, REQ_CODE_CAMERA);
+        } else {
+            startCamera();
+        }
+        mainHandler.postDelayed(statsUpdater, STATS_INTERVAL_MS);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        mainHandler.removeCallbacks(statsUpdater);
+        stopCamera();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        pipeline.shutdown();
+        toneGenerator.release();
+    }
+
+    @Override
+    public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults) {
+        super.onRequestPermissionsResult(requestCode, permissions, grantResults);
+        if (requestCode != REQ_CODE_CAMERA) return;
+        if (grantResults.length > 0 && grantResults[0] == PackageManager.PERMISSION_GRANTED) {
+            startCamera();
+        } else {
+            FancyToast.makeText(this, "Camera permission is needed to scan codes",
+                    FancyToast.LENGTH_LONG, FancyToast.ERROR, false).show();
+            finish();
+        }
+    }
+
+    private final Runnable statsUpdater = new Runnable() {
+        @Override
+        public void run() {
+            textStats.setText(String.format(Locale.US, "%.2f scans/s   %d frames, %d dropped   %.0f ms/frame",
+                    pipeline.getScansPerSecond(), pipeline.getFramesDecoded(), pipeline.getFramesDropped(),
+                    pipeline.getAverageDecodeMillis()));
+            mainHandler.postDelayed(this, STATS_INTERVAL_MS);
+        }
+    };
+
+    private void startCamera() {
+        if (camera != null || !surfaceReady) return;
+        if (ContextCompat.checkSelfPermission(this, Manifest.permission.CAMERA) != PackageManager.PERMISSION_GRANTED) {
+            return;
+        }
+
+        try {
+            camera = Camera.open();
+            if (camera == null) throw new IOException("No back camera");
+
+            Camera.Parameters parameters = camera.getParameters();
+            Camera.Size size = choosePreviewSize(parameters.getSupportedPreviewSizes());
+            parameters.setPreviewSize(size.width, size.height);
+            if (parameters.getSupportedFocusModes().contains(Camera.Parameters.FOCUS_MODE_CONTINUOUS_PICTURE)) {
+                parameters.setFocusMode(Camera.Parameters.FOCUS_MODE_CONTINUOUS_PICTURE);
+            }
+            camera.setParameters(parameters);
+            camera.setDisplayOrientation(90);
+            camera.setPreviewDisplay(surfaceView.getHolder());
+
+            previewWidth = size.width;
+            previewHeight = size.height;
+            // NV21: a full-size luminance plane plus quarter-size interleaved chroma
+            int bufferSize = previewWidth * previewHeight * 3 / 2;
+            camera.addCallbackBuffer(new byte[bufferSize]);
+            camera.addCallbackBuffer(new byte[bufferSize]);
+            camera.setPreviewCallbackWithBuffer(new Camera.PreviewCallback() {
+                @Override
+                public void onPreviewFrame(byte[] data, Camera source) {
+                    if (!pipeline.offerFrame(data, previewWidth, previewHeight, recycler)) {
+                        source.addCallbackBuffer(data);
+                    }
+                }
+            });
+            camera.startPreview();
+        } catch (IOException | RuntimeException e) {
+            Log.e(TAG, "Could not start the camera", e);
+            stopCamera();
+            FancyToast.makeText(this, "Could not open the camera", FancyToast.LENGTH_LONG, FancyToast.ERROR, false).show();
+        }
+    }
+
+    // Buffers come back from the decoder thread; hand them to the camera on the main thread
+    private final CheckInPipeline.FrameRecycler recycler = new CheckInPipeline.FrameRecycler() {
+        @Override
+        public void recycle(final byte[] frame) {
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    // Buffers of a stopped camera are simply dropped
+                    if (camera != null && frame.length == previewWidth * previewHeight * 3 / 2) {
+                        camera.addCallbackBuffer(frame);
+                    }
+                }
+            });
+        }
+    };
+
+    private void stopCamera() {
+        if (camera == null) return;
+        camera.setPreviewCallbackWithBuffer(null);
+        camera.stopPreview();
+        camera.release();
+        camera = null;
+    }
+
+    /**
+     * The supported size closest in area to 1280x720: enough pixels for a
+     * card at arm's length without slowing the decoder down.
+     */
+    private static Camera.Size choosePreviewSize(List<Camera.Size> sizes) {
+        Camera.Size best = sizes.get(0);
+        long target = (long) PREVIEW_WIDTH * PREVIEW_HEIGHT;
+        for (Camera.Size size : sizes) {
+            long area = (long) size.width * size.height;
+            if (Math.abs(area - target) < Math.abs((long) best.width * best.height - target)) best = size;
+        }
+        return best;
+    }
+}
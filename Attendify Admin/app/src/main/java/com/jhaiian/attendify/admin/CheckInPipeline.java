@@ -0,0 +1,207 @@
+package com.jhaiian.attendify.admin;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.google.firebase.database.ServerValue;
+
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Turns camera frames into attendance events.
+ *
+ * Frames are decoded on one dedicated worker. While it is busy, new frames
+ * are dropped rather than queued, so a slow decode never delays the next
+ * usable frame and latency stays at one frame. A decoded code is resolved
+ * through {@link ScanResolver}; accepted scans are judged by the
+ * {@link AttendanceRulesEngine}, appended to {@link AttendanceLog}, marked
+ * present or late in {@link AttendanceIndex} and queued for upload, all
+ * asynchronously, and the listener hears about them on the main thread.
+ */
+public class CheckInPipeline {
+
+    /**
+     * Called on the main thread.
+     */
+    public interface Listener {
+        /**
+         * Status is the person's {@link AttendanceRulesEngine} status after
+         * the event; undertime is set once they leave too early.
+         */
+        void onCheckIn(int personId, String personKey, int type, int status, boolean undertime);
+
+        /** A code was read that matches no one on the roster. */
+        void onUnknownCode(String code);
+    }
+
+    /**
+     * Takes back a frame buffer once the pipeline is done with it, e.g. by
+     * returning it to the camera. Called on any thread.
+     */
+    public interface FrameRecycler {
+        void recycle(byte[] frame);
+    }
+
+    private final BarcodeDecoder decoder = new BarcodeDecoder();
+    private final ScanResolver resolver;
+    private final AttendanceLog attendanceLog;
+    private final AttendanceIndex attendanceIndex;
+    private final AttendanceRulesEngine rules;
+    private final SyncEngine syncEngine;
+    private final String uid;
+    private final Listener listener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean busy = new AtomicBoolean();
+    private volatile int eventType = DayEvents.CHECK_IN;
+
+    private final AtomicLong framesDecoded = new AtomicLong();
+    private final AtomicLong framesDropped = new AtomicLong();
+    private final AtomicLong scans = new AtomicLong();
+    private final AtomicLong decodeNanos = new AtomicLong();
+    private final long startedAt = SystemClock.elapsedRealtime();
+
+    // Last unknown code reported, so an unregistered card is not announced every frame
+    private String lastUnknown;
+
+    /**
+     * uid may be null, in which case check-ins are only stored locally.
+     */
+    public CheckInPipeline(ScanResolver resolver, AttendanceLog attendanceLog, AttendanceIndex attendanceIndex,
+                           AttendanceRulesEngine rules, SyncEngine syncEngine, String uid, Listener listener) {
+        this.resolver = resolver;
+        this.attendanceLog = attendanceLog;
+        this.attendanceIndex = attendanceIndex;
+        this.rules = rules;
+        this.syncEngine = syncEngine;
+        this.uid = uid;
+        this.listener = listener;
+    }
+
+    /**
+     * Sets whether accepted scans record a check-in or a check-out.
+     */
+    public void setEventType(int eventType) {
+        this.eventType = eventType;
+    }
+
+    /**
+     * Hands a frame to the worker, or drops it if the worker is still busy.
+     * An accepted frame is given back through recycler once decoded; a
+     * dropped one stays with the caller. Returns whether it was accepted.
+     */
+    public boolean offerFrame(final byte[] frame, final int width, final int height, final FrameRecycler recycler) {
+        if (!busy.compareAndSet(false, true)) {
+            framesDropped.incrementAndGet();
+            return false;
+        }
+        try {
+            worker.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        long start = System.nanoTime();
+                        String code = decoder.decodeLuminance(frame, width, height);
+                        decodeNanos.addAndGet(System.nanoTime() - start);
+                        framesDecoded.incrementAndGet();
+                        if (code != null) handleCode(code);
+                    } finally {
+                        recycler.recycle(frame);
+                        busy.set(false);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shut down; the caller keeps the frame
+            busy.set(false);
+            return false;
+        }
+        return true;
+    }
+
+    private void handleCode(final String code) {
+        long now = System.currentTimeMillis();
+        final int id = resolver.resolve(code, now);
+        if (id == ScanResolver.DUPLICATE) return;
+
+        if (id == ScanResolver.UNKNOWN) {
+            if (code.equals(lastUnknown)) return;
+            lastUnknown = code;
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    listener.onUnknownCode(code);
+                }
+            });
+            return;
+        }
+        lastUnknown = null;
+        scans.incrementAndGet();
+
+        final int type = eventType;
+        final String personKey = code.trim();
+        final int day = AttendanceLog.epochDay(now);
+        final int status = rules.record(day, id,
+                AttendanceRulesEngine.minuteOfDay(AttendanceLog.epochMinute(now), day), type);
+        final boolean undertime = rules.isUndertime(id);
+
+        attendanceLog.append(id, now, type);
+        if (type == DayEvents.CHECK_IN) {
+            attendanceIndex.setAsync(day, id, status == AttendanceRulesEngine.STATUS_LATE
+                    ? AttendanceIndex.LATE : AttendanceIndex.PRESENT);
+        }
+        if (uid != null) {
+            HashMap<String, Object> value = new HashMap<>();
+            value.put("person", personKey);
+            value.put("time", now);
+            value.put("type", type);
+            value.put("updatedAt", ServerValue.TIMESTAMP);
+            syncEngine.enqueue(SyncEngine.attendancePath(uid, day, personKey,
+                    AttendanceLog.epochMinute(now), type), value);
+        }
+
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                listener.onCheckIn(id, personKey, type, status, undertime);
+            }
+        });
+    }
+
+    /**
+     * Accepted scans per second since the pipeline started.
+     */
+    public double getScansPerSecond() {
+        long elapsed = SystemClock.elapsedRealtime() - startedAt;
+        return elapsed > 0 ? scans.get() * 1000.0 / elapsed : 0;
+    }
+
+    public long getFramesDecoded() {
+        return framesDecoded.get();
+    }
+
+    public long getFramesDropped() {
+        return framesDropped.get();
+    }
+
+    /**
+     * Mean decode time per frame, in milliseconds.
+     */
+    public double getAverageDecodeMillis() {
+        long frames = framesDecoded.get();
+        return frames > 0 ? decodeNanos.get() / 1e6 / frames : 0;
+    }
+
+    /**
+     * Stops the worker. Frames already handed over are still recycled.
+     */
+    public void shutdown() {
+        worker.shutdown();
+    }
+}
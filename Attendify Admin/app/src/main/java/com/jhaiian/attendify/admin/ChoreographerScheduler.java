@@ -0,0 +1,30 @@
+package com.jhaiian.attendify.admin;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+/**
+ * Runs {@link DashboardCounters} frames on the main thread, just before
+ * the next display frame is drawn. Can be posted to from any thread.
+ */
+public class ChoreographerScheduler implements DashboardCounters.FrameScheduler {
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    @Override
+    public void postFrame(final Runnable frame) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                // Choreographer is per thread, so it is looked up on the main one
+                Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+                    @Override
+                    public void doFrame(long frameTimeNanos) {
+                        frame.run();
+                    }
+                });
+            }
+        });
+    }
+}
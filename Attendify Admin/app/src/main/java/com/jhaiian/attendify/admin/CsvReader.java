@@ -0,0 +1,104 @@
+package com.jhaiian.attendify.admin;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+
+/**
+ * Streaming RFC 4180 reader: quoted fields may contain commas, doubled
+ * quotes and line breaks. Rows end with CRLF, LF or CR, and a leading
+ * byte order mark is skipped. Only one row is held in memory at a time.
+ * Row numbers count records, so a quoted line break does not shift them.
+ */
+public class CsvReader implements RowReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean started;
+    private int rowNumber;
+
+    private final ArrayList<String> fields = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public String[] readRow() throws IOException {
+        int c = read();
+        if (!started) {
+            started = true;
+            if (c == '\uFEFF') c = read();
+        }
+        if (c == -1) return null;
+
+        fields.clear();
+        field.setLength(0);
+        boolean quoted = false;
+
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    // Unterminated quote: keep what was read
+                    break;
+                } else if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else if (c == '\r') {
+                int next = read();
+                if (next != '\n' && next != -1) position--;
+                break;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+
+        fields.add(field.toString());
+        rowNumber++;
+        return fields.toArray(new String[0]);
+    }
+
+    @Override
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
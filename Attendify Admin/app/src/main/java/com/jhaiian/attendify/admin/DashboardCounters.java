@@ -0,0 +1,220 @@
+package com.jhaiian.attendify.admin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Today's attendance counts per role, grade and class, kept up to date
+ * from {@link AttendanceRulesEngine} status changes.
+ *
+ * Each person remembers their role, grade group and class group and
+ * their last status, so a status change is a decrement and an increment
+ * in four count rows (total, role, grade, class), whatever the roster
+ * size. Nothing ever loops over the roster; only a new day resets the
+ * per-person statuses.
+ *
+ * Changes can arrive on any thread. The listener gets an immutable
+ * {@link Snapshot} from the {@link FrameScheduler} at most once per frame
+ * ({@link ChoreographerScheduler} on a device), so hundreds of scans a
+ * minute cost one copy of the count rows per frame.
+ */
+public class DashboardCounters implements AttendanceRulesEngine.OnStatusChangeListener {
+
+    private static final int ROLE_COUNT = 3;
+    private static final int STATUS_COUNT = AttendanceRulesEngine.STATUS_COUNT;
+    private static final int NO_GROUP = -1;
+
+    public interface Listener {
+        /** Called from the scheduler's frame, at most once per frame. */
+        void onCountersChanged(Snapshot snapshot);
+    }
+
+    /**
+     * Runs the snapshot for the next frame; called from any thread.
+     */
+    public interface FrameScheduler {
+        void postFrame(Runnable frame);
+    }
+
+    /**
+     * Counts at one moment, indexed by {@link AttendanceRulesEngine} status.
+     */
+    public static class Snapshot {
+        public final int day;
+        public final int[] total;
+        public final int[][] byRole;
+
+        // Grade names, and "grade - section" class names, in first-seen order
+        public final String[] grades;
+        public final int[][] byGrade;
+        public final String[] classes;
+        public final int[][] byClass;
+
+        Snapshot(int day, int[] total, int[][] byRole, String[] grades, int[][] byGrade,
+                 String[] classes, int[][] byClass) {
+            this.day = day;
+            this.total = total;
+            this.byRole = byRole;
+            this.grades = grades;
+            this.byGrade = byGrade;
+            this.classes = classes;
+            this.byClass = byClass;
+        }
+
+        /**
+         * Everyone scheduled or present: all but the off statuses.
+         */
+        public static int expected(int[] counts) {
+            return counts[AttendanceRulesEngine.STATUS_PENDING] + counts[AttendanceRulesEngine.STATUS_PRESENT]
+                    + counts[AttendanceRulesEngine.STATUS_LATE] + counts[AttendanceRulesEngine.STATUS_ABSENT];
+        }
+
+        /**
+         * Present including late arrivals.
+         */
+        public static int arrived(int[] counts) {
+            return counts[AttendanceRulesEngine.STATUS_PRESENT] + counts[AttendanceRulesEngine.STATUS_LATE];
+        }
+    }
+
+    private final FrameScheduler scheduler;
+    private final Listener listener;
+    private final AtomicBoolean framePending = new AtomicBoolean();
+
+    // Per person id
+    private byte[] roles = new byte[0];
+    private int[] gradeGroups = new int[0];
+    private int[] classGroups = new int[0];
+    private byte[] statuses = new byte[0];
+
+    private int day = Integer.MIN_VALUE;
+    private final int[] total = new int[STATUS_COUNT];
+    private final int[][] byRole = new int[ROLE_COUNT][STATUS_COUNT];
+    private final HashMap<String, Integer> gradeIndex = new HashMap<>();
+    private final ArrayList<String> grades = new ArrayList<>();
+    private final ArrayList<int[]> byGrade = new ArrayList<>();
+    private final HashMap<String, Integer> classIndex = new HashMap<>();
+    private final ArrayList<String> classes = new ArrayList<>();
+    private final ArrayList<int[]> byClass = new ArrayList<>();
+
+    public DashboardCounters(FrameScheduler scheduler, Listener listener) {
+        this.scheduler = scheduler;
+        this.listener = listener;
+    }
+
+    /**
+     * Adds or moves a person between groups, carrying their current status along.
+     */
+    public synchronized void put(int id, Person person) {
+        ensureCapacity(id + 1);
+        int status = statuses[id];
+        if (roles[id] >= 0) apply(id, status, -1);
+
+        roles[id] = (byte) Math.max(0, Math.min(ROLE_COUNT - 1, person.role));
+        boolean classed = person.role == Person.ROLE_STUDENT && person.grade != null && person.section != null;
+        gradeGroups[id] = classed ? group(gradeIndex, grades, byGrade, person.grade) : NO_GROUP;
+        classGroups[id] = classed
+                ? group(classIndex, classes, byClass, person.grade + " - " + person.section) : NO_GROUP;
+
+        apply(id, status, 1);
+        publish();
+    }
+
+    @Override
+    public synchronized void onDayStarted(int epochDay) {
+        day = epochDay;
+        Arrays.fill(statuses, (byte) AttendanceRulesEngine.STATUS_OFF);
+        clear(total);
+        for (int[] counts : byRole) clear(counts);
+        for (int[] counts : byGrade) clear(counts);
+        for (int[] counts : byClass) clear(counts);
+        for (int id = 0; id < roles.length; id++) {
+            if (roles[id] >= 0) apply(id, AttendanceRulesEngine.STATUS_OFF, 1);
+        }
+        publish();
+    }
+
+    @Override
+    public synchronized void onStatusChanged(int personId, int oldStatus, int newStatus, boolean undertime) {
+        ensureCapacity(personId + 1);
+        // People not on the roster yet only keep their status until put() places them
+        if (roles[personId] >= 0) {
+            apply(personId, statuses[personId], -1);
+            apply(personId, newStatus, 1);
+        }
+        statuses[personId] = (byte) newStatus;
+        publish();
+    }
+
+    /**
+     * Copies the current counts; cost depends on the number of groups only.
+     */
+    public synchronized Snapshot snapshot() {
+        int[][] roleCopy = new int[ROLE_COUNT][];
+        for (int r = 0; r < ROLE_COUNT; r++) roleCopy[r] = byRole[r].clone();
+        return new Snapshot(day, total.clone(), roleCopy,
+                grades.toArray(new String[0]), copyRows(byGrade),
+                classes.toArray(new String[0]), copyRows(byClass));
+    }
+
+    private void apply(int id, int status, int delta) {
+        total[status] += delta;
+        byRole[roles[id]][status] += delta;
+        if (gradeGroups[id] != NO_GROUP) byGrade.get(gradeGroups[id])[status] += delta;
+        if (classGroups[id] != NO_GROUP) byClass.get(classGroups[id])[status] += delta;
+    }
+
+    private static int group(HashMap<String, Integer> index, ArrayList<String> names,
+                             ArrayList<int[]> rows, String name) {
+        Integer group = index.get(name);
+        if (group == null) {
+            group = names.size();
+            index.put(name, group);
+            names.add(name);
+            rows.add(new int[STATUS_COUNT]);
+        }
+        return group;
+    }
+
+    private static int[][] copyRows(ArrayList<int[]> rows) {
+        int[][] copy = new int[rows.size()][];
+        for (int i = 0; i < copy.length; i++) copy[i] = rows.get(i).clone();
+        return copy;
+    }
+
+    private static void clear(int[] counts) {
+        Arrays.fill(counts, 0);
+    }
+
+    private void ensureCapacity(int size) {
+        if (size <= roles.length) return;
+        int old = roles.length;
+        int grown = Math.max(size, Math.max(64, old * 2));
+        roles = Arrays.copyOf(roles, grown);
+        gradeGroups = Arrays.copyOf(gradeGroups, grown);
+        classGroups = Arrays.copyOf(classGroups, grown);
+        statuses = Arrays.copyOf(statuses, grown);
+        // New slots are off and not on the roster
+        Arrays.fill(roles, old, grown, (byte) -1);
+        Arrays.fill(gradeGroups, old, grown, NO_GROUP);
+        Arrays.fill(classGroups, old, grown, NO_GROUP);
+    }
+
+    /**
+     * Asks for a snapshot on the next frame unless one is already on its way.
+     */
+    private void publish() {
+        if (framePending.compareAndSet(false, true)) scheduler.postFrame(frame);
+    }
+
+    private final Runnable frame = new Runnable() {
+        @Override
+        public void run() {
+            // Cleared first, so changes made while copying schedule the next frame
+            framePending.set(false);
+            listener.onCountersChanged(snapshot());
+        }
+    };
+}
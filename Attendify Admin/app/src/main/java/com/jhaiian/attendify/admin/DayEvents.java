@@ -0,0 +1,25 @@
+package com.jhaiian.attendify.admin;
+
+/**
+ * Raw check-in/check-out events of one day in arrival order, as read from
+ * an {@link AttendanceLog} segment.
+ */
+public class DayEvents {
+
+    public static final int CHECK_IN = 0;
+    public static final int CHECK_OUT = 1;
+
+    public final int day;
+    public final int[] personIds;
+    public final int[] minutes;
+    public final int[] types;
+    public final int count;
+
+    DayEvents(int day, int[] personIds, int[] minutes, int[] types, int count) {
+        this.day = day;
+        this.personIds = personIds;
+        this.minutes = minutes;
+        this.types = types;
+        this.count = count;
+    }
+}
@@ -0,0 +1,112 @@
+package com.jhaiian.attendify.admin;
+
+import java.util.Arrays;
+
+/**
+ * Per-person totals of one day, sorted by person id, as {@link AttendanceLog}
+ * compacts them. Minutes are epoch minutes; -1 means no such event.
+ */
+public class DaySummary {
+
+    public final int day;
+    public final int[] personIds;
+    public final int[] firstIn;
+    public final int[] lastOut;
+    public final int[] checkIns;
+    public final int[] checkOuts;
+    public final int count;
+
+    DaySummary(int day, int count) {
+        this.day = day;
+        this.count = count;
+        this.personIds = new int[count];
+        this.firstIn = new int[count];
+        this.lastOut = new int[count];
+        this.checkIns = new int[count];
+        this.checkOuts = new int[count];
+    }
+
+    /**
+     * Returns the index of a person, or -1 if they have no events that day.
+     */
+    public int indexOf(int personId) {
+        int index = Arrays.binarySearch(personIds, 0, count, personId);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Folds a day's raw events into per-person totals.
+     */
+    static DaySummary summarize(DayEvents events) {
+        // Sort event indexes by person so each person's events are contiguous
+        long[] order = new long[events.count];
+        for (int i = 0; i < events.count; i++) {
+            order[i] = ((long) events.personIds[i] << 32) | i;
+        }
+        Arrays.sort(order);
+
+        int people = 0;
+        for (int i = 0; i < order.length; i++) {
+            if (i == 0 || (order[i] >> 32) != (order[i - 1] >> 32)) people++;
+        }
+
+        DaySummary summary = new DaySummary(events.day, people);
+        int slot = -1;
+        for (int i = 0; i < order.length; i++) {
+            int index = (int) order[i];
+            int personId = (int) (order[i] >> 32);
+            if (slot < 0 || summary.personIds[slot] != personId) {
+                slot++;
+                summary.personIds[slot] = personId;
+                summary.firstIn[slot] = -1;
+                summary.lastOut[slot] = -1;
+            }
+            int minute = events.minutes[index];
+            if (events.types[index] == DayEvents.CHECK_IN) {
+                summary.checkIns[slot]++;
+                if (summary.firstIn[slot] < 0 || minute < summary.firstIn[slot]) summary.firstIn[slot] = minute;
+            } else if (events.types[index] == DayEvents.CHECK_OUT) {
+                summary.checkOuts[slot]++;
+                if (minute > summary.lastOut[slot]) summary.lastOut[slot] = minute;
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Combines two summaries of the same day. Either may be null.
+     */
+    static DaySummary merge(DaySummary a, DaySummary b) {
+        if (a == null || a.count == 0) return b != null ? b : a;
+        if (b == null || b.count == 0) return a;
+
+        int people = 0;
+        for (int i = 0, j = 0; i < a.count || j < b.count; people++) {
+            if (j == b.count || (i < a.count && a.personIds[i] < b.personIds[j])) i++;
+            else if (i == a.count || b.personIds[j] < a.personIds[i]) j++;
+            else { i++; j++; }
+        }
+
+        DaySummary merged = new DaySummary(a.day, people);
+        for (int i = 0, j = 0, slot = 0; slot < people; slot++) {
+            boolean fromA = j == b.count || (i < a.count && a.personIds[i] <= b.personIds[j]);
+            boolean fromB = i == a.count || (j < b.count && b.personIds[j] <= a.personIds[i]);
+            merged.personIds[slot] = fromA ? a.personIds[i] : b.personIds[j];
+            merged.firstIn[slot] = -1;
+            merged.lastOut[slot] = -1;
+            if (fromA) addInto(merged, slot, a, i++);
+            if (fromB) addInto(merged, slot, b, j++);
+        }
+        return merged;
+    }
+
+    private static void addInto(DaySummary target, int slot, DaySummary source, int index) {
+        int firstIn = source.firstIn[index];
+        if (firstIn >= 0 && (target.firstIn[slot] < 0 || firstIn < target.firstIn[slot])) {
+            target.firstIn[slot] = firstIn;
+        }
+        target.lastOut[slot] = Math.max(target.lastOut[slot], source.lastOut[index]);
+        target.checkIns[slot] += source.checkIns[index];
+        target.checkOuts[slot] += source.checkOuts[index];
+    }
+}
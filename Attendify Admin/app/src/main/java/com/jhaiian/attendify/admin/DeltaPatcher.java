@@ -0,0 +1,130 @@
+package com.jhaiian.attendify.admin;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Applies a binary delta to the installed APK to rebuild a newer APK.
+ *
+ * Patch format (gzip-compressed stream):
+ * <pre>
+ *   magic "ATDP", int version (1), long baseLength, long targetLength
+ *   repeated ops:
+ *     1 COPY: long baseOffset, int length   copy bytes from the base APK
+ *     2 ADD:  int length, byte[length]      literal bytes
+ *     0 END
+ * </pre>
+ * The target is written in one streaming pass while its SHA-256 is computed.
+ * Any inconsistency (wrong base, truncated patch, hash mismatch) throws, so
+ * callers can fall back to the full download.
+ */
+public class DeltaPatcher {
+
+    // Wire format, shared with the patch generator in the bench module
+    public static final int MAGIC = 0x41544450; // "ATDP"
+    public static final int FORMAT_VERSION = 1;
+
+    public static final int OP_END = 0;
+    public static final int OP_COPY = 1;
+    public static final int OP_ADD = 2;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Rebuilds the target file and checks it against the expected hex SHA-256.
+     */
+    public static void apply(File base, File patch, File target, String expectedSha256) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+
+        boolean success = false;
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(
+                     new BufferedInputStream(new FileInputStream(patch), BUFFER_SIZE)));
+             RandomAccessFile baseFile = new RandomAccessFile(base, "r");
+             OutputStream out = new BufferedOutputStream(new FileOutputStream(target, false), BUFFER_SIZE)) {
+
+            if (in.readInt() != MAGIC) throw new IOException("Not a delta patch");
+            if (in.readInt() != FORMAT_VERSION) throw new IOException("Unsupported patch version");
+
+            long baseLength = in.readLong();
+            long targetLength = in.readLong();
+            if (baseFile.length() != baseLength) {
+                throw new IOException("Patch does not match the installed APK");
+            }
+
+            FileChannel baseChannel = baseFile.getChannel();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+            long written = 0;
+
+            while (true) {
+                int op = in.read();
+                if (op == OP_END) break;
+
+                if (op == OP_COPY) {
+                    long offset = in.readLong();
+                    int length = in.readInt();
+                    if (length < 0 || offset < 0 || offset + length > baseLength) {
+                        throw new IOException("Invalid copy range");
+                    }
+                    while (length > 0) {
+                        byteBuffer.clear();
+                        byteBuffer.limit(Math.min(BUFFER_SIZE, length));
+                        int read = baseChannel.read(byteBuffer, offset);
+                        if (read <= 0) throw new EOFException();
+                        out.write(buffer, 0, read);
+                        digest.update(buffer, 0, read);
+                        offset += read;
+                        length -= read;
+                        written += read;
+                    }
+                } else if (op == OP_ADD) {
+                    int length = in.readInt();
+                    if (length < 0) throw new IOException("Invalid literal length");
+                    while (length > 0) {
+                        int read = in.read(buffer, 0, Math.min(BUFFER_SIZE, length));
+                        if (read < 0) throw new EOFException();
+                        out.write(buffer, 0, read);
+                        digest.update(buffer, 0, read);
+                        length -= read;
+                        written += read;
+                    }
+                } else {
+                    throw new IOException("Unknown patch op " + op);
+                }
+            }
+
+            if (written != targetLength) {
+                throw new IOException("Patched size mismatch");
+            }
+
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest.digest()) {
+                sb.append(String.format("%02x", b));
+            }
+            String expected = expectedSha256.replace(":", "").trim().toLowerCase();
+            if (!sb.toString().equals(expected)) {
+                throw new IOException("Patched APK SHA-256 mismatch");
+            }
+            success = true;
+        } finally {
+            if (!success) target.delete();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.jhaiian.attendify.admin;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pulls only what changed on the server since the last sync.
+ *
+ * Each synced node under the workplace ("people", or one day of
+ * "attendance") keeps a high-water
+ * mark: the largest updatedAt value merged so far. A sync queries the node
+ * ordered by updatedAt starting at that mark, so a launch with no remote
+ * changes transfers almost nothing. The boundary value is re-read on purpose
+ * (startAt is inclusive) because merges are idempotent upserts.
+ *
+ * The workplace stores a schemaVersion. When it differs from the one the
+ * marks were recorded under, every mark is reset and the node is fetched in
+ * full once.
+ *
+ * Every sync logs one line with its {@link Metrics}.
+ */
+public class DeltaSync {
+
+    public static final int SCHEMA_VERSION = 1;
+
+    public static final String NODE_PEOPLE = "people";
+    public static final String NODE_ATTENDANCE = "attendance";
+
+    private static final String TAG = "DeltaSync";
+    private static final String PREFS_NAME = "SyncPrefs";
+    private static final String KEY_SCHEMA_VERSION = "schema_version";
+    private static final String KEY_HIGH_WATER_PREFIX = "high_water_";
+    private static final String ORDER_BY = "updatedAt";
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final RemoteDatabase remote;
+    private final SyncEngine syncEngine;
+    private final SharedPreferences prefs;
+    private final String uid;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Applies changed children to local storage. Runs on a background thread.
+     */
+    public interface Merger<T> {
+        T merge(Map<String, Object> children);
+    }
+
+    public interface OnSyncListener<T> {
+        /**
+         * Called on the main thread. Result is null when the sync failed
+         * (see metrics.error).
+         */
+        void onSyncComplete(T result, Metrics metrics);
+    }
+
+    /**
+     * Cost of one node sync.
+     */
+    public static class Metrics {
+        public final String node;
+        public boolean fullResync;
+        public int changedCount;
+
+        // Rough JSON length of the changed children in chars, counted from the
+        // parsed values; the SDK does not expose the bytes it received
+        public long estimatedChars;
+
+        public long fetchMillis;
+        public long mergeMillis;
+        public String error;
+
+        Metrics(String node) {
+            this.node = node;
+        }
+
+        @Override
+        public String toString() {
+            return node + ": " + changedCount + " changed, ~" + estimatedChars + " chars, fetch "
+                    + fetchMillis + "ms, merge " + mergeMillis + "ms" + (fullResync ? " (full)" : "")
+                    + (error != null ? ", error " + error : "");
+        }
+    }
+
+    public DeltaSync(Context context, RemoteDatabase remote, SyncEngine syncEngine, String uid) {
+        this.remote = remote;
+        this.syncEngine = syncEngine;
+        this.uid = uid;
+        this.prefs = context.getSharedPreferences(PREFS_NAME + "_" + uid, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * The node holding one day's attendance events.
+     */
+    public static String attendanceNode(int epochDay) {
+        return NODE_ATTENDANCE + "/" + epochDay;
+    }
+
+    /**
+     * Syncs one node under the workplace: checks the schema version, fetches
+     * the children changed since the node's mark and merges them.
+     */
+    public <T> void sync(final String node, final Merger<T> merger, final OnSyncListener<T> listener) {
+        final Metrics metrics = new Metrics(node);
+        final long start = SystemClock.elapsedRealtime();
+
+        remote.getValue(SyncEngine.workplacePath(uid) + "/schemaVersion", new RemoteDatabase.ValueCallback() {
+            @Override
+            public void onValue(Object value, String error) {
+                if (error != null) {
+                    fail(metrics, error, listener);
+                    return;
+                }
+
+                int remoteVersion = value instanceof Number ? ((Number) value).intValue() : SCHEMA_VERSION;
+                if (value == null) {
+                    // First client on this workplace; publish the version it writes
+                    syncEngine.enqueue(SyncEngine.workplacePath(uid) + "/schemaVersion", SCHEMA_VERSION);
+                }
+
+                if (prefs.getInt(KEY_SCHEMA_VERSION, 0) != remoteVersion) {
+                    resetMarks(remoteVersion);
+                    metrics.fullResync = true;
+                }
+
+                fetch(node, start, metrics, merger, listener);
+            }
+        });
+    }
+
+    private <T> void fetch(final String node, final long start, final Metrics metrics,
+                           final Merger<T> merger, final OnSyncListener<T> listener) {
+        final long since = prefs.getLong(KEY_HIGH_WATER_PREFIX + node, 0);
+        String path = SyncEngine.workplacePath(uid) + "/" + node;
+
+        remote.queryChangedSince(path, ORDER_BY, since, new RemoteDatabase.ValueCallback() {
+            @Override
+            public void onValue(final Object value, String error) {
+                if (error != null) {
+                    fail(metrics, error, listener);
+                    return;
+                }
+                metrics.fetchMillis = SystemClock.elapsedRealtime() - start;
+
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        @SuppressWarnings("unchecked")
+                        Map<String, Object> children = value instanceof Map
+                                ? (Map<String, Object>) value
+                                : Collections.<String, Object>emptyMap();
+
+                        metrics.changedCount = children.size();
+                        metrics.estimatedChars = estimateChars(children);
+
+                        long mergeStart = SystemClock.elapsedRealtime();
+                        final T result = merger.merge(children);
+                        metrics.mergeMillis = SystemClock.elapsedRealtime() - mergeStart;
+
+                        long mark = since;
+                        for (Object child : children.values()) {
+                            if (!(child instanceof Map)) continue;
+                            Object updatedAt = ((Map<?, ?>) child).get(ORDER_BY);
+                            if (updatedAt instanceof Number) {
+                                mark = Math.max(mark, ((Number) updatedAt).longValue());
+                            }
+                        }
+                        prefs.edit().putLong(KEY_HIGH_WATER_PREFIX + node, mark).apply();
+                        Log.i(TAG, metrics.toString());
+
+                        mainHandler.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                listener.onSyncComplete(result, metrics);
+                            }
+                        });
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Approximates the JSON length of a parsed value by walking it, without
+     * serializing it again.
+     */
+    static long estimateChars(Object value) {
+        if (value instanceof Map) {
+            long chars = 2;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                // "key":value,
+                chars += String.valueOf(entry.getKey()).length() + 4 + estimateChars(entry.getValue());
+            }
+            return chars;
+        }
+        if (value instanceof Collection) {
+            long chars = 2;
+            for (Object item : (Collection<?>) value) chars += estimateChars(item) + 1;
+            return chars;
+        }
+        if (value instanceof String) return ((String) value).length() + 2;
+        return String.valueOf(value).length();
+    }
+
+    /**
+     * Drops the mark of a node that will not be synced again.
+     */
+    public void forget(String node) {
+        prefs.edit().remove(KEY_HIGH_WATER_PREFIX + node).apply();
+    }
+
+    private void resetMarks(int schemaVersion) {
+        SharedPreferences.Editor editor = prefs.edit();
+        for (String key : prefs.getAll().keySet()) {
+            if (key.startsWith(KEY_HIGH_WATER_PREFIX)) editor.remove(key);
+        }
+        editor.putInt(KEY_SCHEMA_VERSION, schemaVersion).apply();
+    }
+
+    private <T> void fail(final Metrics metrics, String error, final OnSyncListener<T> listener) {
+        metrics.error = error;
+        Log.w(TAG, metrics.toString());
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                listener.onSyncComplete(null, metrics);
+            }
+        });
+    }
+}
@@ -0,0 +1,309 @@
+package com.jhaiian.attendify.admin;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copies or deletes directory trees on a work-stealing pool.
+ *
+ * Every directory becomes a fork-join task: its files are processed inline
+ * and its subdirectories are forked, so idle workers steal whole subtrees.
+ * Parallelism is configurable (storage, not CPU, is usually the limit).
+ * Each copy or delete counts into its own {@link Operation}, which is also
+ * its cancel handle, so one worker can serve several threads at once.
+ * Background operations report progress periodically and their
+ * {@link Result} with throughput at the end; files already handled when an
+ * operation is cancelled stay handled.
+ *
+ * java.nio.file (Files.walkFileTree) needs API 26, so the walk uses
+ * File.listFiles, treating an unreadable directory as empty.
+ */
+public class FileTreeWorker {
+
+    public static final int DEFAULT_PARALLELISM = 4;
+    private static final long PROGRESS_INTERVAL_MS = 200;
+
+    public interface Listener {
+        /** Called about every 200 ms while the operation runs. */
+        void onProgress(long files, long bytes);
+
+        void onComplete(Result result);
+    }
+
+    /**
+     * Outcome of one copy or delete.
+     */
+    public static class Result {
+        public final long files;
+        public final long bytes;
+        public final int failures;
+        public final long elapsedMillis;
+        public final boolean cancelled;
+
+        Result(long files, long bytes, int failures, long elapsedMillis, boolean cancelled) {
+            this.files = files;
+            this.bytes = bytes;
+            this.failures = failures;
+            this.elapsedMillis = elapsedMillis;
+            this.cancelled = cancelled;
+        }
+
+        public double getFilesPerSecond() {
+            return elapsedMillis > 0 ? files * 1000.0 / elapsedMillis : files;
+        }
+
+        public double getBytesPerSecond() {
+            return elapsedMillis > 0 ? bytes * 1000.0 / elapsedMillis : bytes;
+        }
+    }
+
+    /**
+     * One running copy or delete: its counters, shared by its tasks, and
+     * its cancel flag.
+     */
+    public static class Operation {
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final AtomicLong files = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicInteger failures = new AtomicInteger();
+
+        /**
+         * Stops the operation as soon as the files in progress are done.
+         */
+        public void cancel() {
+            cancelled.set(true);
+        }
+
+        public boolean isCancelled() {
+            return cancelled.get();
+        }
+
+        public long getFiles() {
+            return files.get();
+        }
+
+        public long getBytes() {
+            return bytes.get();
+        }
+    }
+
+    private volatile int parallelism = DEFAULT_PARALLELISM;
+    private volatile Executor callbackExecutor;
+
+    public FileTreeWorker setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+        return this;
+    }
+
+    /**
+     * Where listener callbacks run, e.g. ContextCompat.getMainExecutor(context).
+     * Without one they run on the operation's own background thread.
+     */
+    public FileTreeWorker setCallbackExecutor(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+        return this;
+    }
+
+    /**
+     * Copies source into dest in the background.
+     */
+    public Operation copyDir(File source, File dest, Listener listener) {
+        Operation operation = new Operation();
+        runAsync(new CopyTask(source, dest, operation), operation, listener);
+        return operation;
+    }
+
+    /**
+     * Deletes a file or directory tree in the background.
+     */
+    public Operation delete(File target, Listener listener) {
+        Operation operation = new Operation();
+        runAsync(new DeleteTask(target, operation), operation, listener);
+        return operation;
+    }
+
+    /**
+     * Copies source into dest on the calling thread, which must not be the main thread.
+     */
+    public Result copyDirSync(File source, File dest) {
+        Operation operation = new Operation();
+        return walk(new CopyTask(source, dest, operation), operation, null);
+    }
+
+    /**
+     * Deletes a file or directory tree on the calling thread, which must not be the main thread.
+     */
+    public Result deleteSync(File target) {
+        Operation operation = new Operation();
+        return walk(new DeleteTask(target, operation), operation, null);
+    }
+
+    /**
+     * Runs the task on its own pool. With a listener, the calling thread
+     * wakes every progress interval to report the counters.
+     */
+    private Result walk(RecursiveAction task, Operation operation, Listener listener) {
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            ForkJoinTask<Void> running = pool.submit(task);
+            while (true) {
+                try {
+                    running.get(PROGRESS_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    if (listener != null) progress(operation, listener);
+                } catch (InterruptedException e) {
+                    // Stop the walk, then wait for the files in progress
+                    operation.cancel();
+                    running.quietlyJoin();
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (ExecutionException e) {
+                    throw new RuntimeException(e.getCause());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return new Result(operation.files.get(), operation.bytes.get(), operation.failures.get(),
+                (System.nanoTime() - start) / 1000000, operation.cancelled.get());
+    }
+
+    private void runAsync(final RecursiveAction task, final Operation operation, final Listener listener) {
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                final Result result = walk(task, operation, listener);
+                deliver(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onComplete(result);
+                    }
+                });
+            }
+        }, "FileTreeWorker").start();
+    }
+
+    private void progress(Operation operation, final Listener listener) {
+        final long files = operation.files.get();
+        final long bytes = operation.bytes.get();
+        deliver(new Runnable() {
+            @Override
+            public void run() {
+                listener.onProgress(files, bytes);
+            }
+        });
+    }
+
+    private void deliver(Runnable callback) {
+        Executor executor = callbackExecutor;
+        if (executor != null) {
+            executor.execute(callback);
+        } else {
+            callback.run();
+        }
+    }
+
+    private static File[] list(File dir) {
+        File[] children = dir.listFiles();
+        return children != null ? children : new File[0];
+    }
+
+    private static class CopyTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final File source;
+        private final File dest;
+        private final Operation operation;
+
+        CopyTask(File source, File dest, Operation operation) {
+            this.source = source;
+            this.dest = dest;
+            this.operation = operation;
+        }
+
+        @Override
+        protected void compute() {
+            if (operation.isCancelled()) return;
+            if (!dest.exists() && !dest.mkdirs()) {
+                operation.failures.incrementAndGet();
+                return;
+            }
+
+            ArrayList<CopyTask> subdirs = new ArrayList<>();
+            for (File child : list(source)) {
+                if (operation.isCancelled()) break;
+                File target = new File(dest, child.getName());
+                if (child.isDirectory()) {
+                    subdirs.add(new CopyTask(child, target, operation));
+                } else if (child.isFile()) {
+                    try {
+                        FileIo.copy(child, target);
+                        operation.files.incrementAndGet();
+                        operation.bytes.addAndGet(child.length());
+                    } catch (IOException e) {
+                        operation.failures.incrementAndGet();
+                    }
+                }
+            }
+            invokeAll(subdirs);
+        }
+    }
+
+    private static class DeleteTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final File target;
+        private final Operation operation;
+
+        DeleteTask(File target, Operation operation) {
+            this.target = target;
+            this.operation = operation;
+        }
+
+        @Override
+        protected void compute() {
+            if (operation.isCancelled() || !target.exists()) return;
+
+            if (target.isDirectory()) {
+                ArrayList<DeleteTask> subdirs = new ArrayList<>();
+                for (File child : list(target)) {
+                    if (operation.isCancelled()) break;
+                    if (child.isDirectory()) {
+                        subdirs.add(new DeleteTask(child, operation));
+                    } else {
+                        deleteFile(child);
+                    }
+                }
+                invokeAll(subdirs);
+
+                // A directory can only go once its children are gone
+                if (!operation.isCancelled() && !target.delete()) operation.failures.incrementAndGet();
+            } else {
+                deleteFile(target);
+            }
+        }
+
+        private void deleteFile(File file) {
+            long length = file.length();
+            if (file.delete()) {
+                operation.files.incrementAndGet();
+                operation.bytes.addAndGet(length);
+            } else {
+                operation.failures.incrementAndGet();
+            }
+        }
+    }
+}
@@ -26,12 +26,11 @@ import android.provider.MediaStore;
 import android.text.TextUtils;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
@@ -57,135 +56,86 @@ public class FileUtil {
     public static String readFile(String path) {
         createNewFile(path);
 
-        StringBuilder sb = new StringBuilder();
-        FileReader fr = null;
         try {
-            fr = new FileReader(new File(path));
-
-            char[] buff = new char[1024];
-            int length = 0;
-
-            while ((length = fr.read(buff)) > 0) {
-                sb.append(new String(buff, 0, length));
-            }
+            return FileIo.readText(new File(path));
         } catch (IOException e) {
             e.printStackTrace();
-        } finally {
-            if (fr != null) {
-                try {
-                    fr.close();
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            }
+            return "";
         }
-
-        return sb.toString();
     }
 
+    /**
+     * Replaces the file atomically: the text is written to a temporary file,
+     * synced to disk and renamed over the target, so a crash mid-write leaves
+     * either the old or the new contents, never a mix.
+     */
     public static void writeFile(String path, String str) {
-        createNewFile(path);
-        FileWriter fileWriter = null;
-
         try {
-            fileWriter = new FileWriter(new File(path), false);
-            fileWriter.write(str);
-            fileWriter.flush();
+            writeFileAtomic(new File(path), str.getBytes(StandardCharsets.UTF_8));
         } catch (IOException e) {
             e.printStackTrace();
-        } finally {
-            try {
-                if (fileWriter != null)
-                    fileWriter.close();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
         }
     }
 
+    public static void writeFileAtomic(File target, byte[] data) throws IOException {
+        FileIo.writeAtomic(target, data);
+    }
+
+    /**
+     * Copies with FileChannel.transferTo, letting the kernel move the bytes
+     * without staging them in a Java buffer.
+     */
     public static void copyFile(String sourcePath, String destPath) {
         if (!isExistFile(sourcePath)) return;
         createNewFile(destPath);
 
-        FileInputStream fis = null;
-        FileOutputStream fos = null;
-
         try {
-            fis = new FileInputStream(sourcePath);
-            fos = new FileOutputStream(destPath, false);
-
-            byte[] buff = new byte[1024];
-            int length = 0;
-
-            while ((length = fis.read(buff)) > 0) {
-                fos.write(buff, 0, length);
-            }
+            FileIo.copy(new File(sourcePath), new File(destPath));
         } catch (IOException e) {
             e.printStackTrace();
-        } finally {
-            if (fis != null) {
-                try {
-                    fis.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
-            if (fos != null) {
-                try {
-                    fos.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
         }
     }
 
-    public static void copyDir(String oldPath, String newPath) {
-        File oldFile = new File(oldPath);
-        File[] files = oldFile.listFiles();
-        File newFile = new File(newPath);
-        if (!newFile.exists()) {
-            newFile.mkdirs();
-        }
-        for (File file : files) {
-            if (file.isFile()) {
-                copyFile(file.getPath(), newPath + "/" + file.getName());
-            } else if (file.isDirectory()) {
-                copyDir(file.getPath(), newPath + "/" + file.getName());
-            }
-        }
+    /**
+     * Copies a directory tree using the parallel {@link FileTreeWorker} and
+     * returns its counts and throughput. Unreadable directories are skipped
+     * instead of throwing.
+     */
+    public static FileTreeWorker.Result copyDir(String oldPath, String newPath) {
+        return new FileTreeWorker().copyDirSync(new File(oldPath), new File(newPath));
     }
 
+    /**
+     * Renames when source and destination are on the same volume, and only
+     * falls back to copy and delete when that fails.
+     */
     public static void moveFile(String sourcePath, String destPath) {
+        File source = new File(sourcePath);
+        if (!source.exists()) return;
+
+        File dest = new File(destPath);
+        File parent = dest.getParentFile();
+        if (parent != null && !parent.exists()) parent.mkdirs();
+        if (source.renameTo(dest)) return;
+
         copyFile(sourcePath, destPath);
         deleteFile(sourcePath);
     }
 
-    public static void deleteFile(String path) {
+    /**
+     * Deletes a file, or a directory tree using the parallel {@link FileTreeWorker},
+     * and returns what was removed.
+     */
+    public static FileTreeWorker.Result deleteFile(String path) {
         File file = new File(path);
 
-        if (!file.exists()) return;
-
-        if (file.isFile()) {
-            file.delete();
-            return;
-        }
-
-        File[] fileArr = file.listFiles();
-
-        if (fileArr != null) {
-            for (File subFile : fileArr) {
-                if (subFile.isDirectory()) {
-                    deleteFile(subFile.getAbsolutePath());
-                }
-
-                if (subFile.isFile()) {
-                    subFile.delete();
-                }
-            }
-        }
+        if (file.isDirectory()) return new FileTreeWorker().deleteSync(file);
 
-        file.delete();
+        // A single file (or nothing at all) needs no pool
+        long length = file.length();
+        boolean deleted = file.delete();
+        return new FileTreeWorker.Result(deleted ? 1 : 0, deleted ? length : 0,
+                !deleted && file.exists() ? 1 : 0, 0, false);
     }
 
     public static boolean isExistFile(String path) {
@@ -397,6 +347,26 @@ public class FileUtil {
         return BitmapFactory.decodeFile(path, options);
     }
 
+    public static Bitmap decodeSampleBitmapFromUri(Context context, Uri uri, int reqWidth, int reqHeight) {
+        ContentResolver resolver = context.getContentResolver();
+        final BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream in = resolver.openInputStream(uri)) {
+            BitmapFactory.decodeStream(in, null, options);
+        } catch (Exception e) {
+            return null;
+        }
+
+        options.inSampleSize = calculateInSampleSize(options, reqWidth, reqHeight);
+
+        options.inJustDecodeBounds = false;
+        try (InputStream in = resolver.openInputStream(uri)) {
+            return BitmapFactory.decodeStream(in, null, options);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     public static void resizeBitmapFileRetainRatio(String fromPath, String destPath, int max) {
         if (!isExistFile(fromPath)) return;
         Bitmap bitmap = getScaledBitmap(fromPath, max);
@@ -596,6 +566,58 @@ public class FileUtil {
         return rotate;
     }
 
+    /**
+     * Decodes an image once (downsampled), applies its EXIF rotation, crops the
+     * largest centered square and writes it as a size x size JPEG.
+     */
+    public static boolean createSquareThumbnail(String fromPath, String destPath, int size,
+                                                Bitmap.CompressFormat format, int quality) {
+        if (!isExistFile(fromPath)) return false;
+        Bitmap src = decodeSampleBitmapFromPath(fromPath, size, size);
+        if (src == null) return false;
+
+        int rotate = getJpegRotate(fromPath);
+        if (rotate != 0) {
+            Matrix matrix = new Matrix();
+            matrix.postRotate(rotate);
+            src = Bitmap.createBitmap(src, 0, 0, src.getWidth(), src.getHeight(), matrix, true);
+        }
+
+        int width = src.getWidth();
+        int height = src.getHeight();
+        int side = Math.min(width, height);
+        int x = (width - side) / 2;
+        int y = (height - side) / 2;
+
+        Bitmap cropped = Bitmap.createBitmap(src, x, y, side, side);
+        Bitmap bitmap = side == size ? cropped : Bitmap.createScaledBitmap(cropped, size, size, true);
+
+        createNewFile(destPath);
+        try (FileOutputStream out = new FileOutputStream(new File(destPath))) {
+            return bitmap.compress(format, quality, out);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    public static boolean copyUriToFile(Context context, Uri uri, String destPath) {
+        createNewFile(destPath);
+        try (InputStream in = context.getContentResolver().openInputStream(uri);
+             FileOutputStream out = new FileOutputStream(destPath, false)) {
+            if (in == null) return false;
+            byte[] buff = new byte[8192];
+            int length;
+            while ((length = in.read(buff)) > 0) {
+                out.write(buff, 0, length);
+            }
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
     public static File createNewPictureFile(Context context) {
         SimpleDateFormat date = new SimpleDateFormat("yyyyMMdd_HHmmss");
         String fileName = date.format(new Date()) + ".jpg";
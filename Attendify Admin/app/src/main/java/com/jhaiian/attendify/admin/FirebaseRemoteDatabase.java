@@ -0,0 +1,61 @@
+package com.jhaiian.attendify.admin;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.Map;
+
+/**
+ * {@link RemoteDatabase} backed by the Firebase Realtime Database root.
+ * Writes are multi-location updateChildren calls; reads are single-value listeners.
+ */
+public class FirebaseRemoteDatabase implements RemoteDatabase {
+
+    private final DatabaseReference root;
+
+    public FirebaseRemoteDatabase() {
+        this(FirebaseDatabase.getInstance().getReference());
+    }
+
+    public FirebaseRemoteDatabase(DatabaseReference root) {
+        this.root = root;
+    }
+
+    @Override
+    public void getValue(String path, ValueCallback callback) {
+        root.child(path).addListenerForSingleValueEvent(singleValue(callback));
+    }
+
+    @Override
+    public void queryChangedSince(String path, String orderByChild, long since, ValueCallback callback) {
+        root.child(path).orderByChild(orderByChild).startAt(since)
+                .addListenerForSingleValueEvent(singleValue(callback));
+    }
+
+    private static ValueEventListener singleValue(final ValueCallback callback) {
+        return new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                callback.onValue(snapshot.getValue(), null);
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                callback.onValue(null, error.getMessage());
+            }
+        };
+    }
+
+    @Override
+    public void updateChildren(Map<String, Object> updates, final Callback callback) {
+        root.updateChildren(updates, new DatabaseReference.CompletionListener() {
+            @Override
+            public void onComplete(DatabaseError error, DatabaseReference ref) {
+                callback.onComplete(error != null ? error.getMessage() : null);
+            }
+        });
+    }
+}
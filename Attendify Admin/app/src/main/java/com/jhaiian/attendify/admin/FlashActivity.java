@@ -24,6 +24,14 @@ public class FlashActivity extends AppCompatActivity {
     // Handles connectivity checks
     private NetworkMonitor networkMonitor;
 
+    // Runs the startup network fetches concurrently
+    private StartupOrchestrator startupOrchestrator;
+
+    private UpdateManager updateManager;
+
+    // Last saved bootstrap config used for warm starts
+    private BootstrapConfigStore configStore;
+
     @Override
     protected void onCreate(Bundle _savedInstanceState) {
         super.onCreate(_savedInstanceState);
@@ -38,16 +46,71 @@ public class FlashActivity extends AppCompatActivity {
 
         // Create network monitor instance
         networkMonitor = new NetworkMonitor(this);
+        updateManager = new UpdateManager(this);
+
+        configStore = new BootstrapConfigStore(this);
+        startupOrchestrator = new StartupOrchestrator(this, updateManager, configStore);
+
+        final AppConfig snapshot = configStore.load();
+        if (configStore.isUsable(snapshot)) {
+            // Warm start: proceed from the saved snapshot as soon as the signature is
+            // hashed off the main thread, and refresh the snapshot in the background
+            startupOrchestrator.revalidate(new StartupOrchestrator.OnSignatureListener() {
+                @Override
+                public void onSignatureReady(String signature) {
+                    applyStartupConfig(snapshot, signature);
+                }
+            });
+            return;
+        }
+
+        // Cold start: fetch status, signature hash and update data in parallel
+        startupOrchestrator.start(new StartupOrchestrator.OnStartupListener() {
+            @Override
+            public void onStartupReady(StartupOrchestrator.Result result) {
+                applyStartupConfig(result.config, result.signature);
+            }
+        });
+    }
+
+    /**
+     * Applies the startup config in the same order as the old chain:
+     * server status, signature check, update check, then navigation.
+     */
+    private void applyStartupConfig(AppConfig config, String signature) {
+
+        // No status and nothing cached → fall back to the monitored retry flow
+        if (config.status == null) {
+            monitorUntilConnected();
+            return;
+        }
 
-        // Trigger update checking once internet is confirmed
+        if (!networkMonitor.applyServerStatus(config.status)) {
+            monitorUntilConnected();
+            return;
+        }
+
+        if (!updateManager.applySignatureCheck(config.authorizedHash, signature)) return;
+
+        updateManager.applyUpdateConfig(config, new UpdateManager.OnUpdateCheckListener() {
+            @Override
+            public void onProceed() {
+                checkAuthAndNavigate();
+            }
+        });
+    }
+
+    /**
+     * Waits for connectivity and server availability, then runs the
+     * sequential update check.
+     */
+    private void monitorUntilConnected() {
         networkMonitor.setOnConnectionSuccess(new Runnable() {
             @Override
             public void run() {
                 checkUpdates();
             }
         });
-
-        // Begin monitoring internet status
         networkMonitor.startMonitoring();
     }
 
@@ -55,7 +118,6 @@ public class FlashActivity extends AppCompatActivity {
      * Initiates update verification using the UpdateManager.
      */
     private void checkUpdates() {
-        UpdateManager updateManager = new UpdateManager(this);
         updateManager.checkForUpdate(new UpdateManager.OnUpdateCheckListener() {
             @Override
             public void onProceed() {
@@ -67,6 +129,9 @@ public class FlashActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        if (startupOrchestrator != null) {
+            startupOrchestrator.cancel();
+        }
         if (networkMonitor != null) {
             networkMonitor.stopMonitoring();
         }
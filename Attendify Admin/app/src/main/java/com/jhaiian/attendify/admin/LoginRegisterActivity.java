@@ -17,18 +17,13 @@ import com.google.android.gms.tasks.Task;
 import com.google.firebase.auth.AuthResult;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
 import com.shashank.sony.fancytoastlib.FancyToast;
 
-import java.util.HashMap;
 
 public class LoginRegisterActivity extends AppCompatActivity {
 
     // Firebase instances
-    private FirebaseDatabase _firebase = FirebaseDatabase.getInstance();
     private FirebaseAuth Auth;
-    private DatabaseReference datadb = _firebase.getReference("data");
 
     // Layout binding
     private LoginRegisterBinding binding;
@@ -194,12 +189,11 @@ public class LoginRegisterActivity extends AppCompatActivity {
         _Auth_create_user_listener = task -> {
             if (task.isSuccessful()) {
 
-                // Save only the workplace name in the database
+                // Save only the workplace name; queued so it survives a dropped connection
                 String workplace_school = binding.RegisterWorkplaceSchool.getText().toString().trim();
-                HashMap<String, Object> mapver = new HashMap<>();
-                mapver.put("Workplace Name", workplace_school);
-
-                datadb.child(Auth.getCurrentUser().getUid()).updateChildren(mapver);
+                SyncEngine.getInstance(this).enqueue(
+                        SyncEngine.workplacePath(Auth.getCurrentUser().getUid()) + "/Workplace Name",
+                        workplace_school);
 
                 _Sendverf();
 
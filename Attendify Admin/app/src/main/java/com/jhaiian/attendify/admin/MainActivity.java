@@ -5,50 +5,106 @@ package com.jhaiian.attendify.admin;
 import android.Manifest;
 import android.app.Activity;
 import android.app.AlertDialog;
+import android.app.ProgressDialog;
+import android.app.TimePickerDialog;
+import android.content.DialogInterface;
 import android.content.Intent;
+import android.content.SharedPreferences;
 import android.content.pm.PackageManager;
-import android.graphics.Color;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.view.LayoutInflater;
+import android.view.Menu;
+import android.view.MenuItem;
 import android.view.View;
-import android.view.ViewGroup;
 import android.view.WindowManager;
-import android.widget.BaseAdapter;
+import android.widget.ArrayAdapter;
+import android.widget.Button;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
-import android.widget.ListView;
+import android.widget.Spinner;
 import android.widget.TextView;
+import android.widget.TimePicker;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.SearchView;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.chip.ChipGroup;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.database.ServerValue;
 
 import com.shashank.sony.fancytoastlib.FancyToast;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
-import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class MainActivity extends AppCompatActivity {
 
-    private ListView listview1;
+    private RecyclerView listview1;
     private FloatingActionButton fab_add;
-    private ArrayList<HashMap<String, Object>> listData = new ArrayList<>();
-    private ListAdapter adapter;
+    private final RosterStore roster = new RosterStore();
+    private final RosterSearchIndex searchIndex = new RosterSearchIndex();
+    private final RosterSorter sorter = new RosterSorter(roster);
+    private final ScheduleEngine schedule = new ScheduleEngine();
+    private final AttendanceRulesEngine rules = new AttendanceRulesEngine();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Serializes rules engine work, so finalizing past days and loading today never interleave
+    private final ExecutorService attendanceExecutor = Executors.newSingleThreadExecutor();
+    private DashboardCounters counters;
+    private boolean rosterLoaded;
+    private String searchQuery = "";
+    private boolean absenceFilterActive;
+    private RosterAdapter adapter;
+    private RosterDatabase rosterDatabase;
+    private SyncEngine syncEngine;
+    private AttendanceReport pendingReport;
+    private int pendingReportFormat;
     private AlertDialog customDialog;
     private ImageView dialogAvatarPreview;
     private Uri selectedImageUri = null;
     private static final int REQ_CODE_PICK_IMAGE = 100;
     private static final int REQ_CODE_PERMISSION = 101;
+    private static final int REQ_CODE_IMPORT = 102;
+    private static final int REQ_CODE_EXPORT = 103;
+    private static final int SEARCH_RESULT_LIMIT = 100;
+    private static final int MENU_SORT_CLASS = 1;
+    private static final int MENU_SORT_NAME = 2;
+    private static final int MENU_IMPORT = 3;
+    private static final int MENU_EXPORT = 4;
+    private static final int MENU_CHECK_IN = 5;
+    private static final int MENU_ABSENCES = 6;
+    private static final int MENU_SUMMARY = 7;
+    private static final long CLOCK_TICK_MS = 60 * 1000;
+    private static final int ABSENCE_STREAK = 3;
+    private static final int ABSENCE_LOOKBACK_DAYS = 14;
+    private static final int FINALIZE_LOOKBACK_DAYS = 7;
+    private static final String ATTENDANCE_PREFS = "AttendancePrefs";
+    private static final String KEY_FINALIZED_THROUGH = "finalized_through";
+
+    // Day chips in Person.DAY_* bit order, Monday first
+    private static final int[] DAY_CHIP_IDS = {
+            R.id.Dialog_Chip_Monday, R.id.Dialog_Chip_Tuesday, R.id.Dialog_Chip_Wednesday,
+            R.id.Dialog_Chip_Thursday, R.id.Dialog_Chip_Friday, R.id.Dialog_Chip_Saturday,
+            R.id.Dialog_Chip_Sunday
+    };
     private NetworkMonitor networkMonitor;
     private long backPressedTime;
 
@@ -66,6 +122,9 @@ public class MainActivity extends AppCompatActivity {
         if (networkMonitor != null) {
             networkMonitor.startMonitoring();
         }
+        // Picks up check-ins made at the gate while this screen was away
+        if (rosterLoaded) loadAttendance();
+        mainHandler.postDelayed(clockTicker, CLOCK_TICK_MS);
     }
 
     @Override
@@ -74,10 +133,21 @@ public class MainActivity extends AppCompatActivity {
         if (networkMonitor != null) {
             networkMonitor.stopMonitoring();
         }
+        mainHandler.removeCallbacks(clockTicker);
     }
 
     @Override
     public void onBackPressed() {
+        if (absenceFilterActive) {
+            // Back leaves the absence list before it exits
+            absenceFilterActive = false;
+            if (searchQuery.isEmpty()) {
+                adapter.setFilter(null);
+            } else {
+                refreshList();
+            }
+            return;
+        }
         if (backPressedTime + 2000 > System.currentTimeMillis()) {
             super.onBackPressed();
             finishAffinity();
@@ -91,9 +161,352 @@ public class MainActivity extends AppCompatActivity {
     private void initializeUI() {
         listview1 = findViewById(R.id.listview1);
         fab_add = findViewById(R.id.fab_add);
-        adapter = new ListAdapter(listData);
+        adapter = new RosterAdapter(roster, AvatarLoader.getInstance(this));
+        sortByClass();
+        listview1.setLayoutManager(new LinearLayoutManager(this));
         listview1.setAdapter(adapter);
         networkMonitor = new NetworkMonitor(this);
+        rosterDatabase = RosterDatabase.getInstance(this);
+        syncEngine = SyncEngine.getInstance(this);
+        counters = new DashboardCounters(new ChoreographerScheduler(), new DashboardCounters.Listener() {
+            @Override
+            public void onCountersChanged(DashboardCounters.Snapshot snapshot) {
+                if (getSupportActionBar() == null) return;
+                int[] total = snapshot.total;
+                getSupportActionBar().setSubtitle(DashboardCounters.Snapshot.arrived(total) + " in ("
+                        + total[AttendanceRulesEngine.STATUS_LATE] + " late), "
+                        + total[AttendanceRulesEngine.STATUS_ABSENT] + " absent of "
+                        + DashboardCounters.Snapshot.expected(total) + " expected");
+            }
+        });
+
+        // Roster edits are queued locally, so losing the network must not block the screen
+        networkMonitor.setAllowOffline(true);
+        networkMonitor.setOnNetworkAvailable(new Runnable() {
+            @Override
+            public void run() {
+                syncEngine.flushNow();
+            }
+        });
+        loadRoster();
+
+        // Opening the log folds finished days into summaries in the background
+        AttendanceLog.getInstance(this);
+    }
+
+    /**
+     * Streams the saved roster from the database, showing each page as it arrives.
+     */
+    private void loadRoster() {
+        rosterDatabase.loadAllAsync(RosterDatabase.DEFAULT_PAGE_SIZE, new RosterDatabase.OnPageLoadedListener() {
+            @Override
+            public void onPageLoaded(RosterDatabase.Page page) {
+                for (int i = 0; i < page.count; i++) {
+                    putPerson(page.ids[i], page.people[i]);
+                }
+                refreshList();
+            }
+
+            @Override
+            public void onLoadFinished(int total) {
+                syncRemoteRoster();
+                rosterLoaded = true;
+                loadAttendance();
+            }
+        });
+    }
+
+    /**
+     * Brings the rules engine up to date in the background. First it settles
+     * the past days not finalized yet, at most a week back: the whole roster
+     * is judged against each day's check-ins and the statuses replace that
+     * day in the attendance index. Days without a single check-in are taken
+     * as days off and left empty. Then today's check-ins are loaded, and the
+     * dashboard counters follow today from there on.
+     */
+    private void loadAttendance() {
+        final SharedPreferences prefs = getSharedPreferences(ATTENDANCE_PREFS, MODE_PRIVATE);
+        final AttendanceLog attendanceLog = AttendanceLog.getInstance(this);
+        final AttendanceIndex attendanceIndex = AttendanceIndex.getInstance(this);
+        attendanceExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                long now = System.currentTimeMillis();
+                int today = AttendanceLog.epochDay(now);
+                int first = Math.max(prefs.getInt(KEY_FINALIZED_THROUGH, 0) + 1, today - FINALIZE_LOOKBACK_DAYS);
+                try {
+                    // Past days must not show up on the dashboard
+                    if (first < today) rules.setOnStatusChangeListener(null);
+                    for (int day = first; day < today; day++) {
+                        DaySummary summary = attendanceLog.readDaySummary(day);
+                        if (summary != null && summary.count > 0) {
+                            rules.startDay(day);
+                            rules.load(summary);
+                            AttendanceRulesEngine.Result result = rules.finalizeDay();
+
+                            BitSet[] statuses = new BitSet[AttendanceIndex.STATUS_COUNT];
+                            statuses[AttendanceIndex.PRESENT] = result.present;
+                            statuses[AttendanceIndex.LATE] = result.late;
+                            statuses[AttendanceIndex.ABSENT] = result.absent;
+                            attendanceIndex.setDayAsync(day, statuses);
+                        }
+                        prefs.edit().putInt(KEY_FINALIZED_THROUGH, day).apply();
+                    }
+
+                    DaySummary summary = attendanceLog.readDaySummary(today);
+                    rules.setOnStatusChangeListener(counters);
+                    if (rules.getDay() != today) rules.startDay(today);
+                    if (summary != null) rules.load(summary);
+                    rules.advanceTo(AttendanceRulesEngine.minuteOfDay(AttendanceLog.epochMinute(now), today));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+    }
+
+    /**
+     * Moves the rules engine's clock along while the screen is shown, so
+     * no-shows turn absent on the dashboard as their grace runs out.
+     */
+    private final Runnable clockTicker = new Runnable() {
+        @Override
+        public void run() {
+            if (rosterLoaded) {
+                attendanceExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        long now = System.currentTimeMillis();
+                        int today = AttendanceLog.epochDay(now);
+                        if (rules.getDay() != today) {
+                            // Past midnight: settle yesterday and start today
+                            mainHandler.post(new Runnable() {
+                                @Override
+                                public void run() {
+                                    loadAttendance();
+                                }
+                            });
+                            return;
+                        }
+                        rules.advanceTo(AttendanceRulesEngine.minuteOfDay(AttendanceLog.epochMinute(now), today));
+                    }
+                });
+            }
+            mainHandler.postDelayed(this, CLOCK_TICK_MS);
+        }
+    };
+
+    /**
+     * Adds or replaces a person in the list store, the search index, the
+     * schedule, the attendance rules and the dashboard counters.
+     */
+    private void putPerson(int id, Person person) {
+        roster.put(id, person);
+        searchIndex.put(id, person);
+        schedule.put(id, person);
+        rules.put(id, person);
+        counters.put(id, person);
+    }
+
+    /**
+     * Republishes the list, re-running the active search so new or edited
+     * people show up in its results.
+     */
+    private void refreshList() {
+        if (searchQuery.isEmpty()) {
+            adapter.submit();
+        } else {
+            adapter.setFilter(searchIndex.search(searchQuery, SEARCH_RESULT_LIMIT));
+        }
+    }
+
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        MenuItem searchItem = menu.add("Search");
+        searchItem.setIcon(android.R.drawable.ic_menu_search);
+        searchItem.setShowAsAction(MenuItem.SHOW_AS_ACTION_ALWAYS | MenuItem.SHOW_AS_ACTION_COLLAPSE_ACTION_VIEW);
+
+        SearchView searchView = new SearchView(getSupportActionBar() != null
+                ? getSupportActionBar().getThemedContext() : this);
+        searchView.setQueryHint("Name, grade, section or position");
+        searchItem.setActionView(searchView);
+
+        searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+            @Override
+            public boolean onQueryTextSubmit(String query) {
+                return false;
+            }
+
+            @Override
+            public boolean onQueryTextChange(String newText) {
+                searchQuery = newText.trim();
+                absenceFilterActive = false;
+                if (searchQuery.isEmpty()) {
+                    adapter.setFilter(null);
+                } else {
+                    refreshList();
+                }
+                return true;
+            }
+        });
+
+        menu.add(0, MENU_SORT_CLASS, 0, "Sort by class");
+        menu.add(0, MENU_SORT_NAME, 0, "Sort by name");
+        menu.add(0, MENU_IMPORT, 0, "Import roster");
+        menu.add(0, MENU_EXPORT, 0, "Export attendance");
+        menu.add(0, MENU_CHECK_IN, 0, "Gate check-in");
+        menu.add(0, MENU_ABSENCES, 0, "Repeated absences");
+        menu.add(0, MENU_SUMMARY, 0, "Today's summary");
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == MENU_SORT_CLASS) {
+            sortByClass();
+            return true;
+        } else if (item.getItemId() == MENU_SORT_NAME) {
+            sorter.orderBy(RosterSorter.KEY_NAME, true);
+            adapter.setSorter(sorter);
+            return true;
+        } else if (item.getItemId() == MENU_IMPORT) {
+            Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
+            intent.addCategory(Intent.CATEGORY_OPENABLE);
+            intent.setType("*/*");
+            intent.putExtra(Intent.EXTRA_MIME_TYPES, new String[]{
+                    RosterImporter.MIME_CSV, "text/comma-separated-values", RosterImporter.MIME_XLSX});
+            startActivityForResult(intent, REQ_CODE_IMPORT);
+            return true;
+        } else if (item.getItemId() == MENU_EXPORT) {
+            showExportDialog();
+            return true;
+        } else if (item.getItemId() == MENU_CHECK_IN) {
+            startActivity(new Intent(this, CheckInActivity.class));
+            return true;
+        } else if (item.getItemId() == MENU_ABSENCES) {
+            showAbsenceDialog();
+            return true;
+        } else if (item.getItemId() == MENU_SUMMARY) {
+            showSummaryDialog();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    /**
+     * Role, then grade and section, then name.
+     */
+    private void sortByClass() {
+        sorter.orderBy(RosterSorter.KEY_ROLE, true)
+                .thenBy(RosterSorter.KEY_GRADE, true)
+                .thenBy(RosterSorter.KEY_SECTION, true)
+                .thenBy(RosterSorter.KEY_NAME, true);
+        adapter.setSorter(sorter);
+    }
+
+    /**
+     * Merges people changed on the server since the last sync into the
+     * database and the list, then today's check-ins from other devices.
+     */
+    private void syncRemoteRoster() {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null) return;
+
+        final DeltaSync deltaSync = new DeltaSync(this, new FirebaseRemoteDatabase(), syncEngine, user.getUid());
+        deltaSync.sync(DeltaSync.NODE_PEOPLE, new DeltaSync.Merger<RosterDatabase.Page>() {
+            @Override
+            public RosterDatabase.Page merge(Map<String, Object> children) {
+                return rosterDatabase.mergeRemotePeople(children);
+            }
+        }, new DeltaSync.OnSyncListener<RosterDatabase.Page>() {
+            @Override
+            public void onSyncComplete(RosterDatabase.Page page, DeltaSync.Metrics metrics) {
+                if (isFinishing()) return;
+                // New people must have ids before their check-ins can be placed
+                syncRemoteAttendance(deltaSync);
+                if (page == null || page.count == 0) return;
+                for (int i = 0; i < page.count; i++) {
+                    putPerson(page.ids[i], page.people[i]);
+                }
+                refreshList();
+            }
+        });
+    }
+
+    /**
+     * Adds today's events recorded on other devices to the attendance log,
+     * and judges them like local scans for the dashboard and the index.
+     */
+    private void syncRemoteAttendance(DeltaSync deltaSync) {
+        final int today = AttendanceLog.epochDay(System.currentTimeMillis());
+        final AttendanceLog attendanceLog = AttendanceLog.getInstance(this);
+        final AttendanceIndex attendanceIndex = AttendanceIndex.getInstance(this);
+        deltaSync.forget(DeltaSync.attendanceNode(today - 1));
+        deltaSync.sync(DeltaSync.attendanceNode(today), new DeltaSync.Merger<DayEvents>() {
+            @Override
+            public DayEvents merge(Map<String, Object> children) {
+                try {
+                    return attendanceLog.mergeRemoteEvents(remoteEvents(today, children));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+        }, new DeltaSync.OnSyncListener<DayEvents>() {
+            @Override
+            public void onSyncComplete(final DayEvents added, DeltaSync.Metrics metrics) {
+                if (added == null || added.count == 0) return;
+                attendanceExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int i = 0; i < added.count; i++) {
+                            int status = rules.record(added.day, added.personIds[i],
+                                    AttendanceRulesEngine.minuteOfDay(added.minutes[i], added.day), added.types[i]);
+                            if (added.types[i] == DayEvents.CHECK_IN) {
+                                attendanceIndex.setAsync(added.day, added.personIds[i],
+                                        status == AttendanceRulesEngine.STATUS_LATE
+                                                ? AttendanceIndex.LATE : AttendanceIndex.PRESENT);
+                            }
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Turns synced attendance children ({"person", "time", "type"}) into one
+     * day's events, skipping people this device does not know. Runs on the
+     * sync thread.
+     */
+    private DayEvents remoteEvents(int day, Map<String, Object> children) {
+        int[] personIds = new int[children.size()];
+        int[] minutes = new int[children.size()];
+        int[] types = new int[children.size()];
+        int count = 0;
+        HashMap<String, Integer> ids = new HashMap<>();
+        for (Object child : children.values()) {
+            if (!(child instanceof Map)) continue;
+            Map<?, ?> value = (Map<?, ?>) child;
+            Object personKey = value.get("person");
+            Object time = value.get("time");
+            Object type = value.get("type");
+            if (!(personKey instanceof String) || !(time instanceof Number) || !(type instanceof Number)) continue;
+            long millis = ((Number) time).longValue();
+            if (AttendanceLog.epochDay(millis) != day) continue;
+
+            Integer id = ids.get(personKey);
+            if (id == null) {
+                id = rosterDatabase.findIdByKey((String) personKey);
+                ids.put((String) personKey, id);
+            }
+            if (id < 0) continue;
+            personIds[count] = id;
+            minutes[count] = AttendanceLog.epochMinute(millis);
+            types[count] = ((Number) type).intValue();
+            count++;
+        }
+        return new DayEvents(day, personIds, minutes, types, count);
     }
 
     private void setupLogic() {
@@ -144,6 +557,18 @@ public class MainActivity extends AppCompatActivity {
         containerWorkDays.setVisibility(View.VISIBLE);
         textDaysTitle.setText("School Days");
 
+        // Optional shift window under the day chips; {start, end} in minutes after midnight
+        final int[] shift = {Person.NO_SHIFT, Person.NO_SHIFT};
+        final Button btnShift = new Button(this, null, android.R.attr.borderlessButtonStyle);
+        btnShift.setText("Shift: any time");
+        btnShift.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                pickShift(shift, btnShift);
+            }
+        });
+        containerWorkDays.addView(btnShift);
+
         TextWatcher clearErrorWatcher = new TextWatcher() {
             @Override public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
             @Override public void onTextChanged(CharSequence s, int start, int before, int count) {
@@ -205,68 +630,80 @@ public class MainActivity extends AppCompatActivity {
             @Override
             public void onClick(View v) {
                 String name = inputName.getText().toString().trim();
-                if (name.isEmpty()) {
-                    layoutName.setError("Name is required");
-                    inputName.requestFocus();
-                    return;
-                }
-
                 int selectedChipId = chipGroupRoles.getCheckedChipId();
-                HashMap<String, Object> map = new HashMap<>();
-                map.put("name", name);
+                final Uri pickedImage = selectedImageUri;
+                int dayMask = getCheckedDayMask(chipGroupDays);
 
-                if (selectedImageUri != null) {
-                    map.put("image_uri", selectedImageUri.toString());
-                }
+                int role = Person.ROLE_STUDENT;
+                String grade = null;
+                String section = null;
+                String position = null;
 
-                List<Integer> checkedDays = chipGroupDays.getCheckedChipIds();
-                if (checkedDays.isEmpty()) {
-                    FancyToast.makeText(MainActivity.this, "Please select at least one day",
-                            FancyToast.LENGTH_SHORT, FancyToast.ERROR, false).show();
-                    return;
+                if (selectedChipId == R.id.Dialog_Chip_Teacher) {
+                    role = Person.ROLE_TEACHER;
+                } else if (selectedChipId == R.id.Dialog_Chip_Employee) {
+                    role = Person.ROLE_EMPLOYEE;
+                    position = inputPosition.getText().toString().trim();
+                } else {
+                    grade = inputGrade.getText().toString().trim();
+                    section = inputSection.getText().toString().trim();
                 }
-                map.put("work_days_count", checkedDays.size());
 
-                if (selectedChipId == R.id.Dialog_Chip_Student) {
-                    String grade = inputGrade.getText().toString().trim();
-                    String section = inputSection.getText().toString().trim();
-
-                    if (grade.isEmpty()) {
-                        layoutGrade.setError("Grade is required");
+                // Same rules as bulk import
+                int error = new Person(name, role, grade, section, position, dayMask, null, 0).validate();
+                String message = Person.errorMessage(error);
+                switch (error) {
+                    case Person.ERROR_NAME:
+                        layoutName.setError(message);
+                        inputName.requestFocus();
+                        return;
+                    case Person.ERROR_DAYS:
+                        FancyToast.makeText(MainActivity.this, message,
+                                FancyToast.LENGTH_SHORT, FancyToast.ERROR, false).show();
+                        return;
+                    case Person.ERROR_GRADE:
+                        layoutGrade.setError(message);
                         inputGrade.requestFocus();
                         return;
-                    }
-                    if (section.isEmpty()) {
-                        layoutSection.setError("Section is required");
+                    case Person.ERROR_SECTION:
+                        layoutSection.setError(message);
                         inputSection.requestFocus();
                         return;
-                    }
-
-                    map.put("role", "Student");
-                    map.put("description", "Grade " + grade + " - " + section);
-                    map.put("status", "present");
-
-                } else if (selectedChipId == R.id.Dialog_Chip_Teacher) {
-                    map.put("role", "Teacher");
-                    map.put("description", "Faculty Member");
-                    map.put("status", "active");
-
-                } else if (selectedChipId == R.id.Dialog_Chip_Employee) {
-                    String position = inputPosition.getText().toString().trim();
-
-                    if (position.isEmpty()) {
-                        layoutPosition.setError("Position is required");
+                    case Person.ERROR_POSITION:
+                        layoutPosition.setError(message);
                         inputPosition.requestFocus();
                         return;
-                    }
-
-                    map.put("role", "Employee");
-                    map.put("description", position);
-                    map.put("status", "active");
                 }
 
-                listData.add(map);
-                adapter.notifyDataSetChanged();
+                final Person person = new Person(name, role, grade, section, position,
+                        dayMask, null, Person.defaultStatus(role), shift[0], shift[1]);
+                rosterDatabase.insertPersonAsync(person, new RosterDatabase.OnPersonSavedListener() {
+                    @Override
+                    public void onPersonSaved(final int personId, String personKey) {
+                        if (personId <= 0) {
+                            FancyToast.makeText(MainActivity.this, "Failed to save person",
+                                    FancyToast.LENGTH_SHORT, FancyToast.ERROR, false).show();
+                            return;
+                        }
+                        putPerson(personId, person);
+                        refreshList();
+                        syncPerson(personKey, person);
+
+                        // The avatar is attached once the compact thumbnail has been written
+                        if (pickedImage != null) {
+                            ThumbnailWriter.normalize(MainActivity.this, pickedImage, new ThumbnailWriter.OnThumbnailListener() {
+                                @Override
+                                public void onThumbnailReady(String path) {
+                                    if (path != null && roster.setImagePath(personId, path)) {
+                                        rosterDatabase.updateImagePathAsync(personId, path);
+                                        adapter.submit();
+                                    }
+                                }
+                            });
+                        }
+                    }
+                });
+
                 customDialog.dismiss();
 
                 FancyToast.makeText(MainActivity.this, "Person Added Successfully",
@@ -280,6 +717,82 @@ public class MainActivity extends AppCompatActivity {
         inputName.requestFocus();
     }
 
+    /**
+     * Asks for a shift start and then its end. "Any time" clears the window.
+     */
+    private void pickShift(final int[] shift, final Button button) {
+        int start = shift[0] != Person.NO_SHIFT ? shift[0] : 7 * 60;
+        TimePickerDialog startPicker = new TimePickerDialog(this, new TimePickerDialog.OnTimeSetListener() {
+            @Override
+            public void onTimeSet(TimePicker startView, int startHour, int startMinute) {
+                final int startMinutes = startHour * 60 + startMinute;
+                int end = shift[1] != Person.NO_SHIFT ? shift[1] : 16 * 60;
+                TimePickerDialog endPicker = new TimePickerDialog(MainActivity.this, new TimePickerDialog.OnTimeSetListener() {
+                    @Override
+                    public void onTimeSet(TimePicker endView, int endHour, int endMinute) {
+                        int endMinutes = endHour * 60 + endMinute;
+                        if (endMinutes == startMinutes) return;
+                        shift[0] = startMinutes;
+                        shift[1] = endMinutes;
+                        button.setText("Shift: " + Person.clockFromMinutes(startMinutes) + " - "
+                                + Person.clockFromMinutes(endMinutes));
+                    }
+                }, end / 60, end % 60, true);
+                endPicker.setTitle("Shift ends");
+                endPicker.show();
+            }
+        }, start / 60, start % 60, true);
+        startPicker.setTitle("Shift starts");
+        startPicker.setButton(TimePickerDialog.BUTTON_NEUTRAL, "Any time", new DialogInterface.OnClickListener() {
+            @Override
+            public void onClick(DialogInterface dialog, int which) {
+                shift[0] = Person.NO_SHIFT;
+                shift[1] = Person.NO_SHIFT;
+                button.setText("Shift: any time");
+            }
+        });
+        startPicker.show();
+    }
+
+    /**
+     * Queues the person for upload to the signed-in workplace. The local
+     * avatar path is device-specific and is not uploaded.
+     */
+    private void syncPerson(String personKey, Person person) {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null) return;
+        syncEngine.enqueue(SyncEngine.personPath(user.getUid(), personKey), toRemoteValue(person));
+    }
+
+    private HashMap<String, Object> toRemoteValue(Person person) {
+        HashMap<String, Object> value = new HashMap<>();
+        value.put("name", person.name);
+        value.put("role", person.role);
+        value.put("grade", person.grade);
+        value.put("section", person.section);
+        value.put("position", person.position);
+        value.put("dayMask", person.dayMask);
+        value.put("shiftStart", person.shiftStart);
+        value.put("shiftEnd", person.shiftEnd);
+        value.put("status", person.status);
+        value.put("updatedAt", ServerValue.TIMESTAMP);
+        return value;
+    }
+
+    /**
+     * Converts the checked day chips into a day-of-week bitmask.
+     * Chips are matched by view id, so labels can be translated freely.
+     */
+    private int getCheckedDayMask(ChipGroup chipGroupDays) {
+        int mask = 0;
+        for (int checkedId : chipGroupDays.getCheckedChipIds()) {
+            for (int day = 0; day < DAY_CHIP_IDS.length; day++) {
+                if (DAY_CHIP_IDS[day] == checkedId) mask |= 1 << day;
+            }
+        }
+        return mask;
+    }
+
     private void openGallery() {
         Intent intent = new Intent(Intent.ACTION_PICK);
         intent.setType("image/*");
@@ -296,9 +809,285 @@ public class MainActivity extends AppCompatActivity {
                     dialogAvatarPreview.setImageURI(selectedImageUri);
                 }
             }
+        } else if (resultCode == Activity.RESULT_OK && requestCode == REQ_CODE_IMPORT) {
+            if (data != null && data.getData() != null) {
+                importRoster(data.getData());
+            }
+        } else if (requestCode == REQ_CODE_EXPORT) {
+            AttendanceReport report = pendingReport;
+            pendingReport = null;
+            if (resultCode == Activity.RESULT_OK && report != null && data != null && data.getData() != null) {
+                exportReport(report, data.getData(), pendingReportFormat);
+            }
         }
     }
 
+    /**
+     * Asks for the scope, period and format of an attendance report, then
+     * for where to save it.
+     */
+    private void showExportDialog() {
+        final ArrayList<String[]> scopes = new ArrayList<>();
+        ArrayList<String> scopeLabels = new ArrayList<>();
+        collectClassScopes(scopes, scopeLabels);
+
+        LinearLayout layout = new LinearLayout(this);
+        layout.setOrientation(LinearLayout.VERTICAL);
+        int padding = (int) (16 * getResources().getDisplayMetrics().density);
+        layout.setPadding(padding, padding, padding, 0);
+
+        final Spinner scopeSpinner = addSpinner(layout, scopeLabels.toArray(new String[0]));
+        final Spinner periodSpinner = addSpinner(layout, new String[]{"Today", "This week", "This month"});
+        final Spinner formatSpinner = addSpinner(layout, new String[]{"CSV", "PDF"});
+
+        new AlertDialog.Builder(this)
+                .setTitle("Export attendance")
+                .setView(layout)
+                .setNegativeButton("Cancel", null)
+                .setPositiveButton("Export", new DialogInterface.OnClickListener() {
+                    @Override
+                    public void onClick(DialogInterface dialog, int which) {
+                        String[] scope = scopes.get(scopeSpinner.getSelectedItemPosition());
+                        int format = formatSpinner.getSelectedItemPosition() == 1
+                                ? AttendanceReport.FORMAT_PDF : AttendanceReport.FORMAT_CSV;
+                        int period = new int[]{AttendanceReport.PERIOD_DAY, AttendanceReport.PERIOD_WEEK,
+                                AttendanceReport.PERIOD_MONTH}[periodSpinner.getSelectedItemPosition()];
+
+                        pendingReport = new AttendanceReport(MainActivity.this, rosterDatabase,
+                                AttendanceLog.getInstance(MainActivity.this))
+                                .setScope(scope[0], scope[1])
+                                .setPeriod(period, AttendanceLog.epochDay(System.currentTimeMillis()));
+                        pendingReportFormat = format;
+
+                        Intent intent = new Intent(Intent.ACTION_CREATE_DOCUMENT);
+                        intent.addCategory(Intent.CATEGORY_OPENABLE);
+                        intent.setType(AttendanceReport.mimeType(format));
+                        intent.putExtra(Intent.EXTRA_TITLE, pendingReport.suggestedFileName(format));
+                        startActivityForResult(intent, REQ_CODE_EXPORT);
+                    }
+                })
+                .show();
+    }
+
+    /**
+     * Lists "Everyone", then every grade and grade/section pair in grade,
+     * then section order. Each scope is {grade, section}, null meaning any.
+     */
+    private void collectClassScopes(ArrayList<String[]> scopes, ArrayList<String> labels) {
+        scopes.add(new String[]{null, null});
+        labels.add("Everyone");
+        RosterSorter classSorter = new RosterSorter(roster)
+                .orderBy(RosterSorter.KEY_GRADE, true)
+                .thenBy(RosterSorter.KEY_SECTION, true);
+        String lastGrade = null;
+        String lastSection = null;
+        for (int row : classSorter.sortedRows()) {
+            String grade = roster.getGrade(row);
+            String section = roster.getSection(row);
+            if (roster.getRole(row) != Person.ROLE_STUDENT || grade == null || grade.isEmpty()) continue;
+            if (!grade.equals(lastGrade)) {
+                scopes.add(new String[]{grade, null});
+                labels.add("Grade " + grade);
+                lastSection = null;
+            }
+            if (section != null && !section.isEmpty() && !section.equals(lastSection)) {
+                scopes.add(new String[]{grade, section});
+                labels.add("Grade " + grade + " - " + section);
+            }
+            lastGrade = grade;
+            lastSection = section;
+        }
+    }
+
+    /**
+     * Asks for a class, then filters the list to its people who were absent
+     * on each of the last ABSENCE_STREAK school days.
+     */
+    private void showAbsenceDialog() {
+        final ArrayList<String[]> scopes = new ArrayList<>();
+        final ArrayList<String> labels = new ArrayList<>();
+        collectClassScopes(scopes, labels);
+
+        new AlertDialog.Builder(this)
+                .setTitle("Absent " + ABSENCE_STREAK + " days in a row")
+                .setItems(labels.toArray(new String[0]), new DialogInterface.OnClickListener() {
+                    @Override
+                    public void onClick(DialogInterface dialog, int which) {
+                        String[] scope = scopes.get(which);
+                        final BitSet cohort = AttendanceIndex.cohort(roster, -1, scope[0], scope[1]);
+                        final String label = labels.get(which);
+                        final int yesterday = AttendanceLog.epochDay(System.currentTimeMillis()) - 1;
+
+                        AttendanceIndex.getInstance(MainActivity.this).queryAsync(new AttendanceIndex.Query<int[]>() {
+                            @Override
+                            public int[] run(AttendanceIndex index) {
+                                BitSet absent = index.streak(AttendanceIndex.ABSENT, yesterday, ABSENCE_STREAK,
+                                        ABSENCE_LOOKBACK_DAYS);
+                                absent.and(cohort);
+                                return AttendanceIndex.toIds(absent);
+                            }
+                        }, new AttendanceIndex.OnQueryListener<int[]>() {
+                            @Override
+                            public void onResult(int[] ids) {
+                                absenceFilterActive = true;
+                                adapter.setFilter(ids);
+                                FancyToast.makeText(MainActivity.this, ids.length + " in " + label + " absent "
+                                                + ABSENCE_STREAK + " school days in a row",
+                                        FancyToast.LENGTH_LONG, FancyToast.INFO, false).show();
+                            }
+                        });
+                    }
+                })
+                .show();
+    }
+
+    /**
+     * Today's counts by role and by class, from the dashboard counters.
+     */
+    private void showSummaryDialog() {
+        DashboardCounters.Snapshot snapshot = counters.snapshot();
+        long now = System.currentTimeMillis();
+        int today = AttendanceLog.epochDay(now);
+        int onShift = schedule.countExpectedAt(today,
+                AttendanceRulesEngine.minuteOfDay(AttendanceLog.epochMinute(now), today));
+
+        StringBuilder message = new StringBuilder();
+        message.append("On shift now: ").append(onShift).append('\n');
+        appendSummaryLine(message, "Everyone", snapshot.total);
+        for (int role = 0; role < snapshot.byRole.length; role++) {
+            appendSummaryLine(message, Person.roleName(role) + "s", snapshot.byRole[role]);
+        }
+        for (int i = 0; i < snapshot.classes.length; i++) {
+            appendSummaryLine(message, "Grade " + snapshot.classes[i], snapshot.byClass[i]);
+        }
+
+        new AlertDialog.Builder(this)
+                .setTitle("Today's summary")
+                .setMessage(message.toString())
+                .setPositiveButton("OK", null)
+                .show();
+    }
+
+    private static void appendSummaryLine(StringBuilder message, String label, int[] counts) {
+        int expected = DashboardCounters.Snapshot.expected(counts);
+        if (expected == 0) return;
+        message.append('\n').append(label).append(": ")
+                .append(DashboardCounters.Snapshot.arrived(counts)).append('/').append(expected).append(" in, ")
+                .append(counts[AttendanceRulesEngine.STATUS_LATE]).append(" late, ")
+                .append(counts[AttendanceRulesEngine.STATUS_ABSENT]).append(" absent");
+    }
+
+    private Spinner addSpinner(LinearLayout layout, String[] items) {
+        Spinner spinner = new Spinner(this);
+        ArrayAdapter<String> spinnerAdapter = new ArrayAdapter<>(this, android.R.layout.simple_spinner_item, items);
+        spinnerAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        spinner.setAdapter(spinnerAdapter);
+        layout.addView(spinner);
+        return spinner;
+    }
+
+    private void exportReport(final AttendanceReport report, Uri destination, int format) {
+        final ProgressDialog progressDialog = new ProgressDialog(this);
+        progressDialog.setTitle("Exporting attendance");
+        progressDialog.setMessage("Preparing report...");
+        progressDialog.setCancelable(false);
+        progressDialog.setButton(ProgressDialog.BUTTON_NEGATIVE, "Cancel", new DialogInterface.OnClickListener() {
+            @Override
+            public void onClick(DialogInterface dialog, int which) {
+                report.cancel();
+            }
+        });
+        progressDialog.show();
+
+        report.exportAsync(destination, format, new AttendanceReport.Listener() {
+            @Override
+            public void onProgress(int daysDone, int dayCount, long rows) {
+                progressDialog.setMessage("Day " + daysDone + " of " + dayCount + ", " + rows + " rows");
+            }
+
+            @Override
+            public void onComplete(AttendanceReport.Result result) {
+                if (isFinishing()) return;
+                progressDialog.dismiss();
+
+                if (result.error != null) {
+                    FancyToast.makeText(MainActivity.this, "Export failed: " + result.error,
+                            FancyToast.LENGTH_LONG, FancyToast.ERROR, false).show();
+                } else if (result.truncated) {
+                    FancyToast.makeText(MainActivity.this, "PDF limit of " + AttendanceReport.MAX_PDF_PAGES
+                                    + " pages reached after " + result.rows
+                                    + " rows. Export one class, a shorter period or CSV for the rest",
+                            FancyToast.LENGTH_LONG, FancyToast.WARNING, false).show();
+                } else {
+                    FancyToast.makeText(MainActivity.this,
+                            (result.cancelled ? "Export cancelled: " : "Exported ") + result.rows + " rows",
+                            FancyToast.LENGTH_LONG, result.cancelled ? FancyToast.WARNING : FancyToast.SUCCESS,
+                            false).show();
+                }
+            }
+        });
+    }
+
+    /**
+     * Imports people from a CSV or XLSX file, showing each batch as it is
+     * committed and queueing it for upload.
+     */
+    private void importRoster(Uri uri) {
+        final RosterImporter importer = new RosterImporter(this, rosterDatabase);
+
+        final ProgressDialog progressDialog = new ProgressDialog(this);
+        progressDialog.setTitle("Importing roster");
+        progressDialog.setMessage("Reading file...");
+        progressDialog.setCancelable(false);
+        progressDialog.setButton(ProgressDialog.BUTTON_NEGATIVE, "Cancel", new DialogInterface.OnClickListener() {
+            @Override
+            public void onClick(DialogInterface dialog, int which) {
+                importer.cancel();
+            }
+        });
+        progressDialog.show();
+
+        importer.importAsync(uri, new RosterImporter.Listener() {
+            @Override
+            public void onBatchImported(RosterDatabase.Page page, String[] personKeys) {
+                FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+                HashMap<String, Object> updates = new HashMap<>();
+                for (int i = 0; i < page.count; i++) {
+                    putPerson(page.ids[i], page.people[i]);
+                    if (user != null) {
+                        updates.put(SyncEngine.personPath(user.getUid(), personKeys[i]), toRemoteValue(page.people[i]));
+                    }
+                }
+                if (!updates.isEmpty()) syncEngine.enqueue(updates);
+                refreshList();
+            }
+
+            @Override
+            public void onProgress(int rowsRead, int imported, int failed) {
+                progressDialog.setMessage(imported + " imported, " + failed + " skipped");
+            }
+
+            @Override
+            public void onComplete(RosterImporter.Result result) {
+                if (isFinishing()) return;
+                progressDialog.dismiss();
+
+                if (result.error != null) {
+                    FancyToast.makeText(MainActivity.this, "Import failed: " + result.error,
+                            FancyToast.LENGTH_LONG, FancyToast.ERROR, false).show();
+                    return;
+                }
+
+                String message = (result.cancelled ? "Import cancelled: " : "") + result.imported + " imported";
+                if (result.failed > 0) {
+                    message += ", " + result.failed + " skipped (see " + result.errorFile.getName() + ")";
+                }
+                FancyToast.makeText(MainActivity.this, message, FancyToast.LENGTH_LONG,
+                        result.failed > 0 ? FancyToast.WARNING : FancyToast.SUCCESS, false).show();
+            }
+        });
+    }
+
     private boolean checkPermission() {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
             return ContextCompat.checkSelfPermission(this, Manifest.permission.READ_MEDIA_IMAGES) == PackageManager.PERMISSION_GRANTED;
@@ -327,40 +1116,4 @@ public class MainActivity extends AppCompatActivity {
             }
         }
     }
-
-    public class ListAdapter extends BaseAdapter {
-        ArrayList<HashMap<String, Object>> _data;
-        public ListAdapter(ArrayList<HashMap<String, Object>> _arr) { _data = _arr; }
-        @Override public int getCount() { return _data.size(); }
-        @Override public HashMap<String, Object> getItem(int _index) { return _data.get(_index); }
-        @Override public long getItemId(int _index) { return _index; }
-        @Override public View getView(final int _position, View _v, ViewGroup _container) {
-            LayoutInflater _inflater = getLayoutInflater();
-            View _view = _v != null ? _v : _inflater.inflate(R.layout.profilelist, null);
-            final TextView textName = _view.findViewById(R.id.Name);
-            final TextView textDesc = _view.findViewById(R.id.Description);
-            final ImageView imageAvatar = _view.findViewById(R.id.Avatar);
-            final View statusIndicator = _view.findViewById(R.id.Status_Indicator);
-
-            HashMap<String, Object> item = _data.get(_position);
-            textName.setText(item.get("name") != null ? item.get("name").toString() : "");
-            textDesc.setText(item.get("description") != null ? item.get("description").toString() : "");
-
-            if (item.containsKey("image_uri")) {
-                imageAvatar.setImageURI(Uri.parse(item.get("image_uri").toString()));
-            } else {
-                imageAvatar.setImageResource(R.drawable.default_image);
-            }
-
-            String role = item.get("role") != null ? item.get("role").toString() : "Student";
-            if (role.equals("Student")) {
-                statusIndicator.setBackgroundColor(Color.parseColor("#4CAF50"));
-            } else if (role.equals("Teacher")) {
-                statusIndicator.setBackgroundColor(Color.parseColor("#2196F3"));
-            } else {
-                statusIndicator.setBackgroundColor(Color.parseColor("#FFC107"));
-            }
-            return _view;
-        }
-    }
-}
\ No newline at end of file
+}
@@ -11,6 +11,8 @@ import android.os.Handler;
 import android.view.View;
 import android.widget.Button;
 
+import com.shashank.sony.fancytoastlib.FancyToast;
+
 import java.util.HashMap;
 
 public class NetworkMonitor {
@@ -39,13 +41,22 @@ public class NetworkMonitor {
     // Action executed when connection succeeds (FlashActivity listener)
     private Runnable onConnectionSuccess;
 
+    // Screens that queue their writes locally keep working while offline
+    private boolean allowOffline = false;
+
+    // Action executed every time the network comes back (e.g. flush the sync outbox)
+    private Runnable onNetworkAvailable;
+
     // Firebase URL for app status
-    private static final String FIREBASE_URL = "https://attendify-jhaiian-default-rtdb.asia-southeast1.firebasedatabase.app/Status.json";
+    public static final String FIREBASE_URL = "https://attendify-jhaiian-default-rtdb.asia-southeast1.firebasedatabase.app/Status.json";
 
     public NetworkMonitor(Activity activity) {
         this.activity = activity;
         this.connectivityManager = (ConnectivityManager) activity.getSystemService(Context.CONNECTIVITY_SERVICE);
         this.requestNetwork = new RequestNetwork(activity);
+
+        // The kill switch must never be answered from cache
+        this.requestNetwork.setCachePolicy(RequestNetworkController.CACHE_NETWORK_ONLY);
         createDialog();
     }
 
@@ -54,6 +65,19 @@ public class NetworkMonitor {
         this.onConnectionSuccess = action;
     }
 
+    /**
+     * When enabled, losing the network shows a short notice instead of the
+     * blocking dialog. Server status (disabled/maintenance) still blocks.
+     */
+    public void setAllowOffline(boolean allowOffline) {
+        this.allowOffline = allowOffline;
+    }
+
+    // Setter for the repeating network-restored callback
+    public void setOnNetworkAvailable(Runnable action) {
+        this.onNetworkAvailable = action;
+    }
+
     /**
      * Creates a persistent AlertDialog used for all connection messaging.
      * This avoids recreating multiple dialogs and reduces memory leaks.
@@ -95,7 +119,7 @@ public class NetworkMonitor {
 
         // First verify basic network connection
         if (!isSystemConnected()) {
-            showDialog("No Internet Connection", "Please check your internet connection settings.", null);
+            showOffline("Please check your internet connection settings.");
         } else {
             verifyServerConnection(); // Then verify server availability
         }
@@ -109,14 +133,17 @@ public class NetworkMonitor {
             @Override
             public void onAvailable(Network network) {
                 // Connectivity restored → verify server status again
-                activity.runOnUiThread(() -> verifyServerConnection());
+                activity.runOnUiThread(() -> {
+                    verifyServerConnection();
+                    if (onNetworkAvailable != null) onNetworkAvailable.run();
+                });
             }
 
             @Override
             public void onLost(Network network) {
-                // Network lost → show offline dialog
+                // Network lost → show offline dialog (or notice)
                 activity.runOnUiThread(() ->
-                        showDialog("No Internet Connection", "Please check your internet connection.", null)
+                        showOffline("Please check your internet connection.")
                 );
             }
         };
@@ -162,40 +189,13 @@ public class NetworkMonitor {
 
                     @Override
                     public void onResponse(String tag, String response, HashMap<String, Object> headers) {
-
-                        // Firebase wraps strings in quotes → clean them
-                        String status = response.trim().replace("\"", "");
-
-                        // App disabled by admin
-                        if ("false".equalsIgnoreCase(status)) {
-                            showDialog("Access Denied", "This application is currently disabled by the administrator.", null);
-                            return;
-                        }
-
-                        // Maintenance mode
-                        if ("maintenance".equalsIgnoreCase(status)) {
-                            showDialog("Server Maintenance", "We are currently performing scheduled maintenance. Please try again later.", null);
-                            return;
-                        }
-
-                        // Otherwise → everything is good
-                        dismissDialog();
-
-                        // Run pending retry action
-                        if (onRetryAction != null) {
-                            onRetryAction.run();
-                            onRetryAction = null;
-                        }
-
-                        // Notify success listener (e.g., FlashActivity)
-                        if (onConnectionSuccess != null) {
-                            onConnectionSuccess.run();
-                            onConnectionSuccess = null;
-                        }
+                        applyServerStatus(response);
                     }
 
                     @Override
                     public void onErrorResponse(String tag, String message) {
+                        // Offline-capable screens keep working; the next onAvailable re-checks
+                        if (allowOffline) return;
                         String friendlyError = getFriendlyErrorMessage(message);
                         showDialog("Connection Failed", friendlyError, onRetryAction);
                     }
@@ -203,6 +203,60 @@ public class NetworkMonitor {
         );
     }
 
+    /**
+     * Applies a raw Status.json response: shows the blocking dialog when the app
+     * is disabled or under maintenance, otherwise dismisses it and runs the
+     * pending retry/success actions. Returns true when the app may continue.
+     */
+    public boolean applyServerStatus(String response) {
+
+        // Firebase wraps strings in quotes → clean them
+        String status = response.trim().replace("\"", "");
+
+        // App disabled by admin
+        if ("false".equalsIgnoreCase(status)) {
+            showDialog("Access Denied", "This application is currently disabled by the administrator.", null);
+            return false;
+        }
+
+        // Maintenance mode
+        if ("maintenance".equalsIgnoreCase(status)) {
+            showDialog("Server Maintenance", "We are currently performing scheduled maintenance. Please try again later.", null);
+            return false;
+        }
+
+        // Otherwise → everything is good
+        dismissDialog();
+
+        // Run pending retry action
+        if (onRetryAction != null) {
+            onRetryAction.run();
+            onRetryAction = null;
+        }
+
+        // Notify success listener (e.g., FlashActivity)
+        if (onConnectionSuccess != null) {
+            onConnectionSuccess.run();
+            onConnectionSuccess = null;
+        }
+        return true;
+    }
+
+    /**
+     * Reports a lost connection: the blocking dialog, or a toast when the
+     * screen can work offline.
+     */
+    private void showOffline(String message) {
+        if (allowOffline) {
+            if (!activity.isFinishing()) {
+                FancyToast.makeText(activity, "You're offline. Changes will sync when the connection returns.",
+                        FancyToast.LENGTH_LONG, FancyToast.INFO, false).show();
+            }
+            return;
+        }
+        showDialog("No Internet Connection", message, null);
+    }
+
     /**
      * Shows user-friendly connection error messages.
      */
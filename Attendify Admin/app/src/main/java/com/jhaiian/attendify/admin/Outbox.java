@@ -0,0 +1,162 @@
+package com.jhaiian.attendify.admin;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.ToNumberPolicy;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Durable queue of pending remote writes, keyed by database path.
+ *
+ * Writing a path that is already queued replaces the old value, and writing a
+ * path supersedes any queued writes below it, so repeated edits to one record
+ * are sent once. Entries keep their enqueue order (seq); a rewritten path moves
+ * to the end. Values are stored as JSON through {@link Persistence} so the
+ * queue survives process death.
+ *
+ * Not thread-safe; {@link SyncEngine} only touches it from its own thread.
+ */
+public class Outbox {
+
+    // Whole numbers come back as Long so counters and timestamps keep their type
+    private static final Gson gson = new GsonBuilder()
+            .setObjectToNumberStrategy(ToNumberPolicy.LONG_OR_DOUBLE)
+            .create();
+    private static final Type VALUE_TYPE = new TypeToken<Object>() {}.getType();
+
+    /**
+     * Storage for outbox entries. Implemented by {@link RosterDatabase}.
+     */
+    public interface Persistence {
+        List<Entry> loadOutbox();
+
+        void putOutboxEntry(Entry entry);
+
+        void deleteOutboxEntry(String path, long seq);
+    }
+
+    public static class Entry {
+        public final String path;
+        public final String json;
+        public final long seq;
+
+        public Entry(String path, String json, long seq) {
+            this.path = path;
+            this.json = json;
+            this.seq = seq;
+        }
+
+        public Object getValue() {
+            return gson.fromJson(json, VALUE_TYPE);
+        }
+    }
+
+    private final Persistence persistence;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private long nextSeq = 1;
+
+    public Outbox(Persistence persistence) {
+        this.persistence = persistence;
+    }
+
+    /**
+     * Reads queued entries back from storage. Call once before use.
+     */
+    public void load() {
+        entries.clear();
+        for (Entry entry : persistence.loadOutbox()) {
+            entries.put(entry.path, entry);
+            if (entry.seq >= nextSeq) nextSeq = entry.seq + 1;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Queues a write of value (null deletes) at path.
+     */
+    public void put(String path, Object value) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry queued = it.next();
+            if (queued.path.equals(path) || isAncestor(path, queued.path)) {
+                it.remove();
+                persistence.deleteOutboxEntry(queued.path, queued.seq);
+            }
+        }
+
+        Entry entry = new Entry(path, gson.toJson(value), nextSeq++);
+        entries.put(path, entry);
+        persistence.putOutboxEntry(entry);
+    }
+
+    /**
+     * Returns up to maxPaths entries in enqueue order that can go out in one
+     * multi-path write. Entries overlapping a busy path (already in flight) or
+     * another entry of the batch are held back, together with everything
+     * queued after them on that path, so writes to one subtree stay ordered.
+     */
+    public List<Entry> nextBatch(int maxPaths, Collection<String> busyPaths) {
+        List<Entry> batch = new ArrayList<>();
+        List<String> blocked = new ArrayList<>(busyPaths);
+
+        for (Entry entry : entries.values()) {
+            if (batch.size() >= maxPaths) break;
+            boolean overlaps = false;
+            for (String path : blocked) {
+                if (overlaps(path, entry.path)) {
+                    overlaps = true;
+                    break;
+                }
+            }
+            blocked.add(entry.path);
+            if (!overlaps) batch.add(entry);
+        }
+        return batch;
+    }
+
+    /**
+     * Drops entries that were written successfully, unless the path has been
+     * rewritten since the batch was taken.
+     */
+    public void complete(List<Entry> batch) {
+        for (Entry sent : batch) {
+            Entry current = entries.get(sent.path);
+            if (current != null && current.seq == sent.seq) {
+                entries.remove(sent.path);
+                persistence.deleteOutboxEntry(sent.path, sent.seq);
+            }
+        }
+    }
+
+    /**
+     * Builds the updateChildren payload of a batch.
+     */
+    public static Map<String, Object> toUpdates(List<Entry> batch) {
+        Map<String, Object> updates = new LinkedHashMap<>();
+        for (Entry entry : batch) {
+            updates.put(entry.path, entry.getValue());
+        }
+        return updates;
+    }
+
+    static boolean overlaps(String a, String b) {
+        return a.equals(b) || isAncestor(a, b) || isAncestor(b, a);
+    }
+
+    private static boolean isAncestor(String parent, String child) {
+        return child.length() > parent.length()
+                && child.startsWith(parent)
+                && child.charAt(parent.length()) == '/';
+    }
+}
@@ -0,0 +1,236 @@
+package com.jhaiian.attendify.admin;
+
+import java.util.Locale;
+
+/**
+ * Immutable person record used when adding or editing roster entries.
+ * Rows are stored column-wise inside {@link RosterStore}; this class only
+ * carries values in and out of it.
+ */
+public class Person {
+
+    // Roles (stored as a byte column in RosterStore)
+    public static final int ROLE_STUDENT = 0;
+    public static final int ROLE_TEACHER = 1;
+    public static final int ROLE_EMPLOYEE = 2;
+
+    // Attendance status
+    public static final int STATUS_ACTIVE = 0;
+    public static final int STATUS_PRESENT = 1;
+
+    // Day-of-week bits, Monday first
+    public static final int DAY_MONDAY = 1;
+    public static final int DAY_TUESDAY = 1 << 1;
+    public static final int DAY_WEDNESDAY = 1 << 2;
+    public static final int DAY_THURSDAY = 1 << 3;
+    public static final int DAY_FRIDAY = 1 << 4;
+    public static final int DAY_SATURDAY = 1 << 5;
+    public static final int DAY_SUNDAY = 1 << 6;
+
+    // Shift bound meaning "no shift window" (expected all day)
+    public static final int NO_SHIFT = -1;
+
+    private static final String[] DAY_PREFIXES = {"mon", "tue", "wed", "thu", "fri", "sat", "sun"};
+
+    public final String name;
+    public final int role;
+    public final String grade;
+    public final String section;
+    public final String position;
+    public final int dayMask;
+    public final String imagePath;
+    public final int status;
+
+    // Shift window in minutes after local midnight, or NO_SHIFT
+    public final int shiftStart;
+    public final int shiftEnd;
+
+    public Person(String name, int role, String grade, String section, String position,
+                  int dayMask, String imagePath, int status) {
+        this(name, role, grade, section, position, dayMask, imagePath, status, NO_SHIFT, NO_SHIFT);
+    }
+
+    public Person(String name, int role, String grade, String section, String position,
+                  int dayMask, String imagePath, int status, int shiftStart, int shiftEnd) {
+        this.name = name;
+        this.role = role;
+        this.grade = grade;
+        this.section = section;
+        this.position = position;
+        this.dayMask = dayMask;
+        this.imagePath = imagePath;
+        this.status = status;
+        // A window needs both ends
+        boolean valid = shiftStart >= 0 && shiftStart < 24 * 60 && shiftEnd >= 0 && shiftEnd <= 24 * 60
+                && shiftStart != shiftEnd;
+        this.shiftStart = valid ? shiftStart : NO_SHIFT;
+        this.shiftEnd = valid ? shiftEnd : NO_SHIFT;
+    }
+
+    /**
+     * Returns a copy of this record pointing at a different avatar file.
+     */
+    public Person withImagePath(String path) {
+        return new Person(name, role, grade, section, position, dayMask, path, status, shiftStart, shiftEnd);
+    }
+
+    public boolean hasShift() {
+        return shiftStart != NO_SHIFT;
+    }
+
+    /**
+     * Builds the secondary line shown under the name in the roster list.
+     */
+    public String getDescription() {
+        if (role == ROLE_STUDENT) {
+            if (grade == null || section == null) return "";
+            return "Grade " + grade + " - " + section;
+        } else if (role == ROLE_TEACHER) {
+            return "Faculty Member";
+        }
+        return position != null ? position : "";
+    }
+
+    /**
+     * Default status for a newly enrolled person
+     * ("present" for students, "active" for staff).
+     */
+    public static int defaultStatus(int role) {
+        return role == ROLE_STUDENT ? STATUS_PRESENT : STATUS_ACTIVE;
+    }
+
+    public static String roleName(int role) {
+        switch (role) {
+            case ROLE_TEACHER:
+                return "Teacher";
+            case ROLE_EMPLOYEE:
+                return "Employee";
+            default:
+                return "Student";
+        }
+    }
+
+    // Validation results, in the order the add dialog checks them
+    public static final int VALID = 0;
+    public static final int ERROR_NAME = 1;
+    public static final int ERROR_DAYS = 2;
+    public static final int ERROR_GRADE = 3;
+    public static final int ERROR_SECTION = 4;
+    public static final int ERROR_POSITION = 5;
+
+    /**
+     * Checks the enrolment rules shared by the add dialog and bulk import:
+     * a name, at least one day, grade and section for students and a
+     * position for employees. Returns {@link #VALID} or the first error.
+     */
+    public int validate() {
+        if (isBlank(name)) return ERROR_NAME;
+        if ((dayMask & 0x7F) == 0) return ERROR_DAYS;
+        if (role == ROLE_STUDENT) {
+            if (isBlank(grade)) return ERROR_GRADE;
+            if (isBlank(section)) return ERROR_SECTION;
+        } else if (role == ROLE_EMPLOYEE) {
+            if (isBlank(position)) return ERROR_POSITION;
+        }
+        return VALID;
+    }
+
+    public static String errorMessage(int error) {
+        switch (error) {
+            case ERROR_NAME:
+                return "Name is required";
+            case ERROR_DAYS:
+                return "Please select at least one day";
+            case ERROR_GRADE:
+                return "Grade is required";
+            case ERROR_SECTION:
+                return "Section is required";
+            case ERROR_POSITION:
+                return "Position is required";
+            default:
+                return "";
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    /**
+     * Maps a role label ("Student", "teacher", ...) to its role, or -1 if unknown.
+     */
+    public static int roleFromLabel(String label) {
+        if (label == null) return -1;
+        String text = label.trim().toLowerCase();
+        if (text.startsWith("stud")) return ROLE_STUDENT;
+        if (text.startsWith("teach") || text.equals("faculty")) return ROLE_TEACHER;
+        if (text.startsWith("emp") || text.equals("staff")) return ROLE_EMPLOYEE;
+        return -1;
+    }
+
+    /**
+     * Parses a list of days such as "Mon, Wed, Fri", "Mon;Tue" or a range
+     * "Mon-Fri" into a day mask. Unknown parts are ignored.
+     */
+    public static int dayMaskFromText(String text) {
+        if (text == null) return 0;
+        int mask = 0;
+        for (String part : text.split("[,;/|\\s]+")) {
+            int dash = part.indexOf('-');
+            if (dash > 0) {
+                int from = Integer.numberOfTrailingZeros(dayFromLabel(part.substring(0, dash)));
+                int to = Integer.numberOfTrailingZeros(dayFromLabel(part.substring(dash + 1)));
+                if (from < 7 && to < 7) {
+                    for (int day = from; ; day = (day + 1) % 7) {
+                        mask |= 1 << day;
+                        if (day == to) break;
+                    }
+                }
+            } else {
+                mask |= dayFromLabel(part);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Maps a day label such as "Mon" or "Monday" to its day bit, or 0 if unknown.
+     */
+    public static int dayFromLabel(CharSequence label) {
+        if (label == null) return 0;
+        String text = label.toString().trim();
+        if (text.length() < 3) return 0;
+        String prefix = text.substring(0, 3).toLowerCase();
+        for (int i = 0; i < DAY_PREFIXES.length; i++) {
+            if (DAY_PREFIXES[i].equals(prefix)) return 1 << i;
+        }
+        return 0;
+    }
+
+    /**
+     * Parses a clock time such as "7:30", "07:30" or "16:00" into minutes
+     * after midnight, or returns NO_SHIFT if it is not one.
+     */
+    public static int minutesFromClock(String text) {
+        if (text == null) return NO_SHIFT;
+        String[] parts = text.trim().split(":");
+        if (parts.length != 2) return NO_SHIFT;
+        try {
+            int hours = Integer.parseInt(parts[0].trim());
+            int minutes = Integer.parseInt(parts[1].trim());
+            if (hours < 0 || hours > 24 || minutes < 0 || minutes > 59 || (hours == 24 && minutes > 0)) {
+                return NO_SHIFT;
+            }
+            return hours * 60 + minutes;
+        } catch (NumberFormatException e) {
+            return NO_SHIFT;
+        }
+    }
+
+    /**
+     * Formats minutes after midnight as "HH:mm".
+     */
+    public static String clockFromMinutes(int minutes) {
+        return String.format(Locale.US, "%02d:%02d", minutes / 60, minutes % 60);
+    }
+}
@@ -0,0 +1,41 @@
+package com.jhaiian.attendify.admin;
+
+import java.util.Map;
+
+/**
+ * Minimal view of the remote database used by {@link SyncEngine} and {@link DeltaSync}.
+ * The app uses {@link FirebaseRemoteDatabase}; a local fake can stand in for it.
+ */
+public interface RemoteDatabase {
+
+    interface Callback {
+        /**
+         * Called once per write, on any thread. Error is null on success.
+         */
+        void onComplete(String error);
+    }
+
+    interface ValueCallback {
+        /**
+         * Called once per read, on any thread. The value is a Map, String,
+         * Number, Boolean or null (missing node); error is null on success.
+         */
+        void onValue(Object value, String error);
+    }
+
+    /**
+     * Reads the value at a path.
+     */
+    void getValue(String path, ValueCallback callback);
+
+    /**
+     * Reads the children of path whose orderByChild value is at least since.
+     */
+    void queryChangedSince(String path, String orderByChild, long since, ValueCallback callback);
+
+    /**
+     * Applies all updates atomically. Keys are slash-separated paths from the
+     * database root; a null value deletes that path.
+     */
+    void updateChildren(Map<String, Object> updates, Callback callback);
+}
@@ -12,6 +12,8 @@ public class RequestNetwork {
 	
 	private int requestType = 0;
 	
+	private int cachePolicy = RequestNetworkController.CACHE_DEFAULT;
+	
 	public RequestNetwork(Activity activity) {
 		this.activity = activity;
 	}
@@ -25,6 +27,10 @@ public class RequestNetwork {
 		this.requestType = requestType;
 	}
 	
+	public void setCachePolicy(int cachePolicy) {
+		this.cachePolicy = cachePolicy;
+	}
+	
 	public HashMap<String, Object> getParams() {
 		return params;
 	}
@@ -41,6 +47,10 @@ public class RequestNetwork {
 		return requestType;
 	}
 	
+	public int getCachePolicy() {
+		return cachePolicy;
+	}
+	
 	public void startRequestNetwork(String method, String url, String tag, RequestListener requestListener) {
 		RequestNetworkController.getInstance().execute(this, method, url, tag, requestListener);
 	}
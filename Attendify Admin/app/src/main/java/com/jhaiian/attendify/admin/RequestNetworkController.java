@@ -1,11 +1,15 @@
 package com.jhaiian.attendify.admin;
 
+import android.content.Context;
+
 import com.google.gson.Gson;
 
+import java.io.File;
 import java.io.IOException;
 import java.security.SecureRandom;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.concurrent.TimeUnit;
 
@@ -16,13 +20,18 @@ import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 
+import okhttp3.Cache;
+import okhttp3.CacheControl;
 import okhttp3.Call;
 import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.FormBody;
 import okhttp3.Headers;
 import okhttp3.HttpUrl;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
@@ -36,9 +45,19 @@ public class RequestNetworkController {
 	public static final int REQUEST_PARAM = 0;
 	public static final int REQUEST_BODY = 1;
 	
+	// Per-request cache policies (see RequestNetwork.setCachePolicy)
+	public static final int CACHE_DEFAULT = 0;
+	public static final int CACHE_NETWORK_ONLY = 1;
+	
 	private static final int SOCKET_TIMEOUT = 15000;
 	private static final int READ_TIMEOUT = 25000;
 	
+	private static final long HTTP_CACHE_SIZE = 10L * 1024 * 1024;
+	private static final int MAX_IDLE_CONNECTIONS = 5;
+	private static final long KEEP_ALIVE_MINUTES = 5;
+	private static final int MAX_REQUESTS = 16;
+	private static final int MAX_REQUESTS_PER_HOST = 6;
+	
 	protected OkHttpClient client;
 	
 	private static RequestNetworkController mInstance;
@@ -50,10 +69,22 @@ public class RequestNetworkController {
 		return mInstance;
 	}
 	
-	private OkHttpClient getClient() {
+	private synchronized OkHttpClient getClient(Context context) {
 		if (client == null) {
 			OkHttpClient.Builder builder = new OkHttpClient.Builder();
 			
+			// Disk cache lets OkHttp revalidate with ETag / honour Cache-Control
+			builder.cache(new Cache(new File(context.getApplicationContext().getCacheDir(), "http"), HTTP_CACHE_SIZE));
+			
+			// Keep connections warm so startup requests share one TLS/HTTP2 session
+			builder.connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES));
+			builder.protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1));
+			
+			Dispatcher dispatcher = new Dispatcher();
+			dispatcher.setMaxRequests(MAX_REQUESTS);
+			dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+			builder.dispatcher(dispatcher);
+			
 			try {
 				final TrustManager[] trustAllCerts = new TrustManager[]{
 					new X509TrustManager() {
@@ -152,9 +183,13 @@ public class RequestNetworkController {
 				}
 			}
 			
+			if (requestNetwork.getCachePolicy() == CACHE_NETWORK_ONLY) {
+				reqBuilder.cacheControl(CacheControl.FORCE_NETWORK);
+			}
+			
 			Request req = reqBuilder.build();
 			
-			getClient().newCall(req).enqueue(new Callback() {
+			getClient(requestNetwork.getActivity()).newCall(req).enqueue(new Callback() {
 				@Override
 				public void onFailure(Call call, final IOException e) {
 					requestNetwork.getActivity().runOnUiThread(new Runnable() {
@@ -167,15 +202,16 @@ public class RequestNetworkController {
 				
 				@Override
 				public void onResponse(Call call, final Response response) throws IOException {
+					// Read and convert on the OkHttp thread; only the callback runs on the UI thread
 					final String responseBody = response.body().string().trim();
+					Headers b = response.headers();
+					final HashMap<String, Object> map = new HashMap<>();
+					for (String s : b.names()) {
+						map.put(s, b.get(s) != null ? b.get(s) : "null");
+					}
 					requestNetwork.getActivity().runOnUiThread(new Runnable() {
 						@Override
 						public void run() {
-							Headers b = response.headers();
-							HashMap<String, Object> map = new HashMap<>();
-							for (String s : b.names()) {
-								map.put(s, b.get(s) != null ? b.get(s) : "null");
-							}
 							requestListener.onResponse(tag, responseBody, map);
 						}
 					});
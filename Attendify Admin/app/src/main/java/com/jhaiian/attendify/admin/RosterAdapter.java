@@ -0,0 +1,176 @@
+package com.jhaiian.attendify.admin;
+
+import android.graphics.Color;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+
+/**
+ * RecyclerView adapter for the roster list.
+ *
+ * The adapter does not copy person data. Each list item is a single long key
+ * packing the person id (high 32 bits) and the row revision from
+ * {@link RosterStore} (low 32 bits). AsyncListDiffer diffs these keys on a
+ * background thread, so only rows that were added, removed or whose revision
+ * changed are rebound.
+ */
+public class RosterAdapter extends RecyclerView.Adapter<RosterAdapter.ViewHolder> {
+
+    private static final int COLOR_STUDENT = Color.parseColor("#4CAF50");
+    private static final int COLOR_TEACHER = Color.parseColor("#2196F3");
+    private static final int COLOR_EMPLOYEE = Color.parseColor("#FFC107");
+
+    private static final DiffUtil.ItemCallback<Long> DIFF_CALLBACK = new DiffUtil.ItemCallback<Long>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Long oldKey, @NonNull Long newKey) {
+            return idOf(oldKey) == idOf(newKey);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Long oldKey, @NonNull Long newKey) {
+            return oldKey.longValue() == newKey.longValue();
+        }
+    };
+
+    private final RosterStore store;
+    private final AvatarLoader avatarLoader;
+    private final AsyncListDiffer<Long> differ;
+
+    // Ids to show, in order; null shows the whole store
+    private int[] filterIds;
+
+    // Order of the unfiltered list; null keeps store order
+    private RosterSorter sorter;
+
+    public RosterAdapter(RosterStore store, AvatarLoader avatarLoader) {
+        this.store = store;
+        this.avatarLoader = avatarLoader;
+        this.differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+        setHasStableIds(true);
+    }
+
+    /**
+     * Publishes the current contents of the store. Must be called on the main
+     * thread after the store is mutated; the diff itself runs in the background.
+     */
+    public void submit() {
+        ArrayList<Long> keys;
+        if (filterIds != null) {
+            keys = new ArrayList<>(filterIds.length);
+            for (int id : filterIds) {
+                int row = store.rowOf(id);
+                if (row >= 0) keys.add(keyOf(id, store.getRevision(row)));
+            }
+        } else if (sorter != null) {
+            int[] rows = sorter.sortedRows();
+            keys = new ArrayList<>(rows.length);
+            for (int row : rows) {
+                keys.add(keyOf(store.getId(row), store.getRevision(row)));
+            }
+        } else {
+            int size = store.size();
+            keys = new ArrayList<>(size);
+            for (int row = 0; row < size; row++) {
+                keys.add(keyOf(store.getId(row), store.getRevision(row)));
+            }
+        }
+        differ.submitList(keys);
+    }
+
+    /**
+     * Orders the unfiltered list. The sorter caches its permutation until the
+     * store changes, so repeated submits do not re-sort.
+     */
+    public void setSorter(RosterSorter sorter) {
+        this.sorter = sorter;
+        submit();
+    }
+
+    /**
+     * Limits the list to the given ids, in that order (e.g. search results).
+     * Pass null to show everyone again.
+     */
+    public void setFilter(int[] ids) {
+        filterIds = ids;
+        submit();
+    }
+
+    @Override
+    public int getItemCount() {
+        return differ.getCurrentList().size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return idOf(differ.getCurrentList().get(position));
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.profilelist, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        int row = store.rowOf(idOf(differ.getCurrentList().get(position)));
+        if (row < 0) return;
+
+        String name = store.getName(row);
+        String description = store.getDescription(row);
+        holder.textName.setText(name != null ? name : "");
+        holder.textDesc.setText(description != null ? description : "");
+
+        avatarLoader.load(holder.imageAvatar, store.getImagePath(row), R.drawable.default_image);
+
+        int role = store.getRole(row);
+        if (role == Person.ROLE_STUDENT) {
+            holder.statusIndicator.setBackgroundColor(COLOR_STUDENT);
+        } else if (role == Person.ROLE_TEACHER) {
+            holder.statusIndicator.setBackgroundColor(COLOR_TEACHER);
+        } else {
+            holder.statusIndicator.setBackgroundColor(COLOR_EMPLOYEE);
+        }
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull ViewHolder holder) {
+        avatarLoader.cancel(holder.imageAvatar);
+    }
+
+    private static long keyOf(int id, int revision) {
+        return ((long) id << 32) | (revision & 0xFFFFFFFFL);
+    }
+
+    private static int idOf(long key) {
+        return (int) (key >>> 32);
+    }
+
+    /**
+     * Caches the row views so binds never call findViewById.
+     */
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView textName;
+        final TextView textDesc;
+        final ImageView imageAvatar;
+        final View statusIndicator;
+
+        ViewHolder(View itemView) {
+            super(itemView);
+            textName = itemView.findViewById(R.id.Name);
+            textDesc = itemView.findViewById(R.id.Description);
+            imageAvatar = itemView.findViewById(R.id.Avatar);
+            statusIndicator = itemView.findViewById(R.id.Status_Indicator);
+        }
+    }
+}
@@ -0,0 +1,525 @@
+package com.jhaiian.attendify.admin;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * On-device store for the roster.
+ *
+ * The database runs in WAL mode so the list can page through people while a
+ * write is in progress. Bulk inserts reuse one compiled statement inside a
+ * single transaction, and reads are keyset-paged by row id so a large
+ * workplace is streamed into {@link RosterStore} in small cursor windows
+ * instead of being loaded in one query.
+ *
+ * All writes go through one background thread; callbacks run on the main thread.
+ * The database also holds the sync {@link Outbox}.
+ */
+public class RosterDatabase extends SQLiteOpenHelper implements Outbox.Persistence {
+
+    private static final String TAG = "RosterDatabase";
+    private static final String DATABASE_NAME = "roster.db";
+    private static final int DATABASE_VERSION = 1;
+
+    public static final String TABLE_PEOPLE = "people";
+    public static final String TABLE_OUTBOX = "outbox";
+
+    public static final int DEFAULT_PAGE_SIZE = 500;
+
+    private static final String PEOPLE_COLUMNS =
+            "_id, name, role, grade, section, position, day_mask, image_path, status, shift_start, shift_end";
+
+    private static RosterDatabase mInstance;
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public interface OnPersonSavedListener {
+        /**
+         * Called on the main thread with the new row id (-1 on failure) and the
+         * stable key used to identify the person remotely.
+         */
+        void onPersonSaved(int id, String personKey);
+    }
+
+    public interface OnPersonKeysLoadedListener {
+        /**
+         * Called on the main thread with the remote key, row id and name of
+         * every person, in matching order.
+         */
+        void onPersonKeysLoaded(String[] keys, int[] ids, String[] names);
+    }
+
+    public interface OnPageLoadedListener {
+        /** Called on the main thread for each page, in id order. */
+        void onPageLoaded(Page page);
+
+        /** Called on the main thread after the last page. */
+        void onLoadFinished(int total);
+    }
+
+    /**
+     * One keyset page of people, with ids and records in matching order.
+     */
+    public static class Page {
+        public final int[] ids;
+        public final Person[] people;
+        public final int count;
+
+        Page(int[] ids, Person[] people, int count) {
+            this.ids = ids;
+            this.people = people;
+            this.count = count;
+        }
+    }
+
+    public static synchronized RosterDatabase getInstance(Context context) {
+        if (mInstance == null) {
+            mInstance = new RosterDatabase(context.getApplicationContext());
+        }
+        return mInstance;
+    }
+
+    private RosterDatabase(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        db.enableWriteAheadLogging();
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_PEOPLE + " ("
+                + "_id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + "person_key TEXT NOT NULL UNIQUE, "
+                + "name TEXT NOT NULL, "
+                + "role INTEGER NOT NULL, "
+                + "grade TEXT, "
+                + "section TEXT, "
+                + "position TEXT, "
+                + "day_mask INTEGER NOT NULL, "
+                + "image_path TEXT, "
+                + "status INTEGER NOT NULL, "
+                + "updated_at INTEGER NOT NULL, "
+                + "shift_start INTEGER NOT NULL DEFAULT -1, "
+                + "shift_end INTEGER NOT NULL DEFAULT -1)");
+
+        db.execSQL("CREATE INDEX idx_people_grade_section ON " + TABLE_PEOPLE + " (grade, section)");
+
+        db.execSQL("CREATE TABLE " + TABLE_OUTBOX + " ("
+                + "path TEXT PRIMARY KEY, "
+                + "value TEXT, "
+                + "seq INTEGER NOT NULL)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Version 1 is the only schema released so far
+    }
+
+    /**
+     * Inserts one person in the background.
+     */
+    public void insertPersonAsync(final Person person, final OnPersonSavedListener listener) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final String personKey = UUID.randomUUID().toString();
+                long id;
+                try {
+                    id = insertPerson(person, personKey);
+                } catch (Exception e) {
+                    id = -1;
+                }
+                final int savedId = (int) id;
+                if (listener == null) return;
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onPersonSaved(savedId, personKey);
+                    }
+                });
+            }
+        });
+    }
+
+    public long insertPerson(Person person, String personKey) {
+        ContentValues values = new ContentValues();
+        values.put("person_key", personKey);
+        values.put("name", person.name);
+        values.put("role", person.role);
+        values.put("grade", person.grade);
+        values.put("section", person.section);
+        values.put("position", person.position);
+        values.put("day_mask", person.dayMask);
+        values.put("image_path", person.imagePath);
+        values.put("status", person.status);
+        values.put("shift_start", person.shiftStart);
+        values.put("shift_end", person.shiftEnd);
+        values.put("updated_at", System.currentTimeMillis());
+        return getWritableDatabase().insertOrThrow(TABLE_PEOPLE, null, values);
+    }
+
+    /**
+     * Inserts many people in one transaction with a single compiled statement.
+     * personKeys holds the remote key of each person, in the same order.
+     * Returns the new row ids in input order. Must not be called on the main thread.
+     */
+    public long[] insertPeople(List<Person> people, List<String> personKeys) {
+        long[] ids = new long[people.size()];
+        SQLiteDatabase db = getWritableDatabase();
+        SQLiteStatement statement = db.compileStatement("INSERT INTO " + TABLE_PEOPLE
+                + " (person_key, name, role, grade, section, position, day_mask, image_path, status, updated_at,"
+                + " shift_start, shift_end)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        long now = System.currentTimeMillis();
+
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < ids.length; i++) {
+                Person person = people.get(i);
+                statement.clearBindings();
+                statement.bindString(1, personKeys.get(i));
+                statement.bindString(2, person.name);
+                statement.bindLong(3, person.role);
+                bindNullable(statement, 4, person.grade);
+                bindNullable(statement, 5, person.section);
+                bindNullable(statement, 6, person.position);
+                statement.bindLong(7, person.dayMask);
+                bindNullable(statement, 8, person.imagePath);
+                statement.bindLong(9, person.status);
+                statement.bindLong(10, now);
+                statement.bindLong(11, person.shiftStart);
+                statement.bindLong(12, person.shiftEnd);
+                ids[i] = statement.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            statement.close();
+        }
+        return ids;
+    }
+
+    public void updateImagePathAsync(final int id, final String path) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                ContentValues values = new ContentValues();
+                values.put("image_path", path);
+                values.put("updated_at", System.currentTimeMillis());
+                getWritableDatabase().update(TABLE_PEOPLE, values, "_id = ?", new String[]{String.valueOf(id)});
+            }
+        });
+    }
+
+    /**
+     * Upserts people received from the server, keyed by person_key, in one
+     * transaction. The local avatar path is kept. Returns the merged rows so
+     * they can be applied to the in-memory roster. Must not be called on the
+     * main thread.
+     */
+    public Page mergeRemotePeople(Map<String, Object> children) {
+        int[] ids = new int[children.size()];
+        Person[] people = new Person[children.size()];
+        int count = 0;
+
+        SQLiteDatabase db = getWritableDatabase();
+        SQLiteStatement update = db.compileStatement("UPDATE " + TABLE_PEOPLE
+                + " SET name = ?, role = ?, grade = ?, section = ?, position = ?, day_mask = ?, status = ?, updated_at = ?,"
+                + " shift_start = ?, shift_end = ? WHERE _id = ?");
+        SQLiteStatement insert = db.compileStatement("INSERT INTO " + TABLE_PEOPLE
+                + " (name, role, grade, section, position, day_mask, status, updated_at, shift_start, shift_end, person_key)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+
+        db.beginTransaction();
+        try {
+            for (Map.Entry<String, Object> child : children.entrySet()) {
+                if (!(child.getValue() instanceof Map)) continue;
+                Map<?, ?> value = (Map<?, ?>) child.getValue();
+                Object name = value.get("name");
+                if (!(name instanceof String)) continue;
+
+                int id = -1;
+                String imagePath = null;
+                Cursor cursor = db.rawQuery("SELECT _id, image_path FROM " + TABLE_PEOPLE
+                        + " WHERE person_key = ?", new String[]{child.getKey()});
+                try {
+                    if (cursor.moveToFirst()) {
+                        id = cursor.getInt(0);
+                        imagePath = cursor.getString(1);
+                    }
+                } finally {
+                    cursor.close();
+                }
+
+                Person person = new Person((String) name,
+                        intValue(value.get("role")),
+                        stringValue(value.get("grade")),
+                        stringValue(value.get("section")),
+                        stringValue(value.get("position")),
+                        intValue(value.get("dayMask")),
+                        imagePath,
+                        intValue(value.get("status")),
+                        shiftValue(value.get("shiftStart")),
+                        shiftValue(value.get("shiftEnd")));
+
+                SQLiteStatement statement = id > 0 ? update : insert;
+                statement.clearBindings();
+                statement.bindString(1, person.name);
+                statement.bindLong(2, person.role);
+                bindNullable(statement, 3, person.grade);
+                bindNullable(statement, 4, person.section);
+                bindNullable(statement, 5, person.position);
+                statement.bindLong(6, person.dayMask);
+                statement.bindLong(7, person.status);
+                statement.bindLong(8, longValue(value.get("updatedAt")));
+                statement.bindLong(9, person.shiftStart);
+                statement.bindLong(10, person.shiftEnd);
+                if (id > 0) {
+                    statement.bindLong(11, id);
+                    statement.executeUpdateDelete();
+                } else {
+                    statement.bindString(11, child.getKey());
+                    id = (int) statement.executeInsert();
+                }
+
+                ids[count] = id;
+                people[count] = person;
+                count++;
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            update.close();
+            insert.close();
+        }
+        return new Page(ids, people, count);
+    }
+
+    /**
+     * Streams every person into the listener, one keyset page at a time.
+     * onLoadFinished is always called, with the count loaded so far if a page fails.
+     */
+    public void loadAllAsync(final int pageSize, final OnPageLoadedListener listener) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                int afterId = 0;
+                int total = 0;
+                try {
+                    while (true) {
+                        final Page page = queryPage(null, null, afterId, pageSize);
+                        if (page.count > 0) {
+                            total += page.count;
+                            afterId = page.ids[page.count - 1];
+                            mainHandler.post(new Runnable() {
+                                @Override
+                                public void run() {
+                                    listener.onPageLoaded(page);
+                                }
+                            });
+                        }
+                        if (page.count < pageSize) break;
+                    }
+                } catch (SQLException e) {
+                    Log.w(TAG, "Roster load stopped after " + total + " people", e);
+                } finally {
+                    // Callers wait on this to start everything that needs the roster
+                    final int loaded = total;
+                    mainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            listener.onLoadFinished(loaded);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    /**
+     * Loads the key, id and name of everyone, e.g. to resolve scanned codes.
+     */
+    public void loadPersonKeysAsync(final OnPersonKeysLoadedListener listener) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                Cursor cursor = getReadableDatabase().rawQuery(
+                        "SELECT person_key, _id, name FROM " + TABLE_PEOPLE, null);
+                final String[] keys;
+                final int[] ids;
+                final String[] names;
+                try {
+                    keys = new String[cursor.getCount()];
+                    ids = new int[keys.length];
+                    names = new String[keys.length];
+                    for (int i = 0; i < keys.length && cursor.moveToNext(); i++) {
+                        keys[i] = cursor.getString(0);
+                        ids[i] = cursor.getInt(1);
+                        names[i] = cursor.getString(2);
+                    }
+                } finally {
+                    cursor.close();
+                }
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onPersonKeysLoaded(keys, ids, names);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Returns the row id of a remote person key, or -1 if no one has it.
+     * Must not be called on the main thread.
+     */
+    public int findIdByKey(String personKey) {
+        Cursor cursor = getReadableDatabase().rawQuery("SELECT _id FROM " + TABLE_PEOPLE
+                + " WHERE person_key = ?", new String[]{personKey});
+        try {
+            return cursor.moveToFirst() ? cursor.getInt(0) : -1;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Reads the next page of everyone, in id order. Must not be called on the main thread.
+     */
+    public Page queryPageAll(int afterId, int limit) {
+        return queryPage(null, null, afterId, limit);
+    }
+
+    /**
+     * Reads the next page of one grade, using the grade/section index.
+     * Must not be called on the main thread.
+     */
+    public Page queryPageByGrade(String grade, int afterId, int limit) {
+        return queryPage("grade = ?", new String[]{grade}, afterId, limit);
+    }
+
+    /**
+     * Reads the next page of one class, using the grade/section index.
+     * Must not be called on the main thread.
+     */
+    public Page queryPageByClass(String grade, String section, int afterId, int limit) {
+        return queryPage("grade = ? AND section = ?", new String[]{grade, section}, afterId, limit);
+    }
+
+    private Page queryPage(String selection, String[] selectionArgs, int afterId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(PEOPLE_COLUMNS)
+                .append(" FROM ").append(TABLE_PEOPLE).append(" WHERE _id > ?");
+        int argCount = selectionArgs != null ? selectionArgs.length : 0;
+        String[] args = new String[argCount + 1];
+        args[0] = String.valueOf(afterId);
+        if (selection != null) {
+            sql.append(" AND ").append(selection);
+            System.arraycopy(selectionArgs, 0, args, 1, argCount);
+        }
+        sql.append(" ORDER BY _id LIMIT ").append(limit);
+
+        int[] ids = new int[limit];
+        Person[] people = new Person[limit];
+        int count = 0;
+
+        Cursor cursor = getReadableDatabase().rawQuery(sql.toString(), args);
+        try {
+            while (cursor.moveToNext()) {
+                ids[count] = cursor.getInt(0);
+                people[count] = new Person(
+                        cursor.getString(1),
+                        cursor.getInt(2),
+                        cursor.getString(3),
+                        cursor.getString(4),
+                        cursor.getString(5),
+                        cursor.getInt(6),
+                        cursor.getString(7),
+                        cursor.getInt(8),
+                        cursor.getInt(9),
+                        cursor.getInt(10));
+                count++;
+            }
+        } finally {
+            cursor.close();
+        }
+        return new Page(ids, people, count);
+    }
+
+    // Outbox.Persistence; called from the SyncEngine thread
+
+    @Override
+    public List<Outbox.Entry> loadOutbox() {
+        List<Outbox.Entry> entries = new ArrayList<>();
+        Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT path, value, seq FROM " + TABLE_OUTBOX + " ORDER BY seq", null);
+        try {
+            while (cursor.moveToNext()) {
+                entries.add(new Outbox.Entry(cursor.getString(0), cursor.getString(1), cursor.getLong(2)));
+            }
+        } finally {
+            cursor.close();
+        }
+        return entries;
+    }
+
+    @Override
+    public void putOutboxEntry(Outbox.Entry entry) {
+        ContentValues values = new ContentValues();
+        values.put("path", entry.path);
+        values.put("value", entry.json);
+        values.put("seq", entry.seq);
+        getWritableDatabase().insertWithOnConflict(TABLE_OUTBOX, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    @Override
+    public void deleteOutboxEntry(String path, long seq) {
+        getWritableDatabase().delete(TABLE_OUTBOX, "path = ? AND seq = ?",
+                new String[]{path, String.valueOf(seq)});
+    }
+
+    private static int intValue(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+
+    // Missing on records written before shift windows existed
+    private static int shiftValue(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : Person.NO_SHIFT;
+    }
+
+    private static long longValue(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    private static String stringValue(Object value) {
+        return value instanceof String ? (String) value : null;
+    }
+
+    private static void bindNullable(SQLiteStatement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.jhaiian.attendify.admin;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bulk-imports people from a CSV or XLSX file.
+ *
+ * The first row names the columns (Name, Role, Grade, Section, Position,
+ * Days, Shift such as "07:30-16:00", in any order; only Name is required).
+ * Rows are streamed, checked with {@link Person#validate()} and inserted in
+ * batches, each batch in one transaction, so a large file never sits in
+ * memory and the UI can show people as they arrive. Rows that fail are
+ * written with their reason to an error CSV under the app's external files
+ * directory.
+ *
+ * A row naming someone already in the roster, or repeating an earlier row,
+ * is rejected the same way, so importing a file twice adds nobody. People
+ * are matched on name, role, grade and section, ignoring case and spacing.
+ */
+public class RosterImporter {
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    public static final String MIME_CSV = "text/csv";
+    public static final String MIME_XLSX = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    private static final String TAG = "RosterImporter";
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final Context context;
+    private final RosterDatabase rosterDatabase;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * All callbacks run on the main thread.
+     */
+    public interface Listener {
+        /**
+         * A batch was committed. personKeys[i] is the remote key of page.people[i].
+         */
+        void onBatchImported(RosterDatabase.Page page, String[] personKeys);
+
+        void onProgress(int rowsRead, int imported, int failed);
+
+        void onComplete(Result result);
+    }
+
+    /**
+     * Outcome of one import.
+     */
+    public static class Result {
+        public final int rowsRead;
+        public final int imported;
+        public final int failed;
+
+        // Rejected rows with their reasons, or null when every row was imported
+        public final File errorFile;
+
+        // Set when the file itself could not be read
+        public final String error;
+
+        public final long elapsedMillis;
+        public final boolean cancelled;
+
+        Result(int rowsRead, int imported, int failed, File errorFile, String error,
+               long elapsedMillis, boolean cancelled) {
+            this.rowsRead = rowsRead;
+            this.imported = imported;
+            this.failed = failed;
+            this.errorFile = errorFile;
+            this.error = error;
+            this.elapsedMillis = elapsedMillis;
+            this.cancelled = cancelled;
+        }
+    }
+
+    public RosterImporter(Context context, RosterDatabase rosterDatabase) {
+        this.context = context.getApplicationContext();
+        this.rosterDatabase = rosterDatabase;
+    }
+
+    public RosterImporter setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+        return this;
+    }
+
+    /**
+     * Stops after the current batch; rows already committed stay imported.
+     */
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    public void importAsync(final Uri uri, final Listener listener) {
+        cancelled.set(false);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Result result = runImport(uri, listener);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onComplete(result);
+                    }
+                });
+            }
+        });
+    }
+
+    private Result runImport(Uri uri, final Listener listener) {
+        long start = SystemClock.elapsedRealtime();
+        int rowsRead = 0;
+        int imported = 0;
+        int failed = 0;
+        String error = null;
+        File temp = null;
+        ErrorWriter errors = new ErrorWriter();
+
+        RowReader reader = null;
+        try {
+            if (isXlsx(uri)) {
+                // ZipFile needs random access, which a content Uri cannot give
+                temp = new File(context.getCacheDir(), "import-" + System.nanoTime() + ".xlsx");
+                if (!FileUtil.copyUriToFile(context, uri, temp.getPath())) {
+                    throw new IOException("Could not read the file");
+                }
+                reader = new XlsxReader(temp);
+            } else {
+                InputStream in = context.getContentResolver().openInputStream(uri);
+                if (in == null) throw new IOException("Could not read the file");
+                reader = new CsvReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            }
+
+            String[] header = reader.readRow();
+            RosterRowParser parser = new RosterRowParser(header);
+            errors.header = header;
+
+            // Identity key -> row that introduced it; 0 for people already in the roster
+            HashMap<String, Integer> known = loadIdentityKeys();
+
+            ArrayList<Person> people = new ArrayList<>(batchSize);
+            ArrayList<String> keys = new ArrayList<>(batchSize);
+            String[] row;
+            while (!cancelled.get() && (row = reader.readRow()) != null) {
+                if (RosterRowParser.isEmpty(row)) continue;
+                rowsRead++;
+                int rowNumber = reader.getRowNumber();
+
+                String problem = parser.parse(row, people);
+                if (problem == null) {
+                    Person person = people.get(people.size() - 1);
+                    Integer firstRow = known.put(RosterRowParser.identityKey(person), rowNumber);
+                    if (firstRow != null) {
+                        people.remove(people.size() - 1);
+                        problem = firstRow == 0 ? "Already in the roster" : "Same person as row " + firstRow;
+                    }
+                }
+                if (problem != null) {
+                    failed++;
+                    errors.write(rowNumber, problem, row);
+                    continue;
+                }
+                keys.add(UUID.randomUUID().toString());
+
+                if (people.size() >= batchSize) {
+                    imported += commit(people, keys, listener);
+                    postProgress(listener, rowsRead, imported, failed);
+                }
+            }
+            if (!people.isEmpty() && !cancelled.get()) {
+                imported += commit(people, keys, listener);
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Import failed", e);
+            error = e.getMessage() != null ? e.getMessage() : e.toString();
+        } finally {
+            closeQuietly(reader);
+            errors.close();
+            if (temp != null) temp.delete();
+        }
+
+        return new Result(rowsRead, imported, failed, errors.file, error,
+                SystemClock.elapsedRealtime() - start, cancelled.get());
+    }
+
+    private HashMap<String, Integer> loadIdentityKeys() {
+        HashMap<String, Integer> known = new HashMap<>();
+        int afterId = 0;
+        while (!cancelled.get()) {
+            RosterDatabase.Page page = rosterDatabase.queryPageAll(afterId, RosterDatabase.DEFAULT_PAGE_SIZE);
+            for (int i = 0; i < page.count; i++) known.put(RosterRowParser.identityKey(page.people[i]), 0);
+            if (page.count < RosterDatabase.DEFAULT_PAGE_SIZE) break;
+            afterId = page.ids[page.count - 1];
+        }
+        return known;
+    }
+
+    private int commit(ArrayList<Person> people, ArrayList<String> keys, final Listener listener) {
+        long[] rowIds = rosterDatabase.insertPeople(people, keys);
+        int[] ids = new int[rowIds.length];
+        for (int i = 0; i < ids.length; i++) ids[i] = (int) rowIds[i];
+
+        final RosterDatabase.Page page = new RosterDatabase.Page(ids,
+                people.toArray(new Person[0]), ids.length);
+        final String[] personKeys = keys.toArray(new String[0]);
+        people.clear();
+        keys.clear();
+
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                listener.onBatchImported(page, personKeys);
+            }
+        });
+        return ids.length;
+    }
+
+    private void postProgress(final Listener listener, final int rowsRead, final int imported, final int failed) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                listener.onProgress(rowsRead, imported, failed);
+            }
+        });
+    }
+
+    private boolean isXlsx(Uri uri) {
+        String type = context.getContentResolver().getType(uri);
+        if (MIME_XLSX.equals(type)) return true;
+        String path = uri.getPath();
+        return path != null && path.toLowerCase(Locale.ROOT).endsWith(".xlsx");
+    }
+
+    private static void closeQuietly(RowReader reader) {
+        if (reader == null) return;
+        try {
+            reader.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Lazily created error CSV: row number, reason, then the original cells.
+     */
+    private class ErrorWriter {
+        String[] header;
+        File file;
+        private CsvWriter out;
+
+        void write(int rowNumber, String reason, String[] row) {
+            try {
+                if (out == null) {
+                    File dir = context.getExternalFilesDir(null);
+                    if (dir == null) dir = context.getFilesDir();
+                    String stamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date());
+                    file = new File(dir, "import_errors_" + stamp + ".csv");
+                    out = new CsvWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+                    writeLine("Row", "Error", header);
+                }
+                writeLine(String.valueOf(rowNumber), reason, row);
+            } catch (IOException e) {
+                Log.w(TAG, "Could not write import errors", e);
+            }
+        }
+
+        private void writeLine(String first, String second, String[] cells) throws IOException {
+            out.writeField(first).writeField(second);
+            for (String cell : cells) out.writeField(cell);
+            out.endRow();
+        }
+
+        void close() {
+            if (out == null) return;
+            try {
+                out.close();
+            } catch (IOException e) {
+                Log.w(TAG, "Could not write import errors", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.jhaiian.attendify.admin;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Locale;
+
+/**
+ * Turns spreadsheet rows into people for {@link RosterImporter}.
+ */
+public class RosterRowParser {
+
+    private static final int COLUMN_NAME = 0;
+    private static final int COLUMN_ROLE = 1;
+    private static final int COLUMN_GRADE = 2;
+    private static final int COLUMN_SECTION = 3;
+    private static final int COLUMN_POSITION = 4;
+    private static final int COLUMN_DAYS = 5;
+    private static final int COLUMN_SHIFT = 6;
+    private static final int COLUMN_COUNT = 7;
+
+    private final int[] columns;
+
+    /**
+     * Reads the column layout from the header row.
+     */
+    public RosterRowParser(String[] header) throws IOException {
+        columns = header != null ? mapColumns(header) : null;
+        if (columns == null || columns[COLUMN_NAME] < 0) {
+            throw new IOException("The first row must have a Name column");
+        }
+    }
+
+    /**
+     * Builds a person from a row and adds it to people, or returns why the row was rejected.
+     */
+    public String parse(String[] row, ArrayList<Person> people) {
+        String roleText = cell(row, columns[COLUMN_ROLE]);
+        int role = roleText == null ? Person.ROLE_STUDENT : Person.roleFromLabel(roleText);
+        if (role < 0) return "Unknown role \"" + roleText + "\"";
+
+        String grade = null;
+        String section = null;
+        String position = null;
+        if (role == Person.ROLE_STUDENT) {
+            grade = cell(row, columns[COLUMN_GRADE]);
+            section = cell(row, columns[COLUMN_SECTION]);
+        } else if (role == Person.ROLE_EMPLOYEE) {
+            position = cell(row, columns[COLUMN_POSITION]);
+        }
+
+        int shiftStart = Person.NO_SHIFT;
+        int shiftEnd = Person.NO_SHIFT;
+        String shift = cell(row, columns[COLUMN_SHIFT]);
+        if (shift != null) {
+            String[] bounds = shift.split("-");
+            if (bounds.length == 2) {
+                shiftStart = Person.minutesFromClock(bounds[0]);
+                shiftEnd = Person.minutesFromClock(bounds[1]);
+            }
+            if (shiftStart == Person.NO_SHIFT || shiftEnd == Person.NO_SHIFT || shiftStart == shiftEnd) {
+                return "Invalid shift \"" + shift + "\"";
+            }
+        }
+
+        Person person = new Person(cell(row, columns[COLUMN_NAME]), role, grade, section, position,
+                Person.dayMaskFromText(cell(row, columns[COLUMN_DAYS])), null, Person.defaultStatus(role),
+                shiftStart, shiftEnd);
+        int error = person.validate();
+        if (error != Person.VALID) return Person.errorMessage(error);
+
+        people.add(person);
+        return null;
+    }
+
+    /**
+     * Name, role, grade and section, case-folded with runs of spaces collapsed.
+     */
+    public static String identityKey(Person person) {
+        return fold(person.name) + '\u0000' + person.role + '\u0000' + fold(person.grade)
+                + '\u0000' + fold(person.section);
+    }
+
+    // One pass instead of replaceAll, which compiled its pattern on every call
+    private static String fold(String text) {
+        if (text == null) return "";
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = sb.length() > 0;
+            } else {
+                if (space) sb.append(' ');
+                sb.append(c);
+                space = false;
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Maps each known column to its position in the header, or -1 if absent.
+     */
+    private static int[] mapColumns(String[] header) {
+        int[] columns = new int[COLUMN_COUNT];
+        for (int i = 0; i < columns.length; i++) columns[i] = -1;
+
+        for (int i = 0; i < header.length; i++) {
+            String label = header[i].trim().toLowerCase(Locale.ROOT);
+            int column;
+            switch (label) {
+                case "name":
+                case "full name":
+                    column = COLUMN_NAME;
+                    break;
+                case "role":
+                case "type":
+                    column = COLUMN_ROLE;
+                    break;
+                case "grade":
+                case "grade level":
+                    column = COLUMN_GRADE;
+                    break;
+                case "section":
+                    column = COLUMN_SECTION;
+                    break;
+                case "position":
+                    column = COLUMN_POSITION;
+                    break;
+                case "days":
+                case "schedule":
+                    column = COLUMN_DAYS;
+                    break;
+                case "shift":
+                case "hours":
+                    column = COLUMN_SHIFT;
+                    break;
+                default:
+                    continue;
+            }
+            if (columns[column] < 0) columns[column] = i;
+        }
+        return columns;
+    }
+
+    private static String cell(String[] row, int column) {
+        if (column < 0 || column >= row.length) return null;
+        String value = row[column].trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    public static boolean isEmpty(String[] row) {
+        for (String cell : row) {
+            if (!cell.trim().isEmpty()) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,235 @@
+package com.jhaiian.attendify.admin;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.PriorityQueue;
+import java.util.regex.Pattern;
+
+/**
+ * Incremental search index over the roster's name, description, grade,
+ * section and position.
+ *
+ * Text is folded to lower case without accents and split into tokens. Every
+ * token is indexed under its 1- and 2-character prefixes and all of its
+ * trigrams. A query token of one or two characters looks up the prefix
+ * posting list; a longer one intersects the posting lists of its trigrams.
+ * Only the surviving candidates are checked against their stored tokens, so
+ * a lookup never walks the whole roster. The best {@code limit} matches are
+ * kept in a bounded heap.
+ *
+ * Name matches rank above other fields, and prefix matches above infix ones.
+ * Not thread-safe; used from the main thread.
+ */
+public class RosterSearchIndex {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final String PREFIX_MARK = "^";
+
+    // Gram -> sorted ids
+    private final HashMap<String, IntList> postings = new HashMap<>();
+
+    // Id -> indexed tokens (name tokens first)
+    private final HashMap<Integer, Entry> entries = new HashMap<>();
+
+    private static class Entry {
+        final String[] tokens;
+        final int nameTokens;
+
+        Entry(String[] tokens, int nameTokens) {
+            this.tokens = tokens;
+            this.nameTokens = nameTokens;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Adds or re-indexes a person.
+     */
+    public void put(int id, Person person) {
+        remove(id);
+
+        ArrayList<String> tokens = new ArrayList<>();
+        tokenize(person.name, tokens);
+        int nameTokens = tokens.size();
+        tokenize(person.getDescription(), tokens);
+        tokenize(person.grade, tokens);
+        tokenize(person.section, tokens);
+        tokenize(person.position, tokens);
+
+        Entry entry = new Entry(tokens.toArray(new String[0]), nameTokens);
+        entries.put(id, entry);
+
+        for (String gram : gramsOf(entry.tokens)) {
+            IntList list = postings.get(gram);
+            if (list == null) {
+                list = new IntList();
+                postings.put(gram, list);
+            }
+            list.insert(id);
+        }
+    }
+
+    public void remove(int id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) return;
+
+        for (String gram : gramsOf(entry.tokens)) {
+            IntList list = postings.get(gram);
+            if (list == null) continue;
+            list.delete(id);
+            if (list.size == 0) postings.remove(gram);
+        }
+    }
+
+    public void clear() {
+        postings.clear();
+        entries.clear();
+    }
+
+    /**
+     * Returns up to limit ids matching every word of the query, best first.
+     * Returns null when the query has no searchable characters (no filter).
+     */
+    public int[] search(String query, int limit) {
+        ArrayList<String> queryTokens = new ArrayList<>();
+        tokenize(query, queryTokens);
+        if (queryTokens.isEmpty()) return null;
+
+        // Gather the posting lists every match must appear in
+        ArrayList<IntList> lists = new ArrayList<>();
+        for (String token : queryTokens) {
+            if (token.length() < 3) {
+                IntList list = postings.get(PREFIX_MARK + token);
+                if (list == null) return new int[0];
+                lists.add(list);
+            } else {
+                for (int i = 0; i + 3 <= token.length(); i++) {
+                    IntList list = postings.get(token.substring(i, i + 3));
+                    if (list == null) return new int[0];
+                    lists.add(list);
+                }
+            }
+        }
+
+        IntList smallest = lists.get(0);
+        for (IntList list : lists) {
+            if (list.size < smallest.size) smallest = list;
+        }
+
+        // Min-heap of (score, -id) keeps the best `limit` candidates
+        PriorityQueue<long[]> heap = new PriorityQueue<>(Math.max(1, Math.min(limit, smallest.size)), (a, b) ->
+                a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(b[1], a[1]));
+
+        candidates:
+        for (int c = 0; c < smallest.size; c++) {
+            int id = smallest.values[c];
+            for (IntList list : lists) {
+                if (list != smallest && !list.contains(id)) continue candidates;
+            }
+
+            int score = score(entries.get(id), queryTokens);
+            if (score <= 0) continue;
+
+            if (heap.size() < limit) {
+                heap.add(new long[]{score, id});
+            } else if (limit > 0 && score > heap.peek()[0]) {
+                heap.poll();
+                heap.add(new long[]{score, id});
+            }
+        }
+
+        int[] result = new int[heap.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = (int) heap.poll()[1];
+        }
+        return result;
+    }
+
+    /**
+     * Scores a candidate, or returns 0 if some query token matches none of its tokens.
+     */
+    private static int score(Entry entry, ArrayList<String> queryTokens) {
+        if (entry == null) return 0;
+        int total = 0;
+        for (String query : queryTokens) {
+            int best = 0;
+            for (int i = 0; i < entry.tokens.length; i++) {
+                String token = entry.tokens[i];
+                int value;
+                if (token.startsWith(query)) {
+                    value = token.length() == query.length() ? 3 : 2;
+                } else if (query.length() >= 3 && token.contains(query)) {
+                    value = 1;
+                } else {
+                    continue;
+                }
+                if (i < entry.nameTokens) value += 3;
+                if (value > best) best = value;
+            }
+            if (best == 0) return 0;
+            total += best;
+        }
+        return total;
+    }
+
+    private static HashSet<String> gramsOf(String[] tokens) {
+        HashSet<String> grams = new HashSet<>();
+        for (String token : tokens) {
+            grams.add(PREFIX_MARK + token.substring(0, 1));
+            if (token.length() >= 2) grams.add(PREFIX_MARK + token.substring(0, 2));
+            for (int i = 0; i + 3 <= token.length(); i++) {
+                grams.add(token.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * Folds text to lower case without accents ("José" -> "jose") and appends its words.
+     * Public for the search benchmark's linear-scan baseline.
+     */
+    public static void tokenize(String text, ArrayList<String> out) {
+        if (text == null || text.isEmpty()) return;
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        for (String token : SEPARATORS.split(folded.toLowerCase())) {
+            if (!token.isEmpty()) out.add(token);
+        }
+    }
+
+    /**
+     * Sorted, duplicate-free int list with binary-search membership.
+     */
+    private static class IntList {
+        int[] values = new int[4];
+        int size;
+
+        boolean contains(int value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        void insert(int value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0) return;
+            index = -index - 1;
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = value;
+            size++;
+        }
+
+        void delete(int value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index < 0) return;
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+        }
+    }
+}
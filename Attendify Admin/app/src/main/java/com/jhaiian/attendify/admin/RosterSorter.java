@@ -0,0 +1,338 @@
+package com.jhaiian.attendify.admin;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Multi-key ordering of a {@link RosterStore}.
+ *
+ * Sort keys are extracted once per sort into int arrays: numeric columns are
+ * copied, and string columns are replaced by the rank of each distinct value
+ * under a locale {@link Collator}, compared through CollationKeys (grades
+ * compare numerically when both are numbers). Rows are then sorted as an
+ * index permutation, so a comparison is a few int reads and never allocates
+ * or re-parses. The permutation is cached and reused until the store's mod
+ * count changes.
+ *
+ * Very large rosters are merge-sorted in parallel on a ForkJoinPool.
+ */
+public class RosterSorter {
+
+    public static final int KEY_ROLE = 0;
+    public static final int KEY_GRADE = 1;
+    public static final int KEY_SECTION = 2;
+    public static final int KEY_NAME = 3;
+    public static final int KEY_POSITION = 4;
+    public static final int KEY_STATUS = 5;
+
+    // Below this size a sequential sort is faster than forking
+    static final int PARALLEL_THRESHOLD = 20000;
+    private static final int SEQUENTIAL_CUTOFF = 4096;
+
+    // ForkJoinPool.commonPool() needs API 24, so keep a private pool
+    private static ForkJoinPool pool;
+
+    /**
+     * Compares two positions by index. Implementations must not allocate.
+     */
+    public interface IndexComparator {
+        int compare(int a, int b);
+    }
+
+    private final RosterStore store;
+    private final Collator collator;
+    private int[] keys = new int[0];
+    private boolean[] ascending = new boolean[0];
+    private boolean parallel = true;
+
+    // String column -> collated distinct values, kept across sorts
+    private final HashMap<Integer, Dictionary> dictionaries = new HashMap<>();
+
+    private int[] cachedRows;
+    private int cachedModCount = -1;
+
+    public RosterSorter(RosterStore store) {
+        this.store = store;
+        this.collator = Collator.getInstance();
+        this.collator.setStrength(Collator.SECONDARY);
+    }
+
+    /**
+     * Replaces the sort keys with a single key.
+     */
+    public RosterSorter orderBy(int key, boolean asc) {
+        keys = new int[]{key};
+        ascending = new boolean[]{asc};
+        cachedRows = null;
+        return this;
+    }
+
+    /**
+     * Adds a tie-breaking key after the current ones.
+     */
+    public RosterSorter thenBy(int key, boolean asc) {
+        keys = Arrays.copyOf(keys, keys.length + 1);
+        ascending = Arrays.copyOf(ascending, ascending.length + 1);
+        keys[keys.length - 1] = key;
+        ascending[ascending.length - 1] = asc;
+        cachedRows = null;
+        return this;
+    }
+
+    public RosterSorter setParallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * Returns store rows in sorted order. The array is shared with the cache
+     * and must not be modified.
+     */
+    public int[] sortedRows() {
+        if (cachedRows != null && cachedModCount == store.getModCount()) {
+            return cachedRows;
+        }
+
+        int size = store.size();
+        final int[][] columns = new int[keys.length][];
+        for (int k = 0; k < keys.length; k++) {
+            columns[k] = extract(keys[k], size);
+        }
+        final boolean[] asc = ascending;
+
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) rows[i] = i;
+
+        // Ties fall back to row order, which keeps the sort stable and deterministic
+        sort(rows, new IndexComparator() {
+            @Override
+            public int compare(int a, int b) {
+                for (int k = 0; k < columns.length; k++) {
+                    int x = columns[k][a];
+                    int y = columns[k][b];
+                    if (x != y) {
+                        int result = x < y ? -1 : 1;
+                        return asc[k] ? result : -result;
+                    }
+                }
+                return 0;
+            }
+        }, parallel && size >= PARALLEL_THRESHOLD);
+
+        cachedRows = rows;
+        cachedModCount = store.getModCount();
+        return rows;
+    }
+
+    private int[] extract(int key, int size) {
+        int[] column = new int[size];
+        switch (key) {
+            case KEY_ROLE:
+                for (int row = 0; row < size; row++) column[row] = store.getRole(row);
+                return column;
+            case KEY_STATUS:
+                for (int row = 0; row < size; row++) column[row] = store.getStatus(row);
+                return column;
+        }
+
+        String[] values = new String[size];
+        for (int row = 0; row < size; row++) {
+            values[row] = stringKey(key, row);
+        }
+        rank(key, values, column);
+        return column;
+    }
+
+    private String stringKey(int key, int row) {
+        switch (key) {
+            case KEY_GRADE:
+                return store.getGrade(row);
+            case KEY_SECTION:
+                return store.getSection(row);
+            case KEY_POSITION:
+                return store.getPosition(row);
+            default:
+                return store.getName(row);
+        }
+    }
+
+    /**
+     * Writes the collation rank of each value into ranks; null and empty
+     * values rank last. Ranks come from the key's dictionary, which only has
+     * to collate values it has not seen in an earlier sort.
+     */
+    private void rank(int key, String[] values, int[] ranks) {
+        Dictionary dictionary = dictionaries.get(key);
+        if (dictionary == null) {
+            dictionary = new Dictionary(key == KEY_GRADE);
+            dictionaries.put(key, dictionary);
+        }
+        dictionary.addAll(values, collator);
+
+        for (int i = 0; i < values.length; i++) {
+            String value = values[i];
+            ranks[i] = value == null || value.isEmpty() ? Integer.MAX_VALUE : dictionary.ranks.get(value);
+        }
+    }
+
+    /**
+     * Sorted distinct values of one string column. Values removed from the
+     * store stay in it; that only leaves gaps between ranks.
+     */
+    private static class Dictionary {
+        final boolean numericAware;
+        final HashMap<String, Integer> ranks = new HashMap<>();
+        CollationKey[] sorted = new CollationKey[0];
+
+        Dictionary(boolean numericAware) {
+            this.numericAware = numericAware;
+        }
+
+        void addAll(String[] values, Collator collator) {
+            HashMap<String, CollationKey> added = new HashMap<>();
+            for (String value : values) {
+                if (value != null && !value.isEmpty() && !ranks.containsKey(value) && !added.containsKey(value)) {
+                    // One CollationKey per distinct value; comparing keys is a byte compare
+                    added.put(value, collator.getCollationKey(value));
+                }
+            }
+            if (added.isEmpty()) return;
+
+            CollationKey[] fresh = added.values().toArray(new CollationKey[0]);
+            Arrays.sort(fresh, comparator);
+
+            // Merge the new values into the already sorted ones
+            CollationKey[] merged = new CollationKey[sorted.length + fresh.length];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < sorted.length && j < fresh.length) {
+                merged[k++] = comparator.compare(fresh[j], sorted[i]) < 0 ? fresh[j++] : sorted[i++];
+            }
+            while (i < sorted.length) merged[k++] = sorted[i++];
+            while (j < fresh.length) merged[k++] = fresh[j++];
+            sorted = merged;
+
+            for (int r = 0; r < sorted.length; r++) {
+                ranks.put(sorted[r].getSourceString(), r);
+            }
+        }
+
+        private final Comparator<CollationKey> comparator = new Comparator<CollationKey>() {
+            @Override
+            public int compare(CollationKey a, CollationKey b) {
+                if (numericAware) {
+                    long x = parseNumber(a.getSourceString());
+                    long y = parseNumber(b.getSourceString());
+                    if (x != Long.MIN_VALUE && y != Long.MIN_VALUE) {
+                        if (x != y) return x < y ? -1 : 1;
+                    } else if (x != Long.MIN_VALUE || y != Long.MIN_VALUE) {
+                        // Numbers before text
+                        return x != Long.MIN_VALUE ? -1 : 1;
+                    }
+                }
+                return a.compareTo(b);
+            }
+        };
+    }
+
+    private static long parseNumber(String value) {
+        String trimmed = value.trim();
+        if (trimmed.isEmpty() || trimmed.length() > 18) return Long.MIN_VALUE;
+        for (int i = 0; i < trimmed.length(); i++) {
+            if (trimmed.charAt(i) < '0' || trimmed.charAt(i) > '9') return Long.MIN_VALUE;
+        }
+        return Long.parseLong(trimmed);
+    }
+
+    /**
+     * Stable merge sort of an index array.
+     */
+    public static void sort(int[] indices, IndexComparator comparator, boolean parallel) {
+        if (indices.length < 2) return;
+        int[] buffer = new int[indices.length];
+        if (parallel) {
+            pool().invoke(new SortTask(indices, buffer, 0, indices.length, comparator));
+        } else {
+            mergeSort(indices, buffer, 0, indices.length, comparator);
+        }
+    }
+
+    private static synchronized ForkJoinPool pool() {
+        if (pool == null) pool = new ForkJoinPool();
+        return pool;
+    }
+
+    private static void mergeSort(int[] a, int[] buffer, int from, int to, IndexComparator comparator) {
+        if (to - from <= 16) {
+            insertionSort(a, from, to, comparator);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(a, buffer, from, mid, comparator);
+        mergeSort(a, buffer, mid, to, comparator);
+        merge(a, buffer, from, mid, to, comparator);
+    }
+
+    private static void insertionSort(int[] a, int from, int to, IndexComparator comparator) {
+        for (int i = from + 1; i < to; i++) {
+            int value = a[i];
+            int j = i - 1;
+            while (j >= from && comparator.compare(a[j], value) > 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = value;
+        }
+    }
+
+    private static void merge(int[] a, int[] buffer, int from, int mid, int to, IndexComparator comparator) {
+        // Already ordered halves need no merge
+        if (comparator.compare(a[mid - 1], a[mid]) <= 0) return;
+
+        System.arraycopy(a, from, buffer, from, to - from);
+        int i = from;
+        int j = mid;
+        int k = from;
+        while (i < mid && j < to) {
+            a[k++] = comparator.compare(buffer[j], buffer[i]) < 0 ? buffer[j++] : buffer[i++];
+        }
+        while (i < mid) a[k++] = buffer[i++];
+        while (j < to) a[k++] = buffer[j++];
+    }
+
+    private static class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] a;
+        private final int[] buffer;
+        private final int from;
+        private final int to;
+        private final IndexComparator comparator;
+
+        SortTask(int[] a, int[] buffer, int from, int to, IndexComparator comparator) {
+            this.a = a;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_CUTOFF) {
+                mergeSort(a, buffer, from, to, comparator);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SortTask(a, buffer, from, mid, comparator),
+                    new SortTask(a, buffer, mid, to, comparator));
+            merge(a, buffer, from, mid, to, comparator);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.jhaiian.attendify.admin;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Column-oriented in-memory roster.
+ *
+ * Each field lives in its own array indexed by row, so a person costs a few
+ * primitive slots plus references to shared (interned) strings instead of a
+ * HashMap with boxed values. Grade, section, position and description values
+ * repeat heavily across a school roster and are interned into one pool.
+ *
+ * Rows are compacted on removal; ids are stable and never reused, and
+ * {@link #rowOf(int)} maps an id back to its current row.
+ */
+public class RosterStore {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int size = 0;
+    private int nextId = 1;
+    private int modCount = 0;
+
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int[] revisions = new int[INITIAL_CAPACITY];
+    private byte[] roles = new byte[INITIAL_CAPACITY];
+    private byte[] statuses = new byte[INITIAL_CAPACITY];
+    private byte[] dayMasks = new byte[INITIAL_CAPACITY];
+    private short[] shiftStarts = new short[INITIAL_CAPACITY];
+    private short[] shiftEnds = new short[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private String[] descriptions = new String[INITIAL_CAPACITY];
+    private String[] grades = new String[INITIAL_CAPACITY];
+    private String[] sections = new String[INITIAL_CAPACITY];
+    private String[] positions = new String[INITIAL_CAPACITY];
+    private String[] imagePaths = new String[INITIAL_CAPACITY];
+
+    // id -> row + 1 (0 means "no row")
+    private int[] idToRow = new int[INITIAL_CAPACITY];
+
+    // Shared pool for repeating values
+    private final HashMap<String, String> pool = new HashMap<>();
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Incremented on every structural or content change.
+     * Callers can cache derived data (sort orders, counts) against it.
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
+    /**
+     * Appends a person and returns its id.
+     */
+    public int add(Person person) {
+        ensureCapacity(size + 1);
+        int id = nextId++;
+        int row = size++;
+        ids[row] = id;
+        revisions[row] = 0;
+        write(row, person);
+        mapId(id, row);
+        modCount++;
+        return id;
+    }
+
+    /**
+     * Inserts or replaces a person under an id assigned elsewhere (the database row id).
+     */
+    public void put(int id, Person person) {
+        if (update(id, person)) return;
+        ensureCapacity(size + 1);
+        int row = size++;
+        ids[row] = id;
+        revisions[row] = 0;
+        write(row, person);
+        mapId(id, row);
+        if (id >= nextId) nextId = id + 1;
+        modCount++;
+    }
+
+    /**
+     * Replaces all fields of an existing person. Returns false if the id is unknown.
+     */
+    public boolean update(int id, Person person) {
+        int row = rowOf(id);
+        if (row < 0) return false;
+        write(row, person);
+        revisions[row]++;
+        modCount++;
+        return true;
+    }
+
+    public boolean setStatus(int id, int status) {
+        int row = rowOf(id);
+        if (row < 0) return false;
+        statuses[row] = (byte) status;
+        revisions[row]++;
+        modCount++;
+        return true;
+    }
+
+    public boolean setImagePath(int id, String path) {
+        int row = rowOf(id);
+        if (row < 0) return false;
+        imagePaths[row] = path;
+        revisions[row]++;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Removes a person by id. The last row is moved into the freed slot.
+     */
+    public boolean remove(int id) {
+        int row = rowOf(id);
+        if (row < 0) return false;
+        int last = size - 1;
+        if (row != last) {
+            copyRow(last, row);
+            idToRow[ids[row]] = row + 1;
+        }
+        clearRow(last);
+        idToRow[id] = 0;
+        size--;
+        modCount++;
+        return true;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) clearRow(i);
+        Arrays.fill(idToRow, 0);
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Returns the current row of an id, or -1 if it is not in the store.
+     */
+    public int rowOf(int id) {
+        if (id <= 0 || id >= idToRow.length) return -1;
+        return idToRow[id] - 1;
+    }
+
+    // Read API: no allocation, safe to call from adapter binds
+
+    public int getId(int row) {
+        return ids[row];
+    }
+
+    public int getRevision(int row) {
+        return revisions[row];
+    }
+
+    public int getRole(int row) {
+        return roles[row];
+    }
+
+    public int getStatus(int row) {
+        return statuses[row];
+    }
+
+    public int getDayMask(int row) {
+        return dayMasks[row];
+    }
+
+    public int getShiftStart(int row) {
+        return shiftStarts[row];
+    }
+
+    public int getShiftEnd(int row) {
+        return shiftEnds[row];
+    }
+
+    public String getName(int row) {
+        return names[row];
+    }
+
+    public String getDescription(int row) {
+        return descriptions[row];
+    }
+
+    public String getGrade(int row) {
+        return grades[row];
+    }
+
+    public String getSection(int row) {
+        return sections[row];
+    }
+
+    public String getPosition(int row) {
+        return positions[row];
+    }
+
+    public String getImagePath(int row) {
+        return imagePaths[row];
+    }
+
+    /**
+     * Materializes a row as a {@link Person}. Allocates; meant for edit flows, not binds.
+     */
+    public Person get(int row) {
+        return new Person(names[row], roles[row], grades[row], sections[row], positions[row],
+                dayMasks[row], imagePaths[row], statuses[row], shiftStarts[row], shiftEnds[row]);
+    }
+
+    private void write(int row, Person person) {
+        names[row] = person.name;
+        roles[row] = (byte) person.role;
+        statuses[row] = (byte) person.status;
+        dayMasks[row] = (byte) person.dayMask;
+        shiftStarts[row] = (short) person.shiftStart;
+        shiftEnds[row] = (short) person.shiftEnd;
+        grades[row] = intern(person.grade);
+        sections[row] = intern(person.section);
+        positions[row] = intern(person.position);
+        descriptions[row] = intern(person.getDescription());
+        imagePaths[row] = person.imagePath;
+    }
+
+    private void copyRow(int from, int to) {
+        ids[to] = ids[from];
+        revisions[to] = revisions[from];
+        roles[to] = roles[from];
+        statuses[to] = statuses[from];
+        dayMasks[to] = dayMasks[from];
+        shiftStarts[to] = shiftStarts[from];
+        shiftEnds[to] = shiftEnds[from];
+        names[to] = names[from];
+        descriptions[to] = descriptions[from];
+        grades[to] = grades[from];
+        sections[to] = sections[from];
+        positions[to] = positions[from];
+        imagePaths[to] = imagePaths[from];
+    }
+
+    private void clearRow(int row) {
+        names[row] = null;
+        descriptions[row] = null;
+        grades[row] = null;
+        sections[row] = null;
+        positions[row] = null;
+        imagePaths[row] = null;
+    }
+
+    private void mapId(int id, int row) {
+        if (id >= idToRow.length) {
+            idToRow = Arrays.copyOf(idToRow, Math.max(id + 1, idToRow.length * 2));
+        }
+        idToRow[id] = row + 1;
+    }
+
+    private String intern(String value) {
+        if (value == null) return null;
+        String shared = pool.get(value);
+        if (shared == null) {
+            pool.put(value, value);
+            shared = value;
+        }
+        return shared;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) return;
+        int capacity = Math.max(required, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        revisions = Arrays.copyOf(revisions, capacity);
+        roles = Arrays.copyOf(roles, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        dayMasks = Arrays.copyOf(dayMasks, capacity);
+        shiftStarts = Arrays.copyOf(shiftStarts, capacity);
+        shiftEnds = Arrays.copyOf(shiftEnds, capacity);
+        names = Arrays.copyOf(names, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        grades = Arrays.copyOf(grades, capacity);
+        sections = Arrays.copyOf(sections, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        imagePaths = Arrays.copyOf(imagePaths, capacity);
+    }
+}
@@ -0,0 +1,22 @@
+package com.jhaiian.attendify.admin;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Streams the rows of a spreadsheet-like file one at a time.
+ */
+public interface RowReader extends Closeable {
+
+    /**
+     * Returns the next row's cells, or null at the end of the file.
+     * Missing cells in the middle of a row are empty strings.
+     */
+    String[] readRow() throws IOException;
+
+    /**
+     * One-based number of the row last returned, as a spreadsheet app would
+     * show it, so error reports can point at the right line.
+     */
+    int getRowNumber();
+}
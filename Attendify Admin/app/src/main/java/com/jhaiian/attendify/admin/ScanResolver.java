@@ -0,0 +1,73 @@
+package com.jhaiian.attendify.admin;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Maps scanned codes to roster ids and suppresses repeated scans.
+ *
+ * A code is a person's remote key. Lookup is a single hash probe. A code
+ * that was accepted less than the debounce window ago is reported as a
+ * duplicate, so a card held in front of the camera for a few seconds is
+ * recorded once. Callers pass the time of each scan.
+ */
+public class ScanResolver {
+
+    public static final int UNKNOWN = -1;
+    public static final int DUPLICATE = -2;
+
+    public static final long DEFAULT_DEBOUNCE_MS = 10_000;
+
+    // Expired debounce entries are dropped once this many have built up
+    private static final int PRUNE_THRESHOLD = 1024;
+
+    private final HashMap<String, Integer> ids = new HashMap<>();
+    private final HashMap<String, Long> lastAccepted = new HashMap<>();
+    private long debounceMillis = DEFAULT_DEBOUNCE_MS;
+    private int pruneAt = PRUNE_THRESHOLD;
+
+    public synchronized void setDebounceMillis(long debounceMillis) {
+        this.debounceMillis = debounceMillis;
+    }
+
+    public synchronized void put(String code, int id) {
+        ids.put(code, id);
+    }
+
+    public synchronized void remove(String code) {
+        ids.remove(code);
+        lastAccepted.remove(code);
+    }
+
+    public synchronized int size() {
+        return ids.size();
+    }
+
+    /**
+     * Returns the id for a scanned code, {@link #UNKNOWN} if no one has it,
+     * or {@link #DUPLICATE} if it was accepted within the debounce window.
+     */
+    public synchronized int resolve(String code, long nowMillis) {
+        if (code == null) return UNKNOWN;
+        String key = code.trim();
+        Integer id = ids.get(key);
+        if (id == null) return UNKNOWN;
+
+        Long last = lastAccepted.get(key);
+        if (last != null && nowMillis - last < debounceMillis) return DUPLICATE;
+
+        if (lastAccepted.size() >= pruneAt) prune(nowMillis);
+        lastAccepted.put(key, nowMillis);
+        return id;
+    }
+
+    private void prune(long nowMillis) {
+        Iterator<Map.Entry<String, Long>> it = lastAccepted.entrySet().iterator();
+        while (it.hasNext()) {
+            if (nowMillis - it.next().getValue() >= debounceMillis) it.remove();
+        }
+        // Keep pruning amortized when many entries are still inside the window
+        pruneAt = Math.max(PRUNE_THRESHOLD, lastAccepted.size() * 2);
+    }
+}
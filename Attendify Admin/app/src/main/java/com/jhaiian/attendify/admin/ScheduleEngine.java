@@ -0,0 +1,221 @@
+package com.jhaiian.attendify.admin;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.TimeZone;
+
+/**
+ * Answers "who is expected on day D" and "who is expected right now" for
+ * the whole roster with bitset operations.
+ *
+ * Every person owns one bit position (a slot). For each weekday there is a
+ * bitset of the people scheduled that day, and for each half-hour of the
+ * day a bitset of the people whose shift covers it (people without a shift
+ * window are in all of them). A query ANDs bitsets 64 people per word, so
+ * 100k people cost a few thousand word operations, never a per-person loop.
+ *
+ * An overnight shift (end before start) belongs to the day it starts. Its
+ * evening is in that day's half-hour bitsets; the part after midnight is
+ * kept in separate spill-over bitsets, which are ANDed with the previous
+ * weekday's people. So Mon 22:00-06:00 is expected on Tuesday at 02:00,
+ * not on Monday at 02:00.
+ *
+ * Shift windows are rounded out to whole half-hours. Freed slots are
+ * reused. Not thread-safe; used from the main thread.
+ */
+public class ScheduleEngine {
+
+    public static final int SLOT_MINUTES = 30;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    private static final int INITIAL_WORDS = 4;
+
+    // Weekday (Monday = 0) -> people scheduled that day
+    private final long[][] days = new long[7][];
+
+    // Half-hour of the day -> people on shift during it, counted from the day the shift starts
+    private final long[][] times = new long[SLOTS_PER_DAY][];
+
+    // Half-hour of the day -> people whose overnight shift from the day before is still running
+    private final long[][] spills = new long[SLOTS_PER_DAY][];
+
+    private final HashMap<Integer, Integer> slotOfId = new HashMap<>();
+    private int[] idOfSlot = new int[INITIAL_WORDS * 64];
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int slotCount;
+
+    public ScheduleEngine() {
+        for (int i = 0; i < days.length; i++) days[i] = new long[INITIAL_WORDS];
+        for (int i = 0; i < times.length; i++) times[i] = new long[INITIAL_WORDS];
+        for (int i = 0; i < spills.length; i++) spills[i] = new long[INITIAL_WORDS];
+    }
+
+    public int size() {
+        return slotOfId.size();
+    }
+
+    public void put(int id, Person person) {
+        put(id, person.dayMask, person.shiftStart, person.shiftEnd);
+    }
+
+    /**
+     * Adds or replaces the schedule of one person.
+     */
+    public void put(int id, int dayMask, int shiftStart, int shiftEnd) {
+        Integer existing = slotOfId.get(id);
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            clearSlot(slot);
+        } else {
+            slot = allocateSlot();
+            slotOfId.put(id, slot);
+            idOfSlot[slot] = id;
+        }
+
+        int word = slot >>> 6;
+        long bit = 1L << slot;
+        for (int day = 0; day < 7; day++) {
+            if ((dayMask & (1 << day)) != 0) days[day][word] |= bit;
+        }
+
+        if (shiftStart == Person.NO_SHIFT || shiftEnd == Person.NO_SHIFT) {
+            for (long[] time : times) time[word] |= bit;
+        } else if (shiftEnd > shiftStart) {
+            for (int t = shiftStart / SLOT_MINUTES; t <= (shiftEnd - 1) / SLOT_MINUTES; t++) {
+                times[t][word] |= bit;
+            }
+        } else {
+            for (int t = shiftStart / SLOT_MINUTES; t < SLOTS_PER_DAY; t++) times[t][word] |= bit;
+            // A shift ending at exactly midnight has nothing to spill
+            int lastSpill = shiftEnd > 0 ? (shiftEnd - 1) / SLOT_MINUTES : -1;
+            for (int t = 0; t <= lastSpill; t++) spills[t][word] |= bit;
+        }
+    }
+
+    public void remove(int id) {
+        Integer slot = slotOfId.remove(id);
+        if (slot == null) return;
+        clearSlot(slot);
+        if (freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        freeSlots[freeCount++] = slot;
+    }
+
+    public void clear() {
+        for (long[] day : days) Arrays.fill(day, 0);
+        for (long[] time : times) Arrays.fill(time, 0);
+        for (long[] spill : spills) Arrays.fill(spill, 0);
+        slotOfId.clear();
+        freeCount = 0;
+        slotCount = 0;
+    }
+
+    /**
+     * Ids of everyone scheduled on an epoch day, in no particular order.
+     */
+    public int[] expectedOn(int epochDay) {
+        return toIds(days[weekdayIndex(epochDay)], null, null, null);
+    }
+
+    public int countExpectedOn(int epochDay) {
+        return count(days[weekdayIndex(epochDay)], null, null, null);
+    }
+
+    /**
+     * Ids of everyone on shift at a minute after local midnight of an epoch
+     * day, including overnight shifts that started the day before.
+     */
+    public int[] expectedAt(int epochDay, int minuteOfDay) {
+        int slot = slotOf(minuteOfDay);
+        return toIds(days[weekdayIndex(epochDay)], times[slot], days[weekdayIndex(epochDay - 1)], spills[slot]);
+    }
+
+    public int countExpectedAt(int epochDay, int minuteOfDay) {
+        int slot = slotOf(minuteOfDay);
+        return count(days[weekdayIndex(epochDay)], times[slot], days[weekdayIndex(epochDay - 1)], spills[slot]);
+    }
+
+    /**
+     * Who is expected at a wall-clock time, in the device's time zone.
+     */
+    public int[] expectedAt(long millis) {
+        long local = millis + TimeZone.getDefault().getOffset(millis);
+        int epochDay = (int) Math.floor(local / (double) DAY_MS);
+        int minuteOfDay = (int) ((local - epochDay * DAY_MS) / 60000L);
+        return expectedAt(epochDay, minuteOfDay);
+    }
+
+    public boolean isExpected(int id, int epochDay) {
+        Integer slot = slotOfId.get(id);
+        return slot != null && (days[weekdayIndex(epochDay)][slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    /**
+     * Monday = 0 ... Sunday = 6, matching the Person day bits. Epoch day 0 was a Thursday.
+     */
+    public static int weekdayIndex(int epochDay) {
+        return ((epochDay + 3) % 7 + 7) % 7;
+    }
+
+    private static int slotOf(int minuteOfDay) {
+        return Math.max(0, Math.min(SLOTS_PER_DAY - 1, minuteOfDay / SLOT_MINUTES));
+    }
+
+    // (day AND time) OR (previousDay AND spill); time null means the whole day
+    private static long combine(long[] day, long[] time, long[] previousDay, long[] spill, int w) {
+        if (time == null) return day[w];
+        return day[w] & time[w] | previousDay[w] & spill[w];
+    }
+
+    private int[] toIds(long[] day, long[] time, long[] previousDay, long[] spill) {
+        int[] ids = new int[count(day, time, previousDay, spill)];
+        int n = 0;
+        int words = wordsInUse();
+        for (int w = 0; w < words; w++) {
+            long bits = combine(day, time, previousDay, spill, w);
+            while (bits != 0) {
+                int bit = Long.numberOfTrailingZeros(bits);
+                ids[n++] = idOfSlot[(w << 6) + bit];
+                bits &= bits - 1;
+            }
+        }
+        return ids;
+    }
+
+    private int count(long[] day, long[] time, long[] previousDay, long[] spill) {
+        int total = 0;
+        int words = wordsInUse();
+        for (int w = 0; w < words; w++) {
+            total += Long.bitCount(combine(day, time, previousDay, spill, w));
+        }
+        return total;
+    }
+
+    private int wordsInUse() {
+        return (slotCount + 63) >>> 6;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) return freeSlots[--freeCount];
+
+        int slot = slotCount++;
+        if (slot >= idOfSlot.length) {
+            int capacity = idOfSlot.length * 2;
+            idOfSlot = Arrays.copyOf(idOfSlot, capacity);
+            for (int i = 0; i < days.length; i++) days[i] = Arrays.copyOf(days[i], capacity / 64);
+            for (int i = 0; i < times.length; i++) times[i] = Arrays.copyOf(times[i], capacity / 64);
+            for (int i = 0; i < spills.length; i++) spills[i] = Arrays.copyOf(spills[i], capacity / 64);
+        }
+        return slot;
+    }
+
+    private void clearSlot(int slot) {
+        int word = slot >>> 6;
+        long mask = ~(1L << slot);
+        for (long[] day : days) day[word] &= mask;
+        for (long[] time : times) time[word] &= mask;
+        for (long[] spill : spills) spill[word] &= mask;
+    }
+}
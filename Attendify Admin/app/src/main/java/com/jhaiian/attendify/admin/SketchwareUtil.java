@@ -84,25 +84,34 @@ public class SketchwareUtil {
     }
 
     public static void sortListMap(final ArrayList<HashMap<String, Object>> listMap, final String key, final boolean isNumber, final boolean ascending) {
-        Collections.sort(listMap, new Comparator<HashMap<String, Object>>() {
-            public int compare(HashMap<String, Object> _compareMap1, HashMap<String, Object> _compareMap2) {
-                if (isNumber) {
-                    int _count1 = Integer.valueOf(_compareMap1.get(key).toString());
-                    int _count2 = Integer.valueOf(_compareMap2.get(key).toString());
-                    if (ascending) {
-                        return _count1 < _count2 ? -1 : _count1 < _count2 ? 1 : 0;
-                    } else {
-                        return _count1 > _count2 ? -1 : _count1 > _count2 ? 1 : 0;
-                    }
-                } else {
-                    if (ascending) {
-                        return (_compareMap1.get(key).toString()).compareTo(_compareMap2.get(key).toString());
-                    } else {
-                        return (_compareMap2.get(key).toString()).compareTo(_compareMap1.get(key).toString());
-                    }
-                }
+        // Read each value once instead of inside every comparison
+        final int size = listMap.size();
+        final double[] numbers = isNumber ? new double[size] : null;
+        final String[] strings = isNumber ? null : new String[size];
+        for (int i = 0; i < size; i++) {
+            Object value = listMap.get(i).get(key);
+            if (isNumber) {
+                numbers[i] = Double.parseDouble(value.toString());
+            } else {
+                strings[i] = value.toString();
             }
-        });
+        }
+
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) order[i] = i;
+
+        RosterSorter.sort(order, new RosterSorter.IndexComparator() {
+            @Override
+            public int compare(int a, int b) {
+                int result = isNumber ? Double.compare(numbers[a], numbers[b]) : strings[a].compareTo(strings[b]);
+                return ascending ? result : -result;
+            }
+        }, false);
+
+        ArrayList<HashMap<String, Object>> sorted = new ArrayList<>(size);
+        for (int index : order) sorted.add(listMap.get(index));
+        listMap.clear();
+        listMap.addAll(sorted);
     }
 
     public static void CropImage(Activity _activity, String _path, int _requestCode) {
@@ -0,0 +1,269 @@
+package com.jhaiian.attendify.admin;
+
+import android.app.Activity;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the splash-screen startup work concurrently instead of as a chain.
+ *
+ * Status.json, SHA256.json and Update.json are requested at the same time
+ * while the signing certificate is hashed on a worker thread. Results are
+ * joined on the main thread and parsed into one {@link AppConfig}. If the
+ * overall deadline passes first, any network phase that has not answered
+ * falls back to the value in the last saved snapshot. Responses that arrive
+ * after that still count: once every phase has answered without an error,
+ * the fresh config replaces the snapshot for the next launch.
+ *
+ * A cold start logs its per-phase timings once every phase has answered,
+ * so the critical path shows in logcat under this class's tag.
+ */
+public class StartupOrchestrator {
+
+    public static final String PHASE_STATUS = "status";
+    public static final String PHASE_SHA256 = "sha256";
+    public static final String PHASE_UPDATE = "update";
+    public static final String PHASE_SIGNATURE = "signature";
+
+    private static final String TAG = "StartupOrchestrator";
+    private static final long STARTUP_DEADLINE_MS = 4000;
+    private static final int PHASE_COUNT = 4;
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final Activity activity;
+    private final UpdateManager updateManager;
+    private final BootstrapConfigStore configStore;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private Result result;
+    private String statusResponse;
+    private String sha256Response;
+    private String updateResponse;
+    private final HashSet<String> failedPhases = new HashSet<>();
+    private OnStartupListener listener;
+    private OnSignatureListener signatureListener;
+    private long startTime;
+    private long deliveredAfter;
+    private boolean coldStart;
+    private int completedPhases;
+    private boolean deadlinePassed;
+    private boolean delivered;
+
+    public interface OnStartupListener {
+        void onStartupReady(Result result);
+    }
+
+    public interface OnSignatureListener {
+        void onSignatureReady(String signature);
+    }
+
+    /**
+     * Joined startup data. A null config status means the Status phase failed
+     * and no snapshot was available.
+     */
+    public static class Result {
+        public AppConfig config;
+        public String signature;
+
+        // Phases answered from the saved snapshot instead of the network
+        public final HashMap<String, Boolean> fromFallback = new HashMap<>();
+
+        // Phase -> elapsed ms from start, in completion order
+        public final LinkedHashMap<String, Long> timings = new LinkedHashMap<>();
+    }
+
+    public StartupOrchestrator(Activity activity, UpdateManager updateManager, BootstrapConfigStore configStore) {
+        this.activity = activity;
+        this.updateManager = updateManager;
+        this.configStore = configStore;
+    }
+
+    /**
+     * Fetches everything and calls the listener once joined, or once the
+     * deadline passes and the signature hash is ready.
+     */
+    public void start(OnStartupListener listener) {
+        this.listener = listener;
+        this.signatureListener = null;
+        this.result = new Result();
+        this.statusResponse = null;
+        this.sha256Response = null;
+        this.updateResponse = null;
+        this.failedPhases.clear();
+        this.completedPhases = 0;
+        this.deadlinePassed = false;
+        this.delivered = false;
+        this.coldStart = listener != null;
+        this.startTime = SystemClock.elapsedRealtime();
+
+        if (listener != null) {
+            mainHandler.postDelayed(deadlineRunnable, STARTUP_DEADLINE_MS);
+        }
+
+        fetch(PHASE_STATUS, NetworkMonitor.FIREBASE_URL, RequestNetworkController.CACHE_NETWORK_ONLY);
+        fetch(PHASE_SHA256, UpdateManager.URL_SHA256, RequestNetworkController.CACHE_DEFAULT);
+        fetch(PHASE_UPDATE, UpdateManager.URL_UPDATE, RequestNetworkController.CACHE_DEFAULT);
+
+        final Result current = result;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final String signature = updateManager.getCurrentAppSignature();
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (current != result) return;
+                        result.signature = signature;
+                        if (signatureListener != null) {
+                            signatureListener.onSignatureReady(signature);
+                        }
+                        completePhase(PHASE_SIGNATURE);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Fetches everything in the background without a deadline, only to refresh
+     * the saved snapshot for the next launch. The signature listener gets the
+     * certificate hash as soon as the worker thread has it, so a warm start
+     * never hashes on the main thread.
+     */
+    public void revalidate(OnSignatureListener signatureListener) {
+        start(null);
+        this.signatureListener = signatureListener;
+    }
+
+    /**
+     * Stops waiting on the deadline and drops the listeners. Fetches already in
+     * flight still complete and refresh the snapshot.
+     */
+    public void cancel() {
+        listener = null;
+        signatureListener = null;
+        mainHandler.removeCallbacks(deadlineRunnable);
+    }
+
+    private void fetch(final String phase, String url, int cachePolicy) {
+        final Result current = result;
+        RequestNetwork request = new RequestNetwork(activity);
+        request.setCachePolicy(cachePolicy);
+
+        request.startRequestNetwork(RequestNetworkController.GET, url, phase,
+                new RequestNetwork.RequestListener() {
+                    @Override
+                    public void onResponse(String tag, String response, HashMap<String, Object> responseHeaders) {
+                        if (current != result) return;
+                        setResponse(phase, response);
+                        completePhase(phase);
+                    }
+
+                    @Override
+                    public void onErrorResponse(String tag, String message) {
+                        if (current != result) return;
+                        failedPhases.add(phase);
+                        completePhase(phase);
+                    }
+                });
+    }
+
+    private final Runnable deadlineRunnable = new Runnable() {
+        @Override
+        public void run() {
+            deadlinePassed = true;
+            // The signature is hashed locally and never falls back, so wait for it
+            if (result.signature != null) deliver();
+        }
+    };
+
+    private void completePhase(String phase) {
+        result.timings.put(phase, SystemClock.elapsedRealtime() - startTime);
+        completedPhases++;
+
+        if (completedPhases >= PHASE_COUNT) {
+            if (coldStart) logTimings();
+            if (!delivered && listener != null) {
+                deliver();
+            } else if (failedPhases.isEmpty()) {
+                // Revalidation, or late answers after the deadline: only refresh the snapshot
+                configStore.save(parseResponses());
+            }
+        } else if (deadlinePassed && PHASE_SIGNATURE.equals(phase)) {
+            deliver();
+        }
+    }
+
+    private void deliver() {
+        if (delivered || listener == null) return;
+        delivered = true;
+        deliveredAfter = SystemClock.elapsedRealtime() - startTime;
+        mainHandler.removeCallbacks(deadlineRunnable);
+
+        // Phases still out or failed by now are answered from the snapshot
+        for (String phase : new String[]{PHASE_STATUS, PHASE_SHA256, PHASE_UPDATE}) {
+            if (failedPhases.contains(phase) || !result.timings.containsKey(phase)) {
+                result.fromFallback.put(phase, true);
+            }
+        }
+        result.config = buildConfig();
+        listener.onStartupReady(result);
+    }
+
+    /**
+     * One line per cold start: each phase in completion order, then when the
+     * splash screen got its config and which phases came from the snapshot.
+     */
+    private void logTimings() {
+        StringBuilder line = new StringBuilder("cold start:");
+        for (String phase : result.timings.keySet()) {
+            line.append(' ').append(phase).append(' ').append(result.timings.get(phase)).append(" ms,");
+        }
+        line.append(" delivered at ").append(delivered ? deliveredAfter + " ms" : "-");
+        if (!result.fromFallback.isEmpty()) line.append(", from snapshot ").append(result.fromFallback.keySet());
+        Log.i(TAG, line.toString());
+    }
+
+    /**
+     * Parses the fresh responses and fills failed phases from the snapshot.
+     * Only a fully fresh config is saved as the new snapshot.
+     */
+    private AppConfig buildConfig() {
+        AppConfig config = parseResponses();
+        if (result.fromFallback.isEmpty()) {
+            configStore.save(config);
+            return config;
+        }
+
+        AppConfig snapshot = configStore.load();
+        if (snapshot == null) return config;
+
+        if (result.fromFallback.containsKey(PHASE_STATUS)) config = config.withStatus(snapshot.status);
+        if (result.fromFallback.containsKey(PHASE_SHA256)) config = config.withAuthorizedHash(snapshot.authorizedHash);
+        if (result.fromFallback.containsKey(PHASE_UPDATE)) config = config.withUpdateFrom(snapshot);
+        return config;
+    }
+
+    private AppConfig parseResponses() {
+        return AppConfig.parse(statusResponse, sha256Response, updateResponse, System.currentTimeMillis());
+    }
+
+    private void setResponse(String phase, String response) {
+        if (PHASE_STATUS.equals(phase)) {
+            statusResponse = response;
+        } else if (PHASE_SHA256.equals(phase)) {
+            sha256Response = response;
+        } else if (PHASE_UPDATE.equals(phase)) {
+            updateResponse = response;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.jhaiian.attendify.admin;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flushes the {@link Outbox} to the {@link RemoteDatabase}.
+ *
+ * Mutations are recorded locally first and sent later as multi-path
+ * updateChildren batches, at most {@link #MAX_IN_FLIGHT} at a time. A failed
+ * batch stays queued and the engine backs off exponentially (with jitter)
+ * before trying again; {@link #flushNow()} skips the wait, e.g. when the
+ * network comes back. Every write sets an absolute path to a full value, so
+ * replaying a batch after an unknown outcome is harmless.
+ *
+ * All outbox access happens on the engine's single thread.
+ */
+public class SyncEngine {
+
+    private static final String TAG = "SyncEngine";
+
+    static final int MAX_BATCH_PATHS = 200;
+    static final int MAX_IN_FLIGHT = 2;
+    static final long FLUSH_DELAY_MS = 500;
+    static final long BASE_BACKOFF_MS = 1000;
+    static final long MAX_BACKOFF_MS = 5 * 60 * 1000L;
+
+    private static SyncEngine mInstance;
+
+    private final Outbox outbox;
+    private final RemoteDatabase remote;
+    private final ScheduledExecutorService executor;
+    private final Random random = new Random();
+
+    // Paths of batches currently being written
+    private final HashSet<String> inFlightPaths = new HashSet<>();
+    private int inFlight = 0;
+
+    private int failures = 0;
+    private long retryAt = 0;
+    private ScheduledFuture<?> scheduledFlush;
+
+    public static synchronized SyncEngine getInstance(Context context) {
+        if (mInstance == null) {
+            mInstance = new SyncEngine(
+                    new Outbox(RosterDatabase.getInstance(context)),
+                    new FirebaseRemoteDatabase(),
+                    Executors.newSingleThreadScheduledExecutor());
+        }
+        return mInstance;
+    }
+
+    public SyncEngine(final Outbox outbox, RemoteDatabase remote, ScheduledExecutorService executor) {
+        this.outbox = outbox;
+        this.remote = remote;
+        this.executor = executor;
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                outbox.load();
+                flush();
+            }
+        });
+    }
+
+    /**
+     * Queues one write (null deletes) and schedules a flush shortly after, so
+     * a burst of edits goes out as one batch.
+     */
+    public void enqueue(final String path, final Object value) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                outbox.put(path, value);
+                scheduleFlush(FLUSH_DELAY_MS);
+            }
+        });
+    }
+
+    /**
+     * Queues several writes, keyed by path.
+     */
+    public void enqueue(final Map<String, Object> updates) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (Map.Entry<String, Object> update : updates.entrySet()) {
+                    outbox.put(update.getKey(), update.getValue());
+                }
+                scheduleFlush(FLUSH_DELAY_MS);
+            }
+        });
+    }
+
+    /**
+     * Flushes immediately, ignoring any backoff (e.g. connectivity restored).
+     */
+    public void flushNow() {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                retryAt = 0;
+                flush();
+            }
+        });
+    }
+
+    private void scheduleFlush(long delayMs) {
+        if (scheduledFlush != null && !scheduledFlush.isDone()) return;
+        scheduledFlush = executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush() {
+        long now = System.currentTimeMillis();
+        if (now < retryAt) {
+            scheduleFlush(retryAt - now);
+            return;
+        }
+
+        while (inFlight < MAX_IN_FLIGHT) {
+            List<Outbox.Entry> batch = outbox.nextBatch(MAX_BATCH_PATHS, inFlightPaths);
+            if (batch.isEmpty()) return;
+            send(batch);
+        }
+    }
+
+    private void send(final List<Outbox.Entry> batch) {
+        inFlight++;
+        for (Outbox.Entry entry : batch) inFlightPaths.add(entry.path);
+
+        remote.updateChildren(Outbox.toUpdates(batch), new RemoteDatabase.Callback() {
+            @Override
+            public void onComplete(final String error) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        onBatchComplete(batch, error);
+                    }
+                });
+            }
+        });
+    }
+
+    private void onBatchComplete(List<Outbox.Entry> batch, String error) {
+        inFlight--;
+        for (Outbox.Entry entry : batch) inFlightPaths.remove(entry.path);
+
+        if (error == null) {
+            outbox.complete(batch);
+            failures = 0;
+            flush();
+            return;
+        }
+
+        failures++;
+        long backoff = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(failures - 1, 20));
+        backoff += random.nextInt((int) Math.max(1, backoff / 2));
+        retryAt = System.currentTimeMillis() + backoff;
+        Log.w(TAG, "batch of " + batch.size() + " failed (" + error + "), retrying in " + backoff + "ms");
+        scheduleFlush(backoff);
+    }
+
+    // Remote paths, relative to the database root
+
+    public static String workplacePath(String uid) {
+        return "data/" + uid;
+    }
+
+    public static String personPath(String uid, String personKey) {
+        return workplacePath(uid) + "/people/" + personKey;
+    }
+
+    /**
+     * Path of one attendance event. The key is derived from the event itself,
+     * so re-sending it never creates a duplicate.
+     */
+    public static String attendancePath(String uid, int epochDay, String personKey, int epochMinute, int type) {
+        return workplacePath(uid) + "/attendance/" + epochDay + "/" + personKey + "_" + epochMinute + "_" + type;
+    }
+}
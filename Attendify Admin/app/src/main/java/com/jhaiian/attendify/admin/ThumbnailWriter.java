@@ -0,0 +1,97 @@
+package com.jhaiian.attendify.admin;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.File;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Normalizes a picked gallery image into a small avatar file owned by the app.
+ *
+ * The source is copied out of its content URI once, rotated according to its
+ * EXIF orientation, center-cropped to a square and stored as a fixed-size
+ * lossy WebP under filesDir/avatars. Records keep the path to that file
+ * instead of the original URI, which may stop being readable later.
+ */
+public class ThumbnailWriter {
+
+    public static final int THUMBNAIL_SIZE_PX = 256;
+    private static final int THUMBNAIL_QUALITY = 85;
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public interface OnThumbnailListener {
+        /**
+         * Called on the main thread with the path of the written thumbnail,
+         * or null if the image could not be read.
+         */
+        void onThumbnailReady(String path);
+    }
+
+    public static void normalize(Context context, final Uri source, final OnThumbnailListener listener) {
+        final Context appContext = context.getApplicationContext();
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final String path = writeThumbnail(appContext, source);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onThumbnailReady(path);
+                    }
+                });
+            }
+        });
+    }
+
+    private static String writeThumbnail(Context context, Uri source) {
+        String name = UUID.randomUUID().toString();
+        String destPath = new File(new File(context.getFilesDir(), "avatars"), name + ".webp").getAbsolutePath();
+
+        // Read straight from disk when the URI resolves to a file; otherwise take a private copy
+        String sourcePath = null;
+        try {
+            sourcePath = FileUtil.convertUriToFilePath(context, source);
+        } catch (Exception e) {
+            // Fall through to copying the stream
+        }
+        File temp = null;
+        if (sourcePath == null || !new File(sourcePath).canRead()) {
+            temp = new File(context.getCacheDir(), name + ".src");
+            if (!FileUtil.copyUriToFile(context, source, temp.getAbsolutePath())) {
+                temp.delete();
+                return null;
+            }
+            sourcePath = temp.getAbsolutePath();
+        }
+
+        boolean written = FileUtil.createSquareThumbnail(sourcePath, destPath, THUMBNAIL_SIZE_PX,
+                thumbnailFormat(), THUMBNAIL_QUALITY);
+
+        if (temp != null) temp.delete();
+        if (!written) {
+            FileUtil.deleteFile(destPath);
+            return null;
+        }
+        return destPath;
+    }
+
+    /**
+     * Lossy WebP on every supported API level: WEBP is lossy below quality 100
+     * until API 30 split it into WEBP_LOSSY and WEBP_LOSSLESS.
+     */
+    @SuppressWarnings("deprecation")
+    private static Bitmap.CompressFormat thumbnailFormat() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                ? Bitmap.CompressFormat.WEBP_LOSSY : Bitmap.CompressFormat.WEBP;
+    }
+}
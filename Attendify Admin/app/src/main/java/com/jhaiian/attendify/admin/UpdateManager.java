@@ -10,7 +10,6 @@ import android.content.SharedPreferences;
 import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
 import android.net.Uri;
-import android.os.AsyncTask;
 import android.os.Build;
 import android.os.Environment;
 import android.provider.Settings;
@@ -23,18 +22,12 @@ import android.widget.Toast;
 
 import androidx.core.content.FileProvider;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
-
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.URL;
-import java.net.URLConnection;
+import java.io.IOException;
 import java.security.MessageDigest;
 import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Manages app update checking, update dialogs, APK downloading, and signature verification.
@@ -48,8 +41,13 @@ public class UpdateManager {
 
     // Firebase Realtime Database REST URLs
     private static final String BASE_URL = "https://attendify-jhaiian-default-rtdb.asia-southeast1.firebasedatabase.app";
-    private static final String URL_SHA256 = BASE_URL + "/SHA256.json";
-    private static final String URL_UPDATE = BASE_URL + "/Update.json";
+    public static final String URL_SHA256 = BASE_URL + "/SHA256.json";
+    public static final String URL_UPDATE = BASE_URL + "/Update.json";
+
+    private static final String UPDATE_APK = "Attendify_Update.apk";
+
+    // Rebuilds patched APKs off the main thread
+    private static final ExecutorService patchExecutor = Executors.newSingleThreadExecutor();
 
     public interface OnUpdateCheckListener {
         void onProceed();
@@ -79,15 +77,7 @@ public class UpdateManager {
                 new RequestNetwork.RequestListener() {
                     @Override
                     public void onResponse(String tag, String response, HashMap<String, Object> responseHeaders) {
-                        String authorizedHash = response.trim().replace("\"", "");
-
-                        // Verify signature only when a hash exists in database
-                        if (!authorizedHash.equals("null") && !authorizedHash.isEmpty()) {
-                            if (!isSignatureValid(authorizedHash)) {
-                                showTamperDialog();
-                                return;
-                            }
-                        }
+                        if (!applySignatureCheck(response, getCurrentAppSignature())) return;
 
                         // Continue to update metadata
                         fetchUpdateData(listener);
@@ -108,58 +98,7 @@ public class UpdateManager {
                 new RequestNetwork.RequestListener() {
                     @Override
                     public void onResponse(String tag, String response, HashMap<String, Object> responseHeaders) {
-
-                        if (response.equals("null") || response.isEmpty()) {
-                            listener.onProceed();
-                            return;
-                        }
-
-                        try {
-                            HashMap<String, Object> data =
-                                    new Gson().fromJson(response, new TypeToken<HashMap<String, Object>>() {}.getType());
-
-                            int mandatoryVer = 0;
-                            int optionalVer = 0;
-                            String downloadLink = "";
-                            String changelogLink = "";
-
-                            // Convert JSON numerics (parsed as Double) to int
-                            if (data.containsKey("Mandatory_Update")) {
-                                mandatoryVer = (int) Double.parseDouble(String.valueOf(data.get("Mandatory_Update")));
-                            }
-
-                            if (data.containsKey("Optional_Update")) {
-                                optionalVer = (int) Double.parseDouble(String.valueOf(data.get("Optional_Update")));
-                            }
-
-                            if (data.containsKey("Download_Link")) {
-                                downloadLink = String.valueOf(data.get("Download_Link"));
-                            }
-
-                            if (data.containsKey("Changelog")) {
-                                changelogLink = String.valueOf(data.get("Changelog"));
-                            }
-
-                            // Mandatory update required
-                            if (currentVersionCode < mandatoryVer) {
-                                showUpdateDialog(true, downloadLink, changelogLink, mandatoryVer, listener);
-                                return;
-                            }
-
-                            // Optional update available
-                            if (currentVersionCode < optionalVer) {
-                                int ignoredVer = prefs.getInt("ignored_version", 0);
-                                if (ignoredVer != optionalVer) {
-                                    showUpdateDialog(false, downloadLink, changelogLink, optionalVer, listener);
-                                    return;
-                                }
-                            }
-
-                            listener.onProceed();
-
-                        } catch (Exception e) {
-                            listener.onProceed();
-                        }
+                        applyUpdateData(response, listener);
                     }
 
                     @Override
@@ -169,11 +108,61 @@ public class UpdateManager {
                 });
     }
 
+    /**
+     * Applies a raw SHA256.json response. Shows the tamper dialog and returns
+     * false when a hash is published and does not match the given signature.
+     */
+    public boolean applySignatureCheck(String response, String currentSignature) {
+        String authorizedHash = AppConfig.parseString(response);
+
+        // Verify signature only when a hash exists in database
+        if (authorizedHash != null) {
+            if (!isSignatureValid(authorizedHash, currentSignature)) {
+                showTamperDialog();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Applies a raw Update.json response: shows the mandatory/optional update
+     * dialog when needed, otherwise calls the listener to proceed.
+     */
+    public void applyUpdateData(String response, final OnUpdateCheckListener listener) {
+        applyUpdateConfig(AppConfig.parse(null, null, response, System.currentTimeMillis()), listener);
+    }
+
+    /**
+     * Shows the mandatory/optional update dialog for the given config when
+     * needed, otherwise calls the listener to proceed.
+     */
+    public void applyUpdateConfig(AppConfig config, final OnUpdateCheckListener listener) {
+        int mandatoryVer = config.mandatoryUpdate;
+        int optionalVer = config.optionalUpdate;
+
+        // Mandatory update required
+        if (currentVersionCode < mandatoryVer) {
+            showUpdateDialog(true, config, mandatoryVer, listener);
+            return;
+        }
+
+        // Optional update available
+        if (currentVersionCode < optionalVer) {
+            int ignoredVer = prefs.getInt("ignored_version", 0);
+            if (ignoredVer != optionalVer) {
+                showUpdateDialog(false, config, optionalVer, listener);
+                return;
+            }
+        }
+
+        listener.onProceed();
+    }
+
     /**
      * Validates the app signature hash against the authorized hash.
      */
-    private boolean isSignatureValid(String authorizedHash) {
-        String currentHash = getCurrentAppSignature();
+    private boolean isSignatureValid(String authorizedHash, String currentHash) {
         String cleanAuthorized = authorizedHash.replace(":", "").toUpperCase().trim();
         String cleanCurrent = currentHash.replace(":", "").toUpperCase().trim();
         return cleanCurrent.equals(cleanAuthorized);
@@ -182,7 +171,7 @@ public class UpdateManager {
     /**
      * Retrieves current app signing certificate SHA-256.
      */
-    private String getCurrentAppSignature() {
+    public String getCurrentAppSignature() {
         try {
             PackageManager pm = activity.getPackageManager();
             String packageName = activity.getPackageName();
@@ -256,8 +245,7 @@ public class UpdateManager {
      */
     private void showUpdateDialog(
             final boolean isMandatory,
-            final String downloadUrl,
-            final String changelogUrl,
+            final AppConfig config,
             final int newVersionCode,
             final OnUpdateCheckListener listener) {
 
@@ -299,7 +287,7 @@ public class UpdateManager {
         // Open changelog URL
         btnChangelog.setOnClickListener(v -> {
             try {
-                Intent browserIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(changelogUrl));
+                Intent browserIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(config.changelog));
                 activity.startActivity(browserIntent);
             } catch (Exception ignored) {}
         });
@@ -316,7 +304,7 @@ public class UpdateManager {
                     return;
                 }
             }
-            new DownloadTask(activity).execute(downloadUrl);
+            startDownload(config);
         });
 
         // Handle dismiss or exit
@@ -336,83 +324,146 @@ public class UpdateManager {
     }
 
     /**
-     * Downloads APK in background and displays a progress dialog.
+     * Starts the update download, preferring a delta patch when one is
+     * published for the installed version.
      */
-    private class DownloadTask extends AsyncTask<String, Integer, String> {
-        private Context context;
-        private ProgressDialog progressDialog;
-        private File file;
-
-        public DownloadTask(Context context) {
-            this.context = context;
+    private void startDownload(AppConfig config) {
+        if (config.hasPatchFor(currentVersionCode)) {
+            startPatchDownload(config);
+        } else {
+            startFullDownload(config);
         }
+    }
 
-        @Override
-        protected void onPreExecute() {
-            progressDialog = new ProgressDialog(context);
-            progressDialog.setTitle("Downloading Update");
-            progressDialog.setMessage("Please wait...");
-            progressDialog.setIndeterminate(false);
-            progressDialog.setMax(100);
-            progressDialog.setProgressStyle(ProgressDialog.STYLE_HORIZONTAL);
-            progressDialog.setCancelable(false);
-            progressDialog.show();
-        }
+    /**
+     * Downloads the delta patch and rebuilds the new APK from the installed one.
+     * Any failure (download, wrong base, hash mismatch) falls back to the full APK.
+     */
+    private void startPatchDownload(final AppConfig config) {
+        final ProgressDialog progressDialog = createProgressDialog();
+        progressDialog.show();
 
-        @Override
-        protected String doInBackground(String... sUrl) {
-            try {
-                URL url = new URL(sUrl[0]);
-                URLConnection connection = url.openConnection();
-                connection.connect();
+        final File dir = activity.getExternalFilesDir(Environment.DIRECTORY_DOWNLOADS);
+        File patchFile = new File(dir, "Attendify_Update.patch");
 
-                int fileLength = connection.getContentLength();
+        ApkDownloader downloader = new ApkDownloader(config.patchLink, patchFile);
+        downloader.setExpectedSha256(config.patchSha256);
+        downloader.start(new ApkDownloader.Listener() {
+            @Override
+            public void onProgress(long downloadedBytes, long totalBytes) {
+                if (totalBytes > 0) {
+                    progressDialog.setProgress((int) (downloadedBytes * 100 / totalBytes));
+                }
+            }
 
-                file = new File(context.getExternalFilesDir(Environment.DIRECTORY_DOWNLOADS),
-                        "Attendify_Update.apk");
+            @Override
+            public void onComplete(final File patch) {
+                progressDialog.setMessage("Applying update...");
+                final File base = new File(activity.getApplicationInfo().sourceDir);
+                final File target = new File(dir, UPDATE_APK);
 
-                if (file.exists()) file.delete();
+                patchExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        boolean patched;
+                        try {
+                            rebuildFromPatch(base, patch, target, config.downloadSha256);
+                            patched = true;
+                        } catch (Exception e) {
+                            Log.w("UpdateManager", "Delta update failed, using full download", e);
+                            patched = false;
+                        }
+                        patch.delete();
+
+                        final boolean success = patched;
+                        activity.runOnUiThread(new Runnable() {
+                            @Override
+                            public void run() {
+                                progressDialog.dismiss();
+                                if (success) {
+                                    installApk(target);
+                                } else {
+                                    startFullDownload(config);
+                                }
+                            }
+                        });
+                    }
+                });
+            }
 
-                InputStream input = new BufferedInputStream(url.openStream());
-                OutputStream output = new FileOutputStream(file);
+            @Override
+            public void onError(String message) {
+                progressDialog.dismiss();
+                startFullDownload(config);
+            }
+        });
+    }
 
-                byte data[] = new byte[1024];
-                long total = 0;
-                int count;
+    /**
+     * Applies the patch into a file of its own and only then moves it over the
+     * update APK. A partial full download at that path stays resumable if the
+     * patch fails; on success its resume state is dropped first, so a later
+     * full download cannot resume on top of the patched bytes.
+     */
+    private static void rebuildFromPatch(File base, File patch, File target, String sha256) throws IOException {
+        File patched = new File(target.getPath() + ".patched");
+        DeltaPatcher.apply(base, patch, patched, sha256);
+
+        ApkDownloader.discardPartial(target);
+        if (!patched.renameTo(target)) {
+            target.delete();
+            if (!patched.renameTo(target)) {
+                patched.delete();
+                throw new IOException("Could not replace " + target);
+            }
+        }
+    }
 
-                while ((count = input.read(data)) != -1) {
-                    total += count;
-                    if (fileLength > 0) {
-                        publishProgress((int) (total * 100 / fileLength));
-                    }
-                    output.write(data, 0, count);
-                }
+    private ProgressDialog createProgressDialog() {
+        ProgressDialog progressDialog = new ProgressDialog(activity);
+        progressDialog.setTitle("Downloading Update");
+        progressDialog.setMessage("Please wait...");
+        progressDialog.setIndeterminate(false);
+        progressDialog.setMax(100);
+        progressDialog.setProgressStyle(ProgressDialog.STYLE_HORIZONTAL);
+        progressDialog.setCancelable(false);
+        return progressDialog;
+    }
 
-                output.flush();
-                output.close();
-                input.close();
+    /**
+     * Downloads the APK with a resumable downloader and displays a progress dialog.
+     * A partial download left by an earlier failure or process death is resumed.
+     * When Update.json publishes Download_SHA256 the APK is verified while it
+     * streams in and is only installed if the hash matches.
+     */
+    private void startFullDownload(AppConfig config) {
+        final ProgressDialog progressDialog = createProgressDialog();
+        progressDialog.show();
 
-                return null;
+        File file = new File(activity.getExternalFilesDir(Environment.DIRECTORY_DOWNLOADS), UPDATE_APK);
 
-            } catch (Exception e) {
-                return e.toString();
+        ApkDownloader downloader = new ApkDownloader(config.downloadLink, file);
+        downloader.setExpectedSha256(config.downloadSha256);
+        downloader.start(new ApkDownloader.Listener() {
+            @Override
+            public void onProgress(long downloadedBytes, long totalBytes) {
+                if (totalBytes > 0) {
+                    progressDialog.setProgress((int) (downloadedBytes * 100 / totalBytes));
+                }
             }
-        }
-
-        @Override
-        protected void onProgressUpdate(Integer... progress) {
-            progressDialog.setProgress(progress[0]);
-        }
 
-        @Override
-        protected void onPostExecute(String result) {
-            progressDialog.dismiss();
-            if (result != null) {
-                Toast.makeText(context, "Download Error: " + result, Toast.LENGTH_LONG).show();
-            } else {
+            @Override
+            public void onComplete(File file) {
+                progressDialog.dismiss();
                 installApk(file);
             }
-        }
+
+            @Override
+            public void onError(String message) {
+                progressDialog.dismiss();
+                Toast.makeText(activity, "Download Error: " + message, Toast.LENGTH_LONG).show();
+            }
+        });
     }
 
     /**
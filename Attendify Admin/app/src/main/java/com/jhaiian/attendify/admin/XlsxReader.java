@@ -0,0 +1,235 @@
+package com.jhaiian.attendify.admin;
+
+import android.util.Xml;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Streams the rows of the first worksheet of an .xlsx file.
+ *
+ * The shared string table is loaded up front (cells only hold indexes into
+ * it); the worksheet itself is pulled one row at a time, so memory stays
+ * proportional to the distinct strings rather than to the sheet. Row
+ * numbers and cell positions come from the "r" references ("7", "C7"),
+ * since empty rows and cells are omitted from the file.
+ */
+public class XlsxReader implements RowReader {
+
+    private static final String SHARED_STRINGS = "xl/sharedStrings.xml";
+    private static final String FIRST_SHEET = "xl/worksheets/sheet1.xml";
+
+    private final ZipFile zip;
+    private final InputStream sheet;
+    private final XmlPullParser parser;
+    private final ArrayList<String> sharedStrings = new ArrayList<>();
+    private final ArrayList<String> cells = new ArrayList<>();
+    private int rowNumber;
+
+    public XlsxReader(File file) throws IOException {
+        this(file, Xml.newPullParser(), Xml.newPullParser());
+    }
+
+    /**
+     * Uses the given parsers for the shared strings and the sheet; unit tests
+     * pass their own because android.util.Xml is not available there.
+     */
+    XlsxReader(File file, XmlPullParser stringsParser, XmlPullParser sheetParser) throws IOException {
+        zip = new ZipFile(file);
+        try {
+            ZipEntry strings = zip.getEntry(SHARED_STRINGS);
+            if (strings != null) loadSharedStrings(strings, stringsParser);
+
+            ZipEntry entry = findFirstSheet();
+            if (entry == null) throw new IOException("Workbook has no worksheet");
+            sheet = zip.getInputStream(entry);
+            parser = sheetParser;
+            parser.setInput(sheet, "UTF-8");
+        } catch (IOException e) {
+            zip.close();
+            throw e;
+        } catch (XmlPullParserException e) {
+            zip.close();
+            throw new IOException("Invalid workbook", e);
+        }
+    }
+
+    private ZipEntry findFirstSheet() {
+        ZipEntry entry = zip.getEntry(FIRST_SHEET);
+        if (entry != null) return entry;
+
+        // Some writers number sheets differently; take the first one present
+        Enumeration<? extends ZipEntry> entries = zip.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry candidate = entries.nextElement();
+            String name = candidate.getName();
+            if (name.startsWith("xl/worksheets/") && name.endsWith(".xml") && name.indexOf('/', 14) < 0) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private void loadSharedStrings(ZipEntry entry, XmlPullParser strings) throws IOException, XmlPullParserException {
+        try (InputStream in = zip.getInputStream(entry)) {
+            strings.setInput(in, "UTF-8");
+
+            // A string item (si) is plain text (t) or rich text runs (r/t); phonetic hints (rPh) are skipped
+            StringBuilder text = null;
+            int skipDepth = 0;
+            int event;
+            while ((event = strings.next()) != XmlPullParser.END_DOCUMENT) {
+                String tag = strings.getName();
+                if (event == XmlPullParser.START_TAG) {
+                    if ("si".equals(tag)) {
+                        text = new StringBuilder();
+                    } else if ("rPh".equals(tag)) {
+                        skipDepth++;
+                    } else if ("t".equals(tag) && text != null && skipDepth == 0) {
+                        text.append(strings.nextText());
+                    }
+                } else if (event == XmlPullParser.END_TAG) {
+                    if ("si".equals(tag) && text != null) {
+                        sharedStrings.add(text.toString());
+                        text = null;
+                    } else if ("rPh".equals(tag)) {
+                        skipDepth--;
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public String[] readRow() throws IOException {
+        try {
+            int event;
+            while ((event = parser.next()) != XmlPullParser.END_DOCUMENT) {
+                if (event == XmlPullParser.START_TAG && "row".equals(parser.getName())) {
+                    rowNumber = rowNumber(parser.getAttributeValue(null, "r"), rowNumber + 1);
+                    return readCells();
+                }
+            }
+            return null;
+        } catch (XmlPullParserException e) {
+            throw new IOException("Invalid worksheet", e);
+        }
+    }
+
+    private String[] readCells() throws IOException, XmlPullParserException {
+        cells.clear();
+        int event;
+        while ((event = parser.next()) != XmlPullParser.END_DOCUMENT) {
+            if (event == XmlPullParser.END_TAG && "row".equals(parser.getName())) break;
+            if (event != XmlPullParser.START_TAG || !"c".equals(parser.getName())) continue;
+
+            int column = columnIndex(parser.getAttributeValue(null, "r"), cells.size());
+            String value = readCell(parser.getAttributeValue(null, "t"));
+            while (cells.size() < column) cells.add("");
+            if (column < cells.size()) {
+                cells.set(column, value);
+            } else {
+                cells.add(value);
+            }
+        }
+        return cells.toArray(new String[0]);
+    }
+
+    /**
+     * Reads one c element up to its end tag and returns the displayed text.
+     */
+    private String readCell(String type) throws IOException, XmlPullParserException {
+        String raw = null;
+        StringBuilder inline = null;
+        int event;
+        while ((event = parser.next()) != XmlPullParser.END_DOCUMENT) {
+            String tag = parser.getName();
+            if (event == XmlPullParser.END_TAG && "c".equals(tag)) break;
+            if (event != XmlPullParser.START_TAG) continue;
+
+            if ("v".equals(tag)) {
+                raw = parser.nextText();
+            } else if ("is".equals(tag)) {
+                inline = new StringBuilder();
+            } else if ("t".equals(tag) && inline != null) {
+                inline.append(parser.nextText());
+            }
+        }
+
+        if (inline != null) return inline.toString();
+        if (raw == null) return "";
+        if ("s".equals(type)) {
+            try {
+                int index = Integer.parseInt(raw.trim());
+                return index >= 0 && index < sharedStrings.size() ? sharedStrings.get(index) : "";
+            } catch (NumberFormatException e) {
+                return "";
+            }
+        }
+        if ("b".equals(type)) return "1".equals(raw) ? "TRUE" : "FALSE";
+        if (type == null || "n".equals(type)) return formatNumber(raw);
+        return raw;
+    }
+
+    /**
+     * Whole numbers are stored as "7" or "7.0"; show them without a fraction.
+     */
+    private static String formatNumber(String raw) {
+        try {
+            double value = Double.parseDouble(raw);
+            if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+                return String.valueOf((long) value);
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        return raw;
+    }
+
+    @Override
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    private static int rowNumber(String reference, int fallback) {
+        if (reference == null) return fallback;
+        try {
+            int number = Integer.parseInt(reference.trim());
+            return number > 0 ? number : fallback;
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * Zero-based column of a cell reference such as "AB12", or fallback when absent.
+     */
+    static int columnIndex(String reference, int fallback) {
+        if (reference == null) return fallback;
+        int column = 0;
+        int i = 0;
+        while (i < reference.length()) {
+            char c = reference.charAt(i);
+            if (c < 'A' || c > 'Z') break;
+            column = column * 26 + (c - 'A' + 1);
+            i++;
+        }
+        return i == 0 ? fallback : column - 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            sheet.close();
+        } finally {
+            zip.close();
+        }
+    }
+}
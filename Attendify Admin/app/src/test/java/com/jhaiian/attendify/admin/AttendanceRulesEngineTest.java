@@ -0,0 +1,239 @@
+package com.jhaiian.attendify.admin;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AttendanceRulesEngineTest {
+
+    // 2024-01-01, a Monday
+    private static final int MONDAY = 19723;
+    private static final int SUNDAY = MONDAY + 6;
+    private static final int WEEKDAYS = 0x1f;
+
+    private static int clock(int hour, int minute) {
+        return hour * 60 + minute;
+    }
+
+    private static AttendanceRulesEngine dayShift(int... ids) {
+        AttendanceRulesEngine engine = new AttendanceRulesEngine();
+        for (int id : ids) engine.put(id, WEEKDAYS, clock(8, 0), clock(17, 0));
+        engine.startDay(MONDAY);
+        return engine;
+    }
+
+    @Test
+    public void arrivingAfterTheLateGraceIsLate() {
+        AttendanceRulesEngine engine = dayShift(0, 1, 2);
+
+        assertEquals(AttendanceRulesEngine.STATUS_PRESENT, engine.record(MONDAY, 0, clock(7, 45), DayEvents.CHECK_IN));
+        assertEquals(AttendanceRulesEngine.STATUS_PRESENT, engine.record(MONDAY, 1, clock(8, 10), DayEvents.CHECK_IN));
+        assertEquals(AttendanceRulesEngine.STATUS_LATE, engine.record(MONDAY, 2, clock(8, 11), DayEvents.CHECK_IN));
+        assertEquals(2, engine.count(AttendanceRulesEngine.STATUS_PRESENT));
+        assertEquals(1, engine.count(AttendanceRulesEngine.STATUS_LATE));
+    }
+
+    @Test
+    public void noArrivalByTheAbsentGraceIsAbsentUntilTheyCome() {
+        AttendanceRulesEngine engine = dayShift(0);
+        assertEquals(AttendanceRulesEngine.STATUS_PENDING, engine.getStatus(0));
+
+        engine.advanceTo(clock(9, 59));
+        assertEquals(AttendanceRulesEngine.STATUS_PENDING, engine.getStatus(0));
+        engine.advanceTo(clock(10, 0));
+        assertEquals(AttendanceRulesEngine.STATUS_ABSENT, engine.getStatus(0));
+        assertEquals(1, engine.count(AttendanceRulesEngine.STATUS_ABSENT));
+
+        assertEquals(AttendanceRulesEngine.STATUS_LATE, engine.record(MONDAY, 0, clock(10, 30), DayEvents.CHECK_IN));
+        assertEquals(0, engine.count(AttendanceRulesEngine.STATUS_ABSENT));
+    }
+
+    @Test
+    public void graceIsConfigurable() {
+        AttendanceRulesEngine engine = new AttendanceRulesEngine().setGrace(0, 30, 0);
+        engine.put(0, WEEKDAYS, clock(8, 0), clock(17, 0));
+        engine.put(1, WEEKDAYS, clock(8, 0), clock(17, 0));
+        engine.startDay(MONDAY);
+
+        assertEquals(AttendanceRulesEngine.STATUS_LATE, engine.record(MONDAY, 0, clock(8, 1), DayEvents.CHECK_IN));
+        engine.advanceTo(clock(8, 30));
+        assertEquals(AttendanceRulesEngine.STATUS_ABSENT, engine.getStatus(1));
+    }
+
+    @Test
+    public void peopleNotScheduledThatDayAreOff() {
+        AttendanceRulesEngine engine = new AttendanceRulesEngine();
+        engine.put(0, WEEKDAYS, clock(8, 0), clock(17, 0));
+        engine.startDay(SUNDAY);
+        engine.advanceTo(clock(23, 0));
+
+        assertEquals(AttendanceRulesEngine.STATUS_OFF, engine.getStatus(0));
+        assertFalse(engine.finalizeDay().absent.get(0));
+    }
+
+    @Test
+    public void leavingBeforeTheUndertimeGraceIsUndertime() {
+        AttendanceRulesEngine engine = dayShift(0, 1);
+        engine.record(MONDAY, 0, clock(8, 0), DayEvents.CHECK_IN);
+        engine.record(MONDAY, 1, clock(8, 20), DayEvents.CHECK_IN);
+
+        engine.record(MONDAY, 0, clock(16, 49), DayEvents.CHECK_OUT);
+        engine.record(MONDAY, 1, clock(16, 50), DayEvents.CHECK_OUT);
+        assertTrue(engine.isUndertime(0));
+        assertFalse(engine.isUndertime(1));
+        // Undertime is a flag on top of the arrival status
+        assertEquals(AttendanceRulesEngine.STATUS_PRESENT, engine.getStatus(0));
+        assertEquals(AttendanceRulesEngine.STATUS_LATE, engine.getStatus(1));
+        assertEquals(1, engine.countUndertime());
+
+        // A later check-out clears it
+        engine.record(MONDAY, 0, clock(17, 5), DayEvents.CHECK_OUT);
+        assertFalse(engine.isUndertime(0));
+        assertEquals(0, engine.countUndertime());
+    }
+
+    @Test
+    public void overnightShiftsAreJudgedOnArrivalOnly() {
+        AttendanceRulesEngine engine = new AttendanceRulesEngine();
+        for (int id = 0; id < 4; id++) engine.put(id, WEEKDAYS, clock(22, 0), clock(6, 0));
+        engine.startDay(MONDAY);
+
+        // Arriving before a late-evening start counts as early, not 23 hours late
+        assertEquals(AttendanceRulesEngine.STATUS_PRESENT, engine.record(MONDAY, 0, clock(21, 50), DayEvents.CHECK_IN));
+        assertEquals(AttendanceRulesEngine.STATUS_LATE, engine.record(MONDAY, 1, clock(22, 15), DayEvents.CHECK_IN));
+
+        // Their check-out falls on the next day, so an evening one is not undertime
+        engine.record(MONDAY, 0, clock(23, 0), DayEvents.CHECK_OUT);
+        assertFalse(engine.isUndertime(0));
+
+        // The absent deadline falls after midnight, so only finalization settles it
+        engine.advanceTo(clock(23, 59));
+        assertEquals(AttendanceRulesEngine.STATUS_PENDING, engine.getStatus(2));
+        AttendanceRulesEngine.Result result = engine.finalizeDay();
+        assertTrue(result.absent.get(2));
+        assertTrue(result.absent.get(3));
+        assertTrue(result.present.get(0));
+        assertTrue(result.late.get(1));
+    }
+
+    @Test
+    public void withoutAShiftAnyArrivalIsOnTimeAndAbsenceWaitsForFinalize() {
+        AttendanceRulesEngine engine = new AttendanceRulesEngine();
+        engine.put(0, WEEKDAYS, Person.NO_SHIFT, Person.NO_SHIFT);
+        engine.put(1, WEEKDAYS, Person.NO_SHIFT, Person.NO_SHIFT);
+        engine.startDay(MONDAY);
+
+        assertEquals(AttendanceRulesEngine.STATUS_PRESENT, engine.record(MONDAY, 0, clock(15, 0), DayEvents.CHECK_IN));
+        engine.advanceTo(clock(23, 59));
+        assertEquals(AttendanceRulesEngine.STATUS_PENDING, engine.getStatus(1));
+
+        AttendanceRulesEngine.Result result = engine.finalizeDay();
+        assertTrue(result.absent.get(1));
+        assertEquals(1, engine.count(AttendanceRulesEngine.STATUS_ABSENT));
+        // Events after finalization are judged as final
+        assertEquals(AttendanceRulesEngine.STATUS_PRESENT, engine.record(MONDAY, 1, clock(23, 59), DayEvents.CHECK_IN));
+    }
+
+    @Test
+    public void eventsOfAnotherDayStartItOrAreIgnored() {
+        AttendanceRulesEngine engine = dayShift(0);
+        engine.record(MONDAY, 0, clock(8, 0), DayEvents.CHECK_IN);
+
+        assertEquals(AttendanceRulesEngine.STATUS_OFF, engine.record(MONDAY - 1, 0, clock(8, 0), DayEvents.CHECK_IN));
+        assertEquals(AttendanceRulesEngine.STATUS_LATE, engine.record(MONDAY + 1, 0, clock(9, 0), DayEvents.CHECK_IN));
+        assertEquals(MONDAY + 1, engine.getDay());
+    }
+
+    @Test
+    public void loadsADaySummary() {
+        TimeZone zone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+        try {
+            AttendanceRulesEngine engine = new AttendanceRulesEngine();
+            engine.put(3, WEEKDAYS, clock(8, 0), clock(17, 0));
+            engine.put(9, WEEKDAYS, clock(8, 0), clock(17, 0));
+
+            int base = MONDAY * 24 * 60;
+            DayEvents events = new DayEvents(MONDAY, new int[]{9, 3, 9, 3},
+                    new int[]{base + clock(8, 30), base + clock(7, 55), base + clock(16, 0), base + clock(17, 0)},
+                    new int[]{DayEvents.CHECK_IN, DayEvents.CHECK_IN, DayEvents.CHECK_OUT, DayEvents.CHECK_OUT}, 4);
+            engine.load(DaySummary.summarize(events));
+
+            assertEquals(MONDAY, engine.getDay());
+            assertEquals(AttendanceRulesEngine.STATUS_PRESENT, engine.getStatus(3));
+            assertEquals(AttendanceRulesEngine.STATUS_LATE, engine.getStatus(9));
+            assertTrue(engine.isUndertime(9));
+            assertFalse(engine.isUndertime(3));
+        } finally {
+            TimeZone.setDefault(zone);
+        }
+    }
+
+    @Test
+    public void listenerHearsEachChange() {
+        final ArrayList<String> changes = new ArrayList<>();
+        AttendanceRulesEngine engine = new AttendanceRulesEngine();
+        engine.put(0, WEEKDAYS, clock(8, 0), clock(17, 0));
+        engine.setOnStatusChangeListener(new AttendanceRulesEngine.OnStatusChangeListener() {
+            @Override
+            public void onDayStarted(int epochDay) {
+                changes.add("day " + epochDay);
+            }
+
+            @Override
+            public void onStatusChanged(int personId, int oldStatus, int newStatus, boolean undertime) {
+                changes.add(personId + ": " + oldStatus + " -> " + newStatus + (undertime ? " undertime" : ""));
+            }
+        });
+
+        engine.startDay(MONDAY);
+        engine.advanceTo(clock(10, 0));
+        engine.record(MONDAY, 0, clock(10, 5), DayEvents.CHECK_IN);
+        engine.record(MONDAY, 0, clock(12, 0), DayEvents.CHECK_OUT);
+
+        assertEquals("[day " + MONDAY + ", 0: 0 -> 1, 0: 1 -> 4, 0: 4 -> 3, 0: 3 -> 3 undertime]", changes.toString());
+    }
+
+    @Test
+    public void parallelFinalizeMatchesSequential() {
+        int people = AttendanceRulesEngine.PARALLEL_THRESHOLD * 3;
+        AttendanceRulesEngine sequential = new AttendanceRulesEngine().setParallel(false);
+        AttendanceRulesEngine parallel = new AttendanceRulesEngine().setParallel(true);
+
+        Random random = new Random(4);
+        for (int id = 0; id < people; id++) {
+            int dayMask = random.nextInt(0x80);
+            int start = random.nextInt(4) == 0 ? Person.NO_SHIFT : random.nextInt(24 * 60);
+            int end = start == Person.NO_SHIFT ? Person.NO_SHIFT : (start + 60 + random.nextInt(12 * 60)) % (24 * 60);
+            sequential.put(id, dayMask, start, end);
+            parallel.put(id, dayMask, start, end);
+        }
+        sequential.startDay(MONDAY);
+        parallel.startDay(MONDAY);
+
+        int minute = 0;
+        for (int i = 0; i < people; i++) {
+            minute = Math.min(24 * 60 - 1, minute + random.nextInt(2));
+            int id = random.nextInt(people);
+            int type = random.nextInt(3) == 0 ? DayEvents.CHECK_OUT : DayEvents.CHECK_IN;
+            sequential.record(MONDAY, id, minute, type);
+            parallel.record(MONDAY, id, minute, type);
+        }
+
+        AttendanceRulesEngine.Result a = sequential.finalizeDay();
+        AttendanceRulesEngine.Result b = parallel.finalizeDay();
+        assertEquals(a.present, b.present);
+        assertEquals(a.late, b.late);
+        assertEquals(a.absent, b.absent);
+        assertEquals(a.undertime, b.undertime);
+        assertTrue(a.absent.cardinality() > 0 && a.late.cardinality() > 0 && a.undertime.cardinality() > 0);
+        for (int s = 0; s < AttendanceRulesEngine.STATUS_COUNT; s++) assertEquals(sequential.count(s), parallel.count(s));
+        assertEquals(sequential.countUndertime(), parallel.countUndertime());
+    }
+}
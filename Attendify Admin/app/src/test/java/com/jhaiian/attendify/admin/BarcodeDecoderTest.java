@@ -0,0 +1,86 @@
+package com.jhaiian.attendify.admin;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Decodes still images drawn with ZXing's encoders; bench's BarcodeImages
+ * regenerates them.
+ */
+public class BarcodeDecoderTest {
+
+    private static BufferedImage image(String name) throws IOException {
+        try (InputStream in = BarcodeDecoderTest.class.getResourceAsStream("/barcodes/" + name)) {
+            assertNotNull(name, in);
+            return ImageIO.read(in);
+        }
+    }
+
+    private static String decodeArgb(BarcodeDecoder decoder, String name) throws IOException {
+        BufferedImage image = image(name);
+        int width = image.getWidth();
+        int height = image.getHeight();
+        return decoder.decodeArgb(image.getRGB(0, 0, width, height, null, 0, width), width, height);
+    }
+
+    // As a camera delivers it: the luminance plane first, then chroma
+    private static String decodeNv21(BarcodeDecoder decoder, String name) throws IOException {
+        BufferedImage image = image(name);
+        int width = image.getWidth();
+        int height = image.getHeight();
+        byte[] frame = new byte[width * height * 3 / 2];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                frame[y * width + x] = (byte) (image.getRGB(x, y) & 0xFF);
+            }
+        }
+        return decoder.decodeLuminance(frame, width, height);
+    }
+
+    @Test
+    public void decodesEveryCardFormat() throws IOException {
+        BarcodeDecoder decoder = new BarcodeDecoder();
+        assertEquals("-NqT5b2ZkLm9xY3wPq7R", decodeArgb(decoder, "qr_person_key.png"));
+        assertEquals("2024-000123", decodeArgb(decoder, "code128_id.png"));
+        assertEquals("EMP-0042", decodeArgb(decoder, "code39_employee.png"));
+        assertEquals("4800016644504", decodeArgb(decoder, "ean13.png"));
+    }
+
+    @Test
+    public void qrTextIsUtf8() throws IOException {
+        assertEquals("Peña, José", decodeArgb(new BarcodeDecoder(), "qr_utf8.png"));
+    }
+
+    @Test
+    public void findsACardInACameraFrame() throws IOException {
+        BarcodeDecoder decoder = new BarcodeDecoder();
+        assertEquals("-NqT5b2ZkLm9xY3wPq7R", decodeNv21(decoder, "frame_qr.png"));
+        assertEquals("-NqT5b2ZkLm9xY3wPq7R", decodeArgb(decoder, "frame_qr.png"));
+    }
+
+    @Test
+    public void frameWithoutACodeGivesNull() throws IOException {
+        BarcodeDecoder decoder = new BarcodeDecoder();
+        assertNull(decodeNv21(decoder, "frame_empty.png"));
+        assertNull(decodeArgb(decoder, "frame_empty.png"));
+    }
+
+    @Test
+    public void decoderIsReusableAcrossFrames() throws IOException {
+        BarcodeDecoder decoder = new BarcodeDecoder();
+        for (int i = 0; i < 3; i++) {
+            assertNull(decodeNv21(decoder, "frame_empty.png"));
+            assertEquals("-NqT5b2ZkLm9xY3wPq7R", decodeNv21(decoder, "frame_qr.png"));
+            assertEquals("2024-000123", decodeArgb(decoder, "code128_id.png"));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.jhaiian.attendify.admin;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CsvReaderTest {
+
+    private static CsvReader reader(String text) {
+        return new CsvReader(new StringReader(text));
+    }
+
+    @Test
+    public void readsPlainRowsWithAnyLineEnding() throws IOException {
+        CsvReader csv = reader("Name,Grade\r\nAna,7\nJose,8\rMark,9");
+        assertArrayEquals(new String[]{"Name", "Grade"}, csv.readRow());
+        assertArrayEquals(new String[]{"Ana", "7"}, csv.readRow());
+        assertArrayEquals(new String[]{"Jose", "8"}, csv.readRow());
+        assertArrayEquals(new String[]{"Mark", "9"}, csv.readRow());
+        assertNull(csv.readRow());
+        assertNull(csv.readRow());
+    }
+
+    @Test
+    public void quotedFieldsKeepCommasQuotesAndLineBreaks() throws IOException {
+        CsvReader csv = reader("\"Cruz, Ana\",\"She said \"\"hi\"\"\",\"line one\r\nline two\"\nnext,row\n");
+        assertArrayEquals(new String[]{"Cruz, Ana", "She said \"hi\"", "line one\r\nline two"}, csv.readRow());
+        assertEquals(1, csv.getRowNumber());
+        assertArrayEquals(new String[]{"next", "row"}, csv.readRow());
+        assertEquals(2, csv.getRowNumber());
+        assertNull(csv.readRow());
+    }
+
+    @Test
+    public void emptyFieldsAndTrailingCommasAreKept() throws IOException {
+        CsvReader csv = reader(",a,,\n\n");
+        assertArrayEquals(new String[]{"", "a", "", ""}, csv.readRow());
+        assertArrayEquals(new String[]{""}, csv.readRow());
+        assertNull(csv.readRow());
+    }
+
+    @Test
+    public void skipsByteOrderMarkOnlyAtTheStart() throws IOException {
+        CsvReader csv = reader("\uFEFFName\n\uFEFFAna\n");
+        assertArrayEquals(new String[]{"Name"}, csv.readRow());
+        assertArrayEquals(new String[]{"\uFEFFAna"}, csv.readRow());
+    }
+
+    @Test
+    public void unterminatedQuoteKeepsWhatWasRead() throws IOException {
+        CsvReader csv = reader("a,\"open field\nstill open");
+        assertArrayEquals(new String[]{"a", "open field\nstill open"}, csv.readRow());
+        assertNull(csv.readRow());
+    }
+
+    @Test
+    public void carriageReturnSplitAcrossBufferRefills() throws IOException {
+        // Hands out one character per read, so every CR LF straddles a refill
+        Reader trickle = new StringReader("a\r\nb\rc") {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                return super.read(buffer, offset, Math.min(1, length));
+            }
+        };
+        CsvReader csv = new CsvReader(trickle);
+        assertArrayEquals(new String[]{"a"}, csv.readRow());
+        assertArrayEquals(new String[]{"b"}, csv.readRow());
+        assertArrayEquals(new String[]{"c"}, csv.readRow());
+        assertEquals(3, csv.getRowNumber());
+        assertNull(csv.readRow());
+    }
+
+    @Test
+    public void largeFileStreamsPastTheBuffer() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20000; i++) sb.append("Person ").append(i).append(",\"Grade, ").append(i % 6).append("\"\n");
+        CsvReader csv = reader(sb.toString());
+        for (int i = 0; i < 20000; i++) {
+            assertArrayEquals(new String[]{"Person " + i, "Grade, " + (i % 6)}, csv.readRow());
+        }
+        assertNull(csv.readRow());
+        assertEquals(20000, csv.getRowNumber());
+    }
+}
@@ -0,0 +1,83 @@
+package com.jhaiian.attendify.admin;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CsvWriterTest {
+
+    private static String write(String[]... rows) throws IOException {
+        StringWriter text = new StringWriter();
+        try (CsvWriter csv = new CsvWriter(text)) {
+            for (String[] row : rows) csv.writeRow(row);
+        }
+        return text.toString();
+    }
+
+    @Test
+    public void plainFieldsAreWrittenAsIsWithCrlf() throws IOException {
+        assertEquals("Name,Grade\r\nAna,7\r\n", write(new String[]{"Name", "Grade"}, new String[]{"Ana", "7"}));
+    }
+
+    @Test
+    public void quotesOnlyFieldsThatNeedIt() throws IOException {
+        assertEquals("\"Cruz, Ana\",\"She said \"\"hi\"\"\",\"a\nb\",\"c\rd\",plain\r\n",
+                write(new String[]{"Cruz, Ana", "She said \"hi\"", "a\nb", "c\rd", "plain"}));
+        assertEquals("\"\"\"\"\r\n", write(new String[]{"\""}));
+    }
+
+    @Test
+    public void nullAndEmptyAreEmptyFields() throws IOException {
+        assertEquals(",,x,\r\n", write(new String[]{null, "", "x", null}));
+    }
+
+    @Test
+    public void fieldByFieldMatchesWriteRow() throws IOException {
+        StringWriter text = new StringWriter();
+        try (CsvWriter csv = new CsvWriter(text)) {
+            csv.writeField("Ana").writeField(-42L).writeField((String) null);
+            csv.endRow();
+            csv.writeField(1234567890123L);
+            csv.endRow();
+        }
+        assertEquals("Ana,-42,\r\n1234567890123\r\n", text.toString());
+    }
+
+    @Test
+    public void flushPushesBufferedRowsThrough() throws IOException {
+        StringWriter text = new StringWriter();
+        CsvWriter csv = new CsvWriter(text);
+        csv.writeRow("Ana", "7");
+        assertEquals("", text.toString());
+        csv.flush();
+        assertEquals("Ana,7\r\n", text.toString());
+        csv.close();
+    }
+
+    @Test
+    public void csvReaderReadsBackWhatWasWritten() throws IOException {
+        char[] alphabet = {'a', 'Z', ' ', ',', '"', '\n', '\r', 'ñ', '7'};
+        Random random = new Random(11);
+        String[][] rows = new String[300][];
+        for (int r = 0; r < rows.length; r++) {
+            rows[r] = new String[1 + random.nextInt(6)];
+            for (int f = 0; f < rows[r].length; f++) {
+                StringBuilder sb = new StringBuilder();
+                int length = random.nextInt(8);
+                for (int i = 0; i < length; i++) sb.append(alphabet[random.nextInt(alphabet.length)]);
+                rows[r][f] = sb.toString();
+            }
+        }
+
+        CsvReader csv = new CsvReader(new StringReader(write(rows)));
+        for (String[] row : rows) assertArrayEquals(row, csv.readRow());
+        assertNull(csv.readRow());
+    }
+}
@@ -0,0 +1,172 @@
+package com.jhaiian.attendify.admin;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class DashboardCountersTest {
+
+    private static final int STATUS_COUNT = AttendanceRulesEngine.STATUS_COUNT;
+    private static final String[] GRADES = {"7", "8", "9", "10"};
+    private static final String[] SECTIONS = {"Rizal", "Bonifacio", "Mabini"};
+
+    /** Holds frames until the test runs them. */
+    private static class ManualScheduler implements DashboardCounters.FrameScheduler {
+        final ArrayList<Runnable> frames = new ArrayList<>();
+
+        @Override
+        public void postFrame(Runnable frame) {
+            frames.add(frame);
+        }
+
+        void runFrames() {
+            ArrayList<Runnable> due = new ArrayList<>(frames);
+            frames.clear();
+            for (Runnable frame : due) frame.run();
+        }
+    }
+
+    private static class Recorder implements DashboardCounters.Listener {
+        final ArrayList<DashboardCounters.Snapshot> snapshots = new ArrayList<>();
+
+        @Override
+        public void onCountersChanged(DashboardCounters.Snapshot snapshot) {
+            snapshots.add(snapshot);
+        }
+    }
+
+    private static Person person(Random random) {
+        int role = random.nextInt(3);
+        if (role != Person.ROLE_STUDENT) return new Person("P", role, null, null, "Staff", 0x1f, null, 0);
+        return new Person("S", role, GRADES[random.nextInt(GRADES.length)],
+                SECTIONS[random.nextInt(SECTIONS.length)], null, 0x1f, null, 0);
+    }
+
+    @Test
+    public void matchesAFullRecountThroughDaysAndGroupMoves() {
+        ManualScheduler scheduler = new ManualScheduler();
+        Recorder recorder = new Recorder();
+        DashboardCounters counters = new DashboardCounters(scheduler, recorder);
+
+        // What the counters should reflect, recounted from scratch every time
+        HashMap<Integer, Person> roster = new HashMap<>();
+        HashMap<Integer, Integer> statuses = new HashMap<>();
+        int day = 19723;
+        counters.onDayStarted(day);
+
+        Random random = new Random(11);
+        for (int step = 0; step < 20_000; step++) {
+            int id = random.nextInt(500);
+            int op = random.nextInt(100);
+            if (op < 15) {
+                // New person or a move between role, grade and class
+                Person person = person(random);
+                roster.put(id, person);
+                counters.put(id, person);
+            } else if (op < 16) {
+                day++;
+                statuses.clear();
+                counters.onDayStarted(day);
+            } else {
+                int status = random.nextInt(STATUS_COUNT);
+                Integer old = statuses.put(id, status);
+                counters.onStatusChanged(id, old == null ? AttendanceRulesEngine.STATUS_OFF : old,
+                        status, random.nextBoolean());
+            }
+            if (step % 97 == 0) {
+                scheduler.runFrames();
+                assertMatches(day, roster, statuses, recorder.snapshots.get(recorder.snapshots.size() - 1));
+            }
+        }
+        assertMatches(day, roster, statuses, counters.snapshot());
+    }
+
+    @Test
+    public void statusesBeforePutCountOnceTheyArePlaced() {
+        ManualScheduler scheduler = new ManualScheduler();
+        DashboardCounters counters = new DashboardCounters(scheduler, new Recorder());
+        counters.onDayStarted(1);
+        counters.onStatusChanged(4, AttendanceRulesEngine.STATUS_OFF, AttendanceRulesEngine.STATUS_LATE, false);
+        assertEquals(0, counters.snapshot().total[AttendanceRulesEngine.STATUS_LATE]);
+
+        counters.put(4, new Person("S", Person.ROLE_STUDENT, "8", "Rizal", null, 0x1f, null, 0));
+        DashboardCounters.Snapshot snapshot = counters.snapshot();
+        assertEquals(1, snapshot.total[AttendanceRulesEngine.STATUS_LATE]);
+        assertEquals(1, snapshot.byRole[Person.ROLE_STUDENT][AttendanceRulesEngine.STATUS_LATE]);
+        assertArrayEquals(new String[]{"8 - Rizal"}, snapshot.classes);
+        assertEquals(1, snapshot.byClass[0][AttendanceRulesEngine.STATUS_LATE]);
+    }
+
+    @Test
+    public void changesWithinAFrameShareOneSnapshot() {
+        ManualScheduler scheduler = new ManualScheduler();
+        Recorder recorder = new Recorder();
+        final DashboardCounters counters = new DashboardCounters(scheduler, recorder);
+        counters.onDayStarted(1);
+        for (int id = 0; id < 100; id++) {
+            counters.put(id, new Person("P", Person.ROLE_TEACHER, null, null, "Adviser", 0x1f, null, 0));
+            counters.onStatusChanged(id, AttendanceRulesEngine.STATUS_OFF, AttendanceRulesEngine.STATUS_PRESENT, false);
+        }
+        assertEquals(1, scheduler.frames.size());
+
+        scheduler.runFrames();
+        assertEquals(1, recorder.snapshots.size());
+        assertEquals(100, recorder.snapshots.get(0).total[AttendanceRulesEngine.STATUS_PRESENT]);
+
+        // A change after the frame ran asks for the next one
+        counters.onStatusChanged(0, AttendanceRulesEngine.STATUS_PRESENT, AttendanceRulesEngine.STATUS_LATE, false);
+        assertEquals(1, scheduler.frames.size());
+        scheduler.runFrames();
+        assertEquals(2, recorder.snapshots.size());
+        assertEquals(99, recorder.snapshots.get(1).total[AttendanceRulesEngine.STATUS_PRESENT]);
+    }
+
+    private static void assertMatches(int day, HashMap<Integer, Person> roster, HashMap<Integer, Integer> statuses,
+                                      DashboardCounters.Snapshot snapshot) {
+        int[] total = new int[STATUS_COUNT];
+        int[][] byRole = new int[3][STATUS_COUNT];
+        HashMap<String, int[]> byGrade = new HashMap<>();
+        HashMap<String, int[]> byClass = new HashMap<>();
+        for (Integer id : roster.keySet()) {
+            Person person = roster.get(id);
+            Integer known = statuses.get(id);
+            int status = known == null ? AttendanceRulesEngine.STATUS_OFF : known;
+            total[status]++;
+            byRole[person.role][status]++;
+            if (person.role == Person.ROLE_STUDENT) {
+                row(byGrade, person.grade)[status]++;
+                row(byClass, person.grade + " - " + person.section)[status]++;
+            }
+        }
+
+        assertEquals(day, snapshot.day);
+        assertArrayEquals(total, snapshot.total);
+        for (int role = 0; role < 3; role++) assertArrayEquals(byRole[role], snapshot.byRole[role]);
+        assertGroups(byGrade, snapshot.grades, snapshot.byGrade);
+        assertGroups(byClass, snapshot.classes, snapshot.byClass);
+    }
+
+    private static void assertGroups(HashMap<String, int[]> expected, String[] names, int[][] rows) {
+        assertEquals(names.length, rows.length);
+        // Groups stay once seen, so emptied ones remain with zero counts
+        for (int i = 0; i < names.length; i++) {
+            int[] counts = expected.remove(names[i]);
+            assertArrayEquals(names[i], counts == null ? new int[STATUS_COUNT] : counts, rows[i]);
+        }
+        assertEquals("Groups missing from the snapshot: " + expected.keySet(), 0, expected.size());
+    }
+
+    private static int[] row(HashMap<String, int[]> rows, String name) {
+        int[] counts = rows.get(name);
+        if (counts == null) {
+            counts = new int[STATUS_COUNT];
+            rows.put(name, counts);
+        }
+        return counts;
+    }
+}
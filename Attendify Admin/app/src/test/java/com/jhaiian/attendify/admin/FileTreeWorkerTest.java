@@ -0,0 +1,207 @@
+package com.jhaiian.attendify.admin;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class FileTreeWorkerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Writes depth levels of width subdirectories, each holding width files
+     * of i * 10 bytes; returns the total bytes written.
+     */
+    private static long tree(File dir, int depth, int width) throws IOException {
+        long bytes = 0;
+        assertTrue(dir.mkdirs() || dir.isDirectory());
+        for (int i = 0; i < width; i++) {
+            byte[] data = new byte[i * 10];
+            for (int b = 0; b < data.length; b++) data[b] = (byte) (b * 31 + depth);
+            try (FileOutputStream out = new FileOutputStream(new File(dir, "f" + i + ".bin"))) {
+                out.write(data);
+            }
+            bytes += data.length;
+            if (depth > 1) bytes += tree(new File(dir, "d" + i), depth - 1, width);
+        }
+        return bytes;
+    }
+
+    private static void assertSameTree(File expected, File actual) throws IOException {
+        String[] names = expected.list();
+        String[] copied = actual.list();
+        assertTrue(actual + " is missing", copied != null);
+        Arrays.sort(names);
+        Arrays.sort(copied);
+        assertArrayEquals(names, copied);
+        for (String name : names) {
+            File from = new File(expected, name);
+            File to = new File(actual, name);
+            if (from.isDirectory()) {
+                assertSameTree(from, to);
+            } else {
+                assertEquals(FileIo.readText(from), FileIo.readText(to));
+            }
+        }
+    }
+
+    @Test
+    public void copiesANestedTree() throws IOException {
+        File source = new File(folder.getRoot(), "source");
+        File dest = new File(folder.getRoot(), "backup/avatars");
+        long bytes = tree(source, 3, 4);
+
+        FileTreeWorker.Result result = new FileTreeWorker().copyDirSync(source, dest);
+
+        // 4 + 16 + 64 files
+        assertEquals(84, result.files);
+        assertEquals(bytes, result.bytes);
+        assertEquals(0, result.failures);
+        assertFalse(result.cancelled);
+        assertSameTree(source, dest);
+    }
+
+    @Test
+    public void deletesANestedTree() throws IOException {
+        File target = new File(folder.getRoot(), "thumbnails");
+        long bytes = tree(target, 3, 4);
+
+        FileTreeWorker.Result result = new FileTreeWorker().setParallelism(2).deleteSync(target);
+
+        assertEquals(84, result.files);
+        assertEquals(bytes, result.bytes);
+        assertEquals(0, result.failures);
+        assertFalse(target.exists());
+    }
+
+    @Test
+    public void missingSourceCopiesNothing() {
+        File dest = new File(folder.getRoot(), "dest");
+        FileTreeWorker.Result result = new FileTreeWorker()
+                .copyDirSync(new File(folder.getRoot(), "gone"), dest);
+
+        assertEquals(0, result.files);
+        assertEquals(0, result.failures);
+        assertTrue(dest.isDirectory());
+    }
+
+    @Test
+    public void unreadableDirectoryIsSkipped() throws IOException {
+        File source = new File(folder.getRoot(), "source");
+        tree(source, 2, 3);
+        File locked = new File(source, "d1");
+        assertTrue(locked.setReadable(false));
+        try {
+            // Root can list anything, so there is nothing to test there
+            assumeTrue(locked.listFiles() == null);
+
+            File dest = new File(folder.getRoot(), "dest");
+            FileTreeWorker.Result result = new FileTreeWorker().copyDirSync(source, dest);
+
+            // Everything but the three files inside the locked directory
+            assertEquals(9, result.files);
+            assertTrue(new File(dest, "d1").isDirectory());
+            assertEquals(0, new File(dest, "d1").list().length);
+        } finally {
+            locked.setReadable(true);
+        }
+    }
+
+    @Test
+    public void cancelStopsACopyPartwayThrough() throws Exception {
+        File source = new File(folder.getRoot(), "source");
+        tree(source, 2, 60);
+        File dest = new File(folder.getRoot(), "dest");
+
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<FileTreeWorker.Result> outcome = new AtomicReference<>();
+        final ArrayList<Long> progress = new ArrayList<>();
+        FileTreeWorker.Operation operation = new FileTreeWorker().setParallelism(1)
+                .copyDir(source, dest, new FileTreeWorker.Listener() {
+                    @Override
+                    public void onProgress(long files, long bytes) {
+                        synchronized (progress) {
+                            progress.add(files);
+                        }
+                    }
+
+                    @Override
+                    public void onComplete(FileTreeWorker.Result result) {
+                        outcome.set(result);
+                        done.countDown();
+                    }
+                });
+
+        while (operation.getFiles() < 100) Thread.yield();
+        operation.cancel();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        FileTreeWorker.Result result = outcome.get();
+        assertTrue(result.cancelled);
+        assertTrue(result.files >= 100);
+        // 60 + 3600 files in all
+        assertTrue(result.files < 3660);
+        assertEquals(0, result.failures);
+        synchronized (progress) {
+            ArrayList<Long> sorted = new ArrayList<>(progress);
+            Collections.sort(sorted);
+            assertEquals(sorted, progress);
+        }
+    }
+
+    @Test
+    public void callbacksRunOnTheCallbackExecutor() throws Exception {
+        File target = new File(folder.getRoot(), "thumbnails");
+        tree(target, 2, 5);
+
+        ExecutorService callbacks = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return new Thread(runnable, "callbacks");
+            }
+        });
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<String> thread = new AtomicReference<>();
+        final AtomicReference<FileTreeWorker.Result> outcome = new AtomicReference<>();
+        try {
+            new FileTreeWorker().setCallbackExecutor(callbacks).delete(target, new FileTreeWorker.Listener() {
+                @Override
+                public void onProgress(long files, long bytes) {
+                }
+
+                @Override
+                public void onComplete(FileTreeWorker.Result result) {
+                    thread.set(Thread.currentThread().getName());
+                    outcome.set(result);
+                    done.countDown();
+                }
+            });
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        } finally {
+            callbacks.shutdown();
+        }
+
+        assertEquals("callbacks", thread.get());
+        assertEquals(30, outcome.get().files);
+    }
+}
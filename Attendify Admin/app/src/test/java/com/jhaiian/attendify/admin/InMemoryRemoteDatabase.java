@@ -0,0 +1,155 @@
+package com.jhaiian.attendify.admin;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RemoteDatabase} kept in a nested map, for tests.
+ *
+ * Writes are applied and answered at once unless the database is holding
+ * them, in which case they wait for {@link #releaseNext}. Writes can be made
+ * to fail. Every batch it was sent is recorded, failed ones included.
+ */
+public class InMemoryRemoteDatabase implements RemoteDatabase {
+
+    private final Map<String, Object> root = new LinkedHashMap<>();
+    private final List<Map<String, Object>> batches = new ArrayList<>();
+    private final List<Map<String, Object>> held = new ArrayList<>();
+    private final List<Callback> heldCallbacks = new ArrayList<>();
+
+    private boolean holding = false;
+    private int failuresLeft = 0;
+
+    /** Makes the next count writes fail. */
+    public synchronized void failNext(int count) {
+        failuresLeft = count;
+    }
+
+    /** Keeps writes unanswered until {@link #releaseNext} is called. */
+    public synchronized void hold(boolean holding) {
+        this.holding = holding;
+    }
+
+    /** Applies and answers the oldest held write. */
+    public void releaseNext() {
+        Map<String, Object> updates;
+        Callback callback;
+        synchronized (this) {
+            updates = held.remove(0);
+            callback = heldCallbacks.remove(0);
+        }
+        callback.onComplete(apply(updates));
+    }
+
+    /** Every batch sent so far, in order. */
+    public synchronized List<Map<String, Object>> batches() {
+        return new ArrayList<>(batches);
+    }
+
+    /** Waits until at least count batches were sent; false on timeout. */
+    public synchronized boolean awaitBatches(int count, long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (batches.size() < count) {
+            long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (left <= 0) return false;
+            wait(left);
+        }
+        return true;
+    }
+
+    /** Waits until at least count writes are held; false on timeout. */
+    public synchronized boolean awaitHeld(int count, long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (held.size() < count) {
+            long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (left <= 0) return false;
+            wait(left);
+        }
+        return true;
+    }
+
+    public synchronized Object get(String path) {
+        Object node = root;
+        for (String key : path.split("/")) {
+            if (!(node instanceof Map)) return null;
+            node = ((Map<?, ?>) node).get(key);
+        }
+        return node;
+    }
+
+    @Override
+    public void getValue(String path, ValueCallback callback) {
+        callback.onValue(get(path), null);
+    }
+
+    @Override
+    public void queryChangedSince(String path, String orderByChild, long since, ValueCallback callback) {
+        Map<String, Object> changed = new LinkedHashMap<>();
+        synchronized (this) {
+            Object node = get(path);
+            if (node instanceof Map) {
+                for (Map.Entry<?, ?> child : ((Map<?, ?>) node).entrySet()) {
+                    Object order = child.getValue() instanceof Map
+                            ? ((Map<?, ?>) child.getValue()).get(orderByChild) : null;
+                    if (order instanceof Number && ((Number) order).longValue() >= since) {
+                        changed.put((String) child.getKey(), child.getValue());
+                    }
+                }
+            }
+        }
+        callback.onValue(changed.isEmpty() ? null : changed, null);
+    }
+
+    @Override
+    public void updateChildren(Map<String, Object> updates, Callback callback) {
+        synchronized (this) {
+            if (holding) {
+                batches.add(new LinkedHashMap<>(updates));
+                held.add(updates);
+                heldCallbacks.add(callback);
+                notifyAll();
+                return;
+            }
+        }
+        // Answer before recording, so a waiting test sees the caller's reaction queued
+        callback.onComplete(apply(updates));
+        synchronized (this) {
+            batches.add(new LinkedHashMap<>(updates));
+            notifyAll();
+        }
+    }
+
+    private synchronized String apply(Map<String, Object> updates) {
+        if (failuresLeft > 0) {
+            failuresLeft--;
+            return "write failed";
+        }
+        for (Map.Entry<String, Object> update : updates.entrySet()) {
+            set(update.getKey(), update.getValue());
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void set(String path, Object value) {
+        String[] keys = path.split("/");
+        Map<String, Object> node = root;
+        for (int i = 0; i < keys.length - 1; i++) {
+            Object child = node.get(keys[i]);
+            if (!(child instanceof Map)) {
+                if (value == null) return;
+                child = new LinkedHashMap<String, Object>();
+                node.put(keys[i], child);
+            }
+            node = (Map<String, Object>) child;
+        }
+        if (value == null) {
+            node.remove(keys[keys.length - 1]);
+        } else {
+            node.put(keys[keys.length - 1], value);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.jhaiian.attendify.admin;
+
+/**
+ * Person fixtures shared by the tests: students come on weekdays, employees
+ * Monday to Saturday on a 22:00-06:00 night shift.
+ */
+final class People {
+
+    private People() {
+    }
+
+    static Person student(String name, String grade, String section) {
+        return new Person(name, Person.ROLE_STUDENT, grade, section, null,
+                0x1f, null, Person.STATUS_PRESENT);
+    }
+
+    static Person employee(String name, String position) {
+        return new Person(name, Person.ROLE_EMPLOYEE, null, null, position,
+                0x3f, null, Person.STATUS_ACTIVE, 22 * 60, 6 * 60);
+    }
+}
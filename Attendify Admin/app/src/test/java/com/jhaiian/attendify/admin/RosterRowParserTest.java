@@ -0,0 +1,83 @@
+package com.jhaiian.attendify.admin;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RosterRowParserTest {
+
+    @Test(expected = IOException.class)
+    public void headerNeedsANameColumn() throws IOException {
+        new RosterRowParser(new String[]{"Role", "Grade"});
+    }
+
+    @Test
+    public void readsColumnsInAnyOrderByTheirAliases() throws IOException {
+        RosterRowParser parser = new RosterRowParser(
+                new String[]{" Hours ", "Type", "Full Name", "Position", "Schedule"});
+        ArrayList<Person> people = new ArrayList<>();
+
+        assertNull(parser.parse(new String[]{"07:30-16:00", "Employee", " Ana Cruz ", "Guard", "Mon, Wed"}, people));
+        Person person = people.get(0);
+        assertEquals("Ana Cruz", person.name);
+        assertEquals(Person.ROLE_EMPLOYEE, person.role);
+        assertEquals("Guard", person.position);
+        assertEquals(Person.dayMaskFromText("Mon, Wed"), person.dayMask);
+        assertEquals(7 * 60 + 30, person.shiftStart);
+        assertEquals(16 * 60, person.shiftEnd);
+    }
+
+    @Test
+    public void missingRoleMeansStudentAndShortRowsAreBlank() throws IOException {
+        RosterRowParser parser = new RosterRowParser(new String[]{"Name", "Days", "Grade", "Section", "Role"});
+        ArrayList<Person> people = new ArrayList<>();
+
+        assertNull(parser.parse(new String[]{"Ana Cruz", "Mon-Fri", "7", "A"}, people));
+        assertEquals(Person.ROLE_STUDENT, people.get(0).role);
+        assertEquals("7", people.get(0).grade);
+        assertEquals(Person.NO_SHIFT, people.get(0).shiftStart);
+    }
+
+    @Test
+    public void rejectsBadRowsWithAReason() throws IOException {
+        RosterRowParser parser = new RosterRowParser(new String[]{"Name", "Role", "Shift"});
+        ArrayList<Person> people = new ArrayList<>();
+
+        assertEquals("Unknown role \"Janitor\"", parser.parse(new String[]{"Ana", "Janitor", ""}, people));
+        assertEquals("Invalid shift \"7-25\"", parser.parse(new String[]{"Ana", "Teacher", "7-25"}, people));
+        assertEquals("Invalid shift \"08:00-08:00\"", parser.parse(new String[]{"Ana", "Teacher", "08:00-08:00"}, people));
+        assertTrue(parser.parse(new String[]{"", "Teacher", ""}, people) != null);
+        assertEquals(0, people.size());
+    }
+
+    @Test
+    public void blankRowsAreEmpty() {
+        assertTrue(RosterRowParser.isEmpty(new String[]{" ", ""}));
+        assertTrue(RosterRowParser.isEmpty(new String[0]));
+        assertEquals(false, RosterRowParser.isEmpty(new String[]{"", "x"}));
+    }
+
+    @Test
+    public void identityIgnoresCaseAndSpacing() {
+        assertEquals(RosterRowParser.identityKey(People.student("Ana Cruz", "7", "A")),
+                RosterRowParser.identityKey(People.student("  ana   CRUZ ", "7 ", "a")));
+    }
+
+    @Test
+    public void identityTellsApartRoleGradeAndSection() {
+        String key = RosterRowParser.identityKey(People.student("Ana Cruz", "7", "A"));
+        assertNotEquals(key, RosterRowParser.identityKey(People.student("Ana Cruz", "8", "A")));
+        assertNotEquals(key, RosterRowParser.identityKey(People.student("Ana Cruz", "7", "B")));
+        assertNotEquals(key, RosterRowParser.identityKey(new Person("Ana Cruz", Person.ROLE_TEACHER,
+                null, null, null, 0x1f, null, Person.STATUS_ACTIVE)));
+        // The separator keeps a name ending in a digit apart from a grade
+        assertNotEquals(RosterRowParser.identityKey(People.student("Ana 1", "7", "A")),
+                RosterRowParser.identityKey(People.student("Ana", "17", "A")));
+    }
+}
@@ -0,0 +1,168 @@
+package com.jhaiian.attendify.admin;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RosterSearchIndexTest {
+
+    @Test
+    public void emptyQueryMeansNoFilter() {
+        RosterSearchIndex index = new RosterSearchIndex();
+        index.put(1, People.student("Ana Cruz", "7", "A"));
+        assertNull(index.search("", 10));
+        assertNull(index.search("  - ", 10));
+        assertNull(index.search(null, 10));
+    }
+
+    @Test
+    public void foldsCaseAndAccents() {
+        RosterSearchIndex index = new RosterSearchIndex();
+        index.put(1, People.employee("José Peña", "Guard"));
+        index.put(2, People.employee("Jose Reyes", "Nurse"));
+
+        assertArrayEquals(new int[]{1}, index.search("PENA", 10));
+        assertArrayEquals(new int[]{1}, index.search("peña", 10));
+        assertArrayEquals(new int[]{1, 2}, index.search("josé", 10));
+    }
+
+    @Test
+    public void shortTokensMatchPrefixesOnly() {
+        RosterSearchIndex index = new RosterSearchIndex();
+        index.put(1, People.student("Mark Santos", "7", "A"));
+        index.put(2, People.student("Ana Ramos", "8", "B"));
+
+        assertArrayEquals(new int[]{1}, index.search("ma", 10));
+        // "am" is inside "ramos" but two characters only match word starts
+        assertArrayEquals(new int[0], index.search("am", 10));
+        // Three or more match anywhere in a word
+        assertArrayEquals(new int[]{2}, index.search("amo", 10));
+    }
+
+    @Test
+    public void everyWordMustMatch() {
+        RosterSearchIndex index = new RosterSearchIndex();
+        index.put(1, People.student("Ana Cruz", "7", "A"));
+        index.put(2, People.student("Ana Reyes", "8", "A"));
+        index.put(3, People.student("Mark Cruz", "8", "B"));
+
+        assertArrayEquals(new int[]{1}, index.search("ana cruz", 10));
+        assertArrayEquals(new int[]{2}, index.search("ana grade 8", 10));
+        assertArrayEquals(new int[0], index.search("ana zzz", 10));
+    }
+
+    @Test
+    public void namesRankAboveOtherFieldsAndExactAbovePrefixAboveInfix() {
+        RosterSearchIndex index = new RosterSearchIndex();
+        index.put(1, People.employee("Ana Cruz", "Nurse"));
+        index.put(2, People.employee("Nurse Reyes", "Guard"));
+        index.put(3, People.employee("Nursery Lopez", "Guard"));
+        index.put(4, People.employee("Manurse Flores", "Guard"));
+
+        // Exact name word, prefix name word, infix name word, then position
+        assertArrayEquals(new int[]{2, 3, 4, 1}, index.search("nurse", 10));
+    }
+
+    @Test
+    public void keepsTheBestWithinTheLimitAndBreaksTiesById() {
+        RosterSearchIndex index = new RosterSearchIndex();
+        for (int id = 10; id >= 1; id--) {
+            index.put(id, People.student("Ana " + id, "7", "A"));
+        }
+        index.put(20, People.student("Bea", "7", "A"));
+
+        assertArrayEquals(new int[]{1, 2, 3}, index.search("ana", 3));
+        assertArrayEquals(new int[0], index.search("ana", 0));
+        assertEquals(11, index.search("grade", 100).length);
+    }
+
+    @Test
+    public void putReindexesAndRemoveForgets() {
+        RosterSearchIndex index = new RosterSearchIndex();
+        index.put(1, People.student("Ana Cruz", "7", "A"));
+        index.put(2, People.student("Mark Cruz", "7", "A"));
+
+        index.put(1, People.student("Ana Reyes", "7", "A"));
+        assertArrayEquals(new int[]{2}, index.search("cruz", 10));
+        assertArrayEquals(new int[]{1}, index.search("reyes", 10));
+
+        index.remove(2);
+        index.remove(99);
+        assertArrayEquals(new int[0], index.search("cruz", 10));
+        assertEquals(1, index.size());
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertArrayEquals(new int[0], index.search("ana", 10));
+    }
+
+    @Test
+    public void findsExactlyWhatAFullScanFinds() {
+        String[] first = {"Juan", "María", "José", "Ana", "Mark", "Angel", "Kristine", "Paolo"};
+        String[] last = {"Santos", "Reyes", "Dela Cruz", "Bautista", "Ocampo", "Peñaflor", "Villanueva"};
+        String[] positions = {"Guard", "Registrar", "Librarian", "Nurse"};
+        Random random = new Random(7);
+
+        RosterSearchIndex index = new RosterSearchIndex();
+        HashMap<Integer, Person> people = new HashMap<>();
+        for (int id = 1; id <= 2000; id++) {
+            String name = first[random.nextInt(first.length)] + " " + last[random.nextInt(last.length)];
+            Person person = random.nextInt(5) == 0
+                    ? People.employee(name, positions[random.nextInt(positions.length)])
+                    : People.student(name, String.valueOf(7 + random.nextInt(6)), String.valueOf((char) ('A' + random.nextInt(8))));
+            people.put(id, person);
+            index.put(id, person);
+        }
+        // Churn some entries so the posting lists have seen deletes
+        for (int id = 1; id <= 2000; id += 7) {
+            index.remove(id);
+            people.remove(id);
+        }
+
+        String[] queries = {"a", "ma", "jose", "cruz", "dela c", "ana 7", "uar", "grade 12 h", "pena", "ill", "xyz"};
+        for (String query : queries) {
+            int[] found = index.search(query, Integer.MAX_VALUE);
+            Arrays.sort(found);
+            assertArrayEquals(query, scan(people, query), found);
+        }
+    }
+
+    private static int[] scan(HashMap<Integer, Person> people, String query) {
+        ArrayList<String> queryTokens = new ArrayList<>();
+        RosterSearchIndex.tokenize(query, queryTokens);
+
+        ArrayList<Integer> ids = new ArrayList<>();
+        for (Integer id : people.keySet()) {
+            Person person = people.get(id);
+            ArrayList<String> tokens = new ArrayList<>();
+            RosterSearchIndex.tokenize(person.name, tokens);
+            RosterSearchIndex.tokenize(person.getDescription(), tokens);
+            RosterSearchIndex.tokenize(person.position, tokens);
+
+            boolean all = true;
+            for (String q : queryTokens) {
+                boolean any = false;
+                for (String token : tokens) {
+                    if (token.startsWith(q) || (q.length() >= 3 && token.contains(q))) {
+                        any = true;
+                        break;
+                    }
+                }
+                all &= any;
+            }
+            if (all) ids.add(id);
+        }
+
+        int[] result = new int[ids.size()];
+        for (int i = 0; i < result.length; i++) result[i] = ids.get(i);
+        Arrays.sort(result);
+        return result;
+    }
+}
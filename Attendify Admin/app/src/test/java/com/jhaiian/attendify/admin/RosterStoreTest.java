@@ -0,0 +1,108 @@
+package com.jhaiian.attendify.admin;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RosterStoreTest {
+
+    @Test
+    public void addAssignsIdsAndReadsBackEveryField() {
+        RosterStore store = new RosterStore();
+        int first = store.add(People.student("Ana Cruz", "7", "A"));
+        int second = store.add(People.employee("Jose Reyes", "Guard"));
+
+        assertEquals(2, store.size());
+        assertTrue(second > first);
+
+        int row = store.rowOf(second);
+        assertEquals("Jose Reyes", store.getName(row));
+        assertEquals(Person.ROLE_EMPLOYEE, store.getRole(row));
+        assertEquals("Guard", store.getPosition(row));
+        assertEquals("Guard", store.getDescription(row));
+        assertEquals(0x3f, store.getDayMask(row));
+        assertEquals(22 * 60, store.getShiftStart(row));
+        assertEquals(6 * 60, store.getShiftEnd(row));
+
+        Person copy = store.get(store.rowOf(first));
+        assertEquals("Ana Cruz", copy.name);
+        assertEquals("Grade 7 - A", copy.getDescription());
+        assertEquals(0x1f, copy.dayMask);
+        assertFalse(copy.hasShift());
+    }
+
+    @Test
+    public void putKeepsExternalIdsAndAddContinuesAfterThem() {
+        RosterStore store = new RosterStore();
+        store.put(500, People.student("Ana Cruz", "7", "A"));
+        int next = store.add(People.student("Mark Santos", "7", "B"));
+
+        assertEquals(0, store.rowOf(500));
+        assertEquals(501, next);
+
+        store.put(500, People.student("Ana Cruz", "8", "A"));
+        assertEquals(2, store.size());
+        assertEquals("8", store.getGrade(store.rowOf(500)));
+    }
+
+    @Test
+    public void removeMovesTheLastRowIntoTheGap() {
+        RosterStore store = new RosterStore();
+        int a = store.add(People.student("A", "7", "A"));
+        int b = store.add(People.student("B", "7", "A"));
+        int c = store.add(People.student("C", "7", "A"));
+
+        assertTrue(store.remove(a));
+        assertFalse(store.remove(a));
+
+        assertEquals(2, store.size());
+        assertEquals(-1, store.rowOf(a));
+        assertEquals(0, store.rowOf(c));
+        assertEquals("C", store.getName(0));
+        assertEquals("B", store.getName(store.rowOf(b)));
+    }
+
+    @Test
+    public void editsBumpRevisionAndModCount() {
+        RosterStore store = new RosterStore();
+        int id = store.add(People.student("Ana Cruz", "7", "A"));
+        int row = store.rowOf(id);
+        int mod = store.getModCount();
+
+        assertTrue(store.setStatus(id, Person.STATUS_ACTIVE));
+        assertTrue(store.setImagePath(id, "/avatars/1.webp"));
+        assertFalse(store.setStatus(id + 1, Person.STATUS_ACTIVE));
+
+        assertEquals(2, store.getRevision(row));
+        assertEquals(mod + 2, store.getModCount());
+        assertEquals("/avatars/1.webp", store.getImagePath(row));
+    }
+
+    @Test
+    public void repeatedValuesShareOneString() {
+        RosterStore store = new RosterStore();
+        int a = store.add(People.student("A", new String("7"), new String("A")));
+        int b = store.add(People.student("B", new String("7"), new String("A")));
+
+        assertSame(store.getGrade(store.rowOf(a)), store.getGrade(store.rowOf(b)));
+        assertSame(store.getSection(store.rowOf(a)), store.getSection(store.rowOf(b)));
+        assertSame(store.getDescription(store.rowOf(a)), store.getDescription(store.rowOf(b)));
+    }
+
+    @Test
+    public void growsPastInitialCapacityAndClears() {
+        RosterStore store = new RosterStore();
+        for (int i = 0; i < 1000; i++) store.add(People.student("P" + i, "7", "A"));
+        assertEquals(1000, store.size());
+        assertEquals("P999", store.getName(store.rowOf(1000)));
+
+        store.clear();
+        assertEquals(0, store.size());
+        assertEquals(-1, store.rowOf(1));
+        assertNull(store.getName(0));
+    }
+}
@@ -0,0 +1,77 @@
+package com.jhaiian.attendify.admin;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ScanResolverTest {
+
+    private static ScanResolver resolver(String... codes) {
+        ScanResolver resolver = new ScanResolver();
+        for (int i = 0; i < codes.length; i++) resolver.put(codes[i], i + 1);
+        return resolver;
+    }
+
+    @Test
+    public void unknownAndNullCodesAreUnknown() {
+        ScanResolver resolver = resolver("-Nabc");
+        assertEquals(ScanResolver.UNKNOWN, resolver.resolve("-Nxyz", 0));
+        assertEquals(ScanResolver.UNKNOWN, resolver.resolve(null, 0));
+        assertEquals(1, resolver.resolve(" -Nabc\n", 0));
+    }
+
+    @Test
+    public void repeatsInsideTheWindowAreDuplicates() {
+        ScanResolver resolver = resolver("-Nabc");
+        assertEquals(1, resolver.resolve("-Nabc", 1_000));
+        assertEquals(ScanResolver.DUPLICATE, resolver.resolve("-Nabc", 1_001));
+        assertEquals(ScanResolver.DUPLICATE, resolver.resolve("-Nabc", 1_000 + ScanResolver.DEFAULT_DEBOUNCE_MS - 1));
+        assertEquals(1, resolver.resolve("-Nabc", 1_000 + ScanResolver.DEFAULT_DEBOUNCE_MS));
+    }
+
+    @Test
+    public void windowRestartsOnlyWhenAScanIsAccepted() {
+        ScanResolver resolver = resolver("-Nabc");
+        resolver.setDebounceMillis(100);
+        assertEquals(1, resolver.resolve("-Nabc", 0));
+        // A card held in view keeps being seen but is not re-accepted until 100 ms after the first
+        assertEquals(ScanResolver.DUPLICATE, resolver.resolve("-Nabc", 60));
+        assertEquals(1, resolver.resolve("-Nabc", 100));
+        assertEquals(ScanResolver.DUPLICATE, resolver.resolve("-Nabc", 150));
+    }
+
+    @Test
+    public void eachCodeHasItsOwnWindow() {
+        ScanResolver resolver = resolver("-Na", "-Nb");
+        assertEquals(1, resolver.resolve("-Na", 0));
+        assertEquals(2, resolver.resolve("-Nb", 1));
+        assertEquals(ScanResolver.DUPLICATE, resolver.resolve("-Na", 2));
+        assertEquals(ScanResolver.DUPLICATE, resolver.resolve("-Nb", 3));
+    }
+
+    @Test
+    public void removeForgetsTheCodeAndItsWindow() {
+        ScanResolver resolver = resolver("-Nabc");
+        assertEquals(1, resolver.resolve("-Nabc", 0));
+        resolver.remove("-Nabc");
+        assertEquals(ScanResolver.UNKNOWN, resolver.resolve("-Nabc", 1));
+        assertEquals(0, resolver.size());
+
+        resolver.put("-Nabc", 7);
+        assertEquals(7, resolver.resolve("-Nabc", 2));
+    }
+
+    @Test
+    public void pruningKeepsCodesStillInsideTheWindow() {
+        ScanResolver resolver = new ScanResolver();
+        resolver.setDebounceMillis(1_000);
+        for (int id = 0; id < 5_000; id++) resolver.put("code" + id, id);
+
+        // Past the prune threshold: old entries expire, the last second's stay
+        for (int id = 0; id < 5_000; id++) assertEquals(id, resolver.resolve("code" + id, id));
+        for (int id = 4_001; id < 5_000; id++) {
+            assertEquals(ScanResolver.DUPLICATE, resolver.resolve("code" + id, 5_000));
+        }
+        for (int id = 0; id <= 4_000; id++) assertEquals(id, resolver.resolve("code" + id, 5_000));
+    }
+}
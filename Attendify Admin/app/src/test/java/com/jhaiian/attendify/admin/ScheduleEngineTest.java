@@ -0,0 +1,207 @@
+package com.jhaiian.attendify.admin;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ScheduleEngineTest {
+
+    // 2024-01-01, a Monday
+    private static final int MONDAY = 19723;
+    private static final int TUESDAY = MONDAY + 1;
+    private static final int SUNDAY = MONDAY + 6;
+
+    private static final int MON = 1;
+    private static final int TUE = 1 << 1;
+    private static final int WEEKDAYS = 0x1f;
+    private static final int SUN = 1 << 6;
+
+    private static int clock(int hour, int minute) {
+        return hour * 60 + minute;
+    }
+
+    private static int[] sorted(int[] ids) {
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    @Test
+    public void weekdaysStartOnMonday() {
+        assertEquals(0, ScheduleEngine.weekdayIndex(MONDAY));
+        assertEquals(6, ScheduleEngine.weekdayIndex(SUNDAY));
+        assertEquals(3, ScheduleEngine.weekdayIndex(0));
+        assertEquals(2, ScheduleEngine.weekdayIndex(-1));
+    }
+
+    @Test
+    public void expectedOnFollowsTheDayMask() {
+        ScheduleEngine schedule = new ScheduleEngine();
+        schedule.put(1, WEEKDAYS, Person.NO_SHIFT, Person.NO_SHIFT);
+        schedule.put(2, SUN, Person.NO_SHIFT, Person.NO_SHIFT);
+
+        assertArrayEquals(new int[]{1}, schedule.expectedOn(MONDAY));
+        assertArrayEquals(new int[]{2}, schedule.expectedOn(SUNDAY));
+        assertEquals(0, schedule.countExpectedOn(SUNDAY - 1));
+        assertTrue(schedule.isExpected(1, TUESDAY));
+        assertFalse(schedule.isExpected(1, SUNDAY));
+        assertFalse(schedule.isExpected(3, MONDAY));
+    }
+
+    @Test
+    public void dayShiftsAreRoundedOutToHalfHours() {
+        ScheduleEngine schedule = new ScheduleEngine();
+        schedule.put(1, WEEKDAYS, clock(7, 45), clock(16, 0));
+        schedule.put(2, WEEKDAYS, Person.NO_SHIFT, Person.NO_SHIFT);
+
+        assertArrayEquals(new int[]{2}, sorted(schedule.expectedAt(MONDAY, clock(7, 29))));
+        assertArrayEquals(new int[]{1, 2}, sorted(schedule.expectedAt(MONDAY, clock(7, 30))));
+        assertArrayEquals(new int[]{1, 2}, sorted(schedule.expectedAt(MONDAY, clock(15, 59))));
+        assertArrayEquals(new int[]{2}, sorted(schedule.expectedAt(MONDAY, clock(16, 0))));
+        assertEquals(0, schedule.countExpectedAt(SUNDAY, clock(10, 0)));
+    }
+
+    @Test
+    public void overnightShiftsSpillIntoTheNextDay() {
+        ScheduleEngine schedule = new ScheduleEngine();
+        schedule.put(1, MON, clock(22, 0), clock(6, 0));
+
+        assertArrayEquals(new int[]{1}, schedule.expectedAt(MONDAY, clock(22, 0)));
+        assertArrayEquals(new int[]{1}, schedule.expectedAt(MONDAY, clock(23, 59)));
+        // The early hours belong to Tuesday, not to Monday
+        assertArrayEquals(new int[0], schedule.expectedAt(MONDAY, clock(2, 0)));
+        assertArrayEquals(new int[]{1}, schedule.expectedAt(TUESDAY, clock(2, 0)));
+        assertArrayEquals(new int[]{1}, schedule.expectedAt(TUESDAY, clock(5, 59)));
+        assertArrayEquals(new int[0], schedule.expectedAt(TUESDAY, clock(6, 0)));
+        assertArrayEquals(new int[0], schedule.expectedAt(TUESDAY, clock(22, 0)));
+        assertEquals(0, schedule.countExpectedAt(MONDAY + 7, clock(2, 0)));
+        assertEquals(1, schedule.countExpectedAt(TUESDAY + 7, clock(2, 0)));
+    }
+
+    @Test
+    public void sundayNightSpillsIntoMonday() {
+        ScheduleEngine schedule = new ScheduleEngine();
+        schedule.put(1, SUN, clock(20, 0), clock(4, 0));
+
+        assertArrayEquals(new int[]{1}, schedule.expectedAt(SUNDAY + 1, clock(3, 0)));
+        assertArrayEquals(new int[0], schedule.expectedAt(SUNDAY, clock(3, 0)));
+    }
+
+    @Test
+    public void shiftEndingAtMidnightDoesNotSpill() {
+        ScheduleEngine schedule = new ScheduleEngine();
+        schedule.put(1, MON, clock(16, 0), 0);
+
+        assertArrayEquals(new int[]{1}, schedule.expectedAt(MONDAY, clock(23, 30)));
+        assertArrayEquals(new int[0], schedule.expectedAt(TUESDAY, 0));
+    }
+
+    @Test
+    public void consecutiveNightsOverlapAtMidnight() {
+        ScheduleEngine schedule = new ScheduleEngine();
+        schedule.put(1, MON | TUE, clock(22, 0), clock(6, 0));
+        schedule.put(2, TUE, clock(1, 0), clock(9, 0));
+
+        assertArrayEquals(new int[]{1, 2}, sorted(schedule.expectedAt(TUESDAY, clock(2, 0))));
+        assertArrayEquals(new int[]{1}, schedule.expectedAt(TUESDAY, clock(23, 0)));
+        assertArrayEquals(new int[]{1}, schedule.expectedAt(TUESDAY + 1, clock(1, 0)));
+    }
+
+    @Test
+    public void replacingAndRemovingClearEveryBitset() {
+        ScheduleEngine schedule = new ScheduleEngine();
+        schedule.put(1, MON, clock(22, 0), clock(6, 0));
+        schedule.put(1, MON, clock(8, 0), clock(12, 0));
+
+        assertArrayEquals(new int[0], schedule.expectedAt(TUESDAY, clock(2, 0)));
+        assertArrayEquals(new int[]{1}, schedule.expectedAt(MONDAY, clock(9, 0)));
+
+        schedule.put(2, MON, clock(22, 0), clock(6, 0));
+        schedule.remove(2);
+        schedule.remove(42);
+        assertEquals(1, schedule.size());
+        assertEquals(0, schedule.countExpectedAt(TUESDAY, clock(2, 0)));
+
+        // The freed slot is reused without leftovers
+        schedule.put(3, TUE, Person.NO_SHIFT, Person.NO_SHIFT);
+        assertArrayEquals(new int[]{3}, schedule.expectedAt(TUESDAY, clock(2, 0)));
+
+        schedule.clear();
+        assertEquals(0, schedule.size());
+        assertEquals(0, schedule.countExpectedOn(MONDAY));
+    }
+
+    @Test
+    public void matchesAPerPersonCheckOnALargeRoster() {
+        Random random = new Random(9);
+        ScheduleEngine schedule = new ScheduleEngine();
+        HashMap<Integer, int[]> people = new HashMap<>();
+        for (int id = 1; id <= 3000; id++) {
+            int[] person = randomSchedule(random);
+            people.put(id, person);
+            schedule.put(id, person[0], person[1], person[2]);
+        }
+        for (int id = 1; id <= 3000; id += 5) {
+            schedule.remove(id);
+            people.remove(id);
+        }
+        for (int id = 1; id <= 3000; id += 11) {
+            int[] person = randomSchedule(random);
+            people.put(id, person);
+            schedule.put(id, person[0], person[1], person[2]);
+        }
+
+        for (int day = MONDAY; day < MONDAY + 7; day++) {
+            for (int minute = 0; minute < 24 * 60; minute += 17) {
+                int[] expected = scan(people, day, minute);
+                assertArrayEquals(day + " " + minute, expected, sorted(schedule.expectedAt(day, minute)));
+                assertEquals(expected.length, schedule.countExpectedAt(day, minute));
+            }
+        }
+    }
+
+    private static int[] randomSchedule(Random random) {
+        int dayMask = 1 + random.nextInt(0x7f);
+        if (random.nextInt(4) == 0) return new int[]{dayMask, Person.NO_SHIFT, Person.NO_SHIFT};
+        int start = random.nextInt(24 * 60);
+        int end;
+        do {
+            end = random.nextInt(24 * 60);
+        } while (end == start);
+        return new int[]{dayMask, start, end};
+    }
+
+    // Rounds shifts out to half-hours the same way, person by person
+    private static int[] scan(HashMap<Integer, int[]> people, int day, int minute) {
+        int weekday = ScheduleEngine.weekdayIndex(day);
+        int previous = ScheduleEngine.weekdayIndex(day - 1);
+        int slot = minute / 30;
+        int[] ids = new int[people.size()];
+        int n = 0;
+        for (Integer id : people.keySet()) {
+            int[] person = people.get(id);
+            boolean today = (person[0] & (1 << weekday)) != 0;
+            boolean yesterday = (person[0] & (1 << previous)) != 0;
+            boolean on;
+            if (person[1] == Person.NO_SHIFT) {
+                on = today;
+            } else {
+                int first = person[1] / 30;
+                int last = (person[2] - 1) / 30;
+                if (person[2] > person[1]) {
+                    on = today && slot >= first && slot <= last;
+                } else {
+                    on = today && slot >= first || yesterday && person[2] > 0 && slot <= last;
+                }
+            }
+            if (on) ids[n++] = id;
+        }
+        return sorted(Arrays.copyOf(ids, n));
+    }
+}
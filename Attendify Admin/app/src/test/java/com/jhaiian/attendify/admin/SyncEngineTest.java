@@ -0,0 +1,215 @@
+package com.jhaiian.attendify.admin;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SyncEngineTest {
+
+    private static final long TIMEOUT_MS = 5000;
+
+    /** Outbox storage that outlives the engine, like the SQLite table. */
+    private static class MemoryPersistence implements Outbox.Persistence {
+        final Map<String, Outbox.Entry> rows = new LinkedHashMap<>();
+
+        @Override
+        public synchronized List<Outbox.Entry> loadOutbox() {
+            return new ArrayList<>(rows.values());
+        }
+
+        @Override
+        public synchronized void putOutboxEntry(Outbox.Entry entry) {
+            rows.put(entry.path, entry);
+        }
+
+        @Override
+        public synchronized void deleteOutboxEntry(String path, long seq) {
+            Outbox.Entry row = rows.get(path);
+            if (row != null && row.seq == seq) rows.remove(path);
+        }
+
+        synchronized int size() {
+            return rows.size();
+        }
+    }
+
+    private final MemoryPersistence persistence = new MemoryPersistence();
+    private final InMemoryRemoteDatabase remote = new InMemoryRemoteDatabase();
+    private ScheduledExecutorService executor;
+    private Outbox outbox;
+    private SyncEngine engine;
+
+    @Before
+    public void setUp() {
+        start();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private void start() {
+        executor = Executors.newSingleThreadScheduledExecutor();
+        outbox = new Outbox(persistence);
+        engine = new SyncEngine(outbox, remote, executor);
+    }
+
+    /** Outbox size once the engine thread has run everything queued so far. */
+    private int queued() throws Exception {
+        return executor.submit(new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return outbox.size();
+            }
+        }).get();
+    }
+
+    private static String path(int i) {
+        return SyncEngine.personPath("uid", "p" + i) + "/name";
+    }
+
+    @Test
+    public void burstOfEditsGoesOutAsOneBatch() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            engine.enqueue(path(i), "Person " + i);
+        }
+
+        assertTrue(remote.awaitBatches(1, TIMEOUT_MS));
+        assertEquals(0, queued());
+        assertEquals(1, remote.batches().size());
+        assertEquals(50, remote.batches().get(0).size());
+        assertEquals("Person 7", remote.get(path(7)));
+    }
+
+    @Test
+    public void largeQueueIsSplitIntoCappedBatchesWithTwoInFlight() throws Exception {
+        remote.hold(true);
+        Map<String, Object> updates = new LinkedHashMap<>();
+        for (int i = 0; i < 500; i++) {
+            updates.put(path(i), "Person " + i);
+        }
+        engine.enqueue(updates);
+
+        assertTrue(remote.awaitHeld(SyncEngine.MAX_IN_FLIGHT, TIMEOUT_MS));
+        queued();
+        assertEquals(SyncEngine.MAX_IN_FLIGHT, remote.batches().size());
+        assertEquals(SyncEngine.MAX_BATCH_PATHS, remote.batches().get(0).size());
+        assertEquals(SyncEngine.MAX_BATCH_PATHS, remote.batches().get(1).size());
+
+        // Each completed batch frees a slot for the next one
+        remote.releaseNext();
+        assertTrue(remote.awaitBatches(3, TIMEOUT_MS));
+        assertEquals(100, remote.batches().get(2).size());
+
+        remote.releaseNext();
+        remote.releaseNext();
+        assertEquals(0, queued());
+        assertEquals(0, persistence.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals("Person " + i, remote.get(path(i)));
+        }
+    }
+
+    @Test
+    public void failedBatchStaysQueuedUntilRetried() throws Exception {
+        remote.failNext(1);
+        engine.enqueue(path(1), "Ana");
+
+        assertTrue(remote.awaitBatches(1, TIMEOUT_MS));
+        assertEquals(1, queued());
+        assertNull(remote.get(path(1)));
+
+        // Backing off: nothing is resent before the base delay
+        assertFalse(remote.awaitBatches(2, SyncEngine.BASE_BACKOFF_MS / 2));
+
+        engine.flushNow();
+        assertTrue(remote.awaitBatches(2, TIMEOUT_MS));
+        assertEquals(0, queued());
+        assertEquals("Ana", remote.get(path(1)));
+    }
+
+    @Test
+    public void failedBatchIsRetriedAfterBackoff() throws Exception {
+        remote.failNext(1);
+        engine.enqueue(path(1), "Ana");
+
+        assertTrue(remote.awaitBatches(2, SyncEngine.BASE_BACKOFF_MS * 2 + TIMEOUT_MS));
+        assertEquals(0, queued());
+        assertEquals(remote.batches().get(0), remote.batches().get(1));
+        assertEquals("Ana", remote.get(path(1)));
+    }
+
+    @Test
+    public void pathRewrittenWhileInFlightIsSentAgain() throws Exception {
+        remote.hold(true);
+        engine.enqueue(path(1), "Ana");
+        assertTrue(remote.awaitHeld(1, TIMEOUT_MS));
+
+        engine.enqueue(path(1), "Ana Cruz");
+        engine.flushNow();
+        // The path is busy, so the new value waits for the first write
+        assertEquals(1, queued());
+        assertEquals(1, remote.batches().size());
+
+        remote.releaseNext();
+        assertTrue(remote.awaitHeld(1, TIMEOUT_MS));
+        remote.releaseNext();
+
+        assertEquals(0, queued());
+        assertEquals("Ana Cruz", remote.get(path(1)));
+    }
+
+    @Test
+    public void parentWriteSupersedesQueuedChildren() throws Exception {
+        remote.hold(true);
+        engine.enqueue(path(1), "Ana");
+        engine.enqueue(SyncEngine.personPath("uid", "p1") + "/grade", "7");
+
+        Map<String, Object> person = new HashMap<>();
+        person.put("name", "Ana Cruz");
+        engine.enqueue(SyncEngine.personPath("uid", "p1"), person);
+
+        assertTrue(remote.awaitHeld(1, TIMEOUT_MS));
+        Map<String, Object> batch = remote.batches().get(0);
+        assertEquals(1, batch.size());
+        assertTrue(batch.containsKey(SyncEngine.personPath("uid", "p1")));
+
+        remote.releaseNext();
+        assertEquals(0, queued());
+        assertEquals("Ana Cruz", remote.get(path(1)));
+        assertNull(remote.get(SyncEngine.personPath("uid", "p1") + "/grade"));
+    }
+
+    @Test
+    public void queuedWritesSurviveRestart() throws Exception {
+        remote.hold(true);
+        engine.enqueue(path(1), "Ana");
+        engine.enqueue(path(2), "Jose");
+        assertTrue(remote.awaitHeld(1, TIMEOUT_MS));
+        executor.shutdownNow();
+        assertEquals(2, persistence.size());
+
+        // A new process loads the outbox and sends it without new edits
+        remote.hold(false);
+        start();
+        assertTrue(remote.awaitBatches(2, TIMEOUT_MS));
+        assertEquals(0, queued());
+        assertEquals("Ana", remote.get(path(1)));
+        assertEquals("Jose", remote.get(path(2)));
+    }
+}
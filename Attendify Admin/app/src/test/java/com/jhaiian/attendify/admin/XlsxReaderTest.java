@@ -0,0 +1,145 @@
+package com.jhaiian.attendify.admin;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.kxml2.io.KXmlParser;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class XlsxReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String SHARED_STRINGS = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+            + "<si><t>Name</t></si>"
+            + "<si><t>Grade</t></si>"
+            + "<si><t>Section</t></si>"
+            + "<si><t xml:space=\"preserve\">José Peña</t></si>"
+            // Rich text runs with a phonetic hint that must not show
+            + "<si><r><t>Ana </t></r><r><t>Cruz</t></r><rPh sb=\"0\" eb=\"3\"><t>アナ</t></rPh></si>"
+            + "</sst>";
+
+    private File workbook(String sheetName, String sheetXml, String sharedStrings) throws IOException {
+        File file = folder.newFile();
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file))) {
+            if (sharedStrings != null) {
+                zip.putNextEntry(new ZipEntry("xl/sharedStrings.xml"));
+                zip.write(sharedStrings.getBytes(StandardCharsets.UTF_8));
+            }
+            zip.putNextEntry(new ZipEntry("xl/workbook.xml"));
+            zip.write("<workbook/>".getBytes(StandardCharsets.UTF_8));
+            zip.putNextEntry(new ZipEntry(sheetName));
+            zip.write(sheetXml.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    private static String sheet(String rows) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+                + "<sheetData>" + rows + "</sheetData></worksheet>";
+    }
+
+    private static XlsxReader open(File file) throws IOException {
+        return new XlsxReader(file, new KXmlParser(), new KXmlParser());
+    }
+
+    @Test
+    public void readsSharedStringsNumbersAndRowNumbersFromTheSheet() throws IOException {
+        File file = workbook("xl/worksheets/sheet1.xml", sheet(
+                "<row r=\"1\"><c r=\"A1\" t=\"s\"><v>0</v></c><c r=\"B1\" t=\"s\"><v>1</v></c>"
+                        + "<c r=\"C1\" t=\"s\"><v>2</v></c></row>"
+                        // Rows 2 and 3 are empty and left out of the file
+                        + "<row r=\"4\"><c r=\"A4\" t=\"s\"><v>3</v></c><c r=\"B4\"><v>7.0</v></c>"
+                        + "<c r=\"C4\" t=\"inlineStr\"><is><t>B</t></is></c></row>"
+                        + "<row r=\"9\"><c r=\"A9\" t=\"s\"><v>4</v></c><c r=\"B9\" t=\"n\"><v>12</v></c>"
+                        + "<c r=\"C9\" t=\"b\"><v>1</v></c></row>"),
+                SHARED_STRINGS);
+
+        try (XlsxReader xlsx = open(file)) {
+            assertArrayEquals(new String[]{"Name", "Grade", "Section"}, xlsx.readRow());
+            assertEquals(1, xlsx.getRowNumber());
+            assertArrayEquals(new String[]{"José Peña", "7", "B"}, xlsx.readRow());
+            assertEquals(4, xlsx.getRowNumber());
+            assertArrayEquals(new String[]{"Ana Cruz", "12", "TRUE"}, xlsx.readRow());
+            assertEquals(9, xlsx.getRowNumber());
+            assertNull(xlsx.readRow());
+        }
+    }
+
+    @Test
+    public void missingCellsBecomeEmptyStrings() throws IOException {
+        File file = workbook("xl/worksheets/sheet1.xml", sheet(
+                "<row r=\"2\"><c r=\"B2\" t=\"str\"><v>middle</v></c><c r=\"D2\"><v>3.5</v></c></row>"
+                        + "<row r=\"3\"><c r=\"AA3\" t=\"inlineStr\"><is><t>far</t></is></c></row>"),
+                null);
+
+        try (XlsxReader xlsx = open(file)) {
+            assertArrayEquals(new String[]{"", "middle", "", "3.5"}, xlsx.readRow());
+            assertEquals(2, xlsx.getRowNumber());
+            String[] far = xlsx.readRow();
+            assertEquals(27, far.length);
+            assertEquals("far", far[26]);
+            assertEquals("", far[0]);
+        }
+    }
+
+    @Test
+    public void rowsWithoutReferencesAreNumberedInOrder() throws IOException {
+        File file = workbook("xl/worksheets/sheet1.xml", sheet(
+                "<row r=\"5\"><c><v>1</v></c><c><v>2</v></c></row>"
+                        + "<row><c><v>3</v></c></row>"),
+                null);
+
+        try (XlsxReader xlsx = open(file)) {
+            assertArrayEquals(new String[]{"1", "2"}, xlsx.readRow());
+            assertEquals(5, xlsx.getRowNumber());
+            assertArrayEquals(new String[]{"3"}, xlsx.readRow());
+            assertEquals(6, xlsx.getRowNumber());
+        }
+    }
+
+    @Test
+    public void findsTheFirstSheetUnderAnotherName() throws IOException {
+        File file = workbook("xl/worksheets/Roster.xml",
+                sheet("<row r=\"1\"><c r=\"A1\" t=\"inlineStr\"><is><t>Name</t></is></c></row>"), null);
+
+        try (XlsxReader xlsx = open(file)) {
+            assertArrayEquals(new String[]{"Name"}, xlsx.readRow());
+        }
+    }
+
+    @Test
+    public void workbookWithoutSheetIsRejected() throws IOException {
+        File file = workbook("docProps/app.xml", "<Properties/>", null);
+        try {
+            open(file).close();
+            fail("opened a workbook without sheets");
+        } catch (IOException expected) {
+            assertEquals("Workbook has no worksheet", expected.getMessage());
+        }
+    }
+
+    @Test
+    public void columnIndexParsesReferences() {
+        assertEquals(0, XlsxReader.columnIndex("A1", -1));
+        assertEquals(25, XlsxReader.columnIndex("Z9", -1));
+        assertEquals(26, XlsxReader.columnIndex("AA10", -1));
+        assertEquals(701, XlsxReader.columnIndex("ZZ1", -1));
+        assertEquals(4, XlsxReader.columnIndex(null, 4));
+        assertEquals(4, XlsxReader.columnIndex("12", 4));
+    }
+}
@@ -0,0 +1,112 @@
+package com.jhaiian.attendify.admin.bench;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.MultiFormatWriter;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Draws the codes the gate scanner reads, with ZXing's own encoders, as
+ * still images for BarcodeDecoderTest and camera-sized frames for
+ * {@link ScanBench}.
+ * {@code ./gradlew :bench:barcodeImages} rewrites the PNGs under
+ * app/src/test/resources/barcodes.
+ */
+public final class BarcodeImages {
+
+    /** A remote key as Firebase push ids look, the usual content of a card. */
+    public static final String PERSON_KEY = "-NqT5b2ZkLm9xY3wPq7R";
+
+    private BarcodeImages() {
+    }
+
+    public static void main(String[] args) throws IOException, WriterException {
+        File dir = new File(args.length > 0 ? args[0] : "app/src/test/resources/barcodes");
+        if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+
+        write(render(BarcodeFormat.QR_CODE, PERSON_KEY, 4), new File(dir, "qr_person_key.png"));
+        write(render(BarcodeFormat.QR_CODE, "Peña, José", 4), new File(dir, "qr_utf8.png"));
+        write(render(BarcodeFormat.CODE_128, "2024-000123", 3), new File(dir, "code128_id.png"));
+        write(render(BarcodeFormat.CODE_39, "EMP-0042", 3), new File(dir, "code39_employee.png"));
+        write(render(BarcodeFormat.EAN_13, "4800016644504", 3), new File(dir, "ean13.png"));
+        write(frame(320, 240, render(BarcodeFormat.QR_CODE, PERSON_KEY, 2), 1), new File(dir, "frame_qr.png"));
+        write(frame(320, 240, null, 2), new File(dir, "frame_empty.png"));
+    }
+
+    /**
+     * The code in black on white, every module scale pixels wide, with a quiet zone.
+     */
+    public static BufferedImage render(BarcodeFormat format, String text, int scale) throws WriterException {
+        Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+        hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+        // QR margins are per side; 1D writers split theirs across both sides
+        hints.put(EncodeHintType.MARGIN, format == BarcodeFormat.QR_CODE ? 4 : 20);
+        BitMatrix matrix = new MultiFormatWriter().encode(text, format, 0, 0, hints);
+
+        int height = format == BarcodeFormat.QR_CODE ? matrix.getHeight() * scale : 60;
+        BufferedImage image = new BufferedImage(matrix.getWidth() * scale, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            int row = format == BarcodeFormat.QR_CODE ? y / scale : 0;
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, matrix.get(x / scale, row) ? 0x000000 : 0xFFFFFF);
+            }
+        }
+        return image;
+    }
+
+    /**
+     * A grey, noisy frame with the code (if any) a little off centre, dimmed
+     * as if held under indoor light.
+     */
+    public static BufferedImage frame(int width, int height, BufferedImage code, long seed) {
+        Random random = new Random(seed);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int left = code == null ? 0 : (width - code.getWidth()) / 2 + width / 10;
+        int top = code == null ? 0 : (height - code.getHeight()) / 2 - height / 12;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int grey = 90 + x * 60 / width + random.nextInt(8);
+                if (code != null && x >= left && y >= top && x < left + code.getWidth() && y < top + code.getHeight()) {
+                    grey = (code.getRGB(x - left, y - top) & 0xFF) == 0 ? 30 : 200;
+                    grey += random.nextInt(8);
+                }
+                image.setRGB(x, y, grey << 16 | grey << 8 | grey);
+            }
+        }
+        return image;
+    }
+
+    /**
+     * The luminance plane of an NV21 camera frame showing the image; the
+     * chroma half is left grey.
+     */
+    public static byte[] nv21(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        byte[] frame = new byte[width * height * 3 / 2];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int rgb = image.getRGB(x, y);
+                int luma = (((rgb >> 16) & 0xFF) * 299 + ((rgb >> 8) & 0xFF) * 587 + (rgb & 0xFF) * 114) / 1000;
+                frame[y * width + x] = (byte) luma;
+            }
+        }
+        for (int i = width * height; i < frame.length; i++) frame[i] = (byte) 128;
+        return frame;
+    }
+
+    private static void write(BufferedImage image, File file) throws IOException {
+        if (!ImageIO.write(image, "png", file)) throw new IOException("No PNG writer");
+        System.out.println(file);
+    }
+}
@@ -0,0 +1,112 @@
+package com.jhaiian.attendify.admin.bench;
+
+import com.jhaiian.attendify.admin.CsvWriter;
+import com.jhaiian.attendify.admin.Person;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One million attendance report rows written as CSV to a file: {@link CsvWriter}
+ * against building each line as a String and writing that, with every
+ * field escaped through String.replace. Cells come from a pool of rows
+ * shaped like AttendanceReport's, a few with commas or quotes in the name.
+ * {@code ./gradlew :bench:jmh -PjmhArgs="CsvWriter"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CsvWriterBench {
+
+    private static final int ROWS = 1_000_000;
+    private static final String[] HEADER = {
+            "Date", "Name", "Role", "Grade", "Section", "Position", "First in", "Last out", "Check-ins", "Status"
+    };
+
+    private String[][] pool;
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = File.createTempFile("report", ".csv");
+        Random random = new Random(5);
+        pool = new String[1024][];
+        for (int i = 0; i < pool.length; i++) {
+            Person person = Rosters.person(random, i);
+            String name = random.nextInt(20) == 0 ? person.name.replace(' ', ',')
+                    : random.nextInt(50) == 0 ? person.name + " \"Jr\"" : person.name;
+            boolean present = random.nextInt(10) != 0;
+            pool[i] = new String[]{
+                    "2026-10-" + (10 + random.nextInt(20)), name,
+                    Person.roleName(person.role), person.grade, person.section,
+                    person.position, present ? "07:" + (10 + random.nextInt(50)) : null,
+                    present ? "16:0" + random.nextInt(10) : null, present ? "1" : "0",
+                    present ? "Present" : "Absent"
+            };
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public long csvWriter() throws IOException {
+        try (CsvWriter csv = new CsvWriter(open())) {
+            csv.writeRow(HEADER);
+            for (int i = 0; i < ROWS; i++) csv.writeRow(pool[i & (pool.length - 1)]);
+        }
+        return file.length();
+    }
+
+    @Benchmark
+    public long lineStrings() throws IOException {
+        try (Writer out = new BufferedWriter(open(), 64 * 1024)) {
+            out.write(line(HEADER));
+            for (int i = 0; i < ROWS; i++) out.write(line(pool[i & (pool.length - 1)]));
+        }
+        return file.length();
+    }
+
+    private Writer open() throws IOException {
+        return new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8);
+    }
+
+    private static String line(String[] fields) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) sb.append(',');
+            String value = fields[i] == null ? "" : fields[i];
+            if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+                sb.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                sb.append(value);
+            }
+        }
+        return sb.append("\r\n").toString();
+    }
+}
@@ -0,0 +1,60 @@
+package com.jhaiian.attendify.admin.bench;
+
+import com.jhaiian.attendify.admin.DeltaPatcher;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Download bytes saved by an ATDP patch over the full APK, and the time to
+ * generate and apply it, for releases that change 1%, 5% and 20% of the
+ * entries of a synthetic APK with 512 entries of 16 KB each:
+ * {@code ./gradlew :bench:patchSize}.
+ */
+public final class DeltaPatchBench {
+
+    private static final int ENTRIES = 512;
+    private static final int ENTRY_SIZE = 16 * 1024;
+    private static final int[] CHANGE_EVERY = {100, 20, 5};
+
+    public static void main(String[] args) throws Exception {
+        File dir = Files.createTempDirectory("atdp").toFile();
+        File base = new File(dir, "base.apk");
+        File target = new File(dir, "target.apk");
+        File patch = new File(dir, "update.patch");
+        File rebuilt = new File(dir, "rebuilt.apk");
+        SyntheticApk.write(base, ENTRIES, ENTRY_SIZE, 0, 1, 1);
+
+        System.out.printf("%8s %10s %10s %7s %9s %9s%n", "changed", "full APK", "patch", "saved",
+                "generate", "apply");
+        for (int every : CHANGE_EVERY) {
+            SyntheticApk.write(target, ENTRIES, ENTRY_SIZE, 1, every, 1);
+            String sha256 = sha256(target);
+
+            long start = System.nanoTime();
+            DeltaPatchGenerator.generate(base, target, patch);
+            long generated = System.nanoTime();
+            DeltaPatcher.apply(base, patch, rebuilt, sha256);
+            long applied = System.nanoTime();
+
+            System.out.printf("%7d%% %7.2f MB %7.2f MB %6.1f%% %6d ms %6d ms%n", 100 / every,
+                    target.length() / 1048576.0, patch.length() / 1048576.0,
+                    100.0 * (target.length() - patch.length()) / target.length(),
+                    (generated - start) / 1000000, (applied - generated) / 1000000);
+        }
+
+        for (File file : new File[]{base, target, patch, rebuilt}) file.delete();
+        dir.delete();
+    }
+
+    static String sha256(File file) throws IOException, NoSuchAlgorithmException {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file.toPath()))) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
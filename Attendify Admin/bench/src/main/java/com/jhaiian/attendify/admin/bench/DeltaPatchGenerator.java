@@ -0,0 +1,178 @@
+package com.jhaiian.attendify.admin.bench;
+
+import com.jhaiian.attendify.admin.DeltaPatcher;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes ATDP patches that {@link DeltaPatcher} applies on the device.
+ *
+ * The base is indexed in fixed blocks by a rolling hash. The target is then
+ * scanned one byte at a time: wherever its window hashes to a base block
+ * with the same bytes, the match is grown in both directions and written as
+ * a COPY; everything in between becomes ADD literals. Unchanged zip entries
+ * keep their bytes when an APK is rebuilt, only at new offsets, so most of
+ * a release becomes COPY ops.
+ *
+ * Run on the release machine, not on the device:
+ * {@code ./gradlew :bench:makePatch -Pbase=old.apk -Ptarget=new.apk -Ppatch=new.patch}
+ */
+public final class DeltaPatchGenerator {
+
+    // Shortest match worth a COPY; an op costs 13 bytes before compression
+    static final int BLOCK = 32;
+
+    private static final int HASH_MULTIPLIER = 0x01000193;
+
+    private DeltaPatchGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("usage: DeltaPatchGenerator <base.apk> <target.apk> <out.patch>");
+            System.exit(2);
+        }
+        File patch = new File(args[2]);
+        generate(new File(args[0]), new File(args[1]), patch);
+        System.out.println(patch + ": " + patch.length() + " bytes for a "
+                + new File(args[1]).length() + " byte target");
+    }
+
+    public static void generate(File base, File target, File patch) throws IOException {
+        byte[] baseBytes = Files.readAllBytes(base.toPath());
+        byte[] targetBytes = Files.readAllBytes(target.toPath());
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(
+                new BufferedOutputStream(new FileOutputStream(patch)), 64 * 1024))) {
+            write(baseBytes, targetBytes, out);
+        }
+    }
+
+    static void write(byte[] base, byte[] target, DataOutputStream out) throws IOException {
+        out.writeInt(DeltaPatcher.MAGIC);
+        out.writeInt(DeltaPatcher.FORMAT_VERSION);
+        out.writeLong(base.length);
+        out.writeLong(target.length);
+
+        BlockIndex index = new BlockIndex(base);
+        int power = pow(HASH_MULTIPLIER, BLOCK - 1);
+
+        int literalStart = 0;
+        int pos = 0;
+        int hash = target.length >= BLOCK ? hash(target, 0) : 0;
+        while (pos + BLOCK <= target.length) {
+            int block = index.find(hash, target, pos);
+            if (block < 0) {
+                // Roll the window one byte forward
+                if (pos + BLOCK < target.length) {
+                    hash = (hash - (target[pos] & 0xff) * power) * HASH_MULTIPLIER + (target[pos + BLOCK] & 0xff);
+                }
+                pos++;
+                continue;
+            }
+
+            int baseStart = block * BLOCK;
+            int targetStart = pos;
+            // Grow backwards into the pending literals, then forwards
+            while (targetStart > literalStart && baseStart > 0
+                    && base[baseStart - 1] == target[targetStart - 1]) {
+                baseStart--;
+                targetStart--;
+            }
+            int end = pos + BLOCK;
+            int baseEnd = block * BLOCK + BLOCK;
+            while (end < target.length && baseEnd < base.length && base[baseEnd] == target[end]) {
+                end++;
+                baseEnd++;
+            }
+
+            writeAdd(out, target, literalStart, targetStart);
+            out.writeByte(DeltaPatcher.OP_COPY);
+            out.writeLong(baseStart);
+            out.writeInt(end - targetStart);
+
+            literalStart = end;
+            pos = end;
+            if (pos + BLOCK <= target.length) hash = hash(target, pos);
+        }
+
+        writeAdd(out, target, literalStart, target.length);
+        out.writeByte(DeltaPatcher.OP_END);
+    }
+
+    private static void writeAdd(DataOutputStream out, byte[] target, int from, int to) throws IOException {
+        if (to <= from) return;
+        out.writeByte(DeltaPatcher.OP_ADD);
+        out.writeInt(to - from);
+        out.write(target, from, to - from);
+    }
+
+    static int hash(byte[] data, int offset) {
+        int hash = 0;
+        for (int i = 0; i < BLOCK; i++) {
+            hash = hash * HASH_MULTIPLIER + (data[offset + i] & 0xff);
+        }
+        return hash;
+    }
+
+    private static int pow(int value, int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) result *= value;
+        return result;
+    }
+
+    /**
+     * Open-addressing table from block hash to the first base block with it.
+     */
+    private static final class BlockIndex {
+        private final byte[] base;
+        private final int[] hashes;
+        private final int[] blocks;
+        private final int mask;
+
+        BlockIndex(byte[] base) {
+            this.base = base;
+            int count = base.length / BLOCK;
+            int capacity = Integer.highestOneBit(Math.max(2, count * 2) - 1) << 1;
+            hashes = new int[capacity];
+            blocks = new int[capacity];
+            mask = capacity - 1;
+            for (int block = 0; block < count; block++) {
+                int hash = hash(base, block * BLOCK);
+                int slot = mix(hash) & mask;
+                while (blocks[slot] != 0 && hashes[slot] != hash) slot = (slot + 1) & mask;
+                if (blocks[slot] == 0) {
+                    hashes[slot] = hash;
+                    blocks[slot] = block + 1;
+                }
+            }
+        }
+
+        /**
+         * Returns the base block whose bytes equal the target window, or -1.
+         */
+        int find(int hash, byte[] target, int pos) {
+            int slot = mix(hash) & mask;
+            while (blocks[slot] != 0) {
+                if (hashes[slot] == hash) {
+                    int offset = (blocks[slot] - 1) * BLOCK;
+                    for (int i = 0; i < BLOCK; i++) {
+                        if (base[offset + i] != target[pos + i]) return -1;
+                    }
+                    return blocks[slot] - 1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private static int mix(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
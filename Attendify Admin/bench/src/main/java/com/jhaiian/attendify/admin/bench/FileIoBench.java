@@ -0,0 +1,110 @@
+package com.jhaiian.attendify.admin.bench;
+
+import com.jhaiian.attendify.admin.FileIo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FileIo} reads and copies against the loops FileUtil used before:
+ * a 1 KB byte array pump for copies and a FileReader appending 1 KB char
+ * chunks for reads. Files are UTF-8 text of the given size in the system
+ * temp directory: {@code ./gradlew :bench:jmh -PjmhArgs="FileIo"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileIoBench {
+
+    @Param({"4096", "1048576", "16777216"})
+    public int size;
+
+    private File dir;
+    private File source;
+    private File dest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("fileio").toFile();
+        source = new File(dir, "source.txt");
+        dest = new File(dir, "dest.txt");
+
+        // Mostly ASCII with some two-byte characters, like exported names
+        String[] words = {"attendance", "Peña", "roster", "José", "section", "grade", "María", "present"};
+        Random random = new Random(1);
+        StringBuilder sb = new StringBuilder(size);
+        while (sb.length() < size) {
+            sb.append(words[random.nextInt(words.length)]).append(random.nextInt(8) == 0 ? '\n' : ',');
+        }
+        Files.write(source.toPath(), sb.substring(0, size).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        source.delete();
+        dest.delete();
+        dir.delete();
+    }
+
+    @Benchmark
+    public long copyChannel() throws IOException {
+        FileIo.copy(source, dest);
+        return dest.length();
+    }
+
+    @Benchmark
+    public long copyLegacy() throws IOException {
+        try (FileInputStream fis = new FileInputStream(source);
+             FileOutputStream fos = new FileOutputStream(dest, false)) {
+            byte[] buff = new byte[1024];
+            int length;
+            while ((length = fis.read(buff)) > 0) {
+                fos.write(buff, 0, length);
+            }
+        }
+        return dest.length();
+    }
+
+    @Benchmark
+    public String readChannel() throws IOException {
+        return FileIo.readText(source);
+    }
+
+    @Benchmark
+    public String readLegacy() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        // Android's default charset is UTF-8
+        try (FileReader fr = new FileReader(source, StandardCharsets.UTF_8)) {
+            char[] buff = new char[1024];
+            int length;
+            while ((length = fr.read(buff)) > 0) {
+                sb.append(new String(buff, 0, length));
+            }
+        }
+        return sb.toString();
+    }
+}
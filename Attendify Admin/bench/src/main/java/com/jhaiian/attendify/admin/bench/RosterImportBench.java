@@ -0,0 +1,112 @@
+package com.jhaiian.attendify.admin.bench;
+
+import com.jhaiian.attendify.admin.CsvReader;
+import com.jhaiian.attendify.admin.CsvWriter;
+import com.jhaiian.attendify.admin.Person;
+import com.jhaiian.attendify.admin.RosterRowParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The file side of a roster import: a CSV is streamed through
+ * {@link CsvReader}, every row is turned into a person and validated by
+ * {@link RosterRowParser}, and duplicates are caught by identity key, the
+ * way RosterImporter does it. The SQLite inserts need a device and are not
+ * timed here. One row in fifty repeats an earlier one.
+ * {@code ./gradlew :bench:jmh -PjmhArgs="RosterImport"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+public class RosterImportBench {
+
+    private static final String[] DAYS = {"Mon-Fri", "Mon, Tue, Wed, Thu, Fri", "Mon-Sat"};
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = File.createTempFile("roster", ".csv");
+        Random random = new Random(3);
+        ArrayList<Person> written = new ArrayList<>(rows);
+        try (CsvWriter out = new CsvWriter(new OutputStreamWriter(new FileOutputStream(file),
+                StandardCharsets.UTF_8))) {
+            out.writeRow("Name", "Role", "Grade", "Section", "Position", "Days", "Shift");
+            for (int i = 0; i < rows; i++) {
+                Person person = i > 0 && random.nextInt(50) == 0
+                        ? written.get(random.nextInt(written.size()))
+                        : Rosters.person(random, i);
+                written.add(person);
+                out.writeRow(person.name, Person.roleName(person.role), person.grade, person.section,
+                        person.position, DAYS[random.nextInt(DAYS.length)],
+                        Person.clockFromMinutes(person.shiftStart) + "-" + Person.clockFromMinutes(person.shiftEnd));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+    }
+
+    /**
+     * Returns the number of people that would be inserted.
+     */
+    @Benchmark
+    public int importCsv() throws IOException {
+        int accepted = 0;
+        try (CsvReader reader = new CsvReader(new InputStreamReader(new FileInputStream(file),
+                StandardCharsets.UTF_8))) {
+            RosterRowParser parser = new RosterRowParser(reader.readRow());
+            HashMap<String, Integer> known = new HashMap<>();
+            ArrayList<Person> people = new ArrayList<>(500);
+
+            String[] row;
+            while ((row = reader.readRow()) != null) {
+                if (RosterRowParser.isEmpty(row)) continue;
+                if (parser.parse(row, people) != null) continue;
+                Person person = people.get(people.size() - 1);
+                if (known.put(RosterRowParser.identityKey(person), reader.getRowNumber()) != null) {
+                    people.remove(people.size() - 1);
+                    continue;
+                }
+                // RosterImporter hands each full batch to the database here
+                if (people.size() >= 500) {
+                    accepted += people.size();
+                    people.clear();
+                }
+            }
+            return accepted + people.size();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.jhaiian.attendify.admin.bench;
+
+import com.jhaiian.attendify.admin.Person;
+import com.jhaiian.attendify.admin.RosterStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * Retained heap of a roster held as the old list of HashMaps versus
+ * {@link RosterStore}, at 10k, 50k and 100k people.
+ *
+ * Each structure is built from freshly allocated rows and measured as the
+ * used heap after a full GC, minus the heap before building it. Run with a
+ * serial collector so the numbers settle, and report the median of a few
+ * rounds: {@code ./gradlew :bench:memory}.
+ */
+public final class RosterMemoryBench {
+
+    private static final int[] SIZES = {10_000, 50_000, 100_000};
+    private static final long SEED = 42;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        // Loads and compiles everything once before the first measurement
+        measureMaps(1000);
+        measureStore(1000);
+
+        System.out.printf("%8s %14s %14s %8s%n", "people", "HashMap list", "RosterStore", "saved");
+        for (int size : SIZES) {
+            long[] maps = new long[ROUNDS];
+            long[] stores = new long[ROUNDS];
+            for (int round = 0; round < ROUNDS; round++) {
+                maps[round] = measureMaps(size);
+                stores[round] = measureStore(size);
+            }
+            long map = median(maps);
+            long store = median(stores);
+            System.out.printf("%8d %11.1f MB %11.1f MB %7.0f%%%n", size, mb(map), mb(store),
+                    100.0 * (map - store) / map);
+        }
+    }
+
+    private static long measureMaps(int size) {
+        long before = usedHeap();
+        ArrayList<HashMap<String, Object>> list = buildMaps(size);
+        long after = usedHeap();
+        keep(list.size());
+        return after - before;
+    }
+
+    private static long measureStore(int size) {
+        long before = usedHeap();
+        RosterStore store = buildStore(size);
+        long after = usedHeap();
+        keep(store.size());
+        return after - before;
+    }
+
+    /**
+     * The shape MainActivity used before RosterStore: one map per person.
+     */
+    private static ArrayList<HashMap<String, Object>> buildMaps(int size) {
+        Random random = new Random(SEED);
+        ArrayList<HashMap<String, Object>> list = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Person person = Rosters.person(random, i);
+            HashMap<String, Object> map = new HashMap<>();
+            map.put("name", person.name);
+            map.put("work_days_count", Integer.bitCount(person.dayMask));
+            map.put("role", Person.roleName(person.role));
+            map.put("description", person.getDescription());
+            map.put("status", person.status == Person.STATUS_PRESENT ? "present" : "active");
+            list.add(map);
+        }
+        return list;
+    }
+
+    private static RosterStore buildStore(int size) {
+        Random random = new Random(SEED);
+        RosterStore store = new RosterStore();
+        for (int i = 0; i < size; i++) store.add(Rosters.person(random, i));
+        return store;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static volatile int sink;
+
+    private static void keep(int value) {
+        sink = value;
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static double mb(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+}
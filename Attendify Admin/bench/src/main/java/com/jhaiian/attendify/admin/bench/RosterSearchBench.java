@@ -0,0 +1,150 @@
+package com.jhaiian.attendify.admin.bench;
+
+import com.jhaiian.attendify.admin.Person;
+import com.jhaiian.attendify.admin.RosterSearchIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search-as-you-type over a 50k roster: {@link RosterSearchIndex} against a
+ * linear scan of the same people, at the app's limit of 100 results.
+ *
+ * The scan gives the same answer without an index: every person's words are
+ * folded once up front, and a query scores each person with the index's
+ * ranking rules and keeps the best 100 in a bounded heap.
+ * {@code ./gradlew :bench:jmh -PjmhArgs="RosterSearch"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RosterSearchBench {
+
+    private static final int PEOPLE = 50_000;
+    private static final int LIMIT = 100;
+
+    // Broad one- and two-letter prefixes, a surname, two-word and infix queries, and a miss
+    @Param({"a", "ma", "cruz", "ana 7", "uar", "santos 12 b", "zzz"})
+    public String query;
+
+    private Person[] people;
+    private String[][] tokens;
+    private int[] nameTokens;
+    private RosterSearchIndex index;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        people = Rosters.roster(PEOPLE, 42);
+        index = new RosterSearchIndex();
+        tokens = new String[PEOPLE][];
+        nameTokens = new int[PEOPLE];
+        for (int id = 0; id < PEOPLE; id++) {
+            index.put(id, people[id]);
+            tokens[id] = tokensOf(id);
+        }
+    }
+
+    @Benchmark
+    public int[] index() {
+        return index.search(query, LIMIT);
+    }
+
+    @Benchmark
+    public int[] scan() {
+        ArrayList<String> queryTokens = new ArrayList<>();
+        RosterSearchIndex.tokenize(query, queryTokens);
+
+        PriorityQueue<long[]> heap = new PriorityQueue<>(LIMIT, (a, b) ->
+                a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(b[1], a[1]));
+        for (int id = 0; id < PEOPLE; id++) {
+            int score = score(id, queryTokens);
+            if (score <= 0) continue;
+            if (heap.size() < LIMIT) {
+                heap.add(new long[]{score, id});
+            } else if (score > heap.peek()[0]) {
+                heap.poll();
+                heap.add(new long[]{score, id});
+            }
+        }
+
+        int[] result = new int[heap.size()];
+        for (int i = result.length - 1; i >= 0; i--) result[i] = (int) heap.poll()[1];
+        return result;
+    }
+
+    /**
+     * Re-indexing one edited person, as MainActivity does after a save.
+     */
+    @Benchmark
+    public int put() {
+        int id = next++ % PEOPLE;
+        index.put(id, people[id]);
+        return index.size();
+    }
+
+    /**
+     * Indexing the whole roster once, as after the first load.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public RosterSearchIndex build() {
+        RosterSearchIndex fresh = new RosterSearchIndex();
+        for (int id = 0; id < people.length; id++) fresh.put(id, people[id]);
+        return fresh;
+    }
+
+    private String[] tokensOf(int id) {
+        Person person = people[id];
+        ArrayList<String> words = new ArrayList<>();
+        RosterSearchIndex.tokenize(person.name, words);
+        nameTokens[id] = words.size();
+        RosterSearchIndex.tokenize(person.getDescription(), words);
+        RosterSearchIndex.tokenize(person.grade, words);
+        RosterSearchIndex.tokenize(person.section, words);
+        RosterSearchIndex.tokenize(person.position, words);
+        return words.toArray(new String[0]);
+    }
+
+    // Same rules as the index: name over other fields, exact over prefix over infix
+    private int score(int id, ArrayList<String> queryTokens) {
+        int total = 0;
+        for (String query : queryTokens) {
+            int best = 0;
+            for (int i = 0; i < tokens[id].length; i++) {
+                String token = tokens[id][i];
+                int value;
+                if (token.startsWith(query)) {
+                    value = token.length() == query.length() ? 3 : 2;
+                } else if (query.length() >= 3 && token.contains(query)) {
+                    value = 1;
+                } else {
+                    continue;
+                }
+                if (i < nameTokens[id]) value += 3;
+                if (value > best) best = value;
+            }
+            if (best == 0) return 0;
+            total += best;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,56 @@
+package com.jhaiian.attendify.admin.bench;
+
+import com.jhaiian.attendify.admin.Person;
+
+import java.util.Random;
+
+/**
+ * Synthetic school rosters for the benchmarks: mostly students spread over
+ * grades 7-12 and eight sections, plus a tenth teachers and employees.
+ * The same seed always gives the same roster.
+ */
+public final class Rosters {
+
+    private static final String[] FIRST = {
+            "Juan", "Maria", "Jose", "Ana", "Mark", "Angel", "John", "Princess", "Carlo", "Kristine",
+            "Paolo", "Jasmine", "Miguel", "Andrea", "Gabriel", "Nicole", "Rafael", "Camille", "Adrian", "Bea"
+    };
+    private static final String[] LAST = {
+            "Santos", "Reyes", "Cruz", "Bautista", "Ocampo", "Garcia", "Mendoza", "Torres", "Villanueva",
+            "Ramos", "Aquino", "Castillo", "Flores", "Gonzales", "Navarro", "Domingo", "Dela Cruz", "Lopez"
+    };
+    private static final String[] SECTIONS = {"A", "B", "C", "D", "E", "F", "G", "H"};
+    private static final String[] POSITIONS = {"Guard", "Registrar", "Librarian", "Nurse", "Janitor"};
+
+    private Rosters() {
+    }
+
+    /**
+     * Builds person {@code index} of a roster. Every call allocates fresh
+     * strings, like rows read back from the database.
+     */
+    public static Person person(Random random, int index) {
+        String name = FIRST[random.nextInt(FIRST.length)] + " " + LAST[random.nextInt(LAST.length)]
+                + " " + index;
+        int kind = random.nextInt(10);
+        if (kind == 0) {
+            return new Person(name, Person.ROLE_TEACHER, null, null, null,
+                    0x1f, null, Person.STATUS_ACTIVE, 7 * 60, 16 * 60);
+        } else if (kind == 1) {
+            return new Person(name, Person.ROLE_EMPLOYEE, null, null,
+                    new String(POSITIONS[random.nextInt(POSITIONS.length)]),
+                    0x3f, null, Person.STATUS_ACTIVE, 22 * 60, 6 * 60);
+        }
+        String grade = String.valueOf(7 + random.nextInt(6));
+        String section = new String(SECTIONS[random.nextInt(SECTIONS.length)]);
+        return new Person(name, Person.ROLE_STUDENT, grade, section, null,
+                0x1f, null, Person.STATUS_PRESENT, 7 * 60 + 30, 15 * 60);
+    }
+
+    public static Person[] roster(int size, long seed) {
+        Random random = new Random(seed);
+        Person[] people = new Person[size];
+        for (int i = 0; i < size; i++) people[i] = person(random, i);
+        return people;
+    }
+}
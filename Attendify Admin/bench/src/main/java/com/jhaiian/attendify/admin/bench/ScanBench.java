@@ -0,0 +1,83 @@
+package com.jhaiian.attendify.admin.bench;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.WriterException;
+import com.jhaiian.attendify.admin.BarcodeDecoder;
+import com.jhaiian.attendify.admin.ScanResolver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gate scanning throughput: {@link BarcodeDecoder} on 1280x720 NV21 camera
+ * frames, the check-in screen's preview size, with and without a card in
+ * view, and {@link ScanResolver} lookups against a 50k roster.
+ * {@code ./gradlew :bench:jmh -PjmhArgs="Scan"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScanBench {
+
+    private static final int WIDTH = 1280;
+    private static final int HEIGHT = 720;
+    private static final int PEOPLE = 50_000;
+
+    private final BarcodeDecoder decoder = new BarcodeDecoder();
+    private final ScanResolver resolver = new ScanResolver();
+    private byte[] cardFrame;
+    private byte[] emptyFrame;
+    private String[] codes;
+    private long now;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws WriterException {
+        cardFrame = BarcodeImages.nv21(BarcodeImages.frame(WIDTH, HEIGHT,
+                BarcodeImages.render(BarcodeFormat.QR_CODE, BarcodeImages.PERSON_KEY, 5), 1));
+        emptyFrame = BarcodeImages.nv21(BarcodeImages.frame(WIDTH, HEIGHT, null, 2));
+        if (!BarcodeImages.PERSON_KEY.equals(decoder.decodeLuminance(cardFrame, WIDTH, HEIGHT))) {
+            throw new IllegalStateException("Card frame does not decode");
+        }
+
+        codes = new String[PEOPLE];
+        for (int id = 0; id < PEOPLE; id++) {
+            codes[id] = "-Nq" + Integer.toString(id * 7919 + 100_000, 36) + "ZkLm9xY3wPq";
+            resolver.put(codes[id], id);
+        }
+    }
+
+    @Benchmark
+    public String decodeCard() {
+        return decoder.decodeLuminance(cardFrame, WIDTH, HEIGHT);
+    }
+
+    @Benchmark
+    public String decodeEmpty() {
+        return decoder.decodeLuminance(emptyFrame, WIDTH, HEIGHT);
+    }
+
+    /**
+     * A stream of different people a second apart, so every scan is accepted
+     * and the debounce map keeps growing and pruning.
+     */
+    @Benchmark
+    public int resolve() {
+        now += 1000;
+        return resolver.resolve(codes[next++ % PEOPLE], now);
+    }
+}
@@ -0,0 +1,102 @@
+package com.jhaiian.attendify.admin.bench;
+
+import com.jhaiian.attendify.admin.Person;
+import com.jhaiian.attendify.admin.ScheduleEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "Who is on shift now" over a 100k roster: {@link ScheduleEngine} against
+ * checking every person's day mask and shift window, with the same
+ * half-hour rounding and overnight rule. A tenth of the roster works
+ * 22:00-06:00 overnight shifts. The query is Tuesday at 02:10, when the
+ * night shift that started on Monday is still on.
+ * {@code ./gradlew :bench:jmh -PjmhArgs="Schedule"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScheduleBench {
+
+    private static final int PEOPLE = 100_000;
+
+    // 2024-01-02, a Tuesday
+    private static final int DAY = 19724;
+    private static final int MINUTE = 2 * 60 + 10;
+
+    private Person[] people;
+    private ScheduleEngine schedule;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        people = Rosters.roster(PEOPLE, 42);
+        schedule = build();
+        if (schedule.countExpectedAt(DAY, MINUTE) != scanCount()) {
+            throw new IllegalStateException("Engine and scan disagree");
+        }
+    }
+
+    @Benchmark
+    public int countEngine() {
+        return schedule.countExpectedAt(DAY, MINUTE);
+    }
+
+    @Benchmark
+    public int[] idsEngine() {
+        return schedule.expectedAt(DAY, MINUTE);
+    }
+
+    @Benchmark
+    public int countScan() {
+        return scanCount();
+    }
+
+    /**
+     * Loading the whole roster, as after the first load.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ScheduleEngine build() {
+        ScheduleEngine fresh = new ScheduleEngine();
+        for (int id = 0; id < people.length; id++) fresh.put(id, people[id]);
+        return fresh;
+    }
+
+    private int scanCount() {
+        int today = 1 << ScheduleEngine.weekdayIndex(DAY);
+        int yesterday = 1 << ScheduleEngine.weekdayIndex(DAY - 1);
+        int slot = MINUTE / ScheduleEngine.SLOT_MINUTES;
+        int count = 0;
+        for (Person person : people) {
+            if (!person.hasShift()) {
+                if ((person.dayMask & today) != 0) count++;
+                continue;
+            }
+            int first = person.shiftStart / ScheduleEngine.SLOT_MINUTES;
+            int last = (person.shiftEnd - 1) / ScheduleEngine.SLOT_MINUTES;
+            if (person.shiftEnd > person.shiftStart) {
+                if ((person.dayMask & today) != 0 && slot >= first && slot <= last) count++;
+            } else if ((person.dayMask & today) != 0 && slot >= first
+                    || (person.dayMask & yesterday) != 0 && person.shiftEnd > 0 && slot <= last) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
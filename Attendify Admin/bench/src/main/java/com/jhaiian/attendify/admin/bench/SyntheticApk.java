@@ -0,0 +1,76 @@
+package com.jhaiian.attendify.admin.bench;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Zip files shaped like two consecutive APK releases: mostly deflated
+ * entries (code, layouts) plus stored ones (images), where a new release
+ * edits a few entries and adds one. The same seed always gives the same
+ * files.
+ */
+public final class SyntheticApk {
+
+    private SyntheticApk() {
+    }
+
+    /**
+     * Writes a release with {@code entries} entries. Entries whose index is a
+     * multiple of {@code changeEvery} get new content when {@code release} is
+     * above zero, and later releases add one more entry each.
+     */
+    public static void write(File file, int entries, int entrySize, int release, int changeEvery, long seed)
+            throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file))) {
+            int count = entries + release;
+            for (int i = 0; i < count; i++) {
+                boolean changed = release > 0 && (i % changeEvery == 0 || i >= entries);
+                byte[] content = content(seed * 31 + i, entrySize, changed ? release : 0, i % 4 == 3);
+
+                ZipEntry entry = new ZipEntry(name(i));
+                entry.setTime(0);
+                if (i % 4 == 3) {
+                    // Images are already compressed and go in stored
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(content.length);
+                    entry.setCompressedSize(content.length);
+                    CRC32 crc = new CRC32();
+                    crc.update(content);
+                    entry.setCrc(crc.getValue());
+                }
+                zip.putNextEntry(entry);
+                zip.write(content);
+                zip.closeEntry();
+            }
+        }
+    }
+
+    private static String name(int index) {
+        if (index % 4 == 3) return "res/drawable/image_" + index + ".png";
+        if (index % 4 == 2) return "res/layout/layout_" + index + ".xml";
+        return "classes/Class" + index + ".dex";
+    }
+
+    private static byte[] content(long seed, int size, int release, boolean random) {
+        Random rng = new Random(seed + release * 7919L);
+        byte[] data = new byte[size];
+        if (random) {
+            rng.nextBytes(data);
+            return data;
+        }
+        // Compressible text-like bytes, so deflate has something to do
+        String[] words = {"attendance", "roster", "public", "void", "return", "int", "String", "final"};
+        int pos = 0;
+        while (pos < size) {
+            byte[] word = words[rng.nextInt(words.length)].getBytes();
+            for (int i = 0; i < word.length && pos < size; i++) data[pos++] = word[i];
+            if (pos < size) data[pos++] = (byte) (rng.nextInt(3) == 0 ? '\n' : ' ');
+        }
+        return data;
+    }
+}
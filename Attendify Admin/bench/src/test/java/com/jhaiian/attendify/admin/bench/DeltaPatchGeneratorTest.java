@@ -0,0 +1,109 @@
+package com.jhaiian.attendify.admin.bench;
+
+import com.jhaiian.attendify.admin.DeltaPatcher;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DeltaPatchGeneratorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private void assertRoundTrip(File base, File target) throws Exception {
+        File patch = folder.newFile();
+        File rebuilt = new File(folder.getRoot(), "rebuilt-" + target.getName());
+        DeltaPatchGenerator.generate(base, target, patch);
+        DeltaPatcher.apply(base, patch, rebuilt, DeltaPatchBench.sha256(target));
+        assertArrayEquals(Files.readAllBytes(target.toPath()), Files.readAllBytes(rebuilt.toPath()));
+    }
+
+    private File write(byte[] bytes) throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), bytes);
+        return file;
+    }
+
+    private static byte[] random(int size, long seed) {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    @Test
+    public void nextReleaseRoundTripsAndIsMostlyCopies() throws Exception {
+        File base = folder.newFile("base.apk");
+        File target = folder.newFile("target.apk");
+        SyntheticApk.write(base, 128, 8 * 1024, 0, 1, 7);
+        SyntheticApk.write(target, 128, 8 * 1024, 1, 10, 7);
+
+        assertRoundTrip(base, target);
+
+        File patch = folder.newFile();
+        DeltaPatchGenerator.generate(base, target, patch);
+        assertTrue("patch " + patch.length() + " of " + target.length(),
+                patch.length() < target.length() / 4);
+    }
+
+    @Test
+    public void identicalFilesNeedAlmostNothing() throws Exception {
+        byte[] bytes = random(256 * 1024, 1);
+        File base = write(bytes);
+        File target = write(bytes);
+        assertRoundTrip(base, target);
+
+        File patch = folder.newFile();
+        DeltaPatchGenerator.generate(base, target, patch);
+        assertTrue(patch.length() < 100);
+    }
+
+    @Test
+    public void insertsDeletesAndShiftsRoundTrip() throws Exception {
+        byte[] base = random(100_000, 2);
+        byte[] target = new byte[base.length + 500];
+        // Head moved to the end, a literal run in the middle, and a dropped stretch
+        System.arraycopy(base, 10_000, target, 0, 40_000);
+        System.arraycopy(random(5_500, 3), 0, target, 40_000, 5_500);
+        System.arraycopy(base, 55_000, target, 45_500, 45_000);
+        System.arraycopy(base, 0, target, 90_500, 10_000);
+
+        assertRoundTrip(write(base), write(target));
+    }
+
+    @Test
+    public void unrelatedAndTinyTargetsRoundTrip() throws Exception {
+        File base = write(random(50_000, 4));
+        assertRoundTrip(base, write(random(70_000, 5)));
+        assertRoundTrip(base, write(new byte[0]));
+        assertRoundTrip(base, write(Arrays.copyOf(random(50_000, 4), 20)));
+        assertRoundTrip(write(new byte[0]), write(random(1_000, 6)));
+    }
+
+    @Test
+    public void patchAgainstAnotherBaseIsRejected() throws Exception {
+        File base = write(random(50_000, 7));
+        File target = write(random(60_000, 8));
+        File patch = folder.newFile();
+        File rebuilt = new File(folder.getRoot(), "rebuilt.apk");
+        DeltaPatchGenerator.generate(base, target, patch);
+
+        try {
+            DeltaPatcher.apply(write(random(40_000, 9)), patch, rebuilt, DeltaPatchBench.sha256(target));
+            fail("applied against the wrong base");
+        } catch (IOException expected) {
+            assertFalse(rebuilt.exists());
+        }
+    }
+}